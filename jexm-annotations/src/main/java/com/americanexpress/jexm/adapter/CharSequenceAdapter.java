@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.adapter;
+
+/**
+ * Adapter converting the characters of a cell into an instance of a type, without requiring them to
+ * be a {@link String}. The characters may be a view over the buffer of a parser, only valid during
+ * the call, so they should not be kept. Built-in adapters of numeric, boolean, enum and date and
+ * time types implement it, so that no intermediate String is created when adapting cells.
+ *
+ * @param <T> Type produced by the adapter
+ */
+@FunctionalInterface
+public interface CharSequenceAdapter<T> {
+
+  /**
+   * @param value Characters of the cell, trimmed and not empty
+   * @return Instance of the type
+   */
+  T adapt(CharSequence value);
+}
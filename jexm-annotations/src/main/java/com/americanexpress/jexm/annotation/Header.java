@@ -19,11 +19,13 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.FIELD)
+@Target({ElementType.FIELD, ElementType.METHOD})
 public @interface Header {
   String name() default "";
 
   String ref() default "";
 
   int index() default -1;
+
+  boolean deduplicate() default false;
 }
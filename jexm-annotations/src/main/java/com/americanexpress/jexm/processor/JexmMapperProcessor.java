@@ -0,0 +1,485 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.processor;
+
+import com.americanexpress.jexm.adapter.CellAdapter;
+import com.americanexpress.jexm.annotation.Adapter;
+import com.americanexpress.jexm.annotation.Header;
+import com.americanexpress.jexm.annotation.RowConstructor;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Annotation processor generating a mapper for each class with {@link Header} fields, so that its
+ * rows are mapped without reflection. The mapper of a class {@code Person} is named {@code
+ * Person$JexmMapper}, extends {@code com.americanexpress.jexm.mapping.GeneratedRowMapper} and is
+ * picked up by the mapping of jexm-core in place of the annotations of the class.
+ *
+ * <p>Illegal {@link Header} and {@link Adapter} combinations fail the build rather than the mapping
+ * of the first row. A class is mapped through reflection, with a warning, if it has no non-private
+ * constructor without parameters, or a private or final field without setter.
+ *
+ * <p>The processor is not registered as a service, so it only runs when enabled explicitly, for
+ * example with the {@code -processor com.americanexpress.jexm.processor.JexmMapperProcessor} option
+ * of javac or the {@code annotationProcessors} of the maven-compiler-plugin.
+ */
+@SupportedAnnotationTypes("com.americanexpress.jexm.annotation.Header")
+public class JexmMapperProcessor extends AbstractProcessor {
+
+  private static final String SUFFIX = "$JexmMapper";
+  private static final String GENERATED_ROW_MAPPER =
+      "com.americanexpress.jexm.mapping.GeneratedRowMapper";
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    Set<TypeElement> rowClasses = new LinkedHashSet<>();
+    for (Element e : roundEnv.getElementsAnnotatedWith(Header.class)) {
+      if (e.getKind() == ElementKind.FIELD) {
+        rowClasses.add((TypeElement) e.getEnclosingElement());
+      }
+    }
+
+    rowClasses.forEach(this::generateMapper);
+
+    // other processors may handle the annotations too
+    return false;
+  }
+
+  /**
+   * Validates the header fields of a class and, if it can be mapped without reflection, generates
+   * its mapper.
+   *
+   * @param rowClass Class with {@link Header} fields
+   */
+  private void generateMapper(TypeElement rowClass) {
+    List<String> fields = new ArrayList<>();
+    List<String> setters = new ArrayList<>();
+    boolean valid = true;
+    String unsupported = unsupportedReason(rowClass);
+
+    // fields in declaration order, as the mapping through reflection
+    for (VariableElement f : ElementFilter.fieldsIn(rowClass.getEnclosedElements())) {
+      Header h = f.getAnnotation(Header.class);
+      if (h == null) {
+        continue;
+      }
+
+      StringBuilder field = new StringBuilder();
+      field.append(
+          String.format("field(%s, %s.class)", literal(f.getSimpleName()), erasure(f.asType())));
+
+      int lookups = (h.name().isEmpty() ? 0 : 1) + (h.index() < 0 ? 0 : 1);
+      lookups += h.ref().isEmpty() ? 0 : 1;
+      if (lookups > 1) { // if more than one lookup is specified, there is ambiguity
+        error(
+            f,
+            "Only one of header name (\"%s\"), index (%d) or ref (\"%s\") can be specified in %s "
+                + "annotation of field \"%s\".",
+            h.name(),
+            h.index(),
+            h.ref(),
+            Header.class.getName(),
+            f.getSimpleName());
+        valid = false;
+      } else if (!h.name().isEmpty()) {
+        field.append(".headerName(").append(literal(h.name())).append(")");
+      } else if (h.index() >= 0) {
+        field.append(".index(").append(h.index()).append(")");
+      } else if (!h.ref().isEmpty()) {
+        field.append(".ref(").append(literal(h.ref())).append(")");
+      }
+
+      AnnotationMirror adapter = annotationMirror(f, Adapter.class);
+      TypeMirror cellAdapter = adapter == null ? null : cellAdapter(adapter);
+      if (adapter != null) {
+        Object suppress = annotationValue(adapter, "suppressAdapterException");
+        field.append(
+            String.format(
+                ".adapter(%s, %s)",
+                cellAdapter == null ? "null" : erasure(cellAdapter) + ".class",
+                suppress == null || (Boolean) suppress));
+      }
+
+      if (cellAdapter != null) {
+        valid &= validateAdapterType(f, cellAdapter);
+      } else {
+        String genericType = genericType(f);
+        if (genericType == null) {
+          valid = false;
+        } else if (!genericType.isEmpty()) {
+          field.append(".genericType(").append(genericType).append(")");
+        }
+      }
+
+      if (h.deduplicate()) {
+        field.append(".deduplicate()");
+      }
+
+      String setter = setter(rowClass, f);
+      if (setter == null && unsupported == null) {
+        unsupported =
+            String.format("field \"%s\" is private or final and has no setter", f.getSimpleName());
+      }
+
+      fields.add(field.toString());
+      setters.add(setter);
+    }
+
+    if (!valid) {
+      return; // errors were reported
+    }
+    if (unsupported != null) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.WARNING,
+              String.format(
+                  "No mapper generated for %s, as its %s. Its rows are mapped through reflection.",
+                  rowClass.getQualifiedName(), unsupported),
+              rowClass);
+      return;
+    }
+
+    write(rowClass, fields, setters);
+  }
+
+  /**
+   * @param rowClass Class with {@link Header} fields
+   * @return Why the class cannot be created by a generated mapper, or {@code null} if it can
+   */
+  private static String unsupportedReason(TypeElement rowClass) {
+    if (rowClass.getKind() != ElementKind.CLASS
+        || rowClass.getModifiers().contains(Modifier.ABSTRACT)) {
+      return "type is not a concrete class";
+    }
+    if (rowClass.getNestingKind() == NestingKind.LOCAL
+        || rowClass.getNestingKind() == NestingKind.ANONYMOUS) {
+      return "class is local";
+    }
+
+    for (Element e = rowClass; e instanceof TypeElement; e = e.getEnclosingElement()) {
+      if (e.getModifiers().contains(Modifier.PRIVATE)) {
+        return "class is private";
+      }
+      if (((TypeElement) e).getNestingKind() == NestingKind.MEMBER
+          && !e.getModifiers().contains(Modifier.STATIC)
+          && e.getEnclosingElement().getKind().isClass()) {
+        return "class is an inner class";
+      }
+    }
+
+    List<ExecutableElement> constructors =
+        ElementFilter.constructorsIn(rowClass.getEnclosedElements());
+    for (ExecutableElement c : constructors) {
+      if (c.getAnnotation(RowConstructor.class) != null) {
+        return "beans are created by its constructor annotated by @RowConstructor";
+      }
+    }
+    for (ExecutableElement c : constructors) {
+      if (c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE)) {
+        return null;
+      }
+    }
+    return "constructors are all private or have parameters";
+  }
+
+  /**
+   * @param rowClass Class declaring the field
+   * @param f Header field
+   * @return Statement setting {@code value} to the field of {@code bean}, or {@code null} if the
+   *     field can be set neither directly nor through a setter
+   */
+  private String setter(TypeElement rowClass, VariableElement f) {
+    String value = "(" + castType(f.asType()) + ") value";
+
+    Set<Modifier> modifiers = f.getModifiers();
+    if (!modifiers.contains(Modifier.PRIVATE) && !modifiers.contains(Modifier.FINAL)) {
+      return String.format("bean.%s = %s;", f.getSimpleName(), value);
+    }
+
+    String name = f.getSimpleName().toString();
+    String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    for (ExecutableElement m : ElementFilter.methodsIn(rowClass.getEnclosedElements())) {
+      if (m.getSimpleName().contentEquals(setterName)
+          && m.getParameters().size() == 1
+          && !m.getModifiers().contains(Modifier.PRIVATE)
+          && !m.getModifiers().contains(Modifier.STATIC)
+          && processingEnv
+              .getTypeUtils()
+              .isSameType(m.getParameters().get(0).asType(), f.asType())) {
+        return String.format("bean.%s(%s);", setterName, value);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param adapter {@link Adapter} annotation of a field
+   * @return The custom adapter class of the annotation, or {@code null} if it has none
+   */
+  private TypeMirror cellAdapter(AnnotationMirror adapter) {
+    Object value = annotationValue(adapter, "value");
+    if (!(value instanceof TypeMirror)) {
+      return null;
+    }
+
+    TypeElement element = (TypeElement) processingEnv.getTypeUtils().asElement((TypeMirror) value);
+    return element.getQualifiedName().contentEquals(Adapter.DEFAULT.class.getCanonicalName())
+        ? null
+        : (TypeMirror) value;
+  }
+
+  /**
+   * Verifies that the values produced by a custom adapter can be set to the field.
+   *
+   * @param f Header field
+   * @param cellAdapter Custom adapter class of the field
+   * @return {@code true} if the adapter is compatible with the field type
+   */
+  private boolean validateAdapterType(VariableElement f, TypeMirror cellAdapter) {
+    TypeMirror adapted = adaptedType(cellAdapter);
+    if (adapted == null) {
+      return true; // raw adapter, not known until runtime
+    }
+
+    TypeMirror fieldType = f.asType();
+    if (fieldType.getKind().isPrimitive()) {
+      fieldType = processingEnv.getTypeUtils().boxedClass((PrimitiveType) fieldType).asType();
+    }
+
+    if (!processingEnv
+        .getTypeUtils()
+        .isAssignable(
+            processingEnv.getTypeUtils().erasure(adapted),
+            processingEnv.getTypeUtils().erasure(fieldType))) {
+      error(
+          f,
+          "Adapter %s produces %s, which cannot be set to field \"%s\" of type %s.",
+          cellAdapter,
+          adapted,
+          f.getSimpleName(),
+          f.asType());
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * @param type A type implementing {@link CellAdapter}
+   * @return The type argument of {@link CellAdapter} in the type, or {@code null} if it is raw
+   */
+  private TypeMirror adaptedType(TypeMirror type) {
+    for (TypeMirror supertype : processingEnv.getTypeUtils().directSupertypes(type)) {
+      DeclaredType declared = (DeclaredType) supertype;
+      TypeElement element = (TypeElement) declared.asElement();
+
+      if (element.getQualifiedName().contentEquals(CellAdapter.class.getCanonicalName())) {
+        return declared.getTypeArguments().isEmpty() ? null : declared.getTypeArguments().get(0);
+      }
+
+      TypeMirror adapted = adaptedType(supertype);
+      if (adapted != null) {
+        return adapted;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param f Header field
+   * @return Expression of the generic type of a collection field, an empty String if the field
+   *     needs none, or {@code null} if its element type is not supported
+   */
+  private String genericType(VariableElement f) {
+    TypeMirror type = f.asType();
+    TypeMirror collection =
+        processingEnv
+            .getTypeUtils()
+            .erasure(
+                processingEnv
+                    .getElementUtils()
+                    .getTypeElement(Collection.class.getName())
+                    .asType());
+
+    if (type.getKind() != TypeKind.DECLARED
+        || ((DeclaredType) type).getTypeArguments().isEmpty()
+        || !processingEnv.getTypeUtils().isAssignable(erasureType(type), collection)) {
+      return "";
+    }
+
+    TypeMirror element = ((DeclaredType) type).getTypeArguments().get(0);
+    if (element.getKind() != TypeKind.DECLARED) {
+      return ""; // wildcard, collection of Strings
+    }
+    if (!((DeclaredType) element).getTypeArguments().isEmpty()) {
+      error(
+          f,
+          "Field \"%s\" of type %s is a collection of a parameterized type, which is not "
+              + "supported by the built-in adapters.",
+          f.getSimpleName(),
+          type);
+      return null;
+    }
+
+    return String.format("parameterized(%s.class, %s.class)", erasure(type), erasure(element));
+  }
+
+  /**
+   * Writes the source file of the mapper of a class.
+   *
+   * @param rowClass Class with {@link Header} fields
+   * @param fields Expression describing each header field
+   * @param setters Statement setting each header field
+   */
+  private void write(TypeElement rowClass, List<String> fields, List<String> setters) {
+    String packageName =
+        processingEnv.getElementUtils().getPackageOf(rowClass).getQualifiedName().toString();
+    String binaryName = processingEnv.getElementUtils().getBinaryName(rowClass).toString();
+    String mapperName =
+        (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+            + SUFFIX;
+    String beanType = erasure(rowClass.asType());
+
+    try (PrintWriter out =
+        new PrintWriter(
+            processingEnv
+                .getFiler()
+                .createSourceFile(
+                    packageName.isEmpty() ? mapperName : packageName + "." + mapperName, rowClass)
+                .openWriter())) {
+
+      out.printf("// Generated by %s. Do not edit.%n", getClass().getName());
+      if (!packageName.isEmpty()) {
+        out.printf("package %s;%n", packageName);
+      }
+      out.println();
+      out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+      out.printf(
+          "public final class %s extends %s<%s> {%n%n", mapperName, GENERATED_ROW_MAPPER, beanType);
+
+      out.printf("  public %s() {%n", mapperName);
+      out.print("    super(");
+      for (int i = 0; i < fields.size(); i++) {
+        out.printf("%n        %s%s", fields.get(i), i < fields.size() - 1 ? "," : "");
+      }
+      out.println(");");
+      out.println("  }");
+      out.println();
+
+      out.println("  @Override");
+      out.printf("  public %s newInstance() {%n", beanType);
+      out.printf("    return new %s();%n", beanType);
+      out.println("  }");
+      out.println();
+
+      out.println("  @Override");
+      out.printf("  public void set(%s bean, int field, Object value) {%n", beanType);
+      out.println("    switch (field) {");
+      for (int i = 0; i < setters.size(); i++) {
+        out.printf("      case %d:%n", i);
+        out.printf("        %s%n", setters.get(i));
+        out.println("        break;");
+      }
+      out.println("      default:");
+      out.println("        throw new IndexOutOfBoundsException(\"Field: \" + field);");
+      out.println("    }");
+      out.println("  }");
+      out.println("}");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static AnnotationMirror annotationMirror(Element element, Class<?> annotationClass) {
+    for (AnnotationMirror a : element.getAnnotationMirrors()) {
+      TypeElement type = (TypeElement) a.getAnnotationType().asElement();
+      if (type.getQualifiedName().contentEquals(annotationClass.getCanonicalName())) {
+        return a;
+      }
+    }
+    return null;
+  }
+
+  /** @return Value explicitly set to an element of the annotation, or {@code null} */
+  private static Object annotationValue(AnnotationMirror annotation, String name) {
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e :
+        annotation.getElementValues().entrySet()) {
+      if (e.getKey().getSimpleName().contentEquals(name)) {
+        return e.getValue().getValue();
+      }
+    }
+    return null;
+  }
+
+  private TypeMirror erasureType(TypeMirror type) {
+    return processingEnv.getTypeUtils().erasure(type);
+  }
+
+  /** @return Source name of the erasure of a type, usable in class literals */
+  private String erasure(TypeMirror type) {
+    return erasureType(type).toString();
+  }
+
+  /** @return Source name of the reference type values of a field are cast to */
+  private String castType(TypeMirror type) {
+    return type.getKind().isPrimitive()
+        ? processingEnv
+            .getTypeUtils()
+            .boxedClass((PrimitiveType) type)
+            .getQualifiedName()
+            .toString()
+        : erasure(type);
+  }
+
+  private String literal(CharSequence value) {
+    return processingEnv.getElementUtils().getConstantExpression(value.toString());
+  }
+
+  private void error(Element element, String format, Object... args) {
+    processingEnv
+        .getMessager()
+        .printMessage(Diagnostic.Kind.ERROR, String.format(format, args), element);
+  }
+}
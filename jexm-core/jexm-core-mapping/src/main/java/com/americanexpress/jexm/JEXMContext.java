@@ -13,17 +13,32 @@
 
 package com.americanexpress.jexm;
 
+import com.americanexpress.jexm.annotation.Sheet;
 import com.americanexpress.jexm.mapping.MappedRowIterator;
+import com.americanexpress.jexm.mapping.config.MappingConfig;
 import com.americanexpress.jexm.parsing.RawRowIterator;
+import com.americanexpress.jexm.parsing.RawRowIteratorFactory;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
+import com.americanexpress.jexm.parsing.config.SheetConfig;
+import com.americanexpress.jexm.parsing.file.XlsxWorkbook;
 import java.io.File;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
@@ -42,18 +57,27 @@ import org.slf4j.LoggerFactory;
  * responsibility to do so, which can be performed using the try-with-resources construct to close
  * the read upon completion.
  *
- * <p>Currently the following file types are supported: CSV - Comma Separated Values XLSX - Open XML
- * Spreadsheet for Microsoft Office 2007
+ * <p>Currently the following file types are supported (see {@link ExcelExtension}):
  *
- * <p>Support for other table-type file extensions will be added in future releases.
+ * <ul>
+ *   <li>CSV - Comma Separated Values
+ *   <li>XLSX and XLSM - Open XML Spreadsheet for Microsoft Office 2007, with or without macros
+ *   <li>XLS - Binary Excel 97-2003 Workbook
+ *   <li>XLSB - Binary Excel 2007 Workbook
+ *   <li>ODS - OpenDocument Spreadsheet
+ * </ul>
  */
 public final class JEXMContext<T extends Serializable> {
 
   private static final Logger log = LoggerFactory.getLogger(JEXMContext.class);
   private Class<T> clazz;
+  private ParserConfig parserConfig;
+  private MappingConfig mappingConfig;
 
-  private JEXMContext(Class<T> clazz) {
+  private JEXMContext(Class<T> clazz, ParserConfig parserConfig, MappingConfig mappingConfig) {
     this.clazz = Objects.requireNonNull(clazz);
+    this.parserConfig = parserConfig;
+    this.mappingConfig = mappingConfig;
   }
 
   /**
@@ -66,7 +90,43 @@ public final class JEXMContext<T extends Serializable> {
    * @return A new instance of {@link JEXMContext} for the given class.
    */
   public static <T extends Serializable> JEXMContext<T> newInstance(Class<T> clazz) {
-    return new JEXMContext<>(clazz);
+    return new JEXMContext<>(clazz, null, null);
+  }
+
+  /**
+   * Produces a new instance of {@link JEXMContext} which allows parsing rows of Excel-based
+   * documents into instances of type {@param clazz}, tuning the low-level parsers with the given
+   * configuration.
+   *
+   * @param clazz POJO class to be used for marshalling. Expected to contain fields annotated by
+   *     {@link com.americanexpress.jexm.annotation.Header} to allow mapping of Excel headers.
+   * @param parserConfig Options used by the low-level parsers (eg. pipelined inflation of XLSX
+   *     sheets)
+   * @param <T> Serializable type
+   * @return A new instance of {@link JEXMContext} for the given class.
+   */
+  public static <T extends Serializable> JEXMContext<T> newInstance(
+      Class<T> clazz, ParserConfig parserConfig) {
+    return new JEXMContext<>(clazz, Objects.requireNonNull(parserConfig), null);
+  }
+
+  /**
+   * Produces a new instance of {@link JEXMContext} which allows parsing rows of Excel-based
+   * documents into instances of type {@param clazz}, tuning the low-level parsers and the mapping
+   * of the rows into beans with the given configurations.
+   *
+   * @param clazz POJO class to be used for marshalling. Expected to contain fields annotated by
+   *     {@link com.americanexpress.jexm.annotation.Header} to allow mapping of Excel headers.
+   * @param parserConfig Options used by the low-level parsers (eg. pipelined inflation of XLSX
+   *     sheets)
+   * @param mappingConfig Options used to map the rows into beans (eg. reuse of the beans)
+   * @param <T> Serializable type
+   * @return A new instance of {@link JEXMContext} for the given class.
+   */
+  public static <T extends Serializable> JEXMContext<T> newInstance(
+      Class<T> clazz, ParserConfig parserConfig, MappingConfig mappingConfig) {
+    return new JEXMContext<>(
+        clazz, Objects.requireNonNull(parserConfig), Objects.requireNonNull(mappingConfig));
   }
 
   /**
@@ -117,7 +177,7 @@ public final class JEXMContext<T extends Serializable> {
 
     log.info("Streaming over file {} mapping to bean {}", filepath, clazz);
 
-    return streamFromCloseableIterator(new MappedRowIterator<>(clazz, filepath));
+    return stream(new MappedRowIterator<>(clazz, filepath, null, parserConfig, mappingConfig));
   }
 
   /**
@@ -140,7 +200,8 @@ public final class JEXMContext<T extends Serializable> {
           clazz);
     }
 
-    return streamFromCloseableIterator(new MappedRowIterator<>(clazz, filepath, excelExtension));
+    return stream(
+        new MappedRowIterator<>(clazz, filepath, excelExtension, parserConfig, mappingConfig));
   }
 
   /**
@@ -156,7 +217,8 @@ public final class JEXMContext<T extends Serializable> {
 
     log.info("Streaming over input read of type {} mapping to bean {}", excelExtension, clazz);
 
-    return streamFromCloseableIterator(new MappedRowIterator<>(clazz, inputStream, excelExtension));
+    return stream(
+        new MappedRowIterator<>(clazz, inputStream, excelExtension, parserConfig, mappingConfig));
   }
 
   /**
@@ -172,14 +234,227 @@ public final class JEXMContext<T extends Serializable> {
 
     log.info("Streaming over user-defined RawRowIterator, mapping to bean {}", clazz);
 
-    return streamFromCloseableIterator(new MappedRowIterator<>(clazz, rawRowIterator));
+    return stream(new MappedRowIterator<>(clazz, rawRowIterator, mappingConfig));
   }
 
-  private Stream<T> streamFromCloseableIterator(CloseableIterator<T> closeableIterator) {
-    int properties = Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+  /**
+   * Provides a stream of objects representing rows in a sheet of an already open workbook, selected
+   * by the {@link com.americanexpress.jexm.annotation.Sheet} annotation of the bean class (or the
+   * first sheet if it is not annotated). The package, shared strings and styles of the workbook are
+   * not loaded again. Closing the stream does not close the workbook.
+   *
+   * @param workbook The open workbook
+   * @return Stream of row objects
+   */
+  public Stream<T> read(Workbook workbook) {
+    return read(workbook, null);
+  }
+
+  /**
+   * @see {@link JEXMContext#read(Workbook)}
+   * @param sheetConfig The sheet to read. If this is {@code null}, the sheet is selected by the
+   *     {@link com.americanexpress.jexm.annotation.Sheet} annotation of the bean class
+   */
+  public Stream<T> read(Workbook workbook, SheetConfig sheetConfig) {
+    Objects.requireNonNull(workbook);
+
+    log.info("Streaming over open workbook, mapping to bean {}", clazz);
+
+    return stream(
+        new MappedRowIterator<>(
+            clazz, workbook.xlsxWorkbook(), sheetConfig, parserConfig, mappingConfig));
+  }
+
+  /**
+   * Provides a stream of objects representing the rows of several sheets of the given workbook, all
+   * mapped to the bean class of this context. The workbook is opened once, and its shared strings
+   * and styles are shared by all sheets. Each sheet is parsed ahead on a thread of its own, while
+   * the rows are mapped and streamed sheet after sheet, in the order in which the sheets were
+   * given, on the thread consuming the stream. It is the caller's responsibility to close the
+   * stream upon its consumption, which stops the threads of the sheets not consumed entirely.
+   *
+   * @param filepath Path of an XLSX or XLSM file
+   * @param sheetConfigs Sheets to read. If none are given, all sheets of the workbook are read, in
+   *     the order in which they appear. The {@link com.americanexpress.jexm.annotation.Sheet}
+   *     annotation of the bean class is ignored.
+   * @throws com.americanexpress.jexm.parsing.exceptions.UnsupportedFileTypeException If the file is
+   *     not a workbook with multiple sheets (eg. CSV)
+   * @return Sequential stream of row objects of all given sheets
+   */
+  public Stream<T> readSheets(Path filepath, SheetConfig... sheetConfigs) {
+    Objects.requireNonNull(filepath);
+    Objects.requireNonNull(sheetConfigs);
+
+    log.info("Streaming over sheets of file {}, mapping to bean {}", filepath, clazz);
+
+    XlsxWorkbook workbook =
+        RawRowIteratorFactory.openWorkbook(
+            filepath, null, parserConfig == null ? null : parserConfig.getPassword());
+
+    List<MappedRowIterator<T>> iterators =
+        openSheets(
+            workbook,
+            () -> sheetConfigs.length > 0 ? Arrays.asList(sheetConfigs) : allSheets(workbook),
+            sheet -> openSheet(clazz, workbook, sheet, parserConfig, mappingConfig));
+
+    return streamSheets(workbook, iterators);
+  }
+
+  /**
+   * Reads several sheets of the given workbook, each sheet being mapped to its own bean class and
+   * its beans passed to their consumer. As for {@link JEXMContext#readSheets(Path,
+   * SheetConfig...)}, the workbook is opened once and each sheet is parsed ahead on a thread of its
+   * own. Consumers are all called on the calling thread, sheet after sheet, in the order in which
+   * they were added, so they need not be thread safe. This method returns once all sheets are read
+   * and the workbook is closed.
+   *
+   * @param filepath Path of an XLSX or XLSM file
+   * @param parserConfig The optional parser configuration
+   * @param mappingConfig The optional mapping configuration
+   * @param sheetConsumers Bean class of each sheet to read and the consumer of its beans
+   * @throws com.americanexpress.jexm.parsing.exceptions.UnsupportedFileTypeException If the file is
+   *     not a workbook with multiple sheets (eg. CSV)
+   */
+  public static void readSheets(
+      Path filepath,
+      ParserConfig parserConfig,
+      MappingConfig mappingConfig,
+      SheetConsumers sheetConsumers) {
+    Objects.requireNonNull(filepath);
+    Objects.requireNonNull(sheetConsumers);
+
+    log.info("Reading sheets of file {}, mapping to beans {}", filepath, sheetConsumers);
+
+    XlsxWorkbook workbook =
+        RawRowIteratorFactory.openWorkbook(
+            filepath, null, parserConfig == null ? null : parserConfig.getPassword());
+
+    List<SheetConsumers.SheetConsumer<?>> consumers = sheetConsumers.sheetConsumers();
+    List<MappedRowIterator<?>> iterators =
+        openSheets(
+            workbook,
+            () -> consumers,
+            consumer ->
+                openSheet(consumer.getBeanClass(), workbook, null, parserConfig, mappingConfig));
+
+    try {
+      for (int i = 0; i < consumers.size(); i++) {
+        consumers.get(i).consume(iterators.get(i));
+      }
+    } finally {
+      close(workbook, iterators);
+    }
+  }
+
+  private static List<SheetConfig> allSheets(XlsxWorkbook workbook) {
+    return IntStream.range(0, workbook.sheetNames().size())
+        .mapToObj(i -> new SheetConfig.Builder().index(i).build())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Opens the iterator of each sheet up front, so that all sheets are parsed at once. The workbook
+   * and the iterators already opened are closed if a sheet cannot be opened.
+   *
+   * @param workbook The open workbook
+   * @param sheets Sheets to open, in the order in which they are read
+   * @param iteratorFactory Opens the iterator of a sheet
+   * @return Iterator of each sheet
+   */
+  private static <S, I extends CloseableIterator<?>> List<I> openSheets(
+      XlsxWorkbook workbook, Supplier<List<S>> sheets, Function<S, I> iteratorFactory) {
+    List<I> iterators = new ArrayList<>();
+
+    try {
+      for (S sheet : sheets.get()) {
+        iterators.add(iteratorFactory.apply(sheet));
+      }
+    } catch (RuntimeException e) {
+      close(workbook, iterators);
+      throw e;
+    }
+
+    return iterators;
+  }
+
+  /**
+   * Opens the iterator of a sheet, whose rows are parsed ahead on a thread of their own (see {@link
+   * RawRowIterator#prefetched()}) and mapped on the thread reading the iterator.
+   *
+   * @param beanClass Bean class of the sheet
+   * @param workbook The open workbook
+   * @param sheetConfig The sheet to read. If this is {@code null}, the sheet is selected by the
+   *     {@link Sheet} annotation of the bean class
+   * @param parserConfig The optional parser configuration
+   * @param mappingConfig The optional mapping configuration
+   * @return Iterator over the rows of the sheet
+   */
+  private static <R extends Serializable> MappedRowIterator<R> openSheet(
+      Class<R> beanClass,
+      XlsxWorkbook workbook,
+      SheetConfig sheetConfig,
+      ParserConfig parserConfig,
+      MappingConfig mappingConfig) {
+    SheetConfig sheet =
+        sheetConfig == null
+            ? SheetConfig.fromAnnotation(beanClass.getAnnotation(Sheet.class))
+            : sheetConfig;
+    RawRowIterator rawRowIterator = workbook.createIterator(sheet, parserConfig).prefetched();
+
+    try {
+      return new MappedRowIterator<>(beanClass, rawRowIterator, parserConfig, mappingConfig);
+    } catch (RuntimeException e) {
+      rawRowIterator.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Streams the rows of the sheets one after the other, closing the sheets and the workbook once
+   * the stream is closed. Rows are pulled one at a time, so short-circuiting operations stop
+   * reading as soon as they are done.
+   */
+  private static <R> Stream<R> streamSheets(
+      XlsxWorkbook workbook, List<? extends CloseableIterator<R>> iterators) {
+    Iterator<R> rows =
+        new Iterator<R>() {
+          private int sheet = 0;
+
+          @Override
+          public boolean hasNext() {
+            for (; sheet < iterators.size(); sheet++) {
+              if (iterators.get(sheet).hasNext()) {
+                return true;
+              }
+            }
+            return false;
+          }
+
+          @Override
+          public R next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            return iterators.get(sheet).next();
+          }
+        };
 
     return StreamSupport.stream(
-            Spliterators.spliteratorUnknownSize(closeableIterator, properties), false)
-        .onClose(closeableIterator::close); // add onClose hook to close IO resources
+            Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(() -> close(workbook, iterators)); // add onClose hook to close IO resources
+  }
+
+  private static void close(XlsxWorkbook workbook, List<? extends CloseableIterator<?>> iterators) {
+    try {
+      iterators.forEach(CloseableIterator::close);
+    } finally {
+      workbook.close();
+    }
+  }
+
+  private Stream<T> stream(MappedRowIterator<T> mappedRowIterator) {
+    // rows are only parsed and mapped in parallel if explicitly requested
+    return mappedRowIterator.stream(parserConfig != null && parserConfig.isParallel());
   }
 }
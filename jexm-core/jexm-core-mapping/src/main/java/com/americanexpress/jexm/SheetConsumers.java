@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Consumers of the beans of several sheets of a workbook, each sheet being mapped to its own bean
+ * class, see {@link JEXMContext#readSheets(java.nio.file.Path,
+ * com.americanexpress.jexm.parsing.config.ParserConfig,
+ * com.americanexpress.jexm.mapping.config.MappingConfig, SheetConsumers)}. Example:
+ *
+ * <pre>{@code
+ * JEXMContext.readSheets(path, parserConfig, mappingConfig, new SheetConsumers()
+ *     .add(Person.class, people::add)
+ *     .add(Address.class, addresses::add));
+ * }</pre>
+ */
+public final class SheetConsumers {
+
+  private final List<SheetConsumer<?>> sheetConsumers = new ArrayList<>();
+
+  /**
+   * Adds the consumer of the beans of a sheet. Sheets are consumed in the order in which they are
+   * added.
+   *
+   * @param beanClass Bean class of the sheet, which is selected by its {@link
+   *     com.americanexpress.jexm.annotation.Sheet} annotation (or is the first sheet if it is not
+   *     annotated)
+   * @param consumer Consumer of each bean of the sheet
+   * @param <T> Bean type of the sheet
+   * @return This instance
+   */
+  public <T extends Serializable> SheetConsumers add(
+      Class<T> beanClass, Consumer<? super T> consumer) {
+    sheetConsumers.add(
+        new SheetConsumer<>(Objects.requireNonNull(beanClass), Objects.requireNonNull(consumer)));
+    return this;
+  }
+
+  /** @return Consumer of each sheet, in the order in which they were added */
+  List<SheetConsumer<?>> sheetConsumers() {
+    return Collections.unmodifiableList(sheetConsumers);
+  }
+
+  @Override
+  public String toString() {
+    return sheetConsumers.toString();
+  }
+
+  /**
+   * Bean class of a sheet and the consumer of its beans.
+   *
+   * @param <T> Bean type of the sheet
+   */
+  static final class SheetConsumer<T extends Serializable> {
+
+    private final Class<T> beanClass;
+    private final Consumer<? super T> consumer;
+
+    private SheetConsumer(Class<T> beanClass, Consumer<? super T> consumer) {
+      this.beanClass = beanClass;
+      this.consumer = consumer;
+    }
+
+    Class<T> getBeanClass() {
+      return beanClass;
+    }
+
+    /**
+     * Passes the beans of the sheet to the consumer.
+     *
+     * @param beans Iterator over the beans of the sheet, of the bean class
+     */
+    void consume(Iterator<?> beans) {
+      beans.forEachRemaining(bean -> consumer.accept(beanClass.cast(bean)));
+    }
+
+    @Override
+    public String toString() {
+      return beanClass.getName();
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm;
+
+import com.americanexpress.jexm.parsing.RawRowIteratorFactory;
+import com.americanexpress.jexm.parsing.config.SheetConfig;
+import com.americanexpress.jexm.parsing.file.XlsxWorkbook;
+import com.americanexpress.jexm.parsing.metadata.WorkbookMetadata;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A workbook opened once to be read several times, eg. with different beans or sheets. Its package,
+ * shared strings and styles are only loaded when it is opened, and are then shared by all streams
+ * created from it. Streams may be created and consumed concurrently, each of them having to be
+ * closed by the caller as usual. Closing a stream does not close the workbook, which must be closed
+ * by the caller once all of its streams are no longer used, for example:
+ *
+ * <pre>{@code
+ * try (Workbook workbook = Workbook.open(path)) {
+ *   List<Person> people = workbook.read(Person.class).collect(Collectors.toList());
+ *   List<Address> addresses = workbook.read(Address.class).collect(Collectors.toList());
+ * }
+ * }</pre>
+ *
+ * <p>Only XLSX and XLSM files are supported, as the other file types have a single sheet.
+ */
+public final class Workbook implements Closeable {
+
+  private final XlsxWorkbook xlsxWorkbook;
+
+  private Workbook(XlsxWorkbook xlsxWorkbook) {
+    this.xlsxWorkbook = xlsxWorkbook;
+  }
+
+  /**
+   * Opens the workbook at the given path.
+   *
+   * @param filepath Path of an XLSX or XLSM file
+   * @return The open workbook, to be closed by the caller
+   * @throws java.io.UncheckedIOException If an IO error occurs while opening the file
+   * @throws com.americanexpress.jexm.parsing.exceptions.UnsupportedFileTypeException If the file is
+   *     not an XLSX or XLSM file
+   */
+  public static Workbook open(Path filepath) {
+    return new Workbook(RawRowIteratorFactory.openWorkbook(filepath, null));
+  }
+
+  /**
+   * Opens the encrypted workbook at the given path, decrypting it as it is read (see {@link
+   * com.americanexpress.jexm.parsing.config.ParserConfig#getPassword()}).
+   *
+   * @param filepath Path of an XLSX or XLSM file
+   * @param password Password of the workbook. Unencrypted workbooks are opened as usual
+   * @return The open workbook, to be closed by the caller
+   * @throws com.americanexpress.jexm.parsing.exceptions.FileFormatException If the password is
+   *     incorrect
+   */
+  public static Workbook open(Path filepath, String password) {
+    return new Workbook(RawRowIteratorFactory.openWorkbook(filepath, null, password));
+  }
+
+  /**
+   * Opens a workbook from the contents of an XLSX or XLSM file, which are read into memory.
+   *
+   * @param inputStream Contents of the workbook. It is closed along with the workbook
+   * @return The open workbook, to be closed by the caller
+   */
+  public static Workbook open(InputStream inputStream) {
+    return new Workbook(new XlsxWorkbook(inputStream));
+  }
+
+  /**
+   * Reads the sheet names, indexes, visibility and used ranges of the workbook at the given path.
+   * Only the workbook index and the top of each sheet are read, never the shared strings, styles or
+   * rows, so this is much cheaper than opening the workbook.
+   *
+   * @param filepath Path of an XLSX or XLSM file
+   * @return Metadata of the workbook
+   */
+  public static WorkbookMetadata readMetadata(Path filepath) {
+    return RawRowIteratorFactory.readMetadata(filepath, null);
+  }
+
+  /** @return Sheet names, indexes, visibility and used ranges of this workbook */
+  public WorkbookMetadata metadata() {
+    return xlsxWorkbook.metadata();
+  }
+
+  /** @return Names of all sheets in the workbook, in the order in which they appear */
+  public List<String> sheetNames() {
+    return xlsxWorkbook.sheetNames();
+  }
+
+  /**
+   * Provides a stream of objects representing the rows of the sheet selected by the {@link
+   * com.americanexpress.jexm.annotation.Sheet} annotation of the bean class (or the first sheet).
+   *
+   * @see JEXMContext#read(Workbook)
+   */
+  public <T extends Serializable> Stream<T> read(Class<T> clazz) {
+    return JEXMContext.newInstance(clazz).read(this);
+  }
+
+  /**
+   * Provides a stream of objects representing the rows of the given sheet.
+   *
+   * @see JEXMContext#read(Workbook, SheetConfig)
+   */
+  public <T extends Serializable> Stream<T> read(Class<T> clazz, SheetConfig sheetConfig) {
+    return JEXMContext.newInstance(clazz).read(this, sheetConfig);
+  }
+
+  XlsxWorkbook xlsxWorkbook() {
+    return xlsxWorkbook;
+  }
+
+  /** Releases the file. Streams created from this workbook can no longer be used afterwards. */
+  @Override
+  public void close() {
+    xlsxWorkbook.close();
+  }
+}
@@ -28,62 +28,81 @@ import java.util.stream.Stream;
  * Class containing an unmodifiable lookup table used to store all built-in adapters for fields of
  * the Java bean. When passing in a class, the lookup table will return an instance of type
  * CellAdapter, defining the rules to generate an instance of the given class from a String object.
- * This does not take into account arrays (please see ArrayAdapters) or enum types (please see
- * Adapters).
+ * Adapters of types which can be parsed from any characters are also available as a {@link
+ * CharSequenceAdapter}. This does not take into account arrays (please see ArrayAdapters) or enum
+ * types (please see Adapters).
  */
 final class AdapterLookup {
 
   private AdapterLookup() {}
 
-  private static Map<Class<?>, CellAdapter<?>> lookup =
+  /* Adapters of types parsed from any characters, which need no String to be created. Double,
+  float and BigDecimal are left out, as their parsers only accept Strings */
+  private static Map<Class<?>, CharSequenceAdapter<?>> charSequenceLookup =
       Collections.unmodifiableMap(
           Stream.of(
-                  // String
-                  entry(String.class, String::toString),
-                  entry(StringBuilder.class, StringBuilder::new),
-                  entry(StringBuffer.class, StringBuffer::new),
-
                   // Primitives
-                  entry(boolean.class, AdapterUtils::parseBoolean),
-                  entry(byte.class, (s) -> Byte.parseByte(AdapterUtils.withoutDecimals(s))),
-                  entry(char.class, (s) -> s.charAt(0)),
-                  entry(double.class, Double::parseDouble),
-                  entry(float.class, Float::parseFloat),
-                  entry(int.class, (s) -> Integer.parseInt(AdapterUtils.withoutDecimals(s))),
-                  entry(long.class, (s) -> Long.parseLong(AdapterUtils.withoutDecimals(s))),
-                  entry(short.class, (s) -> Short.parseShort(AdapterUtils.withoutDecimals(s))),
+                  charSequenceEntry(boolean.class, AdapterUtils::parseBoolean),
+                  charSequenceEntry(byte.class, AdapterUtils::parseByteWithoutDecimals),
+                  charSequenceEntry(char.class, (s) -> s.charAt(0)),
+                  charSequenceEntry(int.class, AdapterUtils::parseIntWithoutDecimals),
+                  charSequenceEntry(long.class, AdapterUtils::parseLongWithoutDecimals),
+                  charSequenceEntry(short.class, AdapterUtils::parseShortWithoutDecimals),
 
                   // Boxed Primitives
-                  entry(Boolean.class, AdapterUtils::parseBoolean),
-                  entry(Byte.class, (s) -> Byte.valueOf(AdapterUtils.withoutDecimals(s))),
-                  entry(Character.class, (s) -> s.charAt(0)),
-                  entry(Double.class, Double::parseDouble),
-                  entry(Float.class, Float::parseFloat),
-                  entry(Integer.class, (s) -> Integer.valueOf(AdapterUtils.withoutDecimals(s))),
-                  entry(Long.class, (s) -> Long.valueOf(AdapterUtils.withoutDecimals(s))),
-                  entry(Short.class, (s) -> Short.valueOf(AdapterUtils.withoutDecimals(s))),
+                  charSequenceEntry(Boolean.class, AdapterUtils::parseBoolean),
+                  charSequenceEntry(Byte.class, AdapterUtils::parseByteWithoutDecimals),
+                  charSequenceEntry(Character.class, (s) -> s.charAt(0)),
+                  charSequenceEntry(Integer.class, AdapterUtils::parseIntWithoutDecimals),
+                  charSequenceEntry(Long.class, AdapterUtils::parseLongWithoutDecimals),
+                  charSequenceEntry(Short.class, AdapterUtils::parseShortWithoutDecimals),
 
                   // Date and Time
-                  entry(LocalDate.class, AdapterUtils::parseLocalDate),
-                  entry(LocalTime.class, LocalTime::parse),
-                  entry(LocalDateTime.class, AdapterUtils::parseLocalDateTime),
-                  entry(Instant.class, Instant::parse),
-                  entry(MonthDay.class, MonthDay::parse),
-                  entry(YearMonth.class, YearMonth::parse),
-                  entry(Date.class, AdapterUtils::parseDate),
-
-                  // Numeric objects
-                  entry(BigInteger.class, (s) -> new BigInteger(AdapterUtils.withoutDecimals(s))),
-                  entry(BigDecimal.class, BigDecimal::new),
-
-                  // SQL
-                  entry(Time.class, Time::valueOf),
-                  entry(java.sql.Date.class, java.sql.Date::valueOf),
-                  entry(Timestamp.class, Timestamp::valueOf),
-
-                  // Other
-                  entry(Pattern.class, Pattern::compile),
-                  entry(Class.class, AdapterUtils::uncheckedClassForName))
+                  charSequenceEntry(LocalDate.class, AdapterUtils::parseLocalDate),
+                  charSequenceEntry(LocalTime.class, LocalTime::parse),
+                  charSequenceEntry(LocalDateTime.class, AdapterUtils::parseLocalDateTime),
+                  charSequenceEntry(Instant.class, Instant::parse),
+                  charSequenceEntry(MonthDay.class, MonthDay::parse),
+                  charSequenceEntry(YearMonth.class, YearMonth::parse),
+                  charSequenceEntry(Date.class, AdapterUtils::parseDate))
+              .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+
+  private static Map<Class<?>, CellAdapter<?>> lookup =
+      Collections.unmodifiableMap(
+          Stream.concat(
+                  Stream.of(
+                      // String
+                      entry(String.class, String::toString),
+                      entry(StringBuilder.class, StringBuilder::new),
+                      entry(StringBuffer.class, StringBuffer::new),
+
+                      // Floating point
+                      entry(double.class, Double::parseDouble),
+                      entry(float.class, Float::parseFloat),
+                      entry(Double.class, Double::parseDouble),
+                      entry(Float.class, Float::parseFloat),
+
+                      // Numeric objects
+                      entry(
+                          BigInteger.class, (s) -> new BigInteger(AdapterUtils.withoutDecimals(s))),
+                      entry(BigDecimal.class, BigDecimal::new),
+
+                      // SQL
+                      entry(Time.class, Time::valueOf),
+                      entry(java.sql.Date.class, java.sql.Date::valueOf),
+                      entry(Timestamp.class, Timestamp::valueOf),
+
+                      // Other
+                      entry(Pattern.class, Pattern::compile),
+                      entry(Class.class, AdapterUtils::uncheckedClassForName)),
+                  // the adapters above also take Strings
+                  charSequenceLookup
+                      .entrySet()
+                      .stream()
+                      .map(
+                          e ->
+                              new AbstractMap.SimpleEntry<Class<?>, CellAdapter<?>>(
+                                  e.getKey(), asCellAdapter(e.getValue()))))
               .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
 
   /**
@@ -100,7 +119,30 @@ final class AdapterLookup {
     return (CellAdapter<? extends T>) lookup.get(clazz);
   }
 
-  private static <T> Map.Entry<Class<T>, CellAdapter<? extends T>> entry(
+  /**
+   * Allows retrieving a {@link CharSequenceAdapter} which defines how to convert any characters
+   * into an instance of the given class, without creating a String.
+   *
+   * @param clazz A class for which we want the adapter rules
+   * @param <T> Any parameter type
+   * @return A cell adapter for the given class if found in the lookup table. Null otherwise
+   */
+  @SuppressWarnings("unchecked")
+  static <T> CharSequenceAdapter<? extends T> getCharSequenceAdapter(Class<T> clazz) {
+    Objects.requireNonNull(clazz);
+    return (CharSequenceAdapter<? extends T>) charSequenceLookup.get(clazz);
+  }
+
+  private static <T> CellAdapter<T> asCellAdapter(CharSequenceAdapter<T> adapter) {
+    return adapter::adapt;
+  }
+
+  private static <T> Map.Entry<Class<?>, CharSequenceAdapter<?>> charSequenceEntry(
+      Class<T> clazz, CharSequenceAdapter<? extends T> adapter) {
+    return new AbstractMap.SimpleEntry<>(clazz, adapter);
+  }
+
+  private static <T> Map.Entry<Class<?>, CellAdapter<?>> entry(
       Class<T> clazz, CellAdapter<? extends T> adapter) {
     return new AbstractMap.SimpleEntry<>(clazz, adapter);
   }
@@ -48,53 +48,79 @@ public final class Adapters {
       Type genericType,
       String rawCellValue,
       Class<? extends CellAdapter> customAdapterClass) {
+    return adapt(clazz, genericType, (CharSequence) rawCellValue, customAdapterClass);
+  }
+
+  /**
+   * Same as {@link Adapters#adapt(Class, Type, String, Class)}, for any characters. Built-in
+   * adapters implementing {@link CharSequenceAdapter} parse them directly, so that a String is only
+   * created for the other types, such as String fields.
+   *
+   * @param clazz A class for which we want an instance of
+   * @param rawCellValue The characters we want to parse to produce an instance of the given class
+   * @param customAdapterClass An optional adapter class to use instead of using the built-in
+   *     lookup. If null, one from the lookup will be used.
+   * @param <T> Instance type of the given class
+   * @return Instance of given class, converted from given characters
+   */
+  public static <T> T adapt(
+      Class<T> clazz,
+      Type genericType,
+      CharSequence rawCellValue,
+      Class<? extends CellAdapter> customAdapterClass) {
     Objects.requireNonNull(clazz);
 
-    CellAdapter<? extends T> adapter;
+    if (customAdapterClass != null) {
+      // a custom adapter was specified by the user. Use it to convert the raw String type to field
+      // type
+      CellAdapter<? extends T> adapter = CustomAdapterCache.getInstance().get(customAdapterClass);
+      return adapter.apply(rawCellValue == null ? null : rawCellValue.toString());
+    }
 
-    if (customAdapterClass == null) {
-      // no custom adapter was specified by the user, so lookup adapter according to the field type
+    // no custom adapter was specified by the user, so lookup adapter according to the field type
 
-      if (clazz.isArray()) {
-        return ArrayAdapters.adapt(clazz, rawCellValue);
-      }
+    if (clazz.isArray()) {
+      return ArrayAdapters.adapt(clazz, rawCellValue == null ? null : rawCellValue.toString());
+    }
+
+    if (Collection.class.isAssignableFrom(clazz)) {
+      // if class is a collection type
+      return CollectionAdapters.adapt(
+          clazz, genericType, rawCellValue == null ? null : rawCellValue.toString());
+    }
 
-      if (Collection.class.isAssignableFrom(clazz)) {
-        // if class is a collection type
-        return CollectionAdapters.adapt(clazz, genericType, rawCellValue);
-      }
+    if (rawCellValue == null) {
+      return null;
+    }
 
-      if (rawCellValue == null) {
-        return null;
-      }
+    rawCellValue = AdapterUtils.trim(rawCellValue);
 
-      rawCellValue = rawCellValue.trim();
+    if (rawCellValue.length() == 0) {
+      // if we have an empty (or all-spaces) String, return null
+      return null;
+    }
 
-      if (rawCellValue.isEmpty()) {
-        // if we have an empty (or all-spaces) String, return null
-        return null;
-      }
+    if (clazz.isEnum()) {
+      // if we have an enum type, convert the String into this type, ignoring case
+      @SuppressWarnings("unchecked")
+      T t = (T) AdapterUtils.findEnumIgnoreCase((Class<? extends Enum<?>>) clazz, rawCellValue);
+      return t;
+    }
 
-      if (clazz.isEnum()) {
-        // if we have an enum type, convert the String into this type, ignoring case
-        @SuppressWarnings("unchecked")
-        T t = (T) AdapterUtils.findEnumIgnoreCase((Class<? extends Enum<?>>) clazz, rawCellValue);
-        return t;
-      }
+    // retrieve built-in adapter for this class, preferring one taking the characters as they are
+    CharSequenceAdapter<? extends T> charSequenceAdapter =
+        AdapterLookup.getCharSequenceAdapter(clazz);
+    if (charSequenceAdapter != null) {
+      return charSequenceAdapter.adapt(rawCellValue);
+    }
 
-      // retrieve built-in adapter for this class
-      adapter = AdapterLookup.get(clazz);
-      if (adapter == null) {
-        throw new UnsupportedAdapterFieldException(clazz);
-      }
-    } else {
-      // a custom adapter was specified by the user. Use it to convert the raw String type to field
-      // type
-      adapter = CustomAdapterCache.getInstance().get(customAdapterClass);
+    CellAdapter<? extends T> adapter = AdapterLookup.get(clazz);
+    if (adapter == null) {
+      throw new UnsupportedAdapterFieldException(clazz);
     }
 
     // from given adapter, finally perform conversion
-    return adapter.apply(rawCellValue);
+    return adapter.apply(rawCellValue.toString());
   }
 
   /**
@@ -29,40 +29,69 @@ public final class AdapterUtils {
 
   private static final int ISO_LOCAL_DATE_LENGTH = 10;
 
-  private static Map<String, Boolean> BOOLEAN_STRINGS =
-      Collections.unmodifiableMap(
-          new HashMap<String, Boolean>() {
-            {
-              put("TRUE", true);
-              put("T", true);
-              put("1", true);
-              put("YES", true);
-              put("Y", true);
-
-              put("FALSE", false);
-              put("F", false);
-              put("0", false);
-              put("NO", false);
-              put("N", false);
-            }
-          });
+  private static final String[] TRUE_STRINGS = {"TRUE", "T", "1", "YES", "Y"};
+  private static final String[] FALSE_STRINGS = {"FALSE", "F", "0", "NO", "N"};
+
+  // Constants of each enum type, as getEnumConstants() copies them on every call
+  private static final ClassValue<Enum<?>[]> ENUM_CONSTANTS =
+      new ClassValue<Enum<?>[]>() {
+        @Override
+        protected Enum<?>[] computeValue(Class<?> type) {
+          return (Enum<?>[]) type.getEnumConstants();
+        }
+      };
+
+  /** @see AdapterUtils#parseBoolean(CharSequence) */
+  public static Boolean parseBoolean(String s) {
+    return parseBoolean((CharSequence) s);
+  }
 
   /**
    * Parses a boolean-like String into a Boolean type.
    *
-   * @param s Case insensitive String representing a Boolean value.
+   * @param s Case insensitive characters representing a Boolean value.
    * @return {@code true} if s upper case is equals to "TRUE", "T", "1", "YES" or "Y". {@code false}
    *     if s upper case is equivalent to "FALSE", "F", "0", "NO", "N".
    * @throws ParserException if s is non-null and does not match the above
    */
-  public static Boolean parseBoolean(String s) {
+  public static Boolean parseBoolean(CharSequence s) {
     Objects.requireNonNull(s);
-    Boolean b = BOOLEAN_STRINGS.get(s.toUpperCase());
-    if (b == null) {
-      throw new ParserException(
-          "Cannot convert \"" + s + "\" to " + Boolean.class.getName() + " type.");
+
+    for (String t : TRUE_STRINGS) {
+      if (equalsIgnoreCase(s, t)) {
+        return true;
+      }
+    }
+    for (String f : FALSE_STRINGS) {
+      if (equalsIgnoreCase(s, f)) {
+        return false;
+      }
+    }
+
+    throw new ParserException(
+        "Cannot convert \"" + s + "\" to " + Boolean.class.getName() + " type.");
+  }
+
+  private static boolean equalsIgnoreCase(CharSequence s, String other) {
+    if (s.length() != other.length()) {
+      return false;
+    }
+
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      char o = other.charAt(i);
+      if (c != o
+          && Character.toUpperCase(c) != Character.toUpperCase(o)
+          && Character.toLowerCase(c) != Character.toLowerCase(o)) {
+        return false;
+      }
     }
-    return b;
+    return true;
+  }
+
+  /** @see AdapterUtils#parseDate(CharSequence) */
+  public static Date parseDate(String s) {
+    return parseDate((CharSequence) s);
   }
 
   /**
@@ -71,15 +100,21 @@ public final class AdapterUtils {
    * @param s String in ISO_LOCAL_DATE_TIME or ISO_LOCAL_DATE format
    * @return Date
    */
-  public static Date parseDate(String s) {
+  public static Date parseDate(CharSequence s) {
     Objects.requireNonNull(s);
 
     LocalDateTime ldt = parseLocalDateTime(s);
     return Date.from(ldt.atZone(ZoneId.systemDefault()).toInstant());
   }
 
-  private static String withoutZ(String s) {
-    return s.lastIndexOf('Z') == s.length() - 1 ? s.substring(0, s.length() - 1) : s;
+  private static CharSequence withoutZ(CharSequence s) {
+    int length = s.length();
+    return length > 0 && s.charAt(length - 1) == 'Z' ? s.subSequence(0, length - 1) : s;
+  }
+
+  /** @see AdapterUtils#parseLocalDate(CharSequence) */
+  public static LocalDate parseLocalDate(String s) {
+    return parseLocalDate((CharSequence) s);
   }
 
   /**
@@ -88,20 +123,25 @@ public final class AdapterUtils {
    * @param s String in ISO_LOCAL_DATE_TIME or ISO_LOCAL_DATE format
    * @return LocalDate
    */
-  public static LocalDate parseLocalDate(String s) {
+  public static LocalDate parseLocalDate(CharSequence s) {
     Objects.requireNonNull(s);
     return (s.length() > ISO_LOCAL_DATE_LENGTH)
         ? parseLocalDateTime(s).toLocalDate()
         : LocalDate.parse(s);
   }
 
+  /** @see AdapterUtils#parseLocalDateTime(CharSequence) */
+  public static LocalDateTime parseLocalDateTime(String s) {
+    return parseLocalDateTime((CharSequence) s);
+  }
+
   /**
    * Parses a String into a LocalDateTime
    *
    * @param s String in ISO_LOCAL_DATE_TIME or ISO_LOCAL_DATE format
    * @return LocalDateTime
    */
-  public static LocalDateTime parseLocalDateTime(String s) {
+  public static LocalDateTime parseLocalDateTime(CharSequence s) {
     Objects.requireNonNull(s);
     return (s.length() > ISO_LOCAL_DATE_LENGTH)
         ? LocalDateTime.parse(withoutZ(s))
@@ -121,28 +161,150 @@ public final class AdapterUtils {
     return dotIndex == -1 ? s : s.substring(0, dotIndex);
   }
 
+  /**
+   * Same as {@code Long.parseLong(withoutDecimals(s))}, without creating the String before the
+   * decimal point.
+   *
+   * @param s A numeric String with or without decimals
+   * @return The number without its decimals
+   * @throws NumberFormatException if the part before the decimals is not a long
+   */
+  public static long parseLongWithoutDecimals(CharSequence s) {
+    Objects.requireNonNull(s);
+
+    int end = s.length();
+    for (int i = end - 1; i >= 0; i--) {
+      if (s.charAt(i) == '.') {
+        end = i;
+        break;
+      }
+    }
+
+    int i = 0;
+    boolean negative = false;
+    if (end > 0 && (s.charAt(0) == '-' || s.charAt(0) == '+')) {
+      negative = s.charAt(0) == '-';
+      i++;
+    }
+    if (i == end) {
+      throw numberFormatException(s);
+    }
+
+    // accumulated negatively, as Long.MIN_VALUE has no positive counterpart
+    long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    long result = 0;
+    for (; i < end; i++) {
+      int digit = Character.digit(s.charAt(i), 10);
+      if (digit < 0 || result < limit / 10 || result * 10 < limit + digit) {
+        throw numberFormatException(s);
+      }
+      result = result * 10 - digit;
+    }
+
+    return negative ? result : -result;
+  }
+
+  /**
+   * Same as {@code Integer.parseInt(withoutDecimals(s))}, without creating the String before the
+   * decimal point.
+   *
+   * @param s A numeric String with or without decimals
+   * @return The number without its decimals
+   * @throws NumberFormatException if the part before the decimals is not an int
+   */
+  public static int parseIntWithoutDecimals(CharSequence s) {
+    return (int) parseInRange(s, Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Same as {@code Short.parseShort(withoutDecimals(s))}, without creating the String before the
+   * decimal point.
+   *
+   * @param s A numeric String with or without decimals
+   * @return The number without its decimals
+   * @throws NumberFormatException if the part before the decimals is not a short
+   */
+  public static short parseShortWithoutDecimals(CharSequence s) {
+    return (short) parseInRange(s, Short.MIN_VALUE, Short.MAX_VALUE);
+  }
+
+  /**
+   * Same as {@code Byte.parseByte(withoutDecimals(s))}, without creating the String before the
+   * decimal point.
+   *
+   * @param s A numeric String with or without decimals
+   * @return The number without its decimals
+   * @throws NumberFormatException if the part before the decimals is not a byte
+   */
+  public static byte parseByteWithoutDecimals(CharSequence s) {
+    return (byte) parseInRange(s, Byte.MIN_VALUE, Byte.MAX_VALUE);
+  }
+
+  private static long parseInRange(CharSequence s, long min, long max) {
+    long value;
+    try {
+      value = parseLongWithoutDecimals(s);
+    } catch (NumberFormatException e) {
+      throw numberFormatException(s);
+    }
+
+    if (value < min || value > max) {
+      throw new NumberFormatException("Value out of range. Value:\"" + s + "\" Radix:10");
+    }
+    return value;
+  }
+
+  private static NumberFormatException numberFormatException(CharSequence s) {
+    return new NumberFormatException("For input string: \"" + s + "\"");
+  }
+
+  /**
+   * Same as {@link String#trim()}, for any characters.
+   *
+   * @param s Characters to trim
+   * @return The same characters if they start and end with no space, else a view of them without
+   *     their leading and trailing spaces
+   */
+  public static CharSequence trim(CharSequence s) {
+    Objects.requireNonNull(s);
+
+    int start = 0;
+    int end = s.length();
+    while (start < end && s.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && s.charAt(end - 1) <= ' ') {
+      end--;
+    }
+
+    return start == 0 && end == s.length() ? s : s.subSequence(start, end);
+  }
+
+  /** @see AdapterUtils#findEnumIgnoreCase(Class, CharSequence) */
+  public static Enum<?> findEnumIgnoreCase(Class<? extends Enum<?>> enumType, String name) {
+    return findEnumIgnoreCase(enumType, (CharSequence) name);
+  }
+
   /**
    * Converts a case insensitive String into an instance of given enum type. Similar to
    * Enum.valueOf, but case insensitive.
    *
    * @param enumType Enum class to use for conversion
-   * @param name Case insensitive String used to lookup over enum class
+   * @param name Case insensitive characters used to lookup over enum class
    * @return Instance of given enum class
    */
-  public static Enum<?> findEnumIgnoreCase(Class<? extends Enum<?>> enumType, String name) {
+  public static Enum<?> findEnumIgnoreCase(Class<? extends Enum<?>> enumType, CharSequence name) {
     Objects.requireNonNull(enumType);
     Objects.requireNonNull(name);
 
-    return Arrays.stream(enumType.getEnumConstants())
-        .filter(e -> e.name().equalsIgnoreCase(name))
-        .findFirst()
-        .orElseThrow(
-            () ->
-                new IllegalArgumentException(
-                    "Cannot convert String \""
-                        + name
-                        + "\" to enum of type "
-                        + enumType.getName()));
+    for (Enum<?> e : ENUM_CONSTANTS.get(enumType)) {
+      if (equalsIgnoreCase(name, e.name())) {
+        return e;
+      }
+    }
+
+    throw new IllegalArgumentException(
+        "Cannot convert String \"" + name + "\" to enum of type " + enumType.getName());
   }
 
   /**
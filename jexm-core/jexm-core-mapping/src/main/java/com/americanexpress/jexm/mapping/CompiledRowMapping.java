@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.mapping;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import com.americanexpress.jexm.mapping.exceptions.IllegalRowClassException;
+import com.americanexpress.jexm.parsing.RawRow;
+import com.americanexpress.jexm.parsing.utils.StringPool;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Mapping compiled into a single method handle, doing the same as a {@link FieldRowMapping} for the
+ * particular fields of a plan, which the JIT can inline as straight-line code per bean class. Beans
+ * reused for several rows are filled by the {@link FieldRowMapping} instead.
+ *
+ * @param <T> Bean type produced by this mapping
+ */
+final class CompiledRowMapping<T> implements RowMapping<T> {
+
+  private final MappingPlan<T> mappingPlan;
+  private final FieldRowMapping<T> fieldRowMapping;
+  // Handle of type (RawRow)Object mapping a whole row
+  private final MethodHandle rowMapper;
+
+  CompiledRowMapping(MappingPlan<T> mappingPlan, FieldRowMapping<T> fieldRowMapping) {
+    this.mappingPlan = mappingPlan;
+    this.fieldRowMapping = fieldRowMapping;
+    this.rowMapper = compile();
+  }
+
+  @Override
+  public T createRowObject(RawRow rawRow) {
+    try {
+      return mappingPlan.getRowClass().cast((Object) rowMapper.invokeExact(rawRow));
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalRowClassException(mappingPlan.getRowClass(), e);
+    }
+  }
+
+  /**
+   * Composes the handle mapping a whole row, equivalent to {@link
+   * FieldRowMapping#createRowObject(RawRow)} with the column, adapter, pool and setter of each
+   * field bound as constants. Fields are mapped in sequence by folding the handles of each one, of
+   * type {@code (Object, RawRow)void}.
+   *
+   * @return Handle of type {@code (RawRow)Object}
+   */
+  private MethodHandle compile() {
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    try {
+      MethodHandle get =
+          lookup.findVirtual(RawRow.class, "get", methodType(String.class, int.class));
+      MethodHandle adapt =
+          lookup.findVirtual(FieldMapping.class, "adapt", methodType(Object.class, String.class));
+      MethodHandle set =
+          lookup.findVirtual(
+              FieldMapping.class, "set", methodType(void.class, Object.class, Object.class));
+      MethodHandle setPrimitive =
+          lookup
+              .findVirtual(
+                  FieldMapping.class,
+                  "setPrimitive",
+                  methodType(boolean.class, Object.class, String.class))
+              .asType(methodType(void.class, FieldMapping.class, Object.class, String.class));
+      MethodHandle pooled =
+          lookup.findStatic(
+              MappingPlan.class,
+              "pooled",
+              methodType(Object.class, StringPool.class, Object.class));
+
+      // start with the returned bean, and fold the mapping of each field before it, last first
+      MethodHandle mapper =
+          MethodHandles.dropArguments(MethodHandles.identity(Object.class), 1, RawRow.class);
+
+      for (int i = mappingPlan.size() - 1; i >= 0; i--) {
+        FieldMapping f = mappingPlan.field(i);
+        MethodHandle rawCellValue = MethodHandles.insertArguments(get, 1, mappingPlan.column(i));
+
+        MethodHandle mapField;
+        if (f.isPrimitive()) {
+          mapField = MethodHandles.filterArguments(setPrimitive.bindTo(f), 1, rawCellValue);
+        } else {
+          MethodHandle value = MethodHandles.filterReturnValue(rawCellValue, adapt.bindTo(f));
+          StringPool stringPool = mappingPlan.stringPool(i);
+          if (stringPool != null) {
+            value = MethodHandles.filterReturnValue(value, pooled.bindTo(stringPool));
+          }
+          mapField = MethodHandles.filterArguments(set.bindTo(f), 1, value);
+        }
+
+        mapper = MethodHandles.foldArguments(mapper, mapField);
+      }
+
+      // create the bean first, passing it to the mapping of the fields
+      MethodHandle newInstance =
+          lookup
+              .findVirtual(FieldRowMapping.class, "newInstance", methodType(Object.class))
+              .bindTo(fieldRowMapping);
+      return MethodHandles.foldArguments(
+          mapper, MethodHandles.dropArguments(newInstance, 0, RawRow.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalStateException(
+          "Unable to compile mapping of " + mappingPlan.getRowClass().getName(), e);
+    }
+  }
+
+  @Override
+  public FieldRowMapping<T> reusable() {
+    return fieldRowMapping;
+  }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.mapping;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import com.americanexpress.jexm.annotation.Header;
+import com.americanexpress.jexm.annotation.RowConstructor;
+import com.americanexpress.jexm.mapping.exceptions.IllegalRowClassException;
+import com.americanexpress.jexm.parsing.RawRow;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Mapping of immutable beans, with a constructor annotated by {@link RowConstructor} or being
+ * records, which are created by calling their constructor with the adapted values of all their
+ * header fields rather than setting them. Its beans cannot be reused for several rows.
+ *
+ * @param <T> Bean type produced by this mapping
+ */
+final class ConstructorRowMapping<T> implements RowMapping<T> {
+
+  // Constructor of each bean class created with the values of its fields, if any
+  private static final ClassValue<Optional<ConstructorBinding>> CONSTRUCTOR_BINDINGS =
+      new ClassValue<Optional<ConstructorBinding>>() {
+        @Override
+        protected Optional<ConstructorBinding> computeValue(Class<?> rowClass) {
+          return rowClass.isInterface() || GeneratedRowMapper.find(rowClass).isPresent()
+              ? Optional.empty()
+              : ConstructorBinding.find(rowClass, FieldMapping.of(rowClass));
+        }
+      };
+
+  private final MappingPlan<T> mappingPlan;
+  private final ConstructorBinding constructorBinding;
+
+  private ConstructorRowMapping(MappingPlan<T> mappingPlan, ConstructorBinding constructorBinding) {
+    this.mappingPlan = mappingPlan;
+    this.constructorBinding = constructorBinding;
+  }
+
+  /**
+   * @param mappingPlan Plan of the bean class
+   * @return Mapping calling the constructor of the bean class, or empty if the beans are created
+   *     before setting their fields
+   * @throws IllegalRowClassException if the constructor annotated by {@link RowConstructor} does
+   *     not take the header fields
+   */
+  static <T> Optional<RowMapping<T>> find(MappingPlan<T> mappingPlan) {
+    return CONSTRUCTOR_BINDINGS
+        .get(mappingPlan.getRowClass())
+        .map(constructorBinding -> new ConstructorRowMapping<>(mappingPlan, constructorBinding));
+  }
+
+  /**
+   * @param rowClass Bean class representing each row
+   * @return {@code true} if the beans are created by a constructor taking the values of their
+   *     fields
+   */
+  static boolean isConstructed(Class<?> rowClass) {
+    return ConstructorBinding.isRecord(rowClass)
+        || ConstructorBinding.rowConstructor(rowClass) != null;
+  }
+
+  @Override
+  public T createRowObject(RawRow rawRow) {
+    Object[] arguments = constructorBinding.defaults.clone();
+
+    for (int i = 0; i < mappingPlan.size(); i++) {
+      Object adaptedCellValue = mappingPlan.adapt(i, rawRow.get(mappingPlan.column(i)));
+
+      if (adaptedCellValue != null) { // otherwise keep the default value of the parameter
+        arguments[constructorBinding.parameters[i]] = adaptedCellValue;
+      }
+    }
+
+    return mappingPlan.getRowClass().cast(constructorBinding.newInstance(arguments));
+  }
+
+  /**
+   * Binding of the header fields of a bean class to the parameters of the constructor creating its
+   * beans. This is either the constructor annotated by {@link RowConstructor}, whose parameters are
+   * the header fields in declaration order, or the canonical constructor of a record, whose
+   * parameters are the fields of the record.
+   */
+  private static final class ConstructorBinding {
+
+    // Handle of type (Object[])Object calling the constructor with an array of its arguments
+    private final MethodHandle constructor;
+    // Parameter of each header field, in declaration order
+    private final int[] parameters;
+    // Value of each parameter when its field has none, zero for primitives
+    private final Object[] defaults;
+
+    private ConstructorBinding(Constructor<?> constructor, int[] parameters) {
+      Class<?>[] types = constructor.getParameterTypes();
+
+      this.constructor =
+          ReflectionUtils.constructor(constructor)
+              .asSpreader(Object[].class, types.length)
+              .asType(methodType(Object.class, Object[].class));
+      this.parameters = parameters;
+      this.defaults = new Object[types.length];
+      for (int i = 0; i < types.length; i++) {
+        defaults[i] = FieldMapping.defaultValue(types[i]);
+      }
+    }
+
+    /**
+     * Finds the constructor creating the beans of a class, if they are immutable.
+     *
+     * @param rowClass Bean class representing each row
+     * @param fields Header fields of the bean class, in declaration order
+     * @return Binding of the header fields to the constructor, or empty if the beans are created
+     *     before setting their fields
+     * @throws IllegalRowClassException if the constructor annotated by {@link RowConstructor} does
+     *     not take the header fields
+     */
+    static Optional<ConstructorBinding> find(Class<?> rowClass, List<FieldMapping> fields) {
+      Constructor<?> rowConstructor = rowConstructor(rowClass);
+
+      if (rowConstructor != null) {
+        Class<?>[] types = fields.stream().map(FieldMapping::getType).toArray(Class<?>[]::new);
+        if (!Arrays.equals(types, rowConstructor.getParameterTypes())) {
+          throw new IllegalRowClassException(
+              rowClass,
+              String.format(
+                  "Parameters of the constructor annotated by %s must be of the types of the %s "
+                      + "fields, in declaration order: %s.",
+                  RowConstructor.class.getName(), Header.class.getName(), Arrays.toString(types)),
+              null);
+        }
+
+        int[] parameters = new int[fields.size()];
+        Arrays.setAll(parameters, i -> i);
+        return Optional.of(new ConstructorBinding(rowConstructor, parameters));
+      }
+
+      if (isRecord(rowClass)) {
+        // parameters of the canonical constructor are the components, declared as fields
+        List<Field> components = new ArrayList<>();
+        for (Field f : rowClass.getDeclaredFields()) {
+          if (!Modifier.isStatic(f.getModifiers())) {
+            components.add(f);
+          }
+        }
+
+        int[] parameters = new int[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+          for (int p = 0; p < components.size(); p++) {
+            if (components.get(p).getName().equals(fields.get(i).getName())) {
+              parameters[i] = p;
+            }
+          }
+        }
+
+        try {
+          return Optional.of(
+              new ConstructorBinding(
+                  rowClass.getDeclaredConstructor(
+                      components.stream().map(Field::getType).toArray(Class<?>[]::new)),
+                  parameters));
+        } catch (NoSuchMethodException e) {
+          throw new IllegalRowClassException(rowClass, e);
+        }
+      }
+
+      return Optional.empty();
+    }
+
+    /**
+     * @param rowClass Bean class representing each row
+     * @return The constructor annotated by {@link RowConstructor}, or {@code null} if there is none
+     * @throws IllegalRowClassException if more than one constructor is annotated
+     */
+    private static Constructor<?> rowConstructor(Class<?> rowClass) {
+      Constructor<?> rowConstructor = null;
+
+      for (Constructor<?> c : rowClass.getDeclaredConstructors()) {
+        if (c.isAnnotationPresent(RowConstructor.class)) {
+          if (rowConstructor != null) {
+            throw new IllegalRowClassException(
+                rowClass,
+                "Only one constructor can be annotated by " + RowConstructor.class.getName() + ".",
+                null);
+          }
+          rowConstructor = c;
+        }
+      }
+
+      return rowConstructor;
+    }
+
+    // records are only known from Java 16, while this library targets Java 8
+    private static boolean isRecord(Class<?> rowClass) {
+      return rowClass.getSuperclass() != null
+          && rowClass.getSuperclass().getName().equals("java.lang.Record");
+    }
+
+    /**
+     * Calls the constructor.
+     *
+     * @param arguments Argument of each parameter of the constructor
+     * @return New instance of the bean class
+     * @throws IllegalRowClassException if an argument is not of the type of its parameter
+     */
+    private Object newInstance(Object[] arguments) {
+      try {
+        return (Object) constructor.invokeExact(arguments);
+      } catch (ClassCastException e) {
+        throw new IllegalRowClassException(
+            constructor.type().returnType(),
+            "Adapted values cannot be passed to the constructor: " + Arrays.toString(arguments),
+            e);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalRowClassException(constructor.type().returnType(), e);
+      }
+    }
+  }
+}
@@ -0,0 +1,524 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.mapping;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import com.americanexpress.jexm.adapter.Adapters;
+import com.americanexpress.jexm.adapter.CellAdapter;
+import com.americanexpress.jexm.adapter.exceptions.CellAdapterException;
+import com.americanexpress.jexm.adapter.exceptions.UnsupportedAdapterFieldException;
+import com.americanexpress.jexm.adapter.utils.AdapterUtils;
+import com.americanexpress.jexm.annotation.Adapter;
+import com.americanexpress.jexm.annotation.Header;
+import com.americanexpress.jexm.mapping.exceptions.IllegalHeaderException;
+import com.americanexpress.jexm.mapping.exceptions.IllegalRowClassException;
+import com.americanexpress.jexm.parsing.utils.ExcelParserUtils;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mapping of a single field annotated by {@link Header}, independent of the file. The header fields
+ * of each bean class are read and validated once, from its annotations or from the {@link
+ * GeneratedRowMapper} generated for it.
+ */
+final class FieldMapping {
+
+  private static final Logger log = LoggerFactory.getLogger(FieldMapping.class);
+
+  // Setter of type (GeneratedRowMapper, Object, int, Object)void of the generated mappers
+  private static final MethodHandle GENERATED_SET;
+
+  static {
+    try {
+      GENERATED_SET =
+          MethodHandles.publicLookup()
+              .findVirtual(
+                  GeneratedRowMapper.class,
+                  "set",
+                  methodType(void.class, Object.class, int.class, Object.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  // Header fields of each bean class, read from its annotations or generated mapper once
+  private static final ClassValue<List<FieldMapping>> FIELD_MAPPINGS =
+      new ClassValue<List<FieldMapping>>() {
+        @Override
+        protected List<FieldMapping> computeValue(Class<?> rowClass) {
+          if (rowClass.isInterface()) {
+            return createGetterMappings(rowClass);
+          }
+          return GeneratedRowMapper.find(rowClass)
+              .map(generatedMapper -> createFieldMappings(rowClass, generatedMapper))
+              .orElseGet(() -> createFieldMappings(rowClass));
+        }
+      };
+
+  private final Class<?> declaringClass;
+  private final String name;
+  private final Class<?> type;
+  private final Type genericType;
+
+  // Either the header name or the column index used to look up the value
+  private final String headerName;
+  private final int index;
+
+  private final Class<? extends CellAdapter> cellAdapter;
+  private final boolean suppressAdapterException;
+  private final boolean deduplicate;
+
+  // Setter of the field taking any value, bound once rather than accessed for every row
+  private final MethodHandle setter;
+  // Parser and setter of primitive values, if the field is primitive and has no custom adapter
+  private final PrimitiveSetter primitiveSetter;
+  // Value of the field in a new bean: null, or zero for primitive fields
+  private final Object defaultValue;
+
+  private FieldMapping(Field field, Header h, Adapter a, boolean settable) {
+    this(
+        field.getDeclaringClass(),
+        field.getName(),
+        field.getType(),
+        field.getGenericType(),
+        h,
+        a,
+        settable ? ReflectionUtils.setter(field) : null);
+  }
+
+  private FieldMapping(Class<?> rowInterface, Method getter, Header h, Adapter a) {
+    this(
+        rowInterface,
+        LazyRowMapping.propertyName(getter),
+        getter.getReturnType(),
+        getter.getGenericReturnType(),
+        h,
+        a,
+        null);
+  }
+
+  /** @param fieldSetter Setter of the field, or {@code null} if the field is never set */
+  private FieldMapping(
+      Class<?> declaringClass,
+      String name,
+      Class<?> type,
+      Type genericType,
+      Header h,
+      Adapter a,
+      MethodHandle fieldSetter) {
+    this.declaringClass = declaringClass;
+    this.name = name;
+    this.type = type;
+    this.genericType = genericType;
+
+    if (!h.name().isEmpty()) {
+      this.headerName = h.name();
+      this.index = -1;
+    } else if (h.index() >= 0) {
+      this.headerName = null;
+      this.index = h.index();
+    } else if (!h.ref().isEmpty()) {
+      this.headerName = null;
+      this.index = ExcelParserUtils.headerIndex(h.ref());
+    } else { // if neither header name, ref nor index are specified, use field name as header name
+      this.headerName = name;
+      this.index = -1;
+    }
+
+    // If a custom adapter was specified by the user, use it instead
+    this.cellAdapter = a != null && a.value() != Adapter.DEFAULT.class ? a.value() : null;
+    this.suppressAdapterException = a == null || a.suppressAdapterException();
+    this.deduplicate = h.deduplicate();
+    this.defaultValue = defaultValue(type);
+
+    if (fieldSetter == null) {
+      this.setter = null;
+      this.primitiveSetter = null;
+      return;
+    }
+
+    this.setter = fieldSetter.asType(methodType(void.class, Object.class, Object.class));
+    this.primitiveSetter =
+        cellAdapter == null && type.isPrimitive()
+            ? primitiveSetter(type, fieldSetter.asType(methodType(void.class, Object.class, type)))
+            : null;
+  }
+
+  private FieldMapping(Class<?> rowClass, GeneratedRowMapper<?> generatedMapper, int i) {
+    GeneratedRowMapper.MappedField f = generatedMapper.fields().get(i);
+
+    this.declaringClass = rowClass;
+    this.name = f.getName();
+    this.type = f.getType();
+    this.genericType = f.getGenericType();
+
+    if (f.getHeaderName() != null) {
+      this.headerName = f.getHeaderName();
+      this.index = -1;
+    } else if (f.getIndex() >= 0) {
+      this.headerName = null;
+      this.index = f.getIndex();
+    } else if (f.getRef() != null) {
+      this.headerName = null;
+      this.index = ExcelParserUtils.headerIndex(f.getRef());
+    } else {
+      this.headerName = f.getName();
+      this.index = -1;
+    }
+
+    this.cellAdapter = f.getCellAdapter();
+    this.suppressAdapterException = f.isSuppressAdapterException();
+    this.deduplicate = f.isDeduplicate();
+    this.defaultValue = defaultValue(type);
+
+    // the generated mapper sets values of primitive fields by unboxing them
+    this.setter = MethodHandles.insertArguments(GENERATED_SET.bindTo(generatedMapper), 1, i);
+    this.primitiveSetter = null;
+  }
+
+  /** @return Name of the field, or of the property of the getter */
+  String getName() {
+    return name;
+  }
+
+  /** @return Type of the field */
+  Class<?> getType() {
+    return type;
+  }
+
+  /** @return Header name looking up the column, or {@code null} if looked up by index */
+  String getHeaderName() {
+    return headerName;
+  }
+
+  /** @return Index of the column, or -1 if looked up by header name */
+  int getIndex() {
+    return index;
+  }
+
+  /** @return {@code true} if the identical values of a String field share one instance */
+  boolean isDeduplicate() {
+    return deduplicate;
+  }
+
+  /** @return Value of the field in a new bean: null, or zero for primitive fields */
+  Object getDefaultValue() {
+    return defaultValue;
+  }
+
+  /**
+   * @return {@code true} if values are set through {@link #setPrimitive(Object, String)} rather
+   *     than {@link #set(Object, Object)}
+   */
+  boolean isPrimitive() {
+    return primitiveSetter != null;
+  }
+
+  // adapt, setPrimitive and set are not private, as compile() looks them up
+
+  /**
+   * Adapts/converts a String value from the low-level parser into an object of the field type.
+   *
+   * @param rawCellValue The String value to be adapted to the field type
+   * @return An instance of {@code field.getType()} as the adapted value of the String
+   * @throws CellAdapterException if the built-in or provided adapter fails to adapt the String
+   *     value and the {@link Adapter#suppressAdapterException()} is set to {@code false}.
+   */
+  Object adapt(String rawCellValue) {
+    try {
+      return Adapters.adapt(type, genericType, rawCellValue, cellAdapter);
+    } catch (UnsupportedAdapterFieldException e) {
+      // Users cannot suppress UnsupportedAdapterFieldException
+      throw e;
+    } catch (Exception e) {
+      return adapterFailed(rawCellValue, e);
+    }
+  }
+
+  /**
+   * Parses the characters of a value and sets them to the primitive field, without boxing them.
+   * Missing and blank values leave the field untouched, as with {@link #adapt(String)}.
+   *
+   * @param target Object with a field to be updated
+   * @param rawCellValue The String value to be adapted to the field type
+   * @return {@code true} if the field was set, {@code false} if the value was missing, blank or
+   *     could not be parsed
+   * @throws CellAdapterException if the value cannot be parsed and the {@link
+   *     Adapter#suppressAdapterException()} is set to {@code false}.
+   */
+  boolean setPrimitive(Object target, String rawCellValue) {
+    if (rawCellValue == null) {
+      return false;
+    }
+
+    CharSequence chars = AdapterUtils.trim(rawCellValue);
+    if (chars.length() == 0) {
+      return false;
+    }
+
+    try {
+      primitiveSetter.set(target, chars);
+      return true;
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable e) {
+      adapterFailed(rawCellValue, e);
+      return false;
+    }
+  }
+
+  /**
+   * Writes the default value of its type to the field, as found in a new bean.
+   *
+   * @param target Object with a field to be reset
+   */
+  void reset(Object target) {
+    try {
+      setter.invokeExact(target, defaultValue);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalRowClassException(declaringClass, e);
+    }
+  }
+
+  /**
+   * Writes a value to the field. If the value is {@code null}, the field is not updated.
+   *
+   * @param target Object with a field to be updated
+   * @param value New value to set the field
+   * @throws IllegalRowClassException if the value is not of the field type
+   */
+  void set(Object target, Object value) {
+    if (value == null) {
+      return; // cannot update null to a primitive field
+    }
+
+    try {
+      setter.invokeExact(target, value);
+    } catch (ClassCastException e) {
+      throw new IllegalRowClassException(
+          declaringClass,
+          String.format(
+              "Value of %s cannot be set to field \"%s\" of %s.", value.getClass(), name, type),
+          e);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalRowClassException(declaringClass, e);
+    }
+  }
+
+  /**
+   * Handles the failure of the built-in or provided adapter to adapt/convert the String value. For
+   * example if we pass "Hello World" to the built-in int adapter, it will throw a
+   * NumberFormatException to be handled here.
+   *
+   * @param rawCellValue The String value which could not be adapted
+   * @param e The exception thrown by the adapter
+   * @return {@code null}, if the exception is suppressed
+   * @throws CellAdapterException if the {@link Adapter#suppressAdapterException()} is set to {@code
+   *     false}.
+   */
+  private Object adapterFailed(String rawCellValue, Throwable e) {
+    if (!suppressAdapterException) {
+      /* if user chooses to throw the exception upon an adapter failure,
+      wrap it around a CellAdapterException and rethrow */
+      throw new CellAdapterException(e);
+    }
+
+    // If the user decided to suppress Adapter exceptions, log them and move on
+    log.warn(
+        "Unable to map raw value \"{}\" to instance of {}. "
+            + "Resulted in exception {} with message \"{}\".",
+        rawCellValue,
+        type,
+        e.getClass(),
+        e.getMessage());
+
+    return null;
+  }
+
+  /**
+   * @param type Type of the field
+   * @return Zero or {@code false} if the type is primitive, {@code null} otherwise
+   */
+  static Object defaultValue(Class<?> type) {
+    return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+  }
+
+  /**
+   * @param type Primitive type of the field
+   * @param setter Setter of type {@code (Object, type)void}
+   * @return Parser and setter of the values of the primitive type
+   */
+  private static PrimitiveSetter primitiveSetter(Class<?> type, MethodHandle setter) {
+    if (type == int.class) {
+      return (t, s) -> {
+        setter.invokeExact(t, AdapterUtils.parseIntWithoutDecimals(s));
+      };
+    } else if (type == long.class) {
+      return (t, s) -> {
+        setter.invokeExact(t, AdapterUtils.parseLongWithoutDecimals(s));
+      };
+    } else if (type == double.class) {
+      return (t, s) -> {
+        setter.invokeExact(t, Double.parseDouble(s.toString()));
+      };
+    } else if (type == float.class) {
+      return (t, s) -> {
+        setter.invokeExact(t, Float.parseFloat(s.toString()));
+      };
+    } else if (type == boolean.class) {
+      return (t, s) -> {
+        setter.invokeExact(t, AdapterUtils.parseBoolean(s).booleanValue());
+      };
+    } else if (type == short.class) {
+      return (t, s) -> {
+        setter.invokeExact(t, AdapterUtils.parseShortWithoutDecimals(s));
+      };
+    } else if (type == byte.class) {
+      return (t, s) -> {
+        setter.invokeExact(t, AdapterUtils.parseByteWithoutDecimals(s));
+      };
+    } else {
+      return (t, s) -> {
+        setter.invokeExact(t, s.charAt(0));
+      };
+    }
+  }
+
+  /**
+   * @param rowClass Bean class or interface representing each row
+   * @return Mapping of each header field of the bean class, in declaration order
+   * @throws IllegalHeaderException if a {@link Header} annotation of the bean class is ambiguous
+   */
+  static List<FieldMapping> of(Class<?> rowClass) {
+    return FIELD_MAPPINGS.get(rowClass);
+  }
+
+  /**
+   * Reads the fields described by the mapper generated for a bean class. They were validated when
+   * the mapper was generated.
+   *
+   * @param rowClass Bean class representing each row
+   * @param generatedMapper Mapper generated for the bean class
+   * @return Mapping of each field described by the mapper, in declaration order
+   */
+  private static List<FieldMapping> createFieldMappings(
+      Class<?> rowClass, GeneratedRowMapper<?> generatedMapper) {
+    List<FieldMapping> fieldMappings = new ArrayList<>();
+
+    for (int i = 0; i < generatedMapper.fields().size(); i++) {
+      fieldMappings.add(new FieldMapping(rowClass, generatedMapper, i));
+    }
+
+    return Collections.unmodifiableList(fieldMappings);
+  }
+
+  /**
+   * Reads and validates the {@link Header} and {@link Adapter} annotations of every field of the
+   * bean class.
+   *
+   * @param rowClass Bean class representing each row
+   * @return Mapping of each field annotated by {@link Header}, in declaration order
+   * @throws IllegalHeaderException if more than one of {@link Header#name()}, {@link
+   *     Header#index()} or {@link Header#ref()} are set
+   */
+  private static List<FieldMapping> createFieldMappings(Class<?> rowClass) {
+    List<FieldMapping> fieldMappings = new ArrayList<>();
+
+    // the fields of beans created by a constructor are never set
+    boolean settable = !ConstructorRowMapping.isConstructed(rowClass);
+
+    for (Field f : rowClass.getDeclaredFields()) {
+      Header h = f.getAnnotation(Header.class);
+
+      if (h != null) { // If there is a header annotation, perform the mapping
+        String ambiguity = ambiguity(h, "field \"" + f.getName() + "\"");
+        if (ambiguity != null) {
+          throw new IllegalHeaderException(rowClass, f, ambiguity);
+        }
+
+        fieldMappings.add(new FieldMapping(f, h, f.getAnnotation(Adapter.class), settable));
+      }
+      // else if header annotation is not found, do nothing with this field
+    }
+
+    return Collections.unmodifiableList(fieldMappings);
+  }
+
+  /**
+   * Same as {@link #createFieldMappings(Class)}, reading the annotations of the getters of an
+   * interface rather than of fields.
+   *
+   * @param rowInterface Interface representing each row
+   * @return Mapping of each getter, in the order of {@link LazyRowMapping#getters(Class)}
+   * @throws IllegalHeaderException if more than one of {@link Header#name()}, {@link
+   *     Header#index()} or {@link Header#ref()} are set
+   */
+  private static List<FieldMapping> createGetterMappings(Class<?> rowInterface) {
+    List<FieldMapping> fieldMappings = new ArrayList<>();
+
+    for (Method m : LazyRowMapping.getters(rowInterface)) {
+      Header h = m.getAnnotation(Header.class);
+
+      String ambiguity = ambiguity(h, "method \"" + m.getName() + "\"");
+      if (ambiguity != null) {
+        throw new IllegalHeaderException(rowInterface, m, ambiguity);
+      }
+
+      fieldMappings.add(new FieldMapping(rowInterface, m, h, m.getAnnotation(Adapter.class)));
+    }
+
+    return Collections.unmodifiableList(fieldMappings);
+  }
+
+  /**
+   * @param h Header annotation of a field or getter
+   * @param member Description of the annotated field or getter
+   * @return Message describing why the column of the header is ambiguous, or {@code null} if it is
+   *     not
+   */
+  private static String ambiguity(Header h, String member) {
+    int lookups = (h.name().isEmpty() ? 0 : 1) + (h.index() < 0 ? 0 : 1);
+    lookups += h.ref().isEmpty() ? 0 : 1;
+
+    if (lookups <= 1) {
+      return null;
+    }
+
+    // if more than one lookup is specified, there is ambiguity
+    return String.format(
+        "Only one of header name (\"%s\"), index (%d) or ref (\"%s\") can be "
+            + "specified in %s annotation of %s.",
+        h.name(), h.index(), h.ref(), Header.class.getName(), member);
+  }
+
+  /** Parses the characters of a value and sets them to a primitive field of an object. */
+  @FunctionalInterface
+  private interface PrimitiveSetter {
+    void set(Object target, CharSequence value) throws Throwable;
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.mapping;
+
+import com.americanexpress.jexm.parsing.RawRow;
+
+/**
+ * Mapping creating each bean before setting its header fields one by one, through reflection or
+ * through the {@link GeneratedRowMapper} of the bean class. Its beans can be reused for several
+ * rows.
+ *
+ * @param <T> Bean type produced by this mapping
+ */
+final class FieldRowMapping<T> implements RowMapping<T> {
+
+  private final MappingPlan<T> mappingPlan;
+  // Mapper generated for the bean class, or null if beans are created through reflection
+  private final GeneratedRowMapper<? extends T> generatedMapper;
+
+  @SuppressWarnings("unchecked")
+  FieldRowMapping(MappingPlan<T> mappingPlan) {
+    this.mappingPlan = mappingPlan;
+    this.generatedMapper =
+        (GeneratedRowMapper<? extends T>)
+            GeneratedRowMapper.find(mappingPlan.getRowClass()).orElse(null);
+  }
+
+  @Override
+  public T createRowObject(RawRow rawRow) {
+    // create a new instance of the given bean class representing each row
+    T t = newInstance();
+    mapRow(t, rawRow, false);
+    return t;
+  }
+
+  @Override
+  public FieldRowMapping<T> reusable() {
+    return this;
+  }
+
+  /** @return New instance of the bean class, with none of its header fields set */
+  T newInstance() {
+    return generatedMapper == null
+        ? ReflectionUtils.newInstance(mappingPlan.getRowClass())
+        : generatedMapper.newInstance();
+  }
+
+  /**
+   * Same as {@link #createRowObject(RawRow)}, mapping the row into an existing bean rather than a
+   * new one. Header fields without a value in the row, or whose value could not be adapted, are
+   * reset to their default value ({@code null}, zero or {@code false}) so that nothing is left over
+   * from the row previously mapped into the bean.
+   *
+   * @param t Bean created by {@link #newInstance()}
+   * @param rawRow String values of the current row
+   */
+  void mapRowInto(T t, RawRow rawRow) {
+    mapRow(t, rawRow, true);
+  }
+
+  private void mapRow(T t, RawRow rawRow, boolean reset) {
+    for (int i = 0; i < mappingPlan.size(); i++) {
+      FieldMapping f = mappingPlan.field(i);
+      String rawCellValue = rawRow.get(mappingPlan.column(i));
+
+      if (f.isPrimitive()) {
+        // Parse and set the value of a primitive field without boxing it
+        if (!f.setPrimitive(t, rawCellValue) && reset) {
+          f.reset(t);
+        }
+        continue;
+      }
+
+      // Convert the String value of the column to the type defined by the field, pooling it
+      Object adaptedCellValue = mappingPlan.adapt(i, rawCellValue);
+
+      // Update the field in the bean object with the new, adapted value
+      if (adaptedCellValue != null) {
+        f.set(t, adaptedCellValue);
+      } else if (reset) {
+        f.reset(t);
+      }
+    }
+  }
+}
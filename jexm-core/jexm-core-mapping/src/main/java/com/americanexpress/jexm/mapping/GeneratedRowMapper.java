@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.mapping;
+
+import com.americanexpress.jexm.adapter.CellAdapter;
+import com.americanexpress.jexm.annotation.Adapter;
+import com.americanexpress.jexm.annotation.Header;
+import com.americanexpress.jexm.mapping.exceptions.IllegalRowClassException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Base class of the mappers generated at build time by the {@code
+ * com.americanexpress.jexm.processor.JexmMapperProcessor} annotation processor. The mapper of a
+ * bean class is named after it with the {@code $JexmMapper} suffix, and describes its {@link
+ * Header} fields as they were validated at build time. It creates and updates the beans with plain
+ * Java code, so that mapping them needs neither reflection nor access to private members. When
+ * found next to a bean class, the mapper is used in place of the annotations of the bean class.
+ *
+ * @param <T> Bean type created by this mapper
+ */
+public abstract class GeneratedRowMapper<T> {
+
+  /** Suffix appended to the name of a bean class to name its generated mapper */
+  public static final String SUFFIX = "$JexmMapper";
+
+  // Mapper generated for each bean class, if any, looked up once
+  private static final ClassValue<Optional<GeneratedRowMapper<?>>> MAPPERS =
+      new ClassValue<Optional<GeneratedRowMapper<?>>>() {
+        @Override
+        protected Optional<GeneratedRowMapper<?>> computeValue(Class<?> rowClass) {
+          return load(rowClass);
+        }
+      };
+
+  private final List<MappedField> fields;
+
+  /** @param fields Header fields of the bean class, in declaration order */
+  protected GeneratedRowMapper(MappedField... fields) {
+    this.fields = Collections.unmodifiableList(Arrays.asList(fields.clone()));
+  }
+
+  /** @return New instance of the bean class, with no field mapped yet */
+  public abstract T newInstance();
+
+  /**
+   * Writes to a header field of a bean.
+   *
+   * @param bean Object with a field to be updated
+   * @param field Index of the field in {@link #fields()}
+   * @param value New, non-null value to set the field
+   * @throws ClassCastException if the value is not of the field type
+   */
+  public abstract void set(T bean, int field, Object value);
+
+  /** @return Header fields of the bean class, in declaration order */
+  public final List<MappedField> fields() {
+    return fields;
+  }
+
+  /**
+   * Looks up the mapper generated for a bean class, if any, once per bean class.
+   *
+   * @param rowClass Bean class representing each row
+   * @return Instance of the mapper generated for the bean class, or empty if there is none
+   * @throws IllegalRowClassException if the mapper cannot be created
+   */
+  static Optional<GeneratedRowMapper<?>> find(Class<?> rowClass) {
+    return MAPPERS.get(rowClass);
+  }
+
+  private static Optional<GeneratedRowMapper<?>> load(Class<?> rowClass) {
+    Class<?> mapperClass;
+    try {
+      mapperClass = Class.forName(rowClass.getName() + SUFFIX, true, rowClass.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      return Optional.empty();
+    }
+
+    if (!GeneratedRowMapper.class.isAssignableFrom(mapperClass)) {
+      return Optional.empty();
+    }
+
+    try {
+      return Optional.of((GeneratedRowMapper<?>) mapperClass.getConstructor().newInstance());
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalRowClassException(rowClass, "Unable to create generated mapper.", e);
+    }
+  }
+
+  /**
+   * @param name Name of the field
+   * @param type Type of the field
+   * @return Description of a field, looked up by its name unless specified otherwise
+   */
+  protected static MappedField field(String name, Class<?> type) {
+    return new MappedField(name, type);
+  }
+
+  /**
+   * @param rawType Collection type of a field
+   * @param typeArgument Element type of the collection
+   * @return Generic type of the field, such as {@code List<String>}
+   */
+  protected static Type parameterized(Class<?> rawType, Class<?> typeArgument) {
+    Objects.requireNonNull(rawType);
+    Objects.requireNonNull(typeArgument);
+
+    return new ParameterizedType() {
+      @Override
+      public Type[] getActualTypeArguments() {
+        return new Type[] {typeArgument};
+      }
+
+      @Override
+      public Type getRawType() {
+        return rawType;
+      }
+
+      @Override
+      public Type getOwnerType() {
+        return null;
+      }
+
+      @Override
+      public String toString() {
+        return rawType.getName() + "<" + typeArgument.getName() + ">";
+      }
+    };
+  }
+
+  /**
+   * Description of a header field of a bean class, equivalent to its {@link Header} and {@link
+   * Adapter} annotations.
+   */
+  public static final class MappedField {
+
+    private final String name;
+    private final Class<?> type;
+    private Type genericType;
+
+    private String headerName;
+    private int index = -1;
+    private String ref;
+
+    private Class<? extends CellAdapter> cellAdapter;
+    private boolean suppressAdapterException = true;
+    private boolean deduplicate;
+
+    private MappedField(String name, Class<?> type) {
+      this.name = Objects.requireNonNull(name);
+      this.type = Objects.requireNonNull(type);
+      this.genericType = type;
+    }
+
+    /** @see Header#name() */
+    public MappedField headerName(String headerName) {
+      this.headerName = headerName;
+      return this;
+    }
+
+    /** @see Header#index() */
+    public MappedField index(int index) {
+      this.index = index;
+      return this;
+    }
+
+    /** @see Header#ref() */
+    public MappedField ref(String ref) {
+      this.ref = ref;
+      return this;
+    }
+
+    /** @see Header#deduplicate() */
+    public MappedField deduplicate() {
+      this.deduplicate = true;
+      return this;
+    }
+
+    /** @see java.lang.reflect.Field#getGenericType() */
+    public MappedField genericType(Type genericType) {
+      this.genericType = genericType;
+      return this;
+    }
+
+    /** @see Adapter */
+    public MappedField adapter(
+        Class<? extends CellAdapter> cellAdapter, boolean suppressAdapterException) {
+      this.cellAdapter = cellAdapter;
+      this.suppressAdapterException = suppressAdapterException;
+      return this;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    Class<?> getType() {
+      return type;
+    }
+
+    Type getGenericType() {
+      return genericType;
+    }
+
+    String getHeaderName() {
+      return headerName;
+    }
+
+    int getIndex() {
+      return index;
+    }
+
+    String getRef() {
+      return ref;
+    }
+
+    Class<? extends CellAdapter> getCellAdapter() {
+      return cellAdapter;
+    }
+
+    boolean isSuppressAdapterException() {
+      return suppressAdapterException;
+    }
+
+    boolean isDeduplicate() {
+      return deduplicate;
+    }
+  }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.mapping;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import com.americanexpress.jexm.annotation.Header;
+import com.americanexpress.jexm.mapping.exceptions.IllegalRowClassException;
+import com.americanexpress.jexm.parsing.RawRow;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mapping of interfaces whose getters are annotated by {@link Header}, implemented by lazy beans
+ * (see {@link LazyRow}) holding the values of the row, each of them adapted the first time its
+ * getter is called. Its beans cannot be reused for several rows.
+ *
+ * @param <T> Interface implemented by the beans of this mapping
+ */
+final class LazyRowMapping<T> implements RowMapping<T> {
+
+  // Constructor of type (InvocationHandler)Object of the proxy class of each lazily mapped
+  // interface
+  private static final ClassValue<MethodHandle> LAZY_CONSTRUCTORS =
+      new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> rowInterface) {
+          try {
+            Class<?> proxyClass = Proxy.getProxyClass(rowInterface.getClassLoader(), rowInterface);
+            return ReflectionUtils.constructor(proxyClass.getConstructor(InvocationHandler.class))
+                .asType(methodType(Object.class, InvocationHandler.class));
+          } catch (NoSuchMethodException e) {
+            throw new IllegalRowClassException(rowInterface, e);
+          }
+        }
+      };
+
+  // Field index of each getter of the lazily mapped interfaces
+  private static final ClassValue<Map<Method, Integer>> GETTER_INDEXES =
+      new ClassValue<Map<Method, Integer>>() {
+        @Override
+        protected Map<Method, Integer> computeValue(Class<?> rowInterface) {
+          List<Method> getters = getters(rowInterface);
+          Map<Method, Integer> getterIndexes = new HashMap<>();
+          for (int i = 0; i < getters.size(); i++) {
+            getterIndexes.put(getters.get(i), i);
+          }
+          return getterIndexes;
+        }
+      };
+
+  private final MappingPlan<T> mappingPlan;
+  // Constructor of the lazy beans
+  private final MethodHandle lazyConstructor;
+
+  /**
+   * @param mappingPlan Plan of the interface
+   * @throws IllegalRowClassException if a method of the interface is not an annotated getter
+   */
+  LazyRowMapping(MappingPlan<T> mappingPlan) {
+    // lazy beans only implement getters, so the interface is rejected here if it has other methods
+    GETTER_INDEXES.get(mappingPlan.getRowClass());
+
+    this.mappingPlan = mappingPlan;
+    this.lazyConstructor = LAZY_CONSTRUCTORS.get(mappingPlan.getRowClass());
+  }
+
+  /**
+   * Lists the getters of an interface, which must all be annotated by {@link Header}. Static
+   * methods and those of {@link Object} are left out.
+   *
+   * @param rowInterface Interface representing each row
+   * @return Getters of the interface, sorted by name
+   * @throws IllegalRowClassException if a method of the interface is not an annotated getter
+   */
+  static List<Method> getters(Class<?> rowInterface) {
+    List<Method> getters = new ArrayList<>();
+
+    for (Method m : rowInterface.getMethods()) {
+      if (Modifier.isStatic(m.getModifiers()) || isObjectMethod(m)) {
+        continue;
+      }
+
+      if (m.isDefault()) {
+        throw new IllegalRowClassException(
+            rowInterface,
+            String.format("Default method \"%s\" cannot be called by lazy beans.", m.getName()),
+            null);
+      }
+      if (m.getAnnotation(Header.class) == null
+          || m.getParameterCount() > 0
+          || m.getReturnType() == void.class) {
+        throw new IllegalRowClassException(
+            rowInterface,
+            String.format(
+                "Method \"%s\" must be a getter annotated by %s.",
+                m.getName(), Header.class.getName()),
+            null);
+      }
+
+      getters.add(m);
+    }
+
+    getters.sort(Comparator.comparing(Method::getName));
+    return getters;
+  }
+
+  /**
+   * @param getter Getter of an interface, such as {@code getName()} or {@code isActive()}
+   * @return Name of the property, such as {@code name} or {@code active}, or the name of the getter
+   *     if it has no prefix
+   */
+  static String propertyName(Method getter) {
+    String name = getter.getName();
+    int prefix = name.startsWith("get") ? 3 : name.startsWith("is") ? 2 : 0;
+
+    if (prefix == 0 || name.length() == prefix) {
+      return name;
+    }
+    return Character.toLowerCase(name.charAt(prefix)) + name.substring(prefix + 1);
+  }
+
+  private static boolean isObjectMethod(Method m) {
+    try {
+      Object.class.getMethod(m.getName(), m.getParameterTypes());
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public T createRowObject(RawRow rawRow) {
+    // the values are copied, as the row may be reused for the next one
+    String[] rawCellValues = new String[mappingPlan.size()];
+    for (int i = 0; i < mappingPlan.size(); i++) {
+      rawCellValues[i] = rawRow.get(mappingPlan.column(i));
+    }
+
+    Object lazyBean;
+    try {
+      lazyBean =
+          (Object)
+              lazyConstructor.invokeExact((InvocationHandler) new LazyRow(this, rawCellValues));
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalRowClassException(mappingPlan.getRowClass(), e);
+    }
+    return mappingPlan.getRowClass().cast(lazyBean);
+  }
+
+  /**
+   * Adapts the value of a field of a lazy bean, called the first time its getter is.
+   *
+   * @param i Index of the field
+   * @param rawCellValue String value of the field in the row
+   * @return Adapted value, or the default value of the field type if there is none
+   */
+  private Object adaptLazily(int i, String rawCellValue) {
+    Object value = mappingPlan.adapt(i, rawCellValue);
+
+    // getters of primitive types cannot return null
+    return value == null ? mappingPlan.field(i).getDefaultValue() : value;
+  }
+
+  /**
+   * Handler of the lazy beans implementing an interface whose getters are annotated by {@link
+   * Header}. It holds the String values of the row and adapts each of them the first time its
+   * getter is called, caching the result, so that rows dropped after looking at a few of their
+   * fields are barely mapped. Adapter exceptions are thrown by the getters. All values are adapted
+   * before the bean is serialized.
+   */
+  private static final class LazyRow implements InvocationHandler, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Value of the fields which have not been adapted yet
+    private static final Object NOT_ADAPTED = new Object();
+
+    private final Class<?> rowInterface;
+    // Mapping adapting the values, not needed once all are adapted
+    private transient LazyRowMapping<?> rowMapping;
+    private transient String[] rawCellValues;
+    private final Object[] values;
+
+    private LazyRow(LazyRowMapping<?> rowMapping, String[] rawCellValues) {
+      this.rowInterface = rowMapping.mappingPlan.getRowClass();
+      this.rowMapping = rowMapping;
+      this.rawCellValues = rawCellValues;
+      this.values = new Object[rawCellValues.length];
+      Arrays.fill(values, NOT_ADAPTED);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      Integer i = GETTER_INDEXES.get(rowInterface).get(method);
+      if (i != null) {
+        return value(i);
+      }
+
+      switch (method.getName()) {
+        case "equals":
+          return proxy == args[0] || isEqualLazyBean(args[0]);
+        case "hashCode":
+          return Arrays.deepHashCode(values());
+        case "toString":
+          return rowInterface.getSimpleName() + Arrays.deepToString(values());
+        default:
+          // interfaces with other methods are rejected when their plan is created
+          throw new IllegalStateException("Method not implemented by lazy beans: " + method);
+      }
+    }
+
+    /**
+     * @param other Object compared to the lazy bean
+     * @return {@code true} if the other object is a lazy bean of the same interface with equal
+     *     values
+     */
+    private boolean isEqualLazyBean(Object other) {
+      if (other == null || !Proxy.isProxyClass(other.getClass())) {
+        return false;
+      }
+
+      InvocationHandler handler = Proxy.getInvocationHandler(other);
+      return handler instanceof LazyRow
+          && ((LazyRow) handler).rowInterface == rowInterface
+          && Arrays.deepEquals(values(), ((LazyRow) handler).values());
+    }
+
+    private Object value(int i) {
+      Object value = values[i];
+      if (value == NOT_ADAPTED) {
+        value = values[i] = rowMapping.adaptLazily(i, rawCellValues[i]);
+      }
+      return value;
+    }
+
+    /** @return Values of all the fields, adapting those which are not yet */
+    private Object[] values() {
+      for (int i = 0; i < values.length; i++) {
+        value(i);
+      }
+      return values;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+      values();
+      out.defaultWriteObject();
+    }
+  }
+}
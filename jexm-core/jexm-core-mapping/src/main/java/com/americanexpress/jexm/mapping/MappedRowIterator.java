@@ -15,28 +15,26 @@ package com.americanexpress.jexm.mapping;
 
 import com.americanexpress.jexm.CloseableIterator;
 import com.americanexpress.jexm.ExcelExtension;
-import com.americanexpress.jexm.adapter.Adapters;
-import com.americanexpress.jexm.adapter.CellAdapter;
-import com.americanexpress.jexm.adapter.exceptions.CellAdapterException;
-import com.americanexpress.jexm.adapter.exceptions.UnsupportedAdapterFieldException;
-import com.americanexpress.jexm.annotation.Adapter;
 import com.americanexpress.jexm.annotation.Header;
 import com.americanexpress.jexm.annotation.Sheet;
+import com.americanexpress.jexm.mapping.config.MappingConfig;
 import com.americanexpress.jexm.mapping.exceptions.IllegalHeaderException;
+import com.americanexpress.jexm.parsing.RawRow;
 import com.americanexpress.jexm.parsing.RawRowIterator;
 import com.americanexpress.jexm.parsing.RawRowIteratorFactory;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
 import com.americanexpress.jexm.parsing.config.SheetConfig;
-import com.americanexpress.jexm.parsing.utils.ExcelParserUtils;
+import com.americanexpress.jexm.parsing.file.XlsxWorkbook;
 import java.io.InputStream;
 import java.io.Serializable;
-import java.lang.reflect.Field;
 import java.nio.file.Path;
-import java.util.Arrays;
-import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.stream.Collectors;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Class providing an iterator for each row of an Excel document given the Java bean for mapping.
@@ -45,14 +43,14 @@ import org.slf4j.LoggerFactory;
  * evaluated and are not pulled from disk until {@link MappedRowIterator#hasNext} or {@link
  * MappedRowIterator#next} are called. This is a high-level class which does not concern with
  * specific file types to be parsed. The {@link RawRowIterator} is responsible for handling
- * different file types and abstracting them to this class.
+ * different file types and abstracting them to this class. If {@link
+ * MappingConfig#isReusingBeans()}, the same bean is returned for every row and is only valid until
+ * the next one is read.
  *
  * @param <T> Bean type produced by this iterator
  */
 public class MappedRowIterator<T extends Serializable> implements CloseableIterator<T> {
 
-  private static final Logger log = LoggerFactory.getLogger(MappedRowIterator.class);
-
   // Bean class representing each row
   private Class<T> rowClass;
   private SheetConfig sheetConfig;
@@ -60,35 +58,142 @@ public class MappedRowIterator<T extends Serializable> implements CloseableItera
   // Iterator with lazily evaluated contents of the file
   private RawRowIterator rawRowIterator;
 
-  private MappedRowIterator(Class<T> rowClass) {
+  private ParserConfig parserConfig;
+  private MappingConfig mappingConfig;
+
+  // How each row is mapped into the bean class, created once the header line is known
+  private MappingPlan<T> mappingPlan;
+
+  // Bean filled with each row and the row it is read into, if beans are reused
+  private boolean reusingBeans;
+  private T reusedBean;
+  private RawRow reusedRow;
+  private boolean rowRead = false;
+
+  private MappedRowIterator(
+      Class<T> rowClass, ParserConfig parserConfig, MappingConfig mappingConfig) {
     this.rowClass = Objects.requireNonNull(rowClass);
     this.sheetConfig = SheetConfig.fromAnnotation(rowClass.getAnnotation(Sheet.class));
+    this.parserConfig = parserConfig;
+    this.mappingConfig = mappingConfig;
   }
 
   public MappedRowIterator(Class<T> rowClass, RawRowIterator rawRowIterator) {
-    this(rowClass);
+    this(rowClass, rawRowIterator, null);
+  }
+
+  /**
+   * Creates an iterator over the rows of a user-defined low-level iterator.
+   *
+   * @param rowClass Bean class representing each row
+   * @param rawRowIterator The low-level iterator
+   * @param mappingConfig The optional mapping configuration
+   */
+  public MappedRowIterator(
+      Class<T> rowClass, RawRowIterator rawRowIterator, MappingConfig mappingConfig) {
+    this(rowClass, rawRowIterator, null, mappingConfig);
+  }
+
+  /**
+   * @see #MappedRowIterator(Class, RawRowIterator, MappingConfig)
+   * @param parserConfig The optional parser configuration, of which only the options applying to
+   *     the mapping are used (eg. {@link ParserConfig#isDeduplicatingStrings()})
+   */
+  public MappedRowIterator(
+      Class<T> rowClass,
+      RawRowIterator rawRowIterator,
+      ParserConfig parserConfig,
+      MappingConfig mappingConfig) {
+    this(rowClass, parserConfig, mappingConfig);
     this.rawRowIterator = Objects.requireNonNull(rawRowIterator);
-    verifyHeaderNamesExist();
+    createMappingPlan();
   }
 
   public MappedRowIterator(Class<T> rowClass, Path path) {
-    this(rowClass);
+    this(rowClass, (ParserConfig) null, null);
     this.rawRowIterator = RawRowIteratorFactory.createIterator(path, sheetConfig);
-    verifyHeaderNamesExist();
+    createMappingPlan();
   }
 
   public MappedRowIterator(Class<T> rowClass, Path path, ExcelExtension excelExtension) {
-    this(rowClass);
-    this.rawRowIterator = RawRowIteratorFactory.createIterator(path, excelExtension, sheetConfig);
-    verifyHeaderNamesExist();
+    this(rowClass, path, excelExtension, null);
+  }
+
+  public MappedRowIterator(
+      Class<T> rowClass, Path path, ExcelExtension excelExtension, ParserConfig parserConfig) {
+    this(rowClass, path, excelExtension, parserConfig, null);
+  }
+
+  public MappedRowIterator(
+      Class<T> rowClass,
+      Path path,
+      ExcelExtension excelExtension,
+      ParserConfig parserConfig,
+      MappingConfig mappingConfig) {
+    this(rowClass, parserConfig, mappingConfig);
+    this.rawRowIterator =
+        RawRowIteratorFactory.createIterator(path, excelExtension, sheetConfig, parserConfig);
+    createMappingPlan();
   }
 
   public MappedRowIterator(
       Class<T> rowClass, InputStream inputStream, ExcelExtension excelExtension) {
-    this(rowClass);
+    this(rowClass, inputStream, excelExtension, null);
+  }
+
+  public MappedRowIterator(
+      Class<T> rowClass,
+      InputStream inputStream,
+      ExcelExtension excelExtension,
+      ParserConfig parserConfig) {
+    this(rowClass, inputStream, excelExtension, parserConfig, null);
+  }
+
+  public MappedRowIterator(
+      Class<T> rowClass,
+      InputStream inputStream,
+      ExcelExtension excelExtension,
+      ParserConfig parserConfig,
+      MappingConfig mappingConfig) {
+    this(rowClass, parserConfig, mappingConfig);
     this.rawRowIterator =
-        RawRowIteratorFactory.createIterator(inputStream, excelExtension, sheetConfig);
-    verifyHeaderNamesExist();
+        RawRowIteratorFactory.createIterator(
+            inputStream, excelExtension, sheetConfig, parserConfig);
+    createMappingPlan();
+  }
+
+  /**
+   * Creates an iterator over a sheet of an already open workbook. Closing the iterator does not
+   * close the workbook.
+   *
+   * @param rowClass Bean class representing each row
+   * @param workbook The open workbook
+   * @param sheetConfig The optional Excel sheet configuration. If {@code null}, the {@link Sheet}
+   *     annotation of the bean class is used
+   * @param parserConfig The optional parser configuration
+   */
+  public MappedRowIterator(
+      Class<T> rowClass,
+      XlsxWorkbook workbook,
+      SheetConfig sheetConfig,
+      ParserConfig parserConfig) {
+    this(rowClass, workbook, sheetConfig, parserConfig, null);
+  }
+
+  /**
+   * @see #MappedRowIterator(Class, XlsxWorkbook, SheetConfig, ParserConfig)
+   * @param mappingConfig The optional mapping configuration
+   */
+  public MappedRowIterator(
+      Class<T> rowClass,
+      XlsxWorkbook workbook,
+      SheetConfig sheetConfig,
+      ParserConfig parserConfig,
+      MappingConfig mappingConfig) {
+    this(rowClass, parserConfig, mappingConfig);
+    this.rawRowIterator =
+        workbook.createIterator(sheetConfig == null ? this.sheetConfig : sheetConfig, parserConfig);
+    createMappingPlan();
   }
 
   /** Close disk resources opened by this iterator. */
@@ -104,207 +209,144 @@ public class MappedRowIterator<T extends Serializable> implements CloseableItera
    */
   @Override
   public boolean hasNext() {
-    return rawRowIterator.hasNext();
+    if (!reusingBeans) {
+      return rawRowIterator.hasNext();
+    }
+
+    if (!rowRead) {
+      rowRead = rawRowIterator.nextRawRow(reusedRow);
+    }
+    return rowRead;
   }
 
   /**
    * Loads the next row from the Excel document and transforms it into the given bean class
-   * according to built-in or specified adapter rules.
+   * according to built-in or specified adapter rules. If beans are reused, the row is mapped into
+   * the bean previously returned, resetting the fields left without a value by the row.
    *
    * @return Instance of bean class representing the row.
    */
   @Override
   public T next() {
-    return createRowObject(rawRowIterator.next());
+    if (!reusingBeans) {
+      return createRowObject(rawRowIterator.nextRawRow());
+    }
+
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    rowRead = false;
+    mappingPlan.mapRowInto(reusedBean, reusedRow);
+    return reusedBean;
   }
 
   /**
-   * Creates an instance of the bean class representing a row. It uses a map with the column index
-   * to it's String value, provided by the {@link RawRowIterator}, the header line and the {@link
-   * Header} annotation to figure out how to populate each field of the bean.
+   * Creates a stream of the beans representing the remaining rows, closing this iterator when the
+   * stream is closed. When parallel, rows are mapped concurrently and, if the underlying {@link
+   * RawRowIterator} supports it (see {@link RawRowIterator#rawRowSpliterator()}), also parsed
+   * concurrently. The order of the rows is preserved in both cases.
    *
-   * @param rawRow Header index to String value map for the current row
-   * @return Instance of bean class with all its header fields adapted
+   * <p>If beans are reused, each split of a parallel stream fills a bean of its own. The beans must
+   * then be consumed or projected as soon as they are produced, and never collected nor buffered,
+   * as by {@link Stream#sorted()} or {@link Stream#forEachOrdered(Consumer)} on a parallel stream.
+   *
+   * @param parallel {@code true} for a parallel stream, {@code false} for a sequential one
+   * @return Stream of row objects
    */
-  private T createRowObject(Map<Integer, String> rawRow) {
-
-    // create a new instance of the given bean class representing each row
-    T t = ReflectionUtils.newInstance(rowClass);
-
-    /* Retrieve the map of header name to its String value for the current row
-    Example: {"Name" -> "Chuck", "Lastname" -> "Smith"} */
-    Map<String, String> headerToCellValueMap = createHeaderNameToCellValueMap(rawRow);
-
-    // Iterate through every field in the bean class that is annotated by @Header
-    for (Field f : rowClass.getDeclaredFields()) {
-      Header h = f.getAnnotation(Header.class);
-
-      if (h != null) { // If there is a header annotation, perform the mapping
+  public Stream<T> stream(boolean parallel) {
+    if (reusingBeans) {
+      Spliterator<T> beans =
+          parallel
+              ? new ReusingSpliterator(rawRowIterator.rawRowSpliterator())
+              : Spliterators.spliteratorUnknownSize(
+                  this, Spliterator.ORDERED | Spliterator.NONNULL);
+      return StreamSupport.stream(beans, parallel).onClose(this::close);
+    }
 
-        // Figure out the raw String value for that field
-        String rawCellValue = rawCellValue(h, f, rawRow, headerToCellValueMap);
+    return StreamSupport.stream(rawRowIterator.rawRowSpliterator(), parallel)
+        .map(this::createRowObject)
+        .onClose(this::close); // add onClose hook to close IO resources
+  }
 
-        // Convert the String type to the type defined by the field
-        Object adaptedCellValue = adaptedCellValue(f, rawCellValue);
+  /**
+   * Creates an instance of the bean class representing a row. It uses the String values of the row
+   * indexed by column, provided by the {@link RawRowIterator}, and the {@link MappingPlan} of the
+   * bean class to figure out how to populate each field of the bean.
+   *
+   * @param rawRow String values of the current row
+   * @return Instance of bean class with all its header fields adapted
+   */
+  private T createRowObject(RawRow rawRow) {
+    return mappingPlan.createRowObject(rawRow);
+  }
 
-        // Update the field in the bean object with the new, adapted value
-        ReflectionUtils.update(t, f, adaptedCellValue);
+  /**
+   * Creates the plan mapping each row into the bean class, given the header line of the file. The
+   * iterator is closed if the {@link Header} annotations of the bean class are invalid.
+   *
+   * @throws IllegalHeaderException if a {@link Header} annotation of the bean class is ambiguous
+   */
+  private void createMappingPlan() {
+    try {
+      this.mappingPlan =
+          MappingPlan.create(rowClass, rawRowIterator.headerIndexes(), parserConfig, mappingConfig);
+
+      // beans bound to their constructor cannot be filled again, so they are always created
+      this.reusingBeans =
+          mappingConfig != null && mappingConfig.isReusingBeans() && mappingPlan.isReusable();
+      if (reusingBeans) {
+        this.reusedBean = mappingPlan.newInstance();
+        this.reusedRow = new RawRow();
       }
-      // else if header annotation is not found, do nothing with this field
+    } catch (RuntimeException e) {
+      rawRowIterator.close();
+      throw e;
     }
-
-    return t;
   }
 
   /**
-   * Adapts/converts a String value from the low-level parser ({@link RawRowIterator}) into an
-   * object of class defined by the given Field type.
-   *
-   * @param f The field used used for the adapting operator
-   * @param rawCellValue The String value to be adapted to the given field type
-   * @return An instance of {@code field.getType()} as the adapted value of the String
-   * @throws CellAdapterException if the built-in or provided adapter fails to adapt the String
-   *     value and the {@link Adapter#suppressAdapterException()} is set to {@code false}.
+   * Spliterator mapping the rows of a split of the document into a single bean, each of its own
+   * splits filling another bean.
    */
-  private Object adaptedCellValue(Field f, String rawCellValue) {
+  private final class ReusingSpliterator implements Spliterator<T> {
 
-    Class<? extends CellAdapter> cellAdapter = null;
+    private final Spliterator<RawRow> rawRows;
+    private final T bean = mappingPlan.newInstance();
 
-    Adapter a = f.getAnnotation(Adapter.class);
-    if (a != null && a.value() != Adapter.DEFAULT.class) {
-      // If a custom adapter was specified by the user, use it instead
-      cellAdapter = a.value();
+    private ReusingSpliterator(Spliterator<RawRow> rawRows) {
+      this.rawRows = rawRows;
     }
 
-    try {
-      return Adapters.adapt(f.getType(), f.getGenericType(), rawCellValue, cellAdapter);
-    } catch (UnsupportedAdapterFieldException e) {
-      // Users cannot suppress UnsupportedAdapterFieldException
-      throw e;
-    } catch (Exception e) {
-      /* An exception will be caught here if the built-in or provided adapter fails to adapt/convert
-      the String field. For example if we pass "Hello World" to the built-in int adapter, it will
-      throw a NumberFormatException to be caught here.
-      Possible future additions will include allowing users to pass in their own exception handlers.*/
-
-      if (a == null || a.suppressAdapterException()) {
-        // If the user decided to suppress Adapter exceptions, log them and move on
-        log.warn(
-            "Unable to map raw value \"{}\" to instance of {}. "
-                + "Resulted in exception {} with message \"{}\".",
-            rawCellValue,
-            f.getType(),
-            e.getClass(),
-            e.getMessage());
-      } else {
-        /* if user chooses to throw the exception upon an adapter failure,
-        wrap it around a CellAdapterException and rethrow */
-        throw new CellAdapterException(e);
-      }
-
-      /* else if user chooses to suppress a exceptions, no exception will be thrown
-      when cell mapping fails. For example, if Integer.parseInt throws a NumberFormatException,
-      that will be ignored and number will be defaulted to its original value (zero).
-      Possible future additions will include allowing users to pass in their own exception handlers. */
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      return rawRows.tryAdvance(rawRow -> action.accept(map(rawRow)));
+    }
 
-      return null;
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+      rawRows.forEachRemaining(rawRow -> action.accept(map(rawRow)));
     }
-  }
 
-  /**
-   * Retrieves the String value of the current row given a {@link Header}. The {@link Header#name()}
-   * and {@link Header#index()} are used to figure out how to perform the lookup of the column on
-   * the Excel document. If neither the name nor index are set, the Java field name itself is used
-   * as header name.
-   *
-   * @param h Header used to perform lookup of the String value
-   * @param f Field used for lookup if both {@link Header#name()} and {@link Header#index()} are not
-   *     set.
-   * @param rawRow Column/header index to String value lookup using {@link Header#index()}
-   * @param headerToCellValueMap Column/header name to String value lookup using {@link
-   *     Header#name()}
-   * @return String value retrieved from the lookup
-   * @throws IllegalHeaderException if both the {@link Header#name()} and {@link Header#index()} are
-   *     set
-   */
-  private String rawCellValue(
-      Header h, Field f, Map<Integer, String> rawRow, Map<String, String> headerToCellValueMap) {
-
-    if (h.name().isEmpty()) {
-      // if no name was specified in @Header annotation
-      if (h.index() >= 0) { // see if a column index was specified
-        if (!h.ref().isEmpty()) { // if both header index and ref are specified, there is ambiguity
-          throw new IllegalHeaderException(
-              rowClass,
-              f,
-              String.format(
-                  "Only one of header name (\"%s\"), index (%d) or ref (\"%s\") can be "
-                      + "specified in %s annotation of field \"%s\".",
-                  h.name(), h.index(), h.ref(), Header.class.getName(), f.getName()));
-        }
-        // otherwise use index
-        return rawRow.get(h.index());
-      } else if (!h.ref().isEmpty()) {
-        // otherwise use reference
-        return rawRow.get(ExcelParserUtils.headerIndex(h.ref()));
-      } else { // if neither header name, ref nor index are specified, use field name as header name
-        return headerToCellValueMap.get(f.getName());
-      }
-    } else {
-      if (h.index() >= 0
-          || !h.ref()
-              .isEmpty()) { // if both header name and index are specified, there is ambiguity
-        throw new IllegalHeaderException(
-            rowClass,
-            f,
-            String.format(
-                "Only one of header name (\"%s\") or index (%d) or ref (\"%s\") can be "
-                    + "specified in %s annotation of field \"%s\".",
-                h.name(), h.index(), h.ref(), Header.class.getName(), f.getName()));
-      }
+    private T map(RawRow rawRow) {
+      mappingPlan.mapRowInto(bean, rawRow);
+      return bean;
+    }
 
-      // if only the header name is set, use it
-      return headerToCellValueMap.get(h.name());
+    @Override
+    public Spliterator<T> trySplit() {
+      Spliterator<RawRow> split = rawRows.trySplit();
+      return split == null ? null : new ReusingSpliterator(split);
     }
-  }
 
-  /**
-   * @param rawRow Map of column/header indexes to their String values in the current row.
-   * @return Map of header names to their values in the current row.
-   */
-  private Map<String, String> createHeaderNameToCellValueMap(Map<Integer, String> rawRow) {
-    return rawRowIterator
-        .headerIndexes()
-        .entrySet()
-        .stream()
-        .filter(e -> rawRow.get(e.getValue()) != null)
-        .collect(Collectors.toMap(Map.Entry::getKey, e -> rawRow.get(e.getValue())));
-  }
+    @Override
+    public long estimateSize() {
+      return rawRows.estimateSize();
+    }
 
-  /**
-   * Logs a warning for each header name specified in the Java bean which does not exist in the
-   * excel file itself.
-   */
-  private void verifyHeaderNamesExist() {
-    Arrays.stream(rowClass.getDeclaredFields())
-        .map(
-            f -> {
-              Header h = f.getAnnotation(Header.class);
-
-              if (h != null) {
-                if (!h.name().isEmpty()) {
-                  // if the header name was specified
-                  return h.name();
-                } else if (h.index() < 0 && h.ref().isEmpty()) {
-                  // if no other lookup will be specified, use the field name
-                  return f.getName();
-                }
-              }
-
-              return null;
-            })
-        .filter(Objects::nonNull)
-        .filter(n -> !rawRowIterator.headerIndexes().containsKey(n))
-        .forEach(n -> log.warn("Header named \"{}\" was not found in the file.", n));
+    @Override
+    public int characteristics() {
+      // the same bean is produced for every row
+      return rawRows.characteristics() & ~(Spliterator.DISTINCT | Spliterator.SORTED);
+    }
   }
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.mapping;
+
+import com.americanexpress.jexm.annotation.Adapter;
+import com.americanexpress.jexm.annotation.Header;
+import com.americanexpress.jexm.annotation.RowConstructor;
+import com.americanexpress.jexm.mapping.config.MappingConfig;
+import com.americanexpress.jexm.mapping.exceptions.IllegalHeaderException;
+import com.americanexpress.jexm.parsing.RawRow;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
+import com.americanexpress.jexm.parsing.utils.StringPool;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Immutable plan describing how to map the rows of a file into instances of a bean class. The
+ * {@link Header} and {@link Adapter} annotations of the bean class are read and validated once per
+ * class (see {@link FieldMapping}), and their columns are resolved once per file given its header
+ * line, so that mapping each row is a loop over the fields to be populated (see {@link
+ * FieldRowMapping}). Optionally (see {@link MappingConfig#isCompiledMapping()}), the plan is
+ * compiled into a single method handle (see {@link CompiledRowMapping}). If a {@link
+ * GeneratedRowMapper} was generated for the bean class at build time, it is used in place of its
+ * annotations, and to create and update the beans without reflection. Immutable beans, with a
+ * constructor annotated by {@link RowConstructor} or being records, are created by calling their
+ * constructor with the values of all their fields instead (see {@link ConstructorRowMapping}).
+ * Interfaces whose getters are annotated by {@link Header} are implemented by lazy beans (see
+ * {@link LazyRowMapping}) holding the values of the row, each of them adapted the first time its
+ * getter is called.
+ *
+ * @param <T> Bean type produced by this plan
+ */
+final class MappingPlan<T> {
+
+  private static final Logger log = LoggerFactory.getLogger(MappingPlan.class);
+
+  private final Class<T> rowClass;
+
+  // Field, column and pool of each header field, in declaration order
+  private final FieldMapping[] fields;
+  private final int[] columns;
+  private final StringPool[] stringPools;
+
+  // Mapping creating the beans
+  private final RowMapping<T> rowMapping;
+
+  private MappingPlan(
+      Class<T> rowClass,
+      FieldMapping[] fields,
+      int[] columns,
+      StringPool[] stringPools,
+      boolean compiled) {
+    this.rowClass = rowClass;
+    this.fields = fields;
+    this.columns = columns;
+    this.stringPools = stringPools;
+    this.rowMapping = createRowMapping(compiled);
+  }
+
+  /**
+   * Creates the plan mapping the rows of a file into instances of the given bean class. A warning
+   * is logged for each header name specified in the bean class which does not exist in the file.
+   *
+   * @param rowClass Bean class representing each row
+   * @param headerIndexes Column index of each header name of the file
+   * @param parserConfig The optional parser configuration
+   * @param mappingConfig The optional mapping configuration
+   * @return Plan for the bean class and header line
+   * @throws IllegalHeaderException if a {@link Header} annotation of the bean class is ambiguous
+   */
+  static <T> MappingPlan<T> create(
+      Class<T> rowClass,
+      Map<String, Integer> headerIndexes,
+      ParserConfig parserConfig,
+      MappingConfig mappingConfig) {
+    Objects.requireNonNull(rowClass);
+    Objects.requireNonNull(headerIndexes);
+
+    // deduplicate String fields either because of @Header or because all are
+    boolean all = parserConfig != null && parserConfig.isDeduplicatingStrings();
+    int size = all ? parserConfig.getStringPoolSize() : StringPool.DEFAULT_SIZE;
+
+    FieldMapping[] fields = FieldMapping.of(rowClass).toArray(new FieldMapping[0]);
+    int[] columns = new int[fields.length];
+    StringPool[] stringPools = new StringPool[fields.length];
+
+    for (int i = 0; i < fields.length; i++) {
+      FieldMapping f = fields[i];
+
+      if (f.getHeaderName() == null) {
+        columns[i] = f.getIndex();
+      } else {
+        Integer index = headerIndexes.get(f.getHeaderName());
+        if (index == null) {
+          log.warn("Header named \"{}\" was not found in the file.", f.getHeaderName());
+        }
+        columns[i] = index == null ? -1 : index;
+      }
+
+      if (f.getType() == String.class && (all || f.isDeduplicate())) {
+        stringPools[i] = new StringPool(size);
+      }
+    }
+
+    boolean compiled = mappingConfig != null && mappingConfig.isCompiledMapping();
+    return new MappingPlan<>(rowClass, fields, columns, stringPools, compiled);
+  }
+
+  /**
+   * Creates an instance of the bean class representing a row, with all its header fields adapted.
+   *
+   * @param rawRow String values of the current row
+   * @return Instance of bean class representing the row
+   */
+  T createRowObject(RawRow rawRow) {
+    return rowMapping.createRowObject(rawRow);
+  }
+
+  /**
+   * @return {@code true} if a bean can be reused for several rows through {@link
+   *     #mapRowInto(Object, RawRow)}, which is not the case of beans bound to their constructor nor
+   *     of lazy beans
+   */
+  boolean isReusable() {
+    return rowMapping.reusable() != null;
+  }
+
+  /** @return New instance of the bean class, with none of its header fields set */
+  T newInstance() {
+    return rowMapping.reusable().newInstance();
+  }
+
+  /**
+   * Same as {@link #createRowObject(RawRow)}, mapping the row into an existing bean rather than a
+   * new one, see {@link FieldRowMapping#mapRowInto(Object, RawRow)}.
+   *
+   * @param t Bean created by {@link #newInstance()}, see {@link #isReusable()}
+   * @param rawRow String values of the current row
+   */
+  void mapRowInto(T t, RawRow rawRow) {
+    rowMapping.reusable().mapRowInto(t, rawRow);
+  }
+
+  /** @return Bean class representing each row */
+  Class<T> getRowClass() {
+    return rowClass;
+  }
+
+  /** @return Number of header fields */
+  int size() {
+    return fields.length;
+  }
+
+  /**
+   * @param i Index of the header field, in declaration order
+   * @return Mapping of the header field
+   */
+  FieldMapping field(int i) {
+    return fields[i];
+  }
+
+  /**
+   * @param i Index of the header field, in declaration order
+   * @return Column of the header field in the file, or -1 if it was not found
+   */
+  int column(int i) {
+    return columns[i];
+  }
+
+  /**
+   * @param i Index of the header field, in declaration order
+   * @return Pool of the values of the header field, or {@code null} if it is not deduplicated
+   */
+  StringPool stringPool(int i) {
+    return stringPools[i];
+  }
+
+  /**
+   * Adapts the value of a header field, sharing a single instance between its identical values if
+   * the field is deduplicated.
+   *
+   * @param i Index of the header field, in declaration order
+   * @param rawCellValue String value of the field in the row
+   * @return Adapted value, or {@code null} if there is none
+   */
+  Object adapt(int i, String rawCellValue) {
+    Object adaptedCellValue = fields[i].adapt(rawCellValue);
+    return stringPools[i] == null ? adaptedCellValue : pooled(stringPools[i], adaptedCellValue);
+  }
+
+  /**
+   * @param compiled {@code true} if the mapping is compiled into a single method handle
+   * @return Mapping implementing the interface by lazy beans, passing the values of the fields to
+   *     the constructor of the beans, or setting them
+   */
+  private RowMapping<T> createRowMapping(boolean compiled) {
+    if (rowClass.isInterface()) {
+      // fields adapted lazily are not set either
+      return new LazyRowMapping<>(this);
+    }
+
+    Optional<RowMapping<T>> constructorRowMapping = ConstructorRowMapping.find(this);
+    if (constructorRowMapping.isPresent()) {
+      // fields passed to a constructor are not set, so there is nothing to compile
+      return constructorRowMapping.get();
+    }
+
+    FieldRowMapping<T> fieldRowMapping = new FieldRowMapping<>(this);
+    return compiled ? new CompiledRowMapping<>(this, fieldRowMapping) : fieldRowMapping;
+  }
+
+  /**
+   * @param stringPool Pool of the field
+   * @param value Adapted value of a String field
+   * @return Instance from the pool equal to the value, or {@code null} if the value is
+   */
+  static Object pooled(StringPool stringPool, Object value) {
+    return value == null ? null : stringPool.get((String) value);
+  }
+}
@@ -14,6 +14,8 @@
 package com.americanexpress.jexm.mapping;
 
 import com.americanexpress.jexm.mapping.exceptions.IllegalRowClassException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -33,6 +35,20 @@ public final class ReflectionUtils {
   private static final ReflectionFactory REFLECTION_FACTORY =
       ReflectionFactory.getReflectionFactory();
 
+  // Object constructor of each class, created once as its accessor is costly to create
+  private static final ClassValue<Constructor<?>> EMPTY_CONSTRUCTORS =
+      new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> clazz) {
+          try {
+            return REFLECTION_FACTORY.newConstructorForSerialization(
+                clazz, Object.class.getDeclaredConstructor());
+          } catch (NoSuchMethodException e) {
+            throw new IllegalRowClassException(clazz, e);
+          }
+        }
+      };
+
   /**
    * Creates an instance of the given class using the Object constructor. This allows initialising
    * objects which do not have explicit constructors.
@@ -46,41 +62,46 @@ public final class ReflectionUtils {
     // allows initialising an object which does not have an empty constructor.
     // It uses the default constructor from the Object class
     try {
-      Constructor emptyConstructor =
-          REFLECTION_FACTORY.newConstructorForSerialization(
-              clazz, Object.class.getDeclaredConstructor());
-
-      return clazz.cast(emptyConstructor.newInstance());
-    } catch (NoSuchMethodException
-        | InvocationTargetException
-        | IllegalAccessException
-        | InstantiationException e) {
+      return clazz.cast(EMPTY_CONSTRUCTORS.get(clazz).newInstance());
+    } catch (InvocationTargetException | IllegalAccessException | InstantiationException e) {
       throw new IllegalRowClassException(clazz, e);
     }
   }
 
   /**
-   * Writes to the field of a given object, bypassing access modifiers. If the value to be written
-   * is {@code null}, the field is not updated.
+   * Creates a handle calling a constructor, bypassing access modifiers.
    *
-   * @param target Object with a field to be updated
-   * @param field Field which is to be updated in the target Object
-   * @param value New value to set the field
+   * @param constructor Constructor to be called by the handle
+   * @return Method handle of type {@code (parameter types)declaring class}
    */
-  static void update(Object target, Field field, Object value) {
-    Objects.requireNonNull(field);
-    Objects.requireNonNull(target);
+  static MethodHandle constructor(Constructor<?> constructor) {
+    Objects.requireNonNull(constructor);
 
-    if (value == null) {
-      return; // cannot update null to a primitive field
+    constructor.setAccessible(true);
+
+    try {
+      return MethodHandles.lookup().unreflectConstructor(constructor);
+    } catch (IllegalAccessException e) {
+      throw new IllegalRowClassException(constructor.getDeclaringClass(), e);
     }
+  }
+
+  /**
+   * Creates a setter of the field, bypassing access modifiers. The setter takes the value as the
+   * field type, so that primitive values can be set without boxing them.
+   *
+   * @param field Field which is to be updated by the setter
+   * @return Method handle of type {@code (declaring class, field type)void}
+   */
+  static MethodHandle setter(Field field) {
+    Objects.requireNonNull(field);
 
     field.setAccessible(true);
 
     try {
-      field.set(target, value);
+      return MethodHandles.lookup().unreflectSetter(field);
     } catch (IllegalAccessException e) {
-      throw new IllegalRowClassException(target.getClass(), e);
+      throw new IllegalRowClassException(field.getDeclaringClass(), e);
     }
   }
 }
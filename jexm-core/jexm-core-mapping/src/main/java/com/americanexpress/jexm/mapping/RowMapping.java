@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.mapping;
+
+import com.americanexpress.jexm.parsing.RawRow;
+
+/**
+ * Strategy of a {@link MappingPlan} creating the beans of its rows, chosen once per plan.
+ *
+ * @param <T> Bean type produced by this mapping
+ */
+interface RowMapping<T> {
+
+  /**
+   * Creates an instance of the bean class representing a row, with all its header fields adapted.
+   *
+   * @param rawRow String values of the current row
+   * @return Instance of bean class representing the row
+   */
+  T createRowObject(RawRow rawRow);
+
+  /**
+   * @return Mapping filling existing beans with the rows, or {@code null} if the beans cannot be
+   *     reused for several rows
+   */
+  default FieldRowMapping<T> reusable() {
+    return null;
+  }
+}
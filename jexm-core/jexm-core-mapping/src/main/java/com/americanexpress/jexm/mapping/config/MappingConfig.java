@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.mapping.config;
+
+/**
+ * Options used by the {@link com.americanexpress.jexm.mapping.MappedRowIterator} to tune how rows
+ * are mapped into beans, independently of how they are parsed (see {@link
+ * com.americanexpress.jexm.parsing.config.ParserConfig}). All options are opt-in, so an instance
+ * built without setting anything behaves exactly as mapping without a configuration.
+ */
+public final class MappingConfig {
+
+  private static final MappingConfig DEFAULT = new Builder().build();
+
+  private boolean compiledMapping = false;
+  private boolean reusingBeans = false;
+
+  private MappingConfig() {
+    // not meant to be initialised from outside the Builder
+  }
+
+  /** @return A configuration with all options set to their defaults */
+  public static MappingConfig defaults() {
+    return DEFAULT;
+  }
+
+  /**
+   * @return {@code true} if rows are mapped into beans by a method handle composed once per bean
+   *     class and file, rather than by iterating over the fields of the bean class
+   */
+  public boolean isCompiledMapping() {
+    return compiledMapping;
+  }
+
+  /**
+   * @return {@code true} if a single bean is filled with each row, per iterator or per split of a
+   *     parallel stream. Such beans are only valid until the next row is read, and must not be
+   *     retained.
+   */
+  public boolean isReusingBeans() {
+    return reusingBeans;
+  }
+
+  public static class Builder {
+
+    private MappingConfig mappingConfig = new MappingConfig();
+
+    public Builder compiledMapping(boolean c) {
+      this.mappingConfig.compiledMapping = c;
+      return this;
+    }
+
+    public Builder reuseBeans(boolean r) {
+      this.mappingConfig.reusingBeans = r;
+      return this;
+    }
+
+    public MappingConfig build() {
+      return this.mappingConfig;
+    }
+  }
+}
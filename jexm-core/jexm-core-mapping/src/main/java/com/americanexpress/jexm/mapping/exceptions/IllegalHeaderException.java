@@ -14,10 +14,15 @@
 package com.americanexpress.jexm.mapping.exceptions;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 
 public class IllegalHeaderException extends IllegalArgumentException {
 
   public IllegalHeaderException(Class<?> clazz, Field field, String message) {
     super(clazz.getName() + "." + field.getName() + ", " + message);
   }
+
+  public IllegalHeaderException(Class<?> clazz, Method method, String message) {
+    super(clazz.getName() + "." + method.getName() + "(), " + message);
+  }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.adapter.fields;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.americanexpress.jexm.adapter.Adapters;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import org.junit.Test;
+
+public class CharSequenceAdapterTest {
+
+  private static <T> T adapt(Class<T> clazz, String value) {
+    // not a String, so that built-in adapters cannot rely on one
+    return Adapters.adapt(clazz, null, new StringBuilder(value), null);
+  }
+
+  @Test
+  public void testAdaptingNumbers() {
+    assertEquals(100, (int) adapt(int.class, " 100.75 "));
+    assertEquals(-5L, (long) adapt(Long.class, "-5"));
+    assertEquals(12.5, adapt(double.class, "12.5"), 0);
+  }
+
+  @Test
+  public void testAdaptingBooleans() {
+    assertEquals(true, adapt(boolean.class, "yes"));
+    assertEquals(false, adapt(Boolean.class, "False"));
+  }
+
+  @Test
+  public void testAdaptingEnums() {
+    assertEquals(DayOfWeek.MONDAY, adapt(DayOfWeek.class, "monday"));
+  }
+
+  @Test
+  public void testAdaptingDates() {
+    assertEquals(LocalDate.of(2010, 6, 20), adapt(LocalDate.class, "2010-06-20T12:30:00Z"));
+    assertEquals(
+        LocalDateTime.of(2010, 6, 20, 12, 30), adapt(LocalDateTime.class, "2010-06-20T12:30"));
+  }
+
+  @Test
+  public void testAdaptingStrings() {
+    assertEquals("Hello World", adapt(String.class, "  Hello World "));
+    assertNull(adapt(String.class, "   "));
+  }
+}
@@ -198,4 +198,33 @@ public class AdapterUtilsTest {
   public void testParseNullDateShouldThrowException() throws Exception {
     AdapterUtils.parseDate(null);
   }
+
+  @Test
+  public void testParseIntWithoutDecimalsShouldDropDecimals() throws Exception {
+    assertEquals(-100, AdapterUtils.parseIntWithoutDecimals(new StringBuilder("-100.75")));
+    assertEquals(42, AdapterUtils.parseIntWithoutDecimals("+42"));
+    assertEquals(Long.MIN_VALUE, AdapterUtils.parseLongWithoutDecimals("-9223372036854775808"));
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testParseIntWithoutDecimalsOutOfRangeShouldThrowException() throws Exception {
+    AdapterUtils.parseIntWithoutDecimals("2147483648");
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testParseByteWithoutDecimalsOutOfRangeShouldThrowException() throws Exception {
+    AdapterUtils.parseByteWithoutDecimals("128.0");
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testParseLongWithoutDecimalsWithoutDigitsShouldThrowException() throws Exception {
+    AdapterUtils.parseLongWithoutDecimals("-.5");
+  }
+
+  @Test
+  public void testTrimShouldOnlyCreateViewWhenNeeded() throws Exception {
+    String s = "100";
+    assertSame(s, AdapterUtils.trim(s));
+    assertEquals("100", AdapterUtils.trim(new StringBuilder(" \t100 ")).toString());
+  }
 }
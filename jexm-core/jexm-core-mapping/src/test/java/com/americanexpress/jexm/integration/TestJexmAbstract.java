@@ -14,13 +14,18 @@
 package com.americanexpress.jexm.integration;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 
 import com.americanexpress.jexm.ExcelExtension;
 import com.americanexpress.jexm.FileToTest;
 import com.americanexpress.jexm.JEXMContext;
 import com.americanexpress.jexm.adapter.exceptions.CellAdapterException;
 import com.americanexpress.jexm.adapter.exceptions.UnsupportedAdapterFieldException;
+import com.americanexpress.jexm.mapping.MappedRowIterator;
+import com.americanexpress.jexm.mapping.config.MappingConfig;
 import com.americanexpress.jexm.mapping.exceptions.IllegalHeaderException;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
 import com.americanexpress.jexm.resources.beans.array.ArrayOfBigIntegers;
 import com.americanexpress.jexm.resources.beans.array.ArrayOfIntegers;
 import com.americanexpress.jexm.resources.beans.array.ArrayOfInts;
@@ -209,6 +214,44 @@ public abstract class TestJexmAbstract {
     assertStreamProducesResult(PersonLotsOfInfo.class, FileToTest.PERSON_LOTS_OF_INFO, expected);
   }
 
+  @Test
+  public final void testCompiledMappingShouldProduceSameBeansAsIteratingOverFields() {
+    MappingConfig mappingConfig = new MappingConfig.Builder().compiledMapping(true).build();
+
+    try (Stream<PersonLotsOfInfo> s =
+        JEXMContext.newInstance(PersonLotsOfInfo.class, ParserConfig.defaults(), mappingConfig)
+            .read(FileToTest.PERSON_LOTS_OF_INFO.path(extension()))) {
+      assertEquals(
+          streamToList(PersonLotsOfInfo.class, FileToTest.PERSON_LOTS_OF_INFO),
+          s.collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public final void testDeduplicatedFieldShouldShareIdenticalValues() {
+    List<PersonGenderAndRole> people =
+        streamToList(PersonGenderAndRole.class, FileToTest.PERSON_LOTS_OF_INFO);
+
+    assertEquals("MALE", people.get(0).getGender());
+    assertSame(people.get(0).getGender(), people.get(1).getGender());
+    assertSame(people.get(0).getGender(), people.get(2).getGender());
+  }
+
+  @Test
+  public final void testStringPoolShouldShareIdenticalValuesOfAllFields() {
+    ParserConfig parserConfig = new ParserConfig.Builder().stringPoolSize(16).build();
+
+    try (Stream<PersonGenderAndRole> s =
+        JEXMContext.newInstance(PersonGenderAndRole.class, parserConfig)
+            .read(FileToTest.PERSON_LOTS_OF_INFO.path(extension()))) {
+      List<PersonGenderAndRole> people = s.collect(Collectors.toList());
+
+      assertEquals("FIGHTER", people.get(0).getRole());
+      assertSame(people.get(0).getRole(), people.get(1).getRole());
+      assertSame(people.get(0).getGender(), people.get(1).getGender());
+    }
+  }
+
   @Test
   public final void testPeopleLookingUpByHeaderNameWithSingleHeaderShouldPopulateValues() {
     List<PersonFirstName> expected =
@@ -374,6 +417,67 @@ public abstract class TestJexmAbstract {
         PersonFullnameHeaderIndexes.class, FileToTest.PERSON_FIRST_NAMES, expected);
   }
 
+  @Test
+  public final void testImmutablePeopleShouldBeCreatedByTheirRowConstructor() {
+    List<PersonAgeImmutable> expected =
+        Arrays.asList(
+            new PersonAgeImmutable("Chuck", 77),
+            new PersonAgeImmutable("Bruce", 0),
+            new PersonAgeImmutable("Michael", 58));
+
+    assertStreamProducesResult(
+        PersonAgeImmutable.class, FileToTest.PERSON_AGES_INVALID_FILE, expected);
+  }
+
+  @Test
+  public final void testReusedBeansShouldBeResetBetweenRows() {
+    MappingConfig mappingConfig = new MappingConfig.Builder().reuseBeans(true).build();
+
+    try (MappedRowIterator<PersonAge> iterator =
+        new MappedRowIterator<>(
+            PersonAge.class,
+            FileToTest.PERSON_AGES_INVALID_FILE.path(extension()),
+            extension(),
+            null,
+            mappingConfig)) {
+      PersonAge first = iterator.next();
+      assertEquals("Chuck 77", first.toString());
+
+      // the invalid age of the second row leaves no trace of the first one
+      assertSame(first, iterator.next());
+      assertEquals("Bruce 0", first.toString());
+
+      assertSame(first, iterator.next());
+      assertEquals("Michael 58", first.toString());
+      assertFalse(iterator.hasNext());
+    }
+  }
+
+  @Test
+  public final void testReusedBeansShouldProduceSameRowsInParallel() {
+    ParserConfig parserConfig = new ParserConfig.Builder().parallel(true).build();
+    MappingConfig mappingConfig = new MappingConfig.Builder().reuseBeans(true).build();
+
+    try (Stream<PersonAge> s =
+        JEXMContext.newInstance(PersonAge.class, parserConfig, mappingConfig)
+            .read(FileToTest.PERSON_AGES_INVALID_FILE.path(extension()))) {
+      assertEquals(
+          Arrays.asList("Chuck 77", "Bruce 0", "Michael 58"),
+          s.map(PersonAge::toString).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public final void testLazyPeopleShouldAdaptTheirValuesWhenRead() {
+    try (Stream<PersonAgeLazy> s =
+        JEXMContext.newInstance(PersonAgeLazy.class)
+            .read(FileToTest.PERSON_AGES_INVALID_FILE.path(extension()))) {
+      assertEquals(
+          Arrays.asList("Chuck 77", "Bruce 0", "Michael 58"),
+          s.map(p -> p.getName() + " " + p.getAge()).collect(Collectors.toList()));
+    }
+  }
+
   @Test
   public final void testPeopleUsingStringAndIntFieldsShouldCallBuiltinAdaptersCorrectly() {
     List<PersonAge> expected =
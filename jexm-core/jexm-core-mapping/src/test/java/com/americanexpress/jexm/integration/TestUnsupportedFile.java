@@ -13,6 +13,7 @@
 
 package com.americanexpress.jexm.integration;
 
+import com.americanexpress.jexm.ExcelExtension;
 import com.americanexpress.jexm.FileToTest;
 import com.americanexpress.jexm.JEXMContext;
 import com.americanexpress.jexm.parsing.exceptions.UnsupportedFileTypeException;
@@ -30,6 +31,34 @@ public class TestUnsupportedFile {
         .collect(Collectors.toList());
   }
 
+  @Test(expected = UnsupportedFileTypeException.class)
+  public final void testReadingSheetsOfCsvFileShouldThrowException() {
+    JEXMContext.newInstance(PersonFirstName.class)
+        .readSheets(FileToTest.PERSON_FIRST_NAMES.path(ExcelExtension.CSV))
+        .collect(Collectors.toList());
+  }
+
+  @Test(expected = UnsupportedFileTypeException.class)
+  public final void testReadingSheetsOfXlsFileShouldThrowException() {
+    JEXMContext.newInstance(PersonFirstName.class)
+        .readSheets(FileToTest.PERSON_FIRST_NAMES.path(ExcelExtension.XLS))
+        .collect(Collectors.toList());
+  }
+
+  @Test(expected = UnsupportedFileTypeException.class)
+  public final void testReadingSheetsOfXlsbFileShouldThrowException() {
+    JEXMContext.newInstance(PersonFirstName.class)
+        .readSheets(FileToTest.PERSON_FIRST_NAMES.path(ExcelExtension.XLSB))
+        .collect(Collectors.toList());
+  }
+
+  @Test(expected = UnsupportedFileTypeException.class)
+  public final void testReadingSheetsOfOdsFileShouldThrowException() {
+    JEXMContext.newInstance(PersonFirstName.class)
+        .readSheets(FileToTest.PERSON_FIRST_NAMES.path(ExcelExtension.ODS))
+        .collect(Collectors.toList());
+  }
+
   @Test(expected = UncheckedIOException.class)
   public final void testPeopleWithFileNotFoundShouldThrowException() {
     JEXMContext.newInstance(PersonFirstName.class)
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import com.americanexpress.jexm.ExcelExtension;
+import com.americanexpress.jexm.FileToTest;
+import com.americanexpress.jexm.Workbook;
+import com.americanexpress.jexm.parsing.config.SheetConfig;
+import com.americanexpress.jexm.parsing.exceptions.UnsupportedFileTypeException;
+import com.americanexpress.jexm.parsing.metadata.SheetMetadata;
+import com.americanexpress.jexm.parsing.metadata.WorkbookMetadata;
+import com.americanexpress.jexm.resources.beans.people.PersonFirstName;
+import com.americanexpress.jexm.resources.beans.people.PersonFullnameSecondSheetByIndex;
+import com.americanexpress.jexm.resources.beans.people.PersonFullnameSecondSheetByName;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+public class TestWorkbook {
+
+  private static final Path MULTIPLE_SHEETS =
+      FileToTest.PERSON_FIRST_NAMES_MULTIPLE_SHEETS.path(ExcelExtension.XLSX);
+
+  private static <T> List<T> toList(Stream<T> stream) {
+    try (Stream<T> s = stream) {
+      return s.collect(Collectors.toList());
+    }
+  }
+
+  @Test
+  public final void testWorkbookShouldBeReadableSeveralTimes() {
+    try (Workbook workbook = Workbook.open(MULTIPLE_SHEETS)) {
+      assertEquals(
+          Arrays.asList("first-sheet", "second-sheet", "third-sheet"), workbook.sheetNames());
+
+      assertEquals(
+          Arrays.asList(
+              new PersonFirstName("Chuck 1"),
+              new PersonFirstName("Bruce 1"),
+              new PersonFirstName("Michael 1")),
+          toList(workbook.read(PersonFirstName.class)));
+
+      assertEquals(
+          Arrays.asList(
+              new PersonFullnameSecondSheetByName("Chuck 2"),
+              new PersonFullnameSecondSheetByName("Bruce 2"),
+              new PersonFullnameSecondSheetByName("Michael 2")),
+          toList(workbook.read(PersonFullnameSecondSheetByName.class)));
+
+      assertEquals(
+          Arrays.asList(
+              new PersonFirstName("Chuck 3"),
+              new PersonFirstName("Bruce 3"),
+              new PersonFirstName("Michael 3")),
+          toList(
+              workbook.read(
+                  PersonFirstName.class, new SheetConfig.Builder().name("third-sheet").build())));
+    }
+  }
+
+  @Test
+  public final void testMetadataShouldDescribeAllSheets() {
+    WorkbookMetadata metadata = Workbook.readMetadata(MULTIPLE_SHEETS);
+
+    assertEquals(
+        Arrays.asList("first-sheet", "second-sheet", "third-sheet"),
+        metadata.getSheets().stream().map(SheetMetadata::getName).collect(Collectors.toList()));
+    assertEquals(2, metadata.getSheet("third-sheet").get().getIndex());
+    assertEquals(4, metadata.getSheet("third-sheet").get().getRowCount());
+
+    try (Workbook workbook = Workbook.open(MULTIPLE_SHEETS)) {
+      assertEquals(metadata.toString(), workbook.metadata().toString());
+    }
+  }
+
+  @Test
+  public final void testWorkbookShouldBeReadableConcurrently() {
+    List<PersonFullnameSecondSheetByIndex> expected =
+        Arrays.asList(
+            new PersonFullnameSecondSheetByIndex("Chuck 2"),
+            new PersonFullnameSecondSheetByIndex("Bruce 2"),
+            new PersonFullnameSecondSheetByIndex("Michael 2"));
+
+    try (Workbook workbook = Workbook.open(MULTIPLE_SHEETS)) {
+      List<List<PersonFullnameSecondSheetByIndex>> results =
+          IntStream.range(0, 16)
+              .parallel()
+              .mapToObj(i -> toList(workbook.read(PersonFullnameSecondSheetByIndex.class)))
+              .collect(Collectors.toList());
+
+      results.forEach(result -> assertEquals(expected, result));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public final void testClosedWorkbookShouldNotBeReadable() {
+    Workbook workbook = Workbook.open(MULTIPLE_SHEETS);
+    workbook.close();
+
+    workbook.read(PersonFirstName.class);
+  }
+
+  @Test(expected = UnsupportedFileTypeException.class)
+  public final void testOpeningCsvFileAsWorkbookShouldThrowException() {
+    Workbook.open(FileToTest.PERSON_FIRST_NAMES.path(ExcelExtension.CSV));
+  }
+}
@@ -13,12 +13,22 @@
 
 package com.americanexpress.jexm.integration.filetypes;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 import com.americanexpress.jexm.ExcelExtension;
 import com.americanexpress.jexm.FileToTest;
+import com.americanexpress.jexm.JEXMContext;
+import com.americanexpress.jexm.SheetConsumers;
 import com.americanexpress.jexm.integration.TestJexmAbstract;
+import com.americanexpress.jexm.mapping.config.MappingConfig;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
+import com.americanexpress.jexm.parsing.config.SheetConfig;
 import com.americanexpress.jexm.parsing.exceptions.SheetNotFoundException;
 import com.americanexpress.jexm.resources.beans.date.MonthDay_dmmm;
 import com.americanexpress.jexm.resources.beans.date.YearMonth_mmmyy;
+import com.americanexpress.jexm.resources.beans.date.localdate.LocalDate_custom_ddmmmmyyyy;
 import com.americanexpress.jexm.resources.beans.date.localdate.LocalDate_dmmmyy;
 import com.americanexpress.jexm.resources.beans.date.localdate.LocalDate_dmyyy;
 import com.americanexpress.jexm.resources.beans.date.localdatetime.LocalDateTime_ddmmyyyyhhss;
@@ -27,8 +37,14 @@ import com.americanexpress.jexm.resources.beans.people.PersonFirstName;
 import com.americanexpress.jexm.resources.beans.people.PersonFullnameSecondSheetByIndex;
 import com.americanexpress.jexm.resources.beans.people.PersonFullnameSecondSheetByName;
 import java.time.*;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.Test;
 
 public class TestJexmXlsx extends TestJexmAbstract {
@@ -91,6 +107,150 @@ public class TestJexmXlsx extends TestJexmAbstract {
     streamToList(PersonFullnameSecondSheetByIndex.class, FileToTest.PERSON_FIRST_NAMES);
   }
 
+  @Test
+  public final void testReadingAllSheetsShouldStreamRowsOfEverySheetInOrder() {
+    List<String> expected =
+        Arrays.asList(
+            "Chuck 1",
+            "Bruce 1",
+            "Michael 1",
+            "Chuck 2",
+            "Bruce 2",
+            "Michael 2",
+            "Chuck 3",
+            "Bruce 3",
+            "Michael 3");
+
+    try (Stream<PersonFirstName> s =
+        JEXMContext.newInstance(PersonFirstName.class)
+            .readSheets(FileToTest.PERSON_FIRST_NAMES_MULTIPLE_SHEETS.path(extension()))) {
+      assertFalse(s.isParallel());
+      assertEquals(expected, s.map(PersonFirstName::toString).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public final void testReadingSelectedSheetsShouldStreamRowsOfThoseSheetsOnly() {
+    List<PersonFirstName> expected =
+        Arrays.asList(
+            new PersonFirstName("Chuck 3"),
+            new PersonFirstName("Bruce 3"),
+            new PersonFirstName("Michael 3"),
+            new PersonFirstName("Chuck 1"),
+            new PersonFirstName("Bruce 1"),
+            new PersonFirstName("Michael 1"));
+
+    try (Stream<PersonFirstName> s =
+        JEXMContext.newInstance(PersonFirstName.class)
+            .readSheets(
+                FileToTest.PERSON_FIRST_NAMES_MULTIPLE_SHEETS.path(extension()),
+                new SheetConfig.Builder().name("third-sheet").build(),
+                new SheetConfig.Builder().index(0).build())) {
+      assertEquals(expected, s.collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public final void testReadingSheetsWithOwnBeanClassesShouldMapEachSheetToItsClass() {
+    List<PersonFirstName> firstSheet = new ArrayList<>();
+    List<PersonFullnameSecondSheetByName> secondSheet = new ArrayList<>();
+
+    JEXMContext.readSheets(
+        FileToTest.PERSON_FIRST_NAMES_MULTIPLE_SHEETS.path(extension()),
+        null,
+        null,
+        new SheetConsumers()
+            .add(PersonFirstName.class, firstSheet::add)
+            .add(PersonFullnameSecondSheetByName.class, secondSheet::add));
+
+    assertEquals(
+        Arrays.asList(
+            new PersonFirstName("Chuck 1"),
+            new PersonFirstName("Bruce 1"),
+            new PersonFirstName("Michael 1")),
+        firstSheet);
+    assertEquals(
+        Arrays.asList(
+            new PersonFullnameSecondSheetByName("Chuck 2"),
+            new PersonFullnameSecondSheetByName("Bruce 2"),
+            new PersonFullnameSecondSheetByName("Michael 2")),
+        secondSheet);
+  }
+
+  @Test
+  public final void testReadingSheetsShouldApplyParsingAndMappingOptionsToEverySheet() {
+    ParserConfig parserConfig = new ParserConfig.Builder().stringPoolSize(16).build();
+    MappingConfig mappingConfig =
+        new MappingConfig.Builder().compiledMapping(true).reuseBeans(true).build();
+    Set<PersonFirstName> beans = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    try (Stream<PersonFirstName> s =
+        JEXMContext.newInstance(PersonFirstName.class, parserConfig, mappingConfig)
+            .readSheets(FileToTest.PERSON_FIRST_NAMES_MULTIPLE_SHEETS.path(extension()))) {
+      List<String> names =
+          s.peek(beans::add).map(PersonFirstName::toString).collect(Collectors.toList());
+
+      assertEquals(
+          Arrays.asList(
+              "Chuck 1",
+              "Bruce 1",
+              "Michael 1",
+              "Chuck 2",
+              "Bruce 2",
+              "Michael 2",
+              "Chuck 3",
+              "Bruce 3",
+              "Michael 3"),
+          names);
+    }
+
+    // each sheet fills a single bean with all its rows
+    assertEquals(3, beans.size());
+  }
+
+  @Test
+  public final void testReadingSheetsShouldStopOnceShortCircuited() {
+    try (Stream<PersonFirstName> s =
+        JEXMContext.newInstance(PersonFirstName.class)
+            .readSheets(FileToTest.PERSON_FIRST_NAMES_MULTIPLE_SHEETS.path(extension()))) {
+      assertEquals(
+          Arrays.asList(
+              new PersonFirstName("Chuck 1"),
+              new PersonFirstName("Bruce 1"),
+              new PersonFirstName("Michael 1"),
+              new PersonFirstName("Chuck 2")),
+          s.limit(4).collect(Collectors.toList()));
+    }
+  }
+
+  @Test(expected = SheetNotFoundException.class)
+  public final void testReadingSheetsShouldThrowExceptionIfSheetNotFound() {
+    try (Stream<PersonFirstName> s =
+        JEXMContext.newInstance(PersonFirstName.class)
+            .readSheets(
+                FileToTest.PERSON_FIRST_NAMES.path(extension()),
+                new SheetConfig.Builder().name("second-sheet").build())) {
+      s.count();
+    }
+  }
+
+  @Test
+  public final void testPeopleNamesReadInParallelShouldPreserveRowOrder() {
+    ParserConfig parallel = new ParserConfig.Builder().parallel(true).splitSize(1).build();
+
+    try (Stream<PersonFirstName> s =
+        JEXMContext.newInstance(PersonFirstName.class, parallel)
+            .read(FileToTest.PERSON_FIRST_NAMES.path(extension()))) {
+      assertTrue(s.isParallel());
+      assertEquals(
+          Arrays.asList(
+              new PersonFirstName("Chuck"),
+              new PersonFirstName("Bruce"),
+              new PersonFirstName("Michael")),
+          s.collect(Collectors.toList()));
+    }
+  }
+
   // Test for XLSX specific styling of cells
   @Test
   public final void testPeopleNamesInStyledSheetShouldIgnoreStyling() {
@@ -121,6 +281,15 @@ public class TestJexmXlsx extends TestJexmAbstract {
     assertStreamProducesResult(LocalDate_dmyyy.class, FileToTest.DATES_AND_TIMES, expected);
   }
 
+  @Test
+  public final void testLocalDate_custom_ddmmmmyyyy() {
+    List<LocalDate_custom_ddmmmmyyyy> expected =
+        Arrays.asList(new LocalDate_custom_ddmmmmyyyy(LocalDate.of(2017, Month.JUNE, 1)));
+
+    assertStreamProducesResult(
+        LocalDate_custom_ddmmmmyyyy.class, FileToTest.DATES_AND_TIMES, expected);
+  }
+
   @Test
   public final void testLocalDateTime_dmyyy() {
     List<LocalDateTime_ddmmyyyyhhss> expected =
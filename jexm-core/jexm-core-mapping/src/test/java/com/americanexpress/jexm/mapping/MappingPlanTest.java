@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.americanexpress.jexm.adapter.exceptions.CellAdapterException;
+import com.americanexpress.jexm.annotation.Adapter;
+import com.americanexpress.jexm.annotation.Header;
+import com.americanexpress.jexm.annotation.RowConstructor;
+import com.americanexpress.jexm.mapping.config.MappingConfig;
+import com.americanexpress.jexm.mapping.exceptions.IllegalHeaderException;
+import com.americanexpress.jexm.mapping.exceptions.IllegalRowClassException;
+import com.americanexpress.jexm.parsing.RawRow;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
+import com.americanexpress.jexm.resources.beans.people.PersonAge;
+import com.americanexpress.jexm.resources.beans.people.PersonAgeLazy;
+import com.americanexpress.jexm.resources.beans.people.PersonFullnameHeaderIndexes;
+import com.americanexpress.jexm.resources.beans.people.PersonFullnameHeaderNames;
+import com.americanexpress.jexm.resources.beans.people.PersonFullnameIllegalHeaderNameAndIndex;
+import com.americanexpress.jexm.resources.beans.people.PersonGenderAndRole;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class MappingPlanTest {
+
+  private static RawRow row(String... values) {
+    RawRow row = new RawRow();
+    for (int i = 0; i < values.length; i++) {
+      row.set(i, values[i]);
+    }
+    return row;
+  }
+
+  @Test
+  public void testPlanShouldResolveHeaderNamesOfTheFile() {
+    Map<String, Integer> headerIndexes = new HashMap<>();
+    headerIndexes.put("Lastname", 0);
+    headerIndexes.put("Name", 2);
+    headerIndexes.put("Middlename", 1);
+
+    MappingPlan<PersonFullnameHeaderNames> plan =
+        MappingPlan.create(PersonFullnameHeaderNames.class, headerIndexes, null, null);
+
+    assertEquals(
+        new PersonFullnameHeaderNames("Bruce", "Jun", "Lee"),
+        plan.createRowObject(row("Lee", "Jun", "Bruce")));
+    assertEquals(
+        new PersonFullnameHeaderNames("Chuck", null, "Norris"),
+        plan.createRowObject(row("Norris", null, "Chuck")));
+  }
+
+  @Test
+  public void testPlanShouldLeaveFieldsOfMissingHeadersUnset() {
+    MappingPlan<PersonFullnameHeaderNames> plan =
+        MappingPlan.create(
+            PersonFullnameHeaderNames.class, Collections.singletonMap("Name", 1), null, null);
+
+    assertEquals(
+        new PersonFullnameHeaderNames("Chuck", null, null),
+        plan.createRowObject(row("Norris", "Chuck")));
+  }
+
+  @Test
+  public void testPlanShouldUseHeaderIndexesRegardlessOfHeaderNames() {
+    MappingPlan<PersonFullnameHeaderIndexes> plan =
+        MappingPlan.create(PersonFullnameHeaderIndexes.class, Collections.emptyMap(), null, null);
+
+    assertEquals(
+        new PersonFullnameHeaderIndexes("Bruce", "Jun", "Lee"),
+        plan.createRowObject(row("Bruce", "Jun", "Lee")));
+  }
+
+  @Test(expected = IllegalHeaderException.class)
+  public void testAmbiguousHeaderShouldThrowExceptionBeforeAnyRowIsMapped() {
+    MappingPlan.create(
+        PersonFullnameIllegalHeaderNameAndIndex.class, Collections.emptyMap(), null, null);
+  }
+
+  @Test
+  public void testPlanShouldSetPrimitiveFieldsIncludingFinalOnes() {
+    MappingPlan<Primitives> plan =
+        MappingPlan.create(Primitives.class, Collections.emptyMap(), null, null);
+
+    assertPrimitivesMapped(plan);
+  }
+
+  private static void assertPrimitivesMapped(MappingPlan<Primitives> plan) {
+    Primitives p = plan.createRowObject(row("1", "2.0", " 3 ", "4.5", "5.5", "yes", "7", "8", "c"));
+
+    assertEquals(1, p.i);
+    assertEquals(2L, p.l);
+    assertEquals(3, p.s);
+    assertEquals(4.5, p.d, 0);
+    assertEquals(5.5f, p.f, 0);
+    assertEquals(true, p.b);
+    assertEquals(7, p.by);
+    assertEquals(8, p.finalInt);
+    assertEquals('c', p.c);
+  }
+
+  @Test
+  public void testRowMappedIntoReusedBeanShouldResetFieldsWithoutValue() {
+    MappingPlan<Primitives> plan =
+        MappingPlan.create(Primitives.class, Collections.emptyMap(), null, null);
+    Primitives p = plan.newInstance();
+
+    plan.mapRowInto(p, row("1", "2.0", " 3 ", "4.5", "5.5", "yes", "7", "8", "c"));
+    plan.mapRowInto(p, row("9", null, " ", "not a number"));
+
+    assertEquals(9, p.i);
+    assertEquals(0L, p.l);
+    assertEquals(0, p.s);
+    assertEquals(0, p.d, 0);
+    assertEquals(0, p.f, 0);
+    assertEquals(false, p.b);
+    assertEquals(0, p.by);
+    assertEquals(0, p.finalInt);
+    assertEquals(0, p.c);
+  }
+
+  @Test
+  public void testRowMappedIntoReusedBeanShouldResetObjectFieldsToNull() {
+    MappingPlan<PersonFullnameHeaderIndexes> plan =
+        MappingPlan.create(PersonFullnameHeaderIndexes.class, Collections.emptyMap(), null, null);
+    PersonFullnameHeaderIndexes person = plan.newInstance();
+
+    plan.mapRowInto(person, row("Bruce", "Jun", "Lee"));
+    plan.mapRowInto(person, row("Chuck", null, "Norris"));
+
+    assertEquals(new PersonFullnameHeaderIndexes("Chuck", null, "Norris"), person);
+  }
+
+  @Test
+  public void testLazyBeanShouldOnlyAdaptTheValuesRead() {
+    MappingPlan<StrictPersonAge> plan =
+        MappingPlan.create(StrictPersonAge.class, Collections.emptyMap(), null, null);
+
+    StrictPersonAge person = plan.createRowObject(row("Chuck", "not a number"));
+
+    assertEquals("Chuck", person.getName());
+    try {
+      person.getAge();
+      fail("The age should be adapted when read.");
+    } catch (CellAdapterException e) {
+      // expected, as the adapter exception is not suppressed
+    }
+  }
+
+  @Test
+  public void testLazyBeansWithSameValuesShouldBeEqual() throws Exception {
+    Map<String, Integer> headerIndexes = new HashMap<>();
+    headerIndexes.put("Name", 0);
+    headerIndexes.put("Age", 1);
+    MappingPlan<PersonAgeLazy> plan =
+        MappingPlan.create(PersonAgeLazy.class, headerIndexes, null, null);
+
+    PersonAgeLazy person = plan.createRowObject(row("Chuck", "77"));
+
+    assertEquals(person, plan.createRowObject(row("Chuck", "77.0")));
+    assertEquals(person.hashCode(), plan.createRowObject(row("Chuck", "77.0")).hashCode());
+    assertNotEquals(person, plan.createRowObject(row("Chuck", null)));
+    assertEquals(0, plan.createRowObject(row("Chuck", null)).getAge());
+    assertEquals(person, deserialize(serialize(person)));
+  }
+
+  @Test(expected = IllegalRowClassException.class)
+  public void testInterfaceWithMethodsOtherThanGettersShouldThrowException() {
+    MappingPlan.create(NotOnlyGetters.class, Collections.emptyMap(), null, null);
+  }
+
+  @Test(expected = IllegalRowClassException.class)
+  public void testInterfaceWithAnnotatedMethodTakingParametersShouldThrowException() {
+    MappingPlan.create(NotOnlyGetterWithParameter.class, Collections.emptyMap(), null, null);
+  }
+
+  @Test
+  public void testCompiledPlanShouldSetPrimitiveFieldsIncludingFinalOnes() {
+    MappingConfig mappingConfig = new MappingConfig.Builder().compiledMapping(true).build();
+
+    assertPrimitivesMapped(
+        MappingPlan.create(Primitives.class, Collections.emptyMap(), null, mappingConfig));
+  }
+
+  @Test
+  public void testCompiledPlanShouldPoolStringFields() {
+    ParserConfig parserConfig = new ParserConfig.Builder().stringPoolSize(16).build();
+    MappingConfig mappingConfig = new MappingConfig.Builder().compiledMapping(true).build();
+    MappingPlan<PersonGenderAndRole> plan =
+        MappingPlan.create(
+            PersonGenderAndRole.class,
+            Collections.singletonMap("Role", 0),
+            parserConfig,
+            mappingConfig);
+
+    PersonGenderAndRole first = plan.createRowObject(row(new String("FIGHTER")));
+    PersonGenderAndRole second = plan.createRowObject(row(new String("FIGHTER")));
+
+    assertEquals("FIGHTER", first.getRole());
+    assertSame(first.getRole(), second.getRole());
+  }
+
+  @Test
+  public void testPlanShouldLeavePrimitiveFieldsOfInvalidAndBlankValuesUnset() {
+    MappingPlan<PersonAge> plan =
+        MappingPlan.create(PersonAge.class, Collections.singletonMap("Age", 0), null, null);
+
+    assertEquals(new PersonAge(null, 0), plan.createRowObject(row("Thirty")));
+    assertEquals(new PersonAge(null, 0), plan.createRowObject(row("  ")));
+    assertEquals(new PersonAge(null, 30), plan.createRowObject(row("30")));
+  }
+
+  @Test(expected = IllegalRowClassException.class)
+  public void testRowConstructorNotTakingTheHeaderFieldsShouldThrowException() {
+    MappingPlan.create(SwappedRowConstructor.class, Collections.emptyMap(), null, null);
+  }
+
+  @SuppressWarnings("unused")
+  private static class SwappedRowConstructor {
+    @Header(index = 0)
+    private final String name;
+
+    @Header(index = 1)
+    private final int age;
+
+    @RowConstructor
+    private SwappedRowConstructor(int age, String name) {
+      this.name = name;
+      this.age = age;
+    }
+  }
+
+  @SuppressWarnings("unused")
+  private static class Primitives {
+    @Header(index = 0)
+    private int i;
+
+    @Header(index = 1)
+    private long l;
+
+    @Header(index = 2)
+    private short s;
+
+    @Header(index = 3)
+    private double d;
+
+    @Header(index = 4)
+    private float f;
+
+    @Header(index = 5)
+    private boolean b;
+
+    @Header(index = 6)
+    private byte by;
+
+    @Header(index = 7)
+    private final int finalInt;
+
+    @Header(index = 8)
+    private char c;
+
+    private Primitives() {
+      this.finalInt = -1;
+    }
+  }
+
+  private static byte[] serialize(Object o) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(o);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return in.readObject();
+    }
+  }
+
+  interface StrictPersonAge extends Serializable {
+    @Header(index = 0)
+    String getName();
+
+    @Header(index = 1)
+    @Adapter(suppressAdapterException = false)
+    int getAge();
+  }
+
+  interface NotOnlyGetters extends Serializable {
+    @Header(index = 0)
+    String getName();
+
+    void setName(String name);
+  }
+
+  interface NotOnlyGetterWithParameter {
+    @Header(index = 0)
+    String getName();
+
+    @Header(index = 1)
+    String getAge(int radix);
+  }
+}
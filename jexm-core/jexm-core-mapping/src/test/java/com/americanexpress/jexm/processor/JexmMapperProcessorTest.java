@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.americanexpress.jexm.annotation.Header;
+import com.americanexpress.jexm.mapping.GeneratedRowMapper;
+import com.americanexpress.jexm.mapping.MappedRowIterator;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JexmMapperProcessorTest {
+
+  private Path outputDirectory;
+  private DiagnosticCollector<JavaFileObject> diagnostics;
+
+  @Before
+  public void setUp() throws IOException {
+    outputDirectory = Files.createTempDirectory("jexm-processor");
+    diagnostics = new DiagnosticCollector<>();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(outputDirectory)) {
+      paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  /** Compiles a single class with the processor, into the output directory */
+  private boolean compile(String className, String source) {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    String classPath =
+        Stream.of(Header.class, GeneratedRowMapper.class)
+            .map(JexmMapperProcessorTest::location)
+            .filter(l -> l != null)
+            .collect(Collectors.joining(File.pathSeparator));
+
+    JavaFileObject file =
+        new SimpleJavaFileObject(
+            URI.create("string:///" + className.replace('.', '/') + ".java"),
+            JavaFileObject.Kind.SOURCE) {
+          @Override
+          public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+          }
+        };
+
+    return compiler
+        .getTask(
+            null,
+            null,
+            diagnostics,
+            Arrays.asList(
+                "-classpath",
+                classPath,
+                "-d",
+                outputDirectory.toString(),
+                "-s",
+                outputDirectory.toString(),
+                "-processor",
+                JexmMapperProcessor.class.getName()),
+            null,
+            Arrays.asList(file))
+        .call();
+  }
+
+  private static String location(Class<?> clazz) {
+    if (clazz.getProtectionDomain().getCodeSource() == null) {
+      return null; // bootstrap class
+    }
+    try {
+      return new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    } catch (URISyntaxException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private Class<?> load(String className) throws Exception {
+    URLClassLoader classLoader =
+        new URLClassLoader(
+            new URL[] {outputDirectory.toUri().toURL()}, getClass().getClassLoader());
+    return Class.forName(className, true, classLoader);
+  }
+
+  private String messages(Diagnostic.Kind kind) {
+    return diagnostics
+        .getDiagnostics()
+        .stream()
+        .filter(d -> d.getKind() == kind)
+        .map(d -> d.getMessage(null))
+        .collect(Collectors.joining("\n"));
+  }
+
+  private static Path csv(String content) {
+    try {
+      Path path = Files.createTempFile("jexm-processor", ".csv");
+      path.toFile().deleteOnExit();
+      return Files.write(path, content.getBytes());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testGeneratedMapperShouldBeUsedInPlaceOfReflection() throws Exception {
+    assertTrue(
+        messages(Diagnostic.Kind.ERROR),
+        compile(
+            "people.Person",
+            "package people;\n"
+                + "import com.americanexpress.jexm.annotation.*;\n"
+                + "public class Person implements java.io.Serializable {\n"
+                + "  @Header(name = \"Name\") private String name;\n"
+                + "  @Header(index = 1) int age;\n"
+                + "  @Header(ref = \"C\") java.util.List<Integer> scores;\n"
+                + "  private final String mappedBy;\n"
+                + "  public Person() { mappedBy = \"constructor\"; }\n"
+                + "  public void setName(String name) { this.name = name.toUpperCase(); }\n"
+                + "  public String toString() { return name + age + scores + mappedBy; }\n"
+                + "}\n"));
+
+    Class<? extends Serializable> personClass =
+        (Class<? extends Serializable>) load("people.Person");
+    assertTrue(GeneratedRowMapper.class.isAssignableFrom(load("people.Person$JexmMapper")));
+
+    Path path = csv("Name,Age,Scores\nChuck,77,\"1,2\"\n");
+    try (MappedRowIterator<? extends Serializable> iterator =
+        new MappedRowIterator<>(personClass, path)) {
+      // the setter and constructor of the bean were called
+      assertEquals("CHUCK77[1, 2]constructor", iterator.next().toString());
+      assertFalse(iterator.hasNext());
+    }
+  }
+
+  @Test
+  public void testAmbiguousHeaderShouldFailTheBuild() {
+    assertFalse(
+        compile(
+            "people.Person",
+            "package people;\n"
+                + "import com.americanexpress.jexm.annotation.*;\n"
+                + "public class Person implements java.io.Serializable {\n"
+                + "  @Header(name = \"Name\", index = 0) String name;\n"
+                + "}\n"));
+
+    assertTrue(messages(Diagnostic.Kind.ERROR).contains("Only one of header name (\"Name\")"));
+  }
+
+  @Test
+  public void testAdapterOfOtherTypeShouldFailTheBuild() {
+    assertFalse(
+        compile(
+            "people.Person",
+            "package people;\n"
+                + "import com.americanexpress.jexm.annotation.*;\n"
+                + "public class Person implements java.io.Serializable {\n"
+                + "  @Header(name = \"Name\") @Adapter(FirstLetter.class) String name;\n"
+                + "  public static class FirstLetter\n"
+                + "      implements com.americanexpress.jexm.adapter.CellAdapter<Character> {\n"
+                + "    public Character apply(String s) { return s.charAt(0); }\n"
+                + "  }\n"
+                + "}\n"));
+
+    assertTrue(
+        messages(Diagnostic.Kind.ERROR), messages(Diagnostic.Kind.ERROR).contains("cannot be set"));
+  }
+
+  @Test
+  public void testPrivateFieldWithoutSetterShouldBeMappedThroughReflection() throws Exception {
+    assertTrue(
+        compile(
+            "people.Person",
+            "package people;\n"
+                + "import com.americanexpress.jexm.annotation.*;\n"
+                + "public class Person implements java.io.Serializable {\n"
+                + "  @Header(name = \"Name\") private String name;\n"
+                + "}\n"));
+
+    assertTrue(messages(Diagnostic.Kind.WARNING).contains("No mapper generated for people.Person"));
+    assertFalse(Files.exists(outputDirectory.resolve("people/Person$JexmMapper.class")));
+  }
+}
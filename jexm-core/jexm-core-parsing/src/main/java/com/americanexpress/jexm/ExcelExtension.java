@@ -19,8 +19,11 @@ import java.util.Objects;
 public enum ExcelExtension {
   CSV("csv"),
   TSV("tsv"),
+  XLS("xls"),
   XLSX("xlsx"),
-  XLSM("xlsm");
+  XLSM("xlsm"),
+  XLSB("xlsb"),
+  ODS("ods");
 
   private final String extension;
 
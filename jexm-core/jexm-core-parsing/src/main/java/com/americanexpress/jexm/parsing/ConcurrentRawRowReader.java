@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Thread safe reader of the rows of a {@link RawRowIterator}, for several threads consuming the
+ * rows of the same document. Parsers are single consumer and not thread safe; this reader hands out
+ * rows in batches, each read under a single lock acquisition, so that the cost of locking is shared
+ * by all rows of a batch. It is obtained with {@link RawRowIterator#concurrent(int)}. Example:
+ *
+ * <pre>{@code
+ * try (ConcurrentRawRowReader reader = RawRowIteratorFactory.createIterator(path).concurrent(256)) {
+ *   // on each consumer thread
+ *   for (List<RawRow> batch = reader.nextBatch(); !batch.isEmpty(); batch = reader.nextBatch()) {
+ *     batch.forEach(row -> load(row));
+ *   }
+ * }
+ * }</pre>
+ *
+ * The order of the rows is preserved within a batch only. The iterator should not be read from
+ * directly once wrapped.
+ */
+public final class ConcurrentRawRowReader implements AutoCloseable {
+
+  private final RawRowIterator rawRowIterator;
+  private final int batchSize;
+  private boolean finished = false;
+
+  ConcurrentRawRowReader(RawRowIterator rawRowIterator, int batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+    }
+
+    this.rawRowIterator = Objects.requireNonNull(rawRowIterator);
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Reads the next rows of the document.
+   *
+   * @return Up to the batch size of the next rows, which belong to the caller. It is empty once
+   *     there are no more rows
+   */
+  public List<RawRow> nextBatch() {
+    List<RawRow> batch = new ArrayList<>(batchSize);
+    nextBatch(batch);
+    return batch.isEmpty() ? Collections.emptyList() : batch;
+  }
+
+  /**
+   * Reads the next rows of the document into the given list, which allows it to be reused between
+   * batches.
+   *
+   * @param batch List to add the rows to
+   * @return Number of rows added, {@code 0} once there are no more rows
+   */
+  public synchronized int nextBatch(List<? super RawRow> batch) {
+    int count = 0;
+
+    while (count < batchSize && !finished) {
+      if (rawRowIterator.hasNext()) {
+        batch.add(rawRowIterator.nextRawRow());
+        count++;
+      } else {
+        finished = true;
+      }
+    }
+
+    return count;
+  }
+
+  /** @see RawRowIterator#headerIndexes() */
+  public Map<String, Integer> headerIndexes() {
+    return rawRowIterator.headerIndexes();
+  }
+
+  /** Closes the underlying iterator. */
+  @Override
+  public synchronized void close() {
+    finished = true;
+    rawRowIterator.close();
+  }
+}
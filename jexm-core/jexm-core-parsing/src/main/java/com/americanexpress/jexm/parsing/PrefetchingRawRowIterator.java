@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Iterator which reads the rows of its source ahead on a separate producer thread, handing them
+ * over to the consumer through a bounded queue of batches. It lets several documents, or several
+ * sheets of a workbook, be parsed at once while their rows are consumed one document after the
+ * other. The queue is bounded, so the producer never gets more than {@code queueCapacity} batches
+ * ahead of the consumer. It is obtained with {@link RawRowIterator#prefetched()}.
+ */
+final class PrefetchingRawRowIterator extends RawRowIterator {
+
+  static final int DEFAULT_BATCH_SIZE = 256;
+  static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+  // Marks the end of the source. Compared by reference, never read from
+  private static final List<RawRow> END_OF_ROWS = Collections.unmodifiableList(new ArrayList<>());
+
+  private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+  private final RawRowIterator source;
+  private final int batchSize;
+  private final BlockingQueue<List<RawRow>> batches;
+  private final Thread producer;
+
+  private volatile boolean closed = false;
+  private volatile RuntimeException failure = null;
+
+  // Batch currently being consumed and the position of the next row to read in it
+  private List<RawRow> current = Collections.emptyList();
+  private int position = 0;
+
+  PrefetchingRawRowIterator(RawRowIterator source) {
+    this(source, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+  }
+
+  PrefetchingRawRowIterator(RawRowIterator source, int batchSize, int queueCapacity) {
+    if (batchSize <= 0 || queueCapacity <= 0) {
+      throw new IllegalArgumentException("Batch size and queue capacity must be positive.");
+    }
+
+    this.source = Objects.requireNonNull(source);
+    this.headerIndexes = source.headerIndexes();
+    this.batchSize = batchSize;
+    this.batches = new ArrayBlockingQueue<>(queueCapacity);
+
+    this.producer = new Thread(this::produce, "jexm-prefetch-" + THREAD_COUNT.incrementAndGet());
+    this.producer.setDaemon(true);
+    this.producer.start();
+  }
+
+  /** Body of the producer thread: reads the source batch by batch until it is exhausted. */
+  private void produce() {
+    try {
+      List<RawRow> batch = new ArrayList<>(batchSize);
+
+      while (!closed && source.hasNext()) {
+        batch.add(source.nextRawRow());
+
+        if (batch.size() == batchSize) {
+          batches.put(batch);
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+
+      if (!batch.isEmpty()) {
+        batches.put(batch);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure = new IllegalStateException("Interrupted while reading rows ahead.", e);
+    } catch (RuntimeException e) {
+      failure = e;
+    }
+
+    putEndOfRows();
+  }
+
+  /**
+   * Hands the end of the source over to the consumer. The producer is never interrupted by this
+   * iterator: interrupting a thread in the middle of a read closes the file channels it is using,
+   * which sheets of a workbook may share.
+   */
+  private void putEndOfRows() {
+    boolean interrupted = Thread.interrupted();
+
+    while (true) {
+      try {
+        batches.put(END_OF_ROWS);
+        break;
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public RawRow readNextRawRow() {
+    if (closed) {
+      throw new IllegalStateException("Iterator closed");
+    }
+
+    while (position == current.size()) {
+      if (current == END_OF_ROWS) {
+        if (failure != null) {
+          throw failure;
+        }
+        return null;
+      }
+
+      try {
+        current = batches.take();
+        position = 0;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for rows.", e);
+      }
+    }
+
+    return current.get(position++);
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+
+    // make room in the queue until the producer sees the iterator is closed
+    while (producer.isAlive()) {
+      batches.clear();
+      try {
+        producer.join(10);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    // the source is only ever touched by the producer thread until it ends
+    source.close();
+  }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The raw String cells of a row, held in an array indexed by column. Looking up a cell is an array
+ * access, and no object is created per cell. Columns without a value (or with an empty one) hold
+ * {@code null}. A row can be cleared and filled again, so that a parser can reuse the same instance
+ * (and array) for every row it reads; rows handed out by a {@link RawRowIterator} however belong to
+ * the caller, unless stated otherwise.
+ *
+ * <p>{@link #toMap()} gives the index-to-value map view of a row which {@link
+ * RawRowIterator#readNextRow()} used to return.
+ */
+public final class RawRow {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private String[] values;
+  // One past the highest column having a value
+  private int columnCount = 0;
+  // Number of columns having a value
+  private int size = 0;
+
+  public RawRow() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /** @param capacity Number of columns the row can hold before growing */
+  public RawRow(int capacity) {
+    this.values = new String[Math.max(capacity, 1)];
+  }
+
+  private RawRow(String[] values, int columnCount, int size) {
+    this.values = values;
+    this.columnCount = columnCount;
+    this.size = size;
+  }
+
+  /**
+   * Creates a row from an index-to-value map, as produced by iterators implementing {@link
+   * RawRowIterator#readNextRow()}.
+   *
+   * @param cells Column index to value map. {@code null} values, empty values and negative indexes
+   *     are ignored
+   * @return A new row holding the values of the map
+   */
+  public static RawRow of(Map<Integer, String> cells) {
+    RawRow row = new RawRow(DEFAULT_CAPACITY);
+    cells.forEach(
+        (column, value) -> {
+          if (column != null && column >= 0) {
+            row.set(column, value);
+          }
+        });
+    return row;
+  }
+
+  /**
+   * @param column Column index, starting from zero
+   * @return Value of the cell, or {@code null} if it has none
+   */
+  public String get(int column) {
+    return column >= 0 && column < columnCount ? values[column] : null;
+  }
+
+  /**
+   * Sets the value of a cell. {@code null} and empty values remove the value of the cell, as empty
+   * cells are not distinguished from missing ones.
+   *
+   * @param column Column index, starting from zero
+   * @param value Value of the cell
+   */
+  public void set(int column, String value) {
+    if (column < 0) {
+      throw new IndexOutOfBoundsException("Column index " + column + " is negative.");
+    }
+
+    if (value == null || value.isEmpty()) {
+      remove(column);
+      return;
+    }
+
+    if (column >= values.length) {
+      values = Arrays.copyOf(values, Math.max(column + 1, values.length * 2));
+    }
+
+    if (values[column] == null) {
+      size++;
+    }
+    values[column] = value;
+    columnCount = Math.max(columnCount, column + 1);
+  }
+
+  private void remove(int column) {
+    if (column < columnCount && values[column] != null) {
+      values[column] = null;
+      size--;
+
+      while (columnCount > 0 && values[columnCount - 1] == null) {
+        columnCount--;
+      }
+    }
+  }
+
+  /** @return One more than the index of the last column having a value, {@code 0} if none do */
+  public int columnCount() {
+    return columnCount;
+  }
+
+  /** @return Number of cells having a value */
+  public int size() {
+    return size;
+  }
+
+  /** @return {@code true} if no cell has a value */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Removes all values, keeping the array so that the row can be filled again. */
+  public void clear() {
+    Arrays.fill(values, 0, columnCount, null);
+    columnCount = 0;
+    size = 0;
+  }
+
+  /** @return A copy of this row, holding no more columns than needed */
+  public RawRow copy() {
+    return new RawRow(Arrays.copyOf(values, Math.max(columnCount, 1)), columnCount, size);
+  }
+
+  /**
+   * Performs an action for each cell having a value, in column order.
+   *
+   * @param action Action to perform
+   */
+  public void forEach(CellConsumer action) {
+    Objects.requireNonNull(action);
+
+    for (int i = 0; i < columnCount; i++) {
+      if (values[i] != null) {
+        action.accept(i, values[i]);
+      }
+    }
+  }
+
+  /**
+   * @return An unmodifiable column index to value map view of this row, only holding the cells
+   *     having a value. It reflects later changes to the row, so reused rows should be copied first
+   */
+  public Map<Integer, String> toMap() {
+    return new MapView();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+
+    RawRow that = (RawRow) o;
+
+    if (columnCount != that.columnCount || size != that.size) {
+      return false;
+    }
+    for (int i = 0; i < columnCount; i++) {
+      if (!Objects.equals(values[i], that.values[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = 1;
+    for (int i = 0; i < columnCount; i++) {
+      result = 31 * result + Objects.hashCode(values[i]);
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return toMap().toString();
+  }
+
+  /** Action performed on a cell of a row, see {@link #forEach(CellConsumer)}. */
+  @FunctionalInterface
+  public interface CellConsumer {
+    void accept(int column, String value);
+  }
+
+  /** Map view of the row, boxing column indexes only when iterated. */
+  private final class MapView extends AbstractMap<Integer, String> {
+
+    @Override
+    public String get(Object key) {
+      return key instanceof Integer ? RawRow.this.get((Integer) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Set<Entry<Integer, String>> entrySet() {
+      return new AbstractSet<Entry<Integer, String>>() {
+        @Override
+        public Iterator<Entry<Integer, String>> iterator() {
+          return new Iterator<Entry<Integer, String>>() {
+            private int next = nextColumn(0);
+
+            @Override
+            public boolean hasNext() {
+              return next < columnCount;
+            }
+
+            @Override
+            public Entry<Integer, String> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              Entry<Integer, String> entry = new SimpleImmutableEntry<>(next, values[next]);
+              next = nextColumn(next + 1);
+              return entry;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return size;
+        }
+      };
+    }
+
+    private int nextColumn(int from) {
+      int column = from;
+      while (column < columnCount && values[column] == null) {
+        column++;
+      }
+      return column;
+    }
+  }
+}
@@ -16,40 +16,94 @@ package com.americanexpress.jexm.parsing;
 import com.americanexpress.jexm.CloseableIterator;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Class providing an iterator for each row of an Excel document containing their raw String cells.
- * Each row in the iterator is represented by a map of column indexes to their String values ({@code
- * Map<Integer, String>}. Example: {0 -> "Chuck", 1 -> "Smith"} where 1 is the first column and
- * "Smith" is the value of that column at the current row. Entries of the iterator are lazily
+ * Each row is read as a {@link RawRow}, an array of String values indexed by column. Example:
+ * ["Chuck", "Smith"] where 1 is the index of the second column and "Smith" is the value of that
+ * column at the current row. For compatibility, the iterator itself still produces index-to-value
+ * maps ({@code Map<Integer, String>}), which are views of the rows; {@link #nextRawRow()} and
+ * {@link #rawRowSpliterator()} give the rows themselves. Entries of the iterator are lazily
  * evaluated and are not parsed from disk until {@link RawRowIterator#hasNext()} or {@link
  * RawRowIterator#next()} are called. This is a low/mid-level class which does not perform any
- * mapping. It is used as an abstract class for any parser of Excel or table-based documents. The
- * {@link com.americanexpress.jexm.mapping.MappedRowIterator} makes use of this class to perform the
- * actual Java bean field mapping.
+ * mapping. It is used as an abstract class for any parser of Excel or table-based documents, which
+ * implement either {@link #readNextRawRow()} or {@link #readNextRow()}. The {@link
+ * com.americanexpress.jexm.mapping.MappedRowIterator} makes use of this class to perform the actual
+ * Java bean field mapping. Iterators are not thread safe, see {@link #concurrent(int)} to share one
+ * between threads.
  */
 public abstract class RawRowIterator implements CloseableIterator<Map<Integer, String>> {
 
   private static final Logger log = LoggerFactory.getLogger(RawRowIterator.class);
 
   protected Map<String, Integer> headerIndexes;
-  private Map<Integer, String> nextRow = null;
+  private RawRow nextRow = null;
+  // set while readNextRawRow() falls back on readNextRow(), to detect neither being implemented
+  private boolean readingLegacyRow = false;
+
+  /**
+   * Used to fetch the next row in the Excel document. If this returns {@code null}, the iterator
+   * will assume there are no more items to follow and {@link RawRowIterator#hasNext()} will return
+   * {@code false}. Parsers should implement this method; the default implementation adapts the rows
+   * of {@link #readNextRow()} for iterators written before it existed.
+   *
+   * @return The next row, which is not modified afterwards by the iterator
+   */
+  public RawRow readNextRawRow() {
+    readingLegacyRow = true;
+    try {
+      Map<Integer, String> row = readNextRow();
+      return row == null ? null : RawRow.of(row);
+    } finally {
+      readingLegacyRow = false;
+    }
+  }
+
+  /**
+   * Same as {@link #readNextRawRow()}, reading the next row into the given one so that no row is
+   * created. It is used by {@link RowCursor}; parsers able to fill a row in place may override it,
+   * the default implementation copying the row returned by {@link #readNextRawRow()}.
+   *
+   * @param row Row to fill, which is cleared first
+   * @return {@code true} if a row was read, {@code false} if there are no more rows
+   */
+  protected boolean readNextRawRow(RawRow row) {
+    RawRow next = readNextRawRow();
+    row.clear();
+
+    if (next == null) {
+      return false;
+    }
+
+    next.forEach(row::set);
+    return true;
+  }
 
   /**
    * Used to fetch the next row in the Excel document as a index-to-value map. If this returns
    * {@code null}, the iterator will assume there are no more items to follow and {@link
-   * RawRowIterator#hasNext()} will return {@code false}.
+   * RawRowIterator#hasNext()} will return {@code false}. It is only kept for iterators implementing
+   * it rather than {@link #readNextRawRow()}, which is what the default implementation relies on.
    *
    * @return Index-to-value map of the next row
    */
-  public abstract Map<Integer, String> readNextRow();
+  public Map<Integer, String> readNextRow() {
+    if (readingLegacyRow) {
+      throw new IllegalStateException(
+          getClass().getName() + " must implement either readNextRawRow() or readNextRow().");
+    }
+
+    RawRow row = readNextRawRow();
+    return row == null ? null : row.toMap();
+  }
 
   @Override
   public final boolean hasNext() {
     if (nextRow == null) {
-      return (nextRow = readNextRow()) != null;
+      return (nextRow = readNextRawRow()) != null;
     } else {
       return true;
     }
@@ -57,8 +111,18 @@ public abstract class RawRowIterator implements CloseableIterator<Map<Integer, S
 
   @Override
   public final Map<Integer, String> next() {
+    return nextRawRow().toMap();
+  }
+
+  /**
+   * Same as {@link #next()}, without the map view.
+   *
+   * @return The next row
+   * @throws NoSuchElementException if there are no more rows
+   */
+  public final RawRow nextRawRow() {
     if (nextRow != null || hasNext()) {
-      Map<Integer, String> rawCells = nextRow;
+      RawRow rawCells = nextRow;
       nextRow = null;
       return rawCells;
     } else {
@@ -66,6 +130,93 @@ public abstract class RawRowIterator implements CloseableIterator<Map<Integer, S
     }
   }
 
+  /**
+   * Same as {@link #nextRawRow()}, reading the next row into the given one so that no row is
+   * created by parsers supporting it, see {@link #readNextRawRow(RawRow)}.
+   *
+   * @param row Row to fill, which is cleared first
+   * @return {@code true} if a row was read, {@code false} if there are no more rows
+   */
+  public final boolean nextRawRow(RawRow row) {
+    if (nextRow != null) {
+      // already read by hasNext()
+      row.clear();
+      nextRow.forEach(row::set);
+      nextRow = null;
+      return true;
+    }
+
+    return readNextRawRow(row);
+  }
+
+  /**
+   * Creates a cursor over the remaining rows, reading each row into the same buffer. It is the
+   * lowest overhead way of reading the values of a document, and closing it closes this iterator.
+   *
+   * @return Cursor over the remaining rows
+   */
+  public RowCursor cursor() {
+    return new RowCursor(this);
+  }
+
+  /**
+   * Wraps this iterator to be read by several threads at once. This iterator, as all parsers, is
+   * meant for a single consumer and is not thread safe.
+   *
+   * @param batchSize Maximum number of rows read at once by a thread
+   * @return Thread safe reader of the remaining rows
+   */
+  public ConcurrentRawRowReader concurrent(int batchSize) {
+    return new ConcurrentRawRowReader(this, batchSize);
+  }
+
+  /**
+   * Wraps this iterator to read its remaining rows ahead on a thread of its own, so that several
+   * documents can be parsed at once while they are consumed one after the other. Closing the
+   * returned iterator stops the thread and closes this iterator.
+   *
+   * @return Iterator over the remaining rows, with the same header indexes
+   */
+  public RawRowIterator prefetched() {
+    return new PrefetchingRawRowIterator(this);
+  }
+
+  /**
+   * Creates a {@link Spliterator} over the remaining rows, as index-to-value maps. It is based on
+   * {@link #rawRowSpliterator()}.
+   *
+   * @return Ordered spliterator over the remaining rows
+   */
+  public Spliterator<Map<Integer, String>> spliterator() {
+    return StreamSupport.stream(rawRowSpliterator(), false).map(RawRow::toMap).spliterator();
+  }
+
+  /**
+   * Creates a {@link Spliterator} over the remaining rows. By default rows are pulled one at a time
+   * through {@link RawRowIterator#readNextRawRow()}, which gives little room for parallel
+   * processing. Parsers able to read several parts of a document at once may override it with a
+   * spliterator that splits the document itself.
+   *
+   * @return Ordered spliterator over the remaining rows
+   */
+  public Spliterator<RawRow> rawRowSpliterator() {
+    Iterator<RawRow> rows =
+        new Iterator<RawRow>() {
+          @Override
+          public boolean hasNext() {
+            return RawRowIterator.this.hasNext();
+          }
+
+          @Override
+          public RawRow next() {
+            return nextRawRow();
+          }
+        };
+
+    return Spliterators.spliteratorUnknownSize(
+        rows, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+  }
+
   /**
    * Returns the header indexes of the Excel document.
    *
@@ -107,6 +258,16 @@ public abstract class RawRowIterator implements CloseableIterator<Map<Integer, S
                     })));
   }
 
+  /**
+   * Same as {@link #createHeaderIndexes(Map)}, from the header row.
+   *
+   * @param headerRow Header row, possibly {@code null}
+   * @return Header name to index map
+   */
+  protected static Map<String, Integer> createHeaderIndexes(RawRow headerRow) {
+    return createHeaderIndexes(headerRow == null ? null : headerRow.toMap());
+  }
+
   private static void warnHeaderClash(String header) {
     log.warn(
         "Multiple occurrences of header '{}' were found. Using the first occurrence only.", header);
@@ -14,14 +14,21 @@
 package com.americanexpress.jexm.parsing;
 
 import com.americanexpress.jexm.ExcelExtension;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
 import com.americanexpress.jexm.parsing.config.SheetConfig;
 import com.americanexpress.jexm.parsing.exceptions.UnsupportedFileTypeException;
 import com.americanexpress.jexm.parsing.file.CsvRowIterator;
+import com.americanexpress.jexm.parsing.file.OdsRowIterator;
+import com.americanexpress.jexm.parsing.file.XlsRowIterator;
+import com.americanexpress.jexm.parsing.file.XlsbRowIterator;
 import com.americanexpress.jexm.parsing.file.XlsxRowIterator;
+import com.americanexpress.jexm.parsing.file.XlsxWorkbook;
+import com.americanexpress.jexm.parsing.metadata.WorkbookMetadata;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.Objects;
 import org.slf4j.Logger;
@@ -71,17 +78,55 @@ public final class RawRowIteratorFactory {
   }
 
   /**
-   * Creates an instance of {@link RawRowIterator} for the given input stream based on the enforced
-   * excel extension.
+   * Creates an instance of {@link RawRowIterator} for the given path based on the enforced excel
+   * extension.
    *
-   * @param path Input stream with contents of the Excel document
-   * @param excelExtension Excel type of the contents
+   * @param path File path
+   * @param excelExtension Excel type of the file. If {@code null}, the type is deduced from the
+   *     file extension
    * @param sheetConfig The optional Excel sheet configuration
-   * @return Iterator for the given input stream
+   * @return Iterator for the given file
    */
   public static RawRowIterator createIterator(
       Path path, ExcelExtension excelExtension, SheetConfig sheetConfig) {
-    Objects.requireNonNull(path);
+    return createIterator(path, excelExtension, sheetConfig, null);
+  }
+
+  /**
+   * Creates an instance of {@link RawRowIterator} for the given path based on the enforced excel
+   * extension.
+   *
+   * @param path File path
+   * @param excelExtension Excel type of the file. If {@code null}, the type is deduced from the
+   *     file extension
+   * @param sheetConfig The optional Excel sheet configuration
+   * @param parserConfig The optional parser configuration
+   * @return Iterator for the given file
+   */
+  public static RawRowIterator createIterator(
+      Path path,
+      ExcelExtension excelExtension,
+      SheetConfig sheetConfig,
+      ParserConfig parserConfig) {
+    excelExtension = resolveExtension(path, excelExtension);
+
+    switch (excelExtension) {
+      case XLSM: // XLSM and XLSX files have the same table structure
+      case XLSX:
+        // read the package from the file itself, so its parts are only inflated when needed
+        return new XlsxRowIterator(path, sheetConfig, parserConfig);
+      case XLS:
+        // read the file system from the file itself, so its blocks are only read when needed
+        return new XlsRowIterator(path, sheetConfig, parserConfig);
+      case XLSB:
+        // read the package from the file itself, so its parts are only inflated when needed
+        return new XlsbRowIterator(path, sheetConfig, parserConfig);
+      case ODS:
+        // read the package from the file itself, so only its content entry is inflated
+        return new OdsRowIterator(path, sheetConfig, parserConfig);
+      default:
+        break;
+    }
 
     InputStream inputStream;
     try {
@@ -90,20 +135,118 @@ public final class RawRowIteratorFactory {
       throw new UncheckedIOException(e);
     }
 
+    return createIterator(inputStream, excelExtension, sheetConfig, parserConfig);
+  }
+
+  /**
+   * Opens the workbook at the given path, so that several of its sheets can be read without
+   * re-opening the file.
+   *
+   * @param path File path
+   * @param excelExtension Excel type of the file. If {@code null}, the type is deduced from the
+   *     file extension
+   * @return The open workbook, to be closed by the caller
+   * @throws UnsupportedFileTypeException If the file is not an XLSX or XLSM workbook
+   */
+  public static XlsxWorkbook openWorkbook(Path path, ExcelExtension excelExtension) {
+    return openWorkbook(path, excelExtension, null);
+  }
+
+  /**
+   * Opens the workbook at the given path, so that several of its sheets can be read without
+   * re-opening the file.
+   *
+   * @param path File path
+   * @param excelExtension Excel type of the file. If {@code null}, the type is deduced from the
+   *     file extension
+   * @param password Password of the workbook, or {@code null} if it is not encrypted (see {@link
+   *     ParserConfig#getPassword()})
+   * @return The open workbook, to be closed by the caller
+   * @throws UnsupportedFileTypeException If the file is not an XLSX or XLSM workbook
+   */
+  public static XlsxWorkbook openWorkbook(
+      Path path, ExcelExtension excelExtension, String password) {
+    excelExtension = resolveExtension(path, excelExtension);
+
+    switch (excelExtension) {
+      case XLSM: // XLSM and XLSX files have the same table structure
+      case XLSX:
+        return new XlsxWorkbook(path, password);
+      case XLS:
+      case XLSB:
+      case ODS:
+        throw new UnsupportedFileTypeException(
+            String.format(
+                "%s (%s workbooks can only be read one sheet at a time)", path, excelExtension));
+      default:
+        throw new UnsupportedFileTypeException(
+            String.format("%s (%s files have a single sheet)", path, excelExtension));
+    }
+  }
+
+  /**
+   * Reads the metadata (sheet names, visibility and used ranges) of the workbook at the given path,
+   * without loading its shared strings, styles or rows.
+   *
+   * @param path File path
+   * @param excelExtension Excel type of the file. If {@code null}, the type is deduced from the
+   *     file extension
+   * @return Metadata of the workbook
+   * @throws UnsupportedFileTypeException If the file is not an XLSX or XLSM workbook
+   */
+  public static WorkbookMetadata readMetadata(Path path, ExcelExtension excelExtension) {
+    excelExtension = resolveExtension(path, excelExtension);
+
+    switch (excelExtension) {
+      case XLSM: // XLSM and XLSX files have the same table structure
+      case XLSX:
+        return XlsxWorkbook.readMetadata(path);
+      case XLS:
+      case XLSB:
+      case ODS:
+        throw new UnsupportedFileTypeException(
+            String.format(
+                "%s (%s workbooks can only be read one sheet at a time)", path, excelExtension));
+      default:
+        throw new UnsupportedFileTypeException(
+            String.format("%s (%s files have a single sheet)", path, excelExtension));
+    }
+  }
+
+  /**
+   * Makes sure the file exists and figures out its type.
+   *
+   * @param path File path
+   * @param excelExtension Excel type of the file. If {@code null}, the type is deduced from the
+   *     file extension
+   * @return The type of the file
+   */
+  private static ExcelExtension resolveExtension(Path path, ExcelExtension excelExtension) {
+    Objects.requireNonNull(path);
+
+    if (Files.notExists(path)) {
+      throw new UncheckedIOException(new NoSuchFileException(path.toString()));
+    }
+
     if (excelExtension == null) {
       // if a file extension was not explicitly specified,
       // use the file's extension itself from the file name
       if (ExcelExtension.CSV.matches(path)) {
-        return createIterator(inputStream, ExcelExtension.CSV, sheetConfig);
+        excelExtension = ExcelExtension.CSV;
       } else if (ExcelExtension.XLSX.matches(path) || ExcelExtension.XLSM.matches(path)) {
-        return createIterator(inputStream, ExcelExtension.XLSX, sheetConfig);
+        excelExtension = ExcelExtension.XLSX;
+      } else if (ExcelExtension.XLS.matches(path)) {
+        excelExtension = ExcelExtension.XLS;
+      } else if (ExcelExtension.XLSB.matches(path)) {
+        excelExtension = ExcelExtension.XLSB;
+      } else if (ExcelExtension.ODS.matches(path)) {
+        excelExtension = ExcelExtension.ODS;
+      } else {
+        throw new UnsupportedFileTypeException(path.toString());
       }
-    } else {
-      // if a file extension was specified, use it and ignore the file name
-      return createIterator(inputStream, excelExtension, sheetConfig);
     }
 
-    throw new UnsupportedFileTypeException(path.toString());
+    return excelExtension;
   }
 
   /**
@@ -130,6 +273,24 @@ public final class RawRowIteratorFactory {
    */
   public static RawRowIterator createIterator(
       InputStream inputStream, ExcelExtension excelExtension, SheetConfig sheetConfig) {
+    return createIterator(inputStream, excelExtension, sheetConfig, null);
+  }
+
+  /**
+   * Creates an instance of {@link RawRowIterator} for the given input stream based on the enforced
+   * excel extension.
+   *
+   * @param inputStream Input stream with contents of the Excel document
+   * @param excelExtension Excel type of the contents
+   * @param sheetConfig The optional Excel sheet configuration
+   * @param parserConfig The optional parser configuration
+   * @return Iterator for the given input stream
+   */
+  public static RawRowIterator createIterator(
+      InputStream inputStream,
+      ExcelExtension excelExtension,
+      SheetConfig sheetConfig,
+      ParserConfig parserConfig) {
     Objects.requireNonNull(inputStream);
     Objects.requireNonNull(excelExtension);
 
@@ -140,10 +301,16 @@ public final class RawRowIteratorFactory {
               "Sheet configuration was specified for {} file type, but has no effect for on it.",
               ExcelExtension.CSV);
         }
-        return new CsvRowIterator(inputStream);
+        return new CsvRowIterator(inputStream, parserConfig);
       case XLSM: // XLSM and XLSX files have the same table structure
       case XLSX:
-        return new XlsxRowIterator(inputStream, sheetConfig);
+        return new XlsxRowIterator(inputStream, sheetConfig, parserConfig);
+      case XLS:
+        return new XlsRowIterator(inputStream, sheetConfig, parserConfig);
+      case XLSB:
+        return new XlsbRowIterator(inputStream, sheetConfig, parserConfig);
+      case ODS:
+        return new OdsRowIterator(inputStream, sheetConfig, parserConfig);
       default:
         throw new IllegalStateException(
             "Cannot generate a raw row iterator for uncovered case " + excelExtension);
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing;
+
+import java.util.Objects;
+
+/**
+ * Cursor over the rows of a {@link RawRowIterator}, giving access to the values of the current row
+ * without creating a bean, nor any object per row once the row buffer is large enough for the
+ * widest row. It is obtained with {@link RawRowIterator#cursor()}. Example:
+ *
+ * <pre>{@code
+ * try (RowCursor cursor = RawRowIteratorFactory.createIterator(path).cursor()) {
+ *   int age = cursor.columnIndex("Age");
+ *   while (cursor.advance()) {
+ *     if (!cursor.isNull(age)) {
+ *       total += cursor.getInt(age);
+ *     }
+ *   }
+ * }
+ * }</pre>
+ *
+ * Numeric getters parse the String values as the built-in adapters of the mapping module do, and
+ * return zero for cells without a value, {@link #isNull(int)} telling them apart. A cursor is not
+ * thread safe, and should not be combined with reading rows from its iterator.
+ */
+public final class RowCursor implements AutoCloseable {
+
+  private final RawRowIterator rawRowIterator;
+  private final RawRow row = new RawRow();
+  private boolean onRow = false;
+
+  RowCursor(RawRowIterator rawRowIterator) {
+    this.rawRowIterator = Objects.requireNonNull(rawRowIterator);
+  }
+
+  /**
+   * Moves the cursor to the next row, replacing the values of the current one.
+   *
+   * @return {@code true} if the cursor is on a row, {@code false} if there are no more rows
+   */
+  public boolean advance() {
+    onRow = rawRowIterator.nextRawRow(row);
+    if (!onRow) {
+      row.clear();
+    }
+    return onRow;
+  }
+
+  /**
+   * @param headerName Name of a header of the document
+   * @return Column index of the header, or {@code -1} if there is no such header
+   */
+  public int columnIndex(String headerName) {
+    Integer index = rawRowIterator.headerIndexes().get(headerName);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * @return One more than the index of the last column of the current row having a value, {@code 0}
+   *     if none do
+   */
+  public int columnCount() {
+    checkOnRow();
+    return row.columnCount();
+  }
+
+  /**
+   * @param column Column index, starting from zero
+   * @return {@code true} if the cell has no value in the current row
+   */
+  public boolean isNull(int column) {
+    checkOnRow();
+    return row.get(column) == null;
+  }
+
+  /**
+   * @param column Column index, starting from zero
+   * @return Value of the cell in the current row, or {@code null} if it has none
+   */
+  public String getString(int column) {
+    checkOnRow();
+    return row.get(column);
+  }
+
+  /**
+   * @param column Column index, starting from zero
+   * @return Value of the cell in the current row without its decimal places, or {@code 0} if it has
+   *     none
+   * @throws NumberFormatException if the value is not a number fitting an int
+   */
+  public int getInt(int column) {
+    long value = getLong(column);
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+      throw new NumberFormatException("Value " + value + " does not fit an int.");
+    }
+    return (int) value;
+  }
+
+  /**
+   * @param column Column index, starting from zero
+   * @return Value of the cell in the current row without its decimal places, or {@code 0} if it has
+   *     none
+   * @throws NumberFormatException if the value is not a number fitting a long
+   */
+  public long getLong(int column) {
+    String value = getString(column);
+    return value == null ? 0 : parseLong(value);
+  }
+
+  /**
+   * @param column Column index, starting from zero
+   * @return Value of the cell in the current row, or {@code 0} if it has none
+   * @throws NumberFormatException if the value is not a number
+   */
+  public double getDouble(int column) {
+    String value = getString(column);
+    return value == null ? 0 : Double.parseDouble(value);
+  }
+
+  /** Closes the underlying iterator. */
+  @Override
+  public void close() {
+    rawRowIterator.close();
+  }
+
+  private void checkOnRow() {
+    if (!onRow) {
+      throw new IllegalStateException("The cursor is not on a row, see advance().");
+    }
+  }
+
+  /**
+   * Same as {@code Long.parseLong(AdapterUtils.withoutDecimals(s))}, without creating the String
+   * before the decimal point.
+   */
+  private static long parseLong(String s) {
+    int end = s.lastIndexOf('.');
+    if (end < 0) {
+      end = s.length();
+    }
+
+    int i = 0;
+    boolean negative = false;
+    if (end > 0 && (s.charAt(0) == '-' || s.charAt(0) == '+')) {
+      negative = s.charAt(0) == '-';
+      i++;
+    }
+    if (i == end) {
+      throw new NumberFormatException("For input string: \"" + s + "\"");
+    }
+
+    // accumulated negatively, as Long.MIN_VALUE has no positive counterpart
+    long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    long result = 0;
+    for (; i < end; i++) {
+      int digit = Character.digit(s.charAt(i), 10);
+      if (digit < 0 || result < limit / 10 || result * 10 < limit + digit) {
+        throw new NumberFormatException("For input string: \"" + s + "\"");
+      }
+      result = result * 10 - digit;
+    }
+
+    return negative ? result : -result;
+  }
+}
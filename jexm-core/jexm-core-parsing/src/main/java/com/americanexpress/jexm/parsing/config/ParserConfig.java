@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.config;
+
+import com.americanexpress.jexm.parsing.utils.StringPool;
+
+/**
+ * Low-level options used by the {@link com.americanexpress.jexm.parsing.RawRowIterator}
+ * implementations to tune how a document is read. All options are opt-in, so an instance built
+ * without setting anything behaves exactly as parsing without a configuration.
+ */
+public final class ParserConfig {
+
+  /** Uncompressed sheet size (in bytes) from which pipelined inflation is used, if enabled. */
+  public static final long DEFAULT_PIPELINE_THRESHOLD = 4L * 1024 * 1024;
+
+  /** Minimum size (in bytes) of the sheet data handed to each task when parsing in parallel. */
+  public static final long DEFAULT_SPLIT_SIZE = 1024L * 1024;
+
+  private static final ParserConfig DEFAULT = new Builder().build();
+
+  private boolean pipelined = false;
+  private long pipelineThreshold = DEFAULT_PIPELINE_THRESHOLD;
+  private boolean parallel = false;
+  private long splitSize = DEFAULT_SPLIT_SIZE;
+  private int previewRows = 0;
+  private String password = null;
+  private int stringPoolSize = 0;
+
+  private ParserConfig() {
+    // not meant to be initialised from outside the Builder
+  }
+
+  /** @return A configuration with all options set to their defaults */
+  public static ParserConfig defaults() {
+    return DEFAULT;
+  }
+
+  /**
+   * @return {@code true} if compressed sheet data may be inflated on a separate producer thread
+   *     while the consumer thread parses it, {@code false} otherwise.
+   */
+  public boolean isPipelined() {
+    return pipelined;
+  }
+
+  /**
+   * @return Minimum uncompressed size, in bytes, of a sheet for pipelined inflation to be used.
+   *     Smaller sheets are read on the consumer thread, as the hand-off would cost more than it
+   *     saves.
+   */
+  public long getPipelineThreshold() {
+    return pipelineThreshold;
+  }
+
+  /**
+   * @param uncompressedSize Uncompressed size of the data to be read, or a negative number if
+   *     unknown
+   * @return {@code true} if the data should be inflated on a separate thread
+   */
+  public boolean shouldPipeline(long uncompressedSize) {
+    return pipelined && uncompressedSize >= pipelineThreshold;
+  }
+
+  /**
+   * @return {@code true} if the rows of a sheet may be parsed by several threads at once, by
+   *     splitting its data at row boundaries. The order of the rows is preserved.
+   */
+  public boolean isParallel() {
+    return parallel;
+  }
+
+  /**
+   * @return Minimum size, in bytes, of the uncompressed sheet data handed to each thread when
+   *     parsing in parallel. Sheets smaller than twice this size are not split.
+   */
+  public long getSplitSize() {
+    return splitSize;
+  }
+
+  /**
+   * @return Maximum number of rows (after the header) to read from each sheet, or {@code 0} to read
+   *     all of them. When set, only the shared strings used by those rows are read, by streaming
+   *     through the shared strings table as far as the highest index needed instead of loading it
+   *     whole. Takes precedence over parallel parsing. When read from a path, the time to the first
+   *     row does not depend on the size of the workbook; a workbook read from an {@link
+   *     java.io.InputStream} is still read whole into memory before its first row.
+   */
+  public int getPreviewRows() {
+    return previewRows;
+  }
+
+  /** @return {@code true} if only the first {@link #getPreviewRows()} rows are to be read */
+  public boolean isPreview() {
+    return previewRows > 0;
+  }
+
+  /**
+   * @return Password of an encrypted (password-protected) XLSX workbook, or {@code null} if the
+   *     workbook is not encrypted. The package is decrypted as it is read and spilled into a
+   *     temporary file which is itself encrypted with a random key, so the decrypted package is
+   *     neither buffered whole in memory nor written to disk in clear. The temporary file is
+   *     uncompressed, taking as much disk space as the decompressed package. Sheets of encrypted
+   *     workbooks are not parsed in parallel, as it would require spilling their plain text.
+   *     Unencrypted workbooks are read as usual.
+   */
+  public String getPassword() {
+    return password;
+  }
+
+  /**
+   * @return Number of slots of the pool each column of text values is deduplicated through (see
+   *     {@link StringPool}), or {@code 0} if values are not deduplicated. CSV values are looked up
+   *     before being created, values of other file types when mapped to String fields of beans.
+   */
+  public int getStringPoolSize() {
+    return stringPoolSize;
+  }
+
+  /** @return {@code true} if text values are deduplicated, see {@link #getStringPoolSize()} */
+  public boolean isDeduplicatingStrings() {
+    return stringPoolSize > 0;
+  }
+
+  public static class Builder {
+
+    private ParserConfig parserConfig = new ParserConfig();
+
+    public Builder pipelined(boolean p) {
+      this.parserConfig.pipelined = p;
+      return this;
+    }
+
+    public Builder pipelineThreshold(long bytes) {
+      this.parserConfig.pipelineThreshold = bytes;
+      return this;
+    }
+
+    public Builder parallel(boolean p) {
+      this.parserConfig.parallel = p;
+      return this;
+    }
+
+    public Builder splitSize(long bytes) {
+      this.parserConfig.splitSize = bytes;
+      return this;
+    }
+
+    public Builder previewRows(int rows) {
+      this.parserConfig.previewRows = rows;
+      return this;
+    }
+
+    public Builder password(String password) {
+      this.parserConfig.password = password;
+      return this;
+    }
+
+    public Builder stringPoolSize(int size) {
+      this.parserConfig.stringPoolSize = size;
+      return this;
+    }
+
+    public ParserConfig build() {
+      if (this.parserConfig.pipelineThreshold < 0) {
+        throw new IllegalArgumentException("Pipeline threshold cannot be negative.");
+      }
+      if (this.parserConfig.splitSize <= 0) {
+        throw new IllegalArgumentException("Split size must be positive.");
+      }
+      if (this.parserConfig.previewRows < 0) {
+        throw new IllegalArgumentException("Number of preview rows cannot be negative.");
+      }
+      if (this.parserConfig.stringPoolSize < 0) {
+        throw new IllegalArgumentException("String pool size cannot be negative.");
+      }
+      if (this.parserConfig.stringPoolSize > StringPool.MAX_SIZE) {
+        throw new IllegalArgumentException(
+            "String pool size cannot exceed " + StringPool.MAX_SIZE + ".");
+      }
+      return this.parserConfig;
+    }
+  }
+}
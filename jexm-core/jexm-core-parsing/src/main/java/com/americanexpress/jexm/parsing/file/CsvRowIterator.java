@@ -13,14 +13,14 @@
 
 package com.americanexpress.jexm.parsing.file;
 
+import com.americanexpress.jexm.parsing.RawRow;
 import com.americanexpress.jexm.parsing.RawRowIterator;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
+import com.americanexpress.jexm.parsing.utils.StringPool;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.function.Function;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,6 +29,12 @@ public class CsvRowIterator extends RawRowIterator {
 
   private BufferedReader reader;
 
+  // Value being split from a line, reused between values
+  private final StringBuilder value = new StringBuilder();
+  // Pool of each column, if values are deduplicated
+  private StringPool[] stringPools;
+  private final int stringPoolSize;
+
   private static final char SEPARATOR = ',';
   private static final char QUOTES = '\"';
   private static final Pattern EMPTY_LINE_PATTERN = Pattern.compile("^[,\\s]*$");
@@ -36,30 +42,56 @@ public class CsvRowIterator extends RawRowIterator {
   private static final Logger log = LoggerFactory.getLogger(CsvRowIterator.class);
 
   public CsvRowIterator(InputStream inputStream) {
+    this(inputStream, null);
+  }
+
+  /**
+   * @param inputStream Contents of the CSV file
+   * @param parserConfig The optional parser configuration, of which only the string pool size is
+   *     relevant
+   */
+  public CsvRowIterator(InputStream inputStream, ParserConfig parserConfig) {
     Objects.requireNonNull(inputStream);
 
+    this.stringPoolSize = parserConfig == null ? 0 : parserConfig.getStringPoolSize();
+    this.stringPools = new StringPool[stringPoolSize > 0 ? 16 : 0];
     this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
-    this.headerIndexes = RawRowIterator.createHeaderIndexes(readNextRow());
+    this.headerIndexes = RawRowIterator.createHeaderIndexes(readNextRawRow());
   }
 
   @Override
-  public synchronized Map<Integer, String> readNextRow() {
-    return lineAsIndexToValueMap(readNextNonEmptyLine());
+  public RawRow readNextRawRow() {
+    RawRow row = new RawRow();
+    return readNextRawRow(row) ? row : null;
   }
 
-  private static Map<Integer, String> lineAsIndexToValueMap(String line) {
+  @Override
+  protected boolean readNextRawRow(RawRow row) {
+    row.clear();
+
+    String line = readNextNonEmptyLine();
     if (line == null) {
-      return null;
+      return false;
     }
 
-    List<String> valueList = splitLine(line);
+    // empty values are skipped
+    splitLine(line, value, (i, v) -> row.set(i, v.length() == 0 ? null : valueOf(i, v)));
+    return true;
+  }
 
-    return Collections.unmodifiableMap(
-        IntStream.range(0, valueList.size())
-            .boxed()
-            .filter(i -> valueList.get(i) != null)
-            .filter(i -> !valueList.get(i).isEmpty())
-            .collect(Collectors.toMap(Function.identity(), valueList::get)));
+  /** @return The value, from the pool of its column if values are deduplicated */
+  private String valueOf(int column, CharSequence chars) {
+    if (stringPoolSize == 0) {
+      return chars.toString();
+    }
+
+    if (column >= stringPools.length) {
+      stringPools = Arrays.copyOf(stringPools, Math.max(column + 1, stringPools.length * 2));
+    }
+    if (stringPools[column] == null) {
+      stringPools[column] = new StringPool(stringPoolSize);
+    }
+    return stringPools[column].get(chars);
   }
 
   /**
@@ -75,16 +107,31 @@ public class CsvRowIterator extends RawRowIterator {
     Objects.requireNonNull(line);
 
     List<String> list = new ArrayList<>();
+    splitLine(line, new StringBuilder(), (i, value) -> list.add(value.toString()));
+    return list;
+  }
+
+  /**
+   * Same as {@link #splitLine(String)}, handing each value to the consumer as it is split rather
+   * than creating a String for it.
+   *
+   * @param line String to split on the comma character
+   * @param sb Builder used to hold each value, reset first
+   * @param consumer Consumer of the index and characters of each value
+   */
+  private static void splitLine(String line, StringBuilder sb, ValueConsumer consumer) {
+    sb.setLength(0);
 
-    StringBuilder sb = new StringBuilder();
+    int index = 0;
     boolean insideQuotes = false;
-    for (char c : line.toCharArray()) {
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
       switch (c) {
         case SEPARATOR:
           if (insideQuotes) {
             sb.append(c);
           } else {
-            list.add(sb.toString());
+            consumer.accept(index++, sb);
             sb.setLength(0); // reset String builder
           }
           break;
@@ -103,9 +150,12 @@ public class CsvRowIterator extends RawRowIterator {
       sb.insert(0, QUOTES);
     }
 
-    list.add(sb.toString());
+    consumer.accept(index, sb);
+  }
 
-    return list;
+  @FunctionalInterface
+  private interface ValueConsumer {
+    void accept(int index, StringBuilder value);
   }
 
   /**
@@ -123,7 +173,7 @@ public class CsvRowIterator extends RawRowIterator {
    *
    * @return Next non-empty, non-useless line in the CSV file
    */
-  private synchronized String readNextNonEmptyLine() {
+  private String readNextNonEmptyLine() {
 
     String line;
 
@@ -144,7 +194,7 @@ public class CsvRowIterator extends RawRowIterator {
   }
 
   @Override
-  public synchronized void close() {
+  public void close() {
     try {
       if (reader != null) {
         reader.close();
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.util.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A package spilled into a temporary zip file, each entry of which is encrypted with a random key
+ * that only lives in memory. It gives a decrypted package the random access {@link
+ * org.apache.poi.openxml4j.opc.OPCPackage} needs, without the decrypted package being buffered
+ * whole in memory or written to disk in clear. Entries are stored uncompressed, so the file is as
+ * large as the decompressed package. Entries are encrypted with AES in counter mode, each with its
+ * own initialisation vector written before it, so that any number of them can be read at once and
+ * closed before their end. The temporary file is deleted once closed.
+ */
+final class EncryptedTempPackage implements ZipEntrySource {
+
+  private static final String TRANSFORMATION = "AES/CTR/NoPadding";
+  private static final int KEY_SIZE = 16;
+  private static final int IV_SIZE = 16;
+
+  private static final Logger log = LoggerFactory.getLogger(EncryptedTempPackage.class);
+
+  private final File file;
+  private final ZipFile zipFile;
+  private final SecretKey key;
+  private final List<ZipEntry> entries;
+  private boolean closed = false;
+
+  private EncryptedTempPackage(File file, SecretKey key, List<ZipEntry> entries)
+      throws IOException {
+    this.file = file;
+    this.zipFile = new ZipFile(file);
+    this.key = key;
+    this.entries = entries;
+  }
+
+  /**
+   * Copies a package into an encrypted temporary file.
+   *
+   * @param packageInputStream Plain contents of the package. It is not closed
+   * @return The package, to be closed by the caller
+   */
+  static EncryptedTempPackage spill(InputStream packageInputStream)
+      throws IOException, GeneralSecurityException {
+    SecureRandom random = new SecureRandom();
+    byte[] keyBytes = new byte[KEY_SIZE];
+    random.nextBytes(keyBytes);
+    SecretKey key = new SecretKeySpec(keyBytes, "AES");
+
+    File file = Files.createTempFile("jexm", ".zip").toFile();
+    List<ZipEntry> entries = new ArrayList<>();
+
+    try {
+      ZipInputStream zipInputStream = new ZipInputStream(packageInputStream);
+
+      try (ZipOutputStream zipOutputStream =
+          new ZipOutputStream(Files.newOutputStream(file.toPath()))) {
+        zipOutputStream.setLevel(Deflater.NO_COMPRESSION); // encrypted data does not compress
+
+        ZipEntry entry;
+        while ((entry = zipInputStream.getNextEntry()) != null) {
+          zipOutputStream.putNextEntry(new ZipEntry(entry.getName()));
+
+          byte[] iv = new byte[IV_SIZE];
+          random.nextBytes(iv);
+          zipOutputStream.write(iv);
+
+          CountingOutputStream plain =
+              new CountingOutputStream(
+                  new CipherOutputStream(
+                      new EntryOutputStream(zipOutputStream),
+                      cipher(Cipher.ENCRYPT_MODE, key, iv)));
+          try {
+            IOUtils.copy(zipInputStream, plain);
+          } finally {
+            plain.close();
+          }
+
+          // the plain size is reported, as it is used to decide how the part is read
+          ZipEntry plainEntry = new ZipEntry(entry.getName());
+          plainEntry.setSize(plain.count);
+          entries.add(plainEntry);
+
+          zipOutputStream.closeEntry();
+        }
+      }
+
+      return new EncryptedTempPackage(file, key, Collections.unmodifiableList(entries));
+    } catch (IOException | GeneralSecurityException | RuntimeException e) {
+      delete(file);
+      throw e;
+    }
+  }
+
+  private static Cipher cipher(int mode, SecretKey key, byte[] iv) throws GeneralSecurityException {
+    Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+    cipher.init(mode, key, new IvParameterSpec(iv));
+    return cipher;
+  }
+
+  @Override
+  public Enumeration<? extends ZipEntry> getEntries() {
+    return Collections.enumeration(entries);
+  }
+
+  @Override
+  public InputStream getInputStream(ZipEntry entry) throws IOException {
+    ZipEntry encryptedEntry = zipFile.getEntry(entry.getName());
+    if (encryptedEntry == null) {
+      return null;
+    }
+
+    InputStream encrypted = zipFile.getInputStream(encryptedEntry);
+
+    try {
+      byte[] iv = new byte[IV_SIZE];
+      if (IOUtils.readFully(encrypted, iv) != IV_SIZE) {
+        throw new IOException("Entry " + entry.getName() + " of temporary package is truncated.");
+      }
+
+      return new CipherInputStream(encrypted, cipher(Cipher.DECRYPT_MODE, key, iv));
+    } catch (GeneralSecurityException e) {
+      encrypted.close();
+      throw new IOException(e);
+    } catch (IOException | RuntimeException e) {
+      encrypted.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    try {
+      zipFile.close();
+    } finally {
+      delete(file);
+    }
+  }
+
+  @Override
+  public synchronized boolean isClosed() {
+    return closed;
+  }
+
+  private static void delete(File file) {
+    if (!file.delete() && file.exists()) {
+      log.warn("Unable to delete temporary package {}", file);
+    }
+  }
+
+  /** Keeps the entry open when the cipher stream writing into it is closed. */
+  private static final class EntryOutputStream extends FilterOutputStream {
+
+    private EntryOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+
+  /** Counts the plain bytes of an entry. */
+  private static final class CountingOutputStream extends FilterOutputStream {
+
+    private long count = 0;
+
+    private CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+  }
+}
@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import com.americanexpress.jexm.parsing.RawRow;
+import com.americanexpress.jexm.parsing.RawRowIterator;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
+import com.americanexpress.jexm.parsing.config.SheetConfig;
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+import com.americanexpress.jexm.parsing.exceptions.IllegalSheetException;
+import com.americanexpress.jexm.parsing.exceptions.SheetNotFoundException;
+import com.americanexpress.jexm.parsing.utils.ExcelParserUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Iterator class in charge of parsing ODS (OpenDocument Spreadsheet) files in a lazily evaluated
+ * manner. The {@code content.xml} entry is streamed out of the package, and runs of repeated rows
+ * and cells are expanded as they are read: a repeated row is parsed once and a copy of it is
+ * returned for each repetition, and repeated empty rows and cells (such as those filling a sheet up
+ * to its last column and row) are skipped without being expanded. Empty rows are skipped.
+ *
+ * <p>Numbers are read from their {@code office:value}, and dates and times are produced as ISO
+ * strings. Of the {@link ParserConfig} options, those specific to XLSX workbooks ({@link
+ * ParserConfig#isPipelined()}, {@link ParserConfig#getSplitSize()} and {@link
+ * ParserConfig#getPassword()}) are ignored.
+ */
+public class OdsRowIterator extends RawRowIterator {
+
+  private static final String CONTENT_ENTRY = "content.xml";
+
+  private static final String OFFICE_NS = "urn:oasis:names:tc:opendocument:xmlns:office:1.0";
+  private static final String TABLE_NS = "urn:oasis:names:tc:opendocument:xmlns:table:1.0";
+  private static final String TEXT_NS = "urn:oasis:names:tc:opendocument:xmlns:text:1.0";
+
+  private static final String TABLE_TAG = "table";
+  private static final String ROW_TAG = "table-row";
+  private static final String CELL_TAG = "table-cell";
+  private static final String COVERED_CELL_TAG = "covered-table-cell";
+  private static final String PARAGRAPH_TAG = "p";
+  private static final String SPACES_TAG = "s";
+  private static final String TAB_TAG = "tab";
+  private static final String LINE_BREAK_TAG = "line-break";
+  private static final String ANNOTATION_TAG = "annotation";
+
+  private static final long NANOS_PER_DAY = Duration.ofDays(1).toNanos();
+  private static final DateTimeFormatter ISO_LOCAL_TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+  private ZipFile zipFile;
+  private InputStream contentInputStream;
+  private XMLStreamReader contentXmlReader;
+
+  private boolean finished = false;
+
+  // Cells of the row being read, copied once complete so that the same array is reused
+  private final RawRow currentRow = new RawRow();
+
+  // Last row read and number of times it is still to be returned, when it is repeated
+  private RawRow repeatedRow = null;
+  private int remainingRepeats = 0;
+
+  // Number of rows left to read in preview mode, or -1 if all rows are read
+  private int remainingRows = -1;
+
+  private static final Logger log = LoggerFactory.getLogger(OdsRowIterator.class);
+
+  public OdsRowIterator(InputStream inputStream, SheetConfig sheetConfig) {
+    this(inputStream, sheetConfig, null);
+  }
+
+  /**
+   * Creates an iterator over the contents of an ODS file, which are read up to the end of their
+   * {@code content.xml} entry.
+   *
+   * @param inputStream Contents of the ODS file
+   * @param sheetConfig The optional Excel sheet configuration
+   * @param parserConfig The optional parser configuration
+   */
+  public OdsRowIterator(
+      InputStream inputStream, SheetConfig sheetConfig, ParserConfig parserConfig) {
+    try {
+      ZipInputStream zipInputStream = new ZipInputStream(Objects.requireNonNull(inputStream));
+      this.contentInputStream = zipInputStream;
+
+      ZipEntry entry;
+      do {
+        entry = zipInputStream.getNextEntry();
+      } while (entry != null && !entry.getName().equals(CONTENT_ENTRY));
+
+      if (entry == null) {
+        throw new FileFormatException(CONTENT_ENTRY + " was not found.");
+      }
+    } catch (IOException e) {
+      close();
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    }
+
+    init(sheetConfig, parserConfig);
+  }
+
+  /**
+   * Creates an iterator reading the package directly from the file, so that only the {@code
+   * content.xml} entry is inflated.
+   *
+   * @param path Path of the ODS file
+   * @param sheetConfig The optional Excel sheet configuration
+   * @param parserConfig The optional parser configuration
+   */
+  public OdsRowIterator(Path path, SheetConfig sheetConfig, ParserConfig parserConfig) {
+    try {
+      this.zipFile = new ZipFile(path.toFile());
+
+      ZipEntry entry = zipFile.getEntry(CONTENT_ENTRY);
+      if (entry == null) {
+        throw new FileFormatException(CONTENT_ENTRY + " was not found.");
+      }
+
+      this.contentInputStream = zipFile.getInputStream(entry);
+    } catch (ZipException e) {
+      close();
+      throw new FileFormatException(e);
+    } catch (IOException e) {
+      close();
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    }
+
+    init(sheetConfig, parserConfig);
+  }
+
+  /** Moves to the selected table and reads its header row. */
+  private void init(SheetConfig sheetConfig, ParserConfig parserConfig) {
+    try {
+      this.contentXmlReader = ExcelParserUtils.createXMLStreamReader(contentInputStream);
+
+      findTable(sheetConfig);
+      this.headerIndexes = RawRowIterator.createHeaderIndexes(readNextRawRow());
+
+      ParserConfig config = parserConfig == null ? ParserConfig.defaults() : parserConfig;
+      if (config.isPreview()) {
+        this.remainingRows = config.getPreviewRows();
+      }
+    } catch (XMLStreamException e) {
+      close();
+      throw new FileFormatException(e);
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Moves the reader into the selected table, tables appearing in the order of the sheets.
+   *
+   * @param sheetConfig Sheet configuration. If {@code null}, the first table is selected
+   * @throws SheetNotFoundException If a sheet was not found for the given configuration
+   */
+  private void findTable(SheetConfig sheetConfig) throws XMLStreamException {
+    if (sheetConfig != null && !sheetConfig.isIndexSet() && !sheetConfig.isNameSet()) {
+      throw new IllegalSheetException("Neither sheet name nor index were specified.");
+    }
+
+    int index = 0;
+
+    while (contentXmlReader.hasNext()) {
+      if (contentXmlReader.next() == XMLStreamReader.START_ELEMENT
+          && isElement(TABLE_NS, TABLE_TAG)) {
+        if (sheetConfig == null
+            || (sheetConfig.isIndexSet() && sheetConfig.getIndex() == index)
+            || (sheetConfig.isNameSet()
+                && sheetConfig.getName().equals(attribute(TABLE_NS, "name")))) {
+          return;
+        }
+
+        skipElement();
+        index++;
+      }
+    }
+
+    if (sheetConfig == null) {
+      throw new SheetNotFoundException(0);
+    } else if (sheetConfig.isIndexSet()) {
+      throw new SheetNotFoundException(sheetConfig.getIndex());
+    } else {
+      throw new SheetNotFoundException(sheetConfig.getName());
+    }
+  }
+
+  @Override
+  public RawRow readNextRawRow() {
+    if (remainingRows == 0) {
+      return null; // all preview rows were read
+    } else if (remainingRows > 0) {
+      remainingRows--;
+    }
+
+    if (remainingRepeats > 0) {
+      remainingRepeats--;
+      return repeatedRow.copy(); // rows belong to the caller
+    }
+
+    try {
+      return readNextNonEmptyRow();
+    } catch (XMLStreamException e) {
+      throw new FileFormatException(e);
+    }
+  }
+
+  /** @return The next row of the table having a value, or {@code null} if the table ended */
+  private RawRow readNextNonEmptyRow() throws XMLStreamException {
+    while (!finished && contentXmlReader.hasNext()) {
+      int event = contentXmlReader.next();
+
+      if (event == XMLStreamReader.START_ELEMENT && isElement(TABLE_NS, ROW_TAG)) {
+        int repeats = repeatCount("number-rows-repeated");
+        RawRow row = readRow();
+
+        if (row != null) {
+          // repeated empty rows are skipped without being expanded
+          repeatedRow = row;
+          remainingRepeats = repeats - 1;
+          return row;
+        }
+      } else if (event == XMLStreamReader.END_ELEMENT && isElement(TABLE_NS, TABLE_TAG)) {
+        finished = true; // nothing else in the document is needed
+      }
+    }
+
+    finished = true;
+    return null;
+  }
+
+  /**
+   * Reads the cells of the current row up to its end tag.
+   *
+   * @return The row, or {@code null} if it has no values
+   */
+  private RawRow readRow() throws XMLStreamException {
+    int column = 0;
+
+    while (contentXmlReader.hasNext()) {
+      int event = contentXmlReader.next();
+
+      if (event == XMLStreamReader.START_ELEMENT) {
+        if (isElement(TABLE_NS, CELL_TAG) || isElement(TABLE_NS, COVERED_CELL_TAG)) {
+          int repeats = repeatCount("number-columns-repeated");
+          String value = readCell();
+
+          if (value != null) {
+            for (int i = 0; i < repeats; i++) {
+              currentRow.set(column + i, value);
+            }
+          }
+
+          // repeated empty cells only move the column index
+          column += repeats;
+        } else {
+          skipElement();
+        }
+      } else if (event == XMLStreamReader.END_ELEMENT) {
+        // the end of the row, as nested elements are read entirely
+        break;
+      }
+    }
+
+    RawRow row = currentRow.isEmpty() ? null : currentRow.copy();
+    currentRow.clear();
+    return row;
+  }
+
+  /**
+   * Reads the value of the current cell according to its {@code office:value-type}, up to its end
+   * tag.
+   *
+   * @return Value of the cell, or {@code null} if it is empty
+   */
+  private String readCell() throws XMLStreamException {
+    String valueType = attribute(OFFICE_NS, "value-type");
+    String value = null;
+
+    if (valueType != null) {
+      switch (valueType) {
+        case "float":
+        case "percentage":
+        case "currency":
+          value = attribute(OFFICE_NS, "value");
+          break;
+        case "date":
+          value = attribute(OFFICE_NS, "date-value"); // already in ISO format
+          break;
+        case "time":
+          value = formatTime(attribute(OFFICE_NS, "time-value"));
+          break;
+        case "boolean":
+          value = "true".equals(attribute(OFFICE_NS, "boolean-value")) ? "1" : "0";
+          break;
+        default:
+          value = attribute(OFFICE_NS, "string-value");
+          break;
+      }
+    }
+
+    if (value != null) {
+      skipElement(); // the text of the cell is only its displayed value
+    } else {
+      value = readText();
+    }
+
+    return value == null || value.isEmpty() ? null : value;
+  }
+
+  /**
+   * Reads the text of the current cell up to its end tag. Paragraphs are separated by line breaks,
+   * and annotations are not part of the text.
+   */
+  private String readText() throws XMLStreamException {
+    StringBuilder text = new StringBuilder();
+    int paragraphs = 0;
+    int depth = 1;
+
+    while (depth > 0 && contentXmlReader.hasNext()) {
+      int event = contentXmlReader.next();
+
+      switch (event) {
+        case XMLStreamReader.START_ELEMENT:
+          depth++;
+          if (isElement(OFFICE_NS, ANNOTATION_TAG)) {
+            skipElement();
+            depth--;
+          } else if (isElement(TEXT_NS, PARAGRAPH_TAG)) {
+            if (paragraphs++ > 0) {
+              text.append('\n');
+            }
+          } else if (isElement(TEXT_NS, SPACES_TAG)) {
+            String count = attribute(TEXT_NS, "c");
+            for (int i = count == null ? 1 : Integer.parseInt(count); i > 0; i--) {
+              text.append(' ');
+            }
+          } else if (isElement(TEXT_NS, TAB_TAG)) {
+            text.append('\t');
+          } else if (isElement(TEXT_NS, LINE_BREAK_TAG)) {
+            text.append('\n');
+          }
+          break;
+        case XMLStreamReader.END_ELEMENT:
+          depth--;
+          break;
+        case XMLStreamReader.CHARACTERS:
+        case XMLStreamReader.CDATA:
+          if (paragraphs > 0) {
+            text.append(contentXmlReader.getText());
+          }
+          break;
+        default:
+          break;
+      }
+    }
+
+    return text.toString();
+  }
+
+  /**
+   * Formats an {@code office:time-value} duration (eg. "PT18H00M30S") as an ISO time, wrapping
+   * around days.
+   */
+  private static String formatTime(String duration) {
+    if (duration == null) {
+      return null;
+    }
+
+    try {
+      long nanos = Math.floorMod(Duration.parse(duration).toNanos(), NANOS_PER_DAY);
+      return ISO_LOCAL_TIME.format(LocalTime.ofNanoOfDay(nanos));
+    } catch (DateTimeParseException e) {
+      throw new FileFormatException(e);
+    }
+  }
+
+  /** @return Value of a repetition attribute of the current element, which defaults to 1 */
+  private int repeatCount(String attributeName) {
+    String repeats = attribute(TABLE_NS, attributeName);
+
+    try {
+      return repeats == null ? 1 : Math.max(1, Integer.parseInt(repeats));
+    } catch (NumberFormatException e) {
+      throw new FileFormatException(e);
+    }
+  }
+
+  private boolean isElement(String namespace, String localName) {
+    return localName.equals(contentXmlReader.getLocalName())
+        && namespace.equals(contentXmlReader.getNamespaceURI());
+  }
+
+  private String attribute(String namespace, String localName) {
+    return contentXmlReader.getAttributeValue(namespace, localName);
+  }
+
+  /** Skips the current element, along with all of its contents. */
+  private void skipElement() throws XMLStreamException {
+    int depth = 1;
+
+    while (depth > 0 && contentXmlReader.hasNext()) {
+      int event = contentXmlReader.next();
+
+      if (event == XMLStreamReader.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamReader.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    finished = true;
+
+    try {
+      if (contentXmlReader != null) {
+        contentXmlReader.close();
+      }
+    } catch (XMLStreamException e) {
+      log.error("Unable to close XML reader of ODS resource", e);
+    }
+
+    try {
+      if (contentInputStream != null) {
+        contentInputStream.close();
+      }
+    } catch (IOException e) {
+      log.error("Unable to close content of ODS resource", e);
+    }
+
+    try {
+      if (zipFile != null) {
+        zipFile.close();
+      }
+    } catch (IOException e) {
+      log.error("Unable to close ODS resource", e);
+    }
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Input stream which reads its source on a separate producer thread, handing the bytes read over to
+ * the consumer through a bounded queue of blocks. When the source is a compressed entry (eg. a
+ * sheet inside an XLSX package), this allows inflating the data on one core while the consumer
+ * parses it on another. The queue is bounded, so the producer never gets more than {@code
+ * queueCapacity} blocks ahead of the consumer.
+ */
+final class PipelinedInputStream extends InputStream {
+
+  static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+  static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+  // Marks the end of the source. Compared by reference, never read from
+  private static final byte[] END_OF_STREAM = new byte[0];
+
+  private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+  private static final Logger log = LoggerFactory.getLogger(PipelinedInputStream.class);
+
+  private final InputStream source;
+  private final int blockSize;
+  private final BlockingQueue<byte[]> blocks;
+  private final Thread producer;
+
+  private volatile boolean closed = false;
+  private volatile IOException failure = null;
+
+  // Block currently being consumed and the position of the next byte to read in it
+  private byte[] current = null;
+  private int position = 0;
+
+  PipelinedInputStream(InputStream source) {
+    this(source, DEFAULT_BLOCK_SIZE, DEFAULT_QUEUE_CAPACITY);
+  }
+
+  PipelinedInputStream(InputStream source, int blockSize, int queueCapacity) {
+    if (blockSize <= 0 || queueCapacity <= 0) {
+      throw new IllegalArgumentException("Block size and queue capacity must be positive.");
+    }
+
+    this.source = Objects.requireNonNull(source);
+    this.blockSize = blockSize;
+    this.blocks = new ArrayBlockingQueue<>(queueCapacity);
+
+    this.producer = new Thread(this::produce, "jexm-pipeline-" + THREAD_COUNT.incrementAndGet());
+    this.producer.setDaemon(true);
+    this.producer.start();
+  }
+
+  /** Body of the producer thread: reads the source block by block until it is exhausted. */
+  private void produce() {
+    try {
+      while (!closed) {
+        byte[] block = new byte[blockSize];
+        int length = fill(block);
+
+        if (length <= 0) {
+          break; // reached the end of the source
+        }
+
+        blocks.put(length == blockSize ? block : Arrays.copyOf(block, length));
+      }
+    } catch (IOException e) {
+      failure = e;
+    } catch (InterruptedException e) {
+      // only interrupted when the consumer closed this stream
+      Thread.currentThread().interrupt();
+    } finally {
+      try {
+        if (!closed) {
+          blocks.put(END_OF_STREAM);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      // the source is only ever touched by the producer thread, so it is also closed by it
+      try {
+        source.close();
+      } catch (IOException e) {
+        log.error("Unable to close pipelined resource", e);
+      }
+    }
+  }
+
+  /**
+   * Reads from the source until the block is full or the source is exhausted.
+   *
+   * @return Number of bytes read into the block
+   */
+  private int fill(byte[] block) throws IOException {
+    int length = 0;
+    while (length < block.length) {
+      int read = source.read(block, length, block.length - length);
+      if (read < 0) {
+        break;
+      }
+      length += read;
+    }
+    return length;
+  }
+
+  /**
+   * Makes sure there is at least one byte available in the current block, waiting for the producer
+   * if needed.
+   *
+   * @return {@code false} if the end of the source was reached, {@code true} otherwise.
+   */
+  private boolean nextBytesAvailable() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+
+    while (current != END_OF_STREAM && (current == null || position == current.length)) {
+      try {
+        current = blocks.take();
+        position = 0;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+    }
+
+    if (current == END_OF_STREAM) {
+      if (failure != null) {
+        throw new IOException("Unable to read pipelined data", failure);
+      }
+      return false;
+    }
+
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    return nextBytesAvailable() ? current[position++] & 0xFF : -1;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    Objects.requireNonNull(b);
+    if (off < 0 || len < 0 || len > b.length - off) {
+      throw new IndexOutOfBoundsException();
+    }
+
+    if (len == 0) {
+      return 0;
+    }
+
+    if (!nextBytesAvailable()) {
+      return -1;
+    }
+
+    int n = Math.min(len, current.length - position);
+    System.arraycopy(current, position, b, off, n);
+    position += n;
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return current == null || current == END_OF_STREAM ? 0 : current.length - position;
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    producer.interrupt(); // wake up the producer if it is waiting for space in the queue
+    blocks.clear();
+
+    try {
+      producer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
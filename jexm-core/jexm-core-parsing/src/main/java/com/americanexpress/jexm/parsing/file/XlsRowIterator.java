@@ -0,0 +1,453 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import com.americanexpress.jexm.parsing.RawRow;
+import com.americanexpress.jexm.parsing.RawRowIterator;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
+import com.americanexpress.jexm.parsing.config.SheetConfig;
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+import com.americanexpress.jexm.parsing.exceptions.IllegalSheetException;
+import com.americanexpress.jexm.parsing.exceptions.SheetNotFoundException;
+import com.americanexpress.jexm.parsing.utils.CellDateFormat;
+import com.americanexpress.jexm.parsing.utils.ExcelParserUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import org.apache.poi.UnsupportedFileFormatException;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactoryInputStream;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.poifs.filesystem.NotOLE2FileException;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.util.RecordFormatException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Iterator class in charge of parsing XLS (BIFF8) files in a lazily evaluated manner. Records of
+ * the workbook stream are pulled one at a time and turned into rows as they go by, so only the
+ * shared strings table and the row being read are kept in memory. Empty rows are skipped.
+ *
+ * <p>Of the {@link ParserConfig} options, those specific to XLSX workbooks ({@link
+ * ParserConfig#isPipelined()}, {@link ParserConfig#getSplitSize()} and {@link
+ * ParserConfig#getPassword()}) are ignored.
+ */
+public class XlsRowIterator extends RawRowIterator {
+
+  private NPOIFSFileSystem fileSystem;
+  private InputStream workbookInputStream;
+  private RecordFactoryInputStream recordStream;
+
+  private final SheetConfig sheetConfig;
+  private final FormatTrackingHSSFListener formatListener;
+  private final HSSFListener listener;
+
+  private final List<BoundSheetRecord> boundSheets = new ArrayList<>();
+  private SSTRecord sharedStrings;
+
+  // Depth of nested BOF/EOF substreams (eg. embedded charts), the workbook globals being the first
+  private int depth = 0;
+  // Number of sheet substreams seen so far, and position of the selected sheet among them
+  private int sheetSubstreams = 0;
+  private int selectedSubstream = -1;
+  private boolean inSelectedSheet = false;
+  private boolean finished = false;
+
+  private int currentRowIndex = -1;
+  // Cells of the row being read, copied once complete so that the same array is reused
+  private final RawRow currentRow = new RawRow();
+  private FormulaRecord pendingStringFormula = null;
+  private final Deque<RawRow> readyRows = new ArrayDeque<>();
+
+  // Date format of each cell style, indexed by style, or null if not classified yet
+  private CellDateFormat[] dateFormats = new CellDateFormat[0];
+
+  // Number of rows left to read in preview mode, or -1 if all rows are read
+  private int remainingRows = -1;
+
+  private static final Logger log = LoggerFactory.getLogger(XlsRowIterator.class);
+
+  public XlsRowIterator(InputStream inputStream, SheetConfig sheetConfig) {
+    this(inputStream, sheetConfig, null);
+  }
+
+  /**
+   * Creates an iterator over the contents of an XLS file, which are read into memory.
+   *
+   * @param inputStream Contents of the XLS file
+   * @param sheetConfig The optional Excel sheet configuration
+   * @param parserConfig The optional parser configuration
+   */
+  public XlsRowIterator(
+      InputStream inputStream, SheetConfig sheetConfig, ParserConfig parserConfig) {
+    this(sheetConfig);
+
+    try {
+      init(new NPOIFSFileSystem(Objects.requireNonNull(inputStream)), parserConfig);
+    } catch (NotOLE2FileException | UnsupportedFileFormatException e) {
+      // eg. an XLSX file or not an Excel file at all
+      throw new FileFormatException(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Creates an iterator reading the file directly, so that its blocks are only read when needed and
+   * memory use does not depend on the size of the file.
+   *
+   * @param path Path of the XLS file
+   * @param sheetConfig The optional Excel sheet configuration
+   * @param parserConfig The optional parser configuration
+   */
+  public XlsRowIterator(Path path, SheetConfig sheetConfig, ParserConfig parserConfig) {
+    this(sheetConfig);
+
+    try {
+      init(new NPOIFSFileSystem(path.toFile(), true), parserConfig);
+    } catch (NotOLE2FileException | UnsupportedFileFormatException e) {
+      // eg. an XLSX file or not an Excel file at all
+      throw new FileFormatException(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private XlsRowIterator(SheetConfig sheetConfig) {
+    this.sheetConfig = sheetConfig;
+    this.formatListener = new FormatTrackingHSSFListener(this::processRecord);
+    this.listener = new MissingRecordAwareHSSFListener(formatListener);
+  }
+
+  /** Opens the workbook stream of the file system and reads up to the end of the header row. */
+  private void init(NPOIFSFileSystem fileSystem, ParserConfig parserConfig) {
+    this.fileSystem = fileSystem;
+
+    try {
+      String workbookEntryName = HSSFWorkbook.getWorkbookDirEntryName(fileSystem.getRoot());
+      this.workbookInputStream = fileSystem.createDocumentInputStream(workbookEntryName);
+      this.recordStream = new RecordFactoryInputStream(workbookInputStream, false);
+
+      this.headerIndexes = RawRowIterator.createHeaderIndexes(pollRow());
+
+      ParserConfig config = parserConfig == null ? ParserConfig.defaults() : parserConfig;
+      if (config.isPreview()) {
+        this.remainingRows = config.getPreviewRows();
+      }
+    } catch (IOException e) {
+      close();
+      throw new UncheckedIOException(e);
+    } catch (UnsupportedFileFormatException | RecordFormatException e) {
+      // eg. files saved by Excel 95 or earlier, or without a workbook stream
+      close();
+      throw new FileFormatException(e);
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  @Override
+  public RawRow readNextRawRow() {
+    if (remainingRows == 0) {
+      return null; // all preview rows were read
+    } else if (remainingRows > 0) {
+      remainingRows--;
+    }
+
+    try {
+      return pollRow();
+    } catch (RecordFormatException e) {
+      throw new FileFormatException(e);
+    }
+  }
+
+  /**
+   * Pulls records from the workbook stream until a row of the selected sheet is complete.
+   *
+   * @return The next non-empty row, or {@code null} if the end of the sheet was reached
+   */
+  private RawRow pollRow() {
+    while (readyRows.isEmpty() && !finished) {
+      Record record = recordStream.nextRecord();
+
+      if (record == null) {
+        finished = true;
+      } else {
+        listener.processRecord(record);
+      }
+    }
+
+    return readyRows.poll();
+  }
+
+  /** Handles a record once missing cells were accounted for and number formats were tracked. */
+  private void processRecord(Record record) {
+    switch (record.getSid()) {
+      case BOFRecord.sid:
+        if (depth++ == 0 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+          // a sheet substream, either a worksheet or another type of sheet
+          inSelectedSheet = sheetSubstreams++ == selectedSubstream;
+        }
+        break;
+      case EOFRecord.sid:
+        if (--depth == 0) {
+          if (inSelectedSheet) {
+            completeRow();
+            finished = true; // nothing else in the workbook is needed
+          } else if (selectedSubstream < 0) {
+            // end of the workbook globals, which list the sheets
+            selectedSubstream = findSelectedSubstream();
+          }
+        }
+        break;
+      case BoundSheetRecord.sid:
+        boundSheets.add((BoundSheetRecord) record);
+        break;
+      case SSTRecord.sid:
+        sharedStrings = (SSTRecord) record;
+        break;
+      default:
+        if (inSelectedSheet && depth == 1) {
+          processSheetRecord(record);
+        }
+        break;
+    }
+  }
+
+  /** Handles a record of the selected sheet, adding the value of cell records to their row. */
+  private void processSheetRecord(Record record) {
+    if (record instanceof LastCellOfRowDummyRecord) {
+      if (((LastCellOfRowDummyRecord) record).getRow() == currentRowIndex) {
+        completeRow();
+      }
+      return;
+    }
+
+    if (record instanceof StringRecord) {
+      // cached result of the formula preceding it
+      if (pendingStringFormula != null) {
+        addValue(pendingStringFormula, ((StringRecord) record).getString());
+        pendingStringFormula = null;
+      }
+      return;
+    }
+
+    switch (record.getSid()) {
+      case NumberRecord.sid:
+        NumberRecord number = (NumberRecord) record;
+        addValue(number, formatNumber(number, number.getValue()));
+        break;
+      case LabelSSTRecord.sid:
+        LabelSSTRecord label = (LabelSSTRecord) record;
+        addValue(label, sharedString(label.getSSTIndex()));
+        break;
+      case LabelRecord.sid:
+        LabelRecord oldLabel = (LabelRecord) record;
+        addValue(oldLabel, oldLabel.getValue());
+        break;
+      case BoolErrRecord.sid:
+        BoolErrRecord boolErr = (BoolErrRecord) record;
+        addValue(
+            boolErr,
+            boolErr.isBoolean()
+                ? formatBoolean(boolErr.getBooleanValue())
+                : formatError(boolErr.getErrorValue()));
+        break;
+      case FormulaRecord.sid:
+        processFormula((FormulaRecord) record);
+        break;
+      default:
+        break;
+    }
+  }
+
+  /** Adds the cached result of a formula, as Excel saved it, to its row. */
+  private void processFormula(FormulaRecord formula) {
+    switch (CellType.forInt(formula.getCachedResultType())) {
+      case NUMERIC:
+        addValue(formula, formatNumber(formula, formula.getValue()));
+        break;
+      case STRING:
+        if (formula.hasCachedResultString()) {
+          // the string is held by the next record
+          pendingStringFormula = formula;
+        }
+        break;
+      case BOOLEAN:
+        addValue(formula, formatBoolean(formula.getCachedBooleanValue()));
+        break;
+      case ERROR:
+        addValue(formula, formatError(formula.getCachedErrorValue()));
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void addValue(CellValueRecordInterface cell, String value) {
+    if (cell.getRow() != currentRowIndex) {
+      completeRow();
+      currentRowIndex = cell.getRow();
+    }
+
+    if (value == null || value.isEmpty()) {
+      return;
+    }
+
+    if (currentRow.get(cell.getColumn()) != null) {
+      throw new IllegalStateException(
+          "Cell index " + cell.getColumn() + " was found multiple times.");
+    }
+    currentRow.set(cell.getColumn(), value);
+  }
+
+  /** Makes the row being read available, if it has any value. */
+  private void completeRow() {
+    if (!currentRow.isEmpty()) {
+      readyRows.add(currentRow.copy());
+      currentRow.clear();
+    }
+  }
+
+  private String sharedString(int index) {
+    if (sharedStrings == null || index < 0 || index >= sharedStrings.getNumUniqueStrings()) {
+      throw new FileFormatException("Shared string " + index + " was not found.");
+    }
+    return sharedStrings.getString(index).getString();
+  }
+
+  /**
+   * Formats a number as XLSX files store it, or as an ISO date or time string if the cell has a
+   * date format, built-in or custom (see {@link CellDateFormat}).
+   */
+  private String formatNumber(CellValueRecordInterface cell, double value) {
+    CellDateFormat dateFormat = dateFormat(cell);
+
+    if (dateFormat.isDate()) {
+      return dateFormat.format(value);
+    }
+
+    return ExcelParserUtils.formatNumber(value);
+  }
+
+  /**
+   * @return The date format of the style of the cell, classified the first time a cell of that
+   *     style is read. All styles and number formats are in the workbook globals, which come before
+   *     the sheets.
+   */
+  private CellDateFormat dateFormat(CellValueRecordInterface cell) {
+    int xfIndex = cell.getXFIndex() & 0xFFFF;
+
+    if (xfIndex >= dateFormats.length) {
+      dateFormats = Arrays.copyOf(dateFormats, Math.max(xfIndex + 1, dateFormats.length * 2));
+    }
+
+    CellDateFormat dateFormat = dateFormats[xfIndex];
+    if (dateFormat == null) {
+      int formatIndex = formatListener.getFormatIndex(cell);
+      dateFormat =
+          formatIndex < 0
+              ? CellDateFormat.NONE // the style is missing
+              : CellDateFormat.of(formatIndex, formatListener.getFormatString(formatIndex));
+      dateFormats[xfIndex] = dateFormat;
+    }
+
+    return dateFormat;
+  }
+
+  private static String formatBoolean(boolean value) {
+    return value ? "1" : "0"; // as XLSX files store them
+  }
+
+  private static String formatError(int errorCode) {
+    return FormulaError.forInt(errorCode).getString();
+  }
+
+  /**
+   * Finds the position of the selected sheet among the sheet substreams, which follow the workbook
+   * globals in the order of their offsets rather than in the order of the sheets.
+   *
+   * @return Position of the substream of the selected sheet
+   * @throws SheetNotFoundException If a sheet was not found for the given configuration
+   */
+  private int findSelectedSubstream() {
+    BoundSheetRecord selected;
+
+    if (sheetConfig == null) {
+      // if no sheet configuration was specified, simply use the first sheet
+      if (boundSheets.isEmpty()) {
+        throw new SheetNotFoundException(0);
+      }
+      selected = boundSheets.get(0);
+    } else if (sheetConfig.isIndexSet()) {
+      if (sheetConfig.getIndex() >= boundSheets.size()) {
+        throw new SheetNotFoundException(sheetConfig.getIndex());
+      }
+      selected = boundSheets.get(sheetConfig.getIndex());
+    } else if (sheetConfig.isNameSet()) {
+      selected =
+          boundSheets
+              .stream()
+              .filter(s -> sheetConfig.getName().equals(s.getSheetname()))
+              .findFirst()
+              .orElseThrow(() -> new SheetNotFoundException(sheetConfig.getName()));
+    } else {
+      throw new IllegalSheetException("Neither sheet name nor index were specified.");
+    }
+
+    return Arrays.asList(BoundSheetRecord.orderByBofPosition(boundSheets)).indexOf(selected);
+  }
+
+  @Override
+  public void close() {
+    finished = true;
+
+    try {
+      if (workbookInputStream != null) {
+        workbookInputStream.close();
+      }
+    } catch (IOException e) {
+      log.error("Unable to close workbook stream of XLS resource", e);
+    }
+
+    try {
+      if (fileSystem != null) {
+        fileSystem.close();
+      }
+    } catch (IOException e) {
+      log.error("Unable to close XLS resource", e);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.LittleEndian;
+
+/**
+ * Pull reader of the records of an XLSB (BIFF12) part. Each record starts with its type and length,
+ * both stored as variable-length integers, followed by its data. The data of the current record is
+ * held in a buffer reused from one record to the next, so reading records does not allocate.
+ */
+final class XlsbRecordReader {
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private final InputStream inputStream;
+
+  private byte[] data = new byte[INITIAL_CAPACITY];
+  private int type = -1;
+  private int length = 0;
+
+  XlsbRecordReader(InputStream inputStream) {
+    this.inputStream = inputStream;
+  }
+
+  /**
+   * Reads the next record of the part.
+   *
+   * @return {@code false} if the end of the part was reached, {@code true} otherwise
+   */
+  boolean next() throws IOException {
+    int nextType = readVariableInt(2, true);
+
+    if (nextType < 0) {
+      type = -1;
+      length = 0;
+      return false;
+    }
+
+    int nextLength = readVariableInt(4, false);
+    if (nextLength > data.length) {
+      data = Arrays.copyOf(data, Math.max(nextLength, data.length * 2));
+    }
+
+    // an empty record at the very end of the part would otherwise be reported as the end of it
+    if (nextLength > 0 && IOUtils.readFully(inputStream, data, 0, nextLength) != nextLength) {
+      throw new FileFormatException("Record " + nextType + " ended unexpectedly.");
+    }
+
+    type = nextType;
+    length = nextLength;
+    return true;
+  }
+
+  /** @return Type of the current record */
+  int type() {
+    return type;
+  }
+
+  int getByte(int offset) {
+    checkBounds(offset, 1);
+    return data[offset] & 0xFF;
+  }
+
+  int getUShort(int offset) {
+    checkBounds(offset, 2);
+    return LittleEndian.getUShort(data, offset);
+  }
+
+  int getInt(int offset) {
+    checkBounds(offset, 4);
+    return LittleEndian.getInt(data, offset);
+  }
+
+  double getDouble(int offset) {
+    checkBounds(offset, 8);
+    return LittleEndian.getDouble(data, offset);
+  }
+
+  /** @return The {@code XLWideString} at the given offset: a character count and UTF-16 text */
+  String getWideString(int offset) {
+    int characters = getInt(offset);
+    if (characters < 0 || characters > (length - offset - 4) / 2) {
+      throw new FileFormatException("String of record " + type + " is out of bounds.");
+    }
+    return new String(data, offset + 4, characters * 2, StandardCharsets.UTF_16LE);
+  }
+
+  private void checkBounds(int offset, int size) {
+    if (offset < 0 || offset + size > length) {
+      throw new FileFormatException("Record " + type + " is too short.");
+    }
+  }
+
+  /**
+   * Reads an integer stored on up to the given number of bytes, 7 bits at a time, the high bit of
+   * each byte telling whether another one follows.
+   *
+   * @return The integer, or -1 if the end of the part was reached before its first byte
+   */
+  private int readVariableInt(int maxBytes, boolean endAllowed) throws IOException {
+    int value = 0;
+
+    for (int i = 0; i < maxBytes; i++) {
+      int b = inputStream.read();
+
+      if (b < 0) {
+        if (i == 0 && endAllowed) {
+          return -1;
+        }
+        throw new FileFormatException("Record header ended unexpectedly.");
+      }
+
+      value |= (b & 0x7F) << (7 * i);
+
+      if ((b & 0x80) == 0) {
+        break;
+      }
+    }
+
+    return value;
+  }
+}
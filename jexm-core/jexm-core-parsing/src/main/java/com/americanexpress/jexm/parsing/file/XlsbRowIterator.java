@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import com.americanexpress.jexm.parsing.RawRow;
+import com.americanexpress.jexm.parsing.RawRowIterator;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
+import com.americanexpress.jexm.parsing.config.SheetConfig;
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+import com.americanexpress.jexm.parsing.exceptions.IllegalSheetException;
+import com.americanexpress.jexm.parsing.utils.CellDateFormat;
+import com.americanexpress.jexm.parsing.utils.ExcelParserUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import org.apache.poi.hssf.util.RKUtil;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.xssf.eventusermodel.XSSFBReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Iterator class in charge of parsing XLSB (binary workbook) files in a lazily evaluated manner.
+ * Records of the sheet part are pulled one at a time by a {@link XlsbRecordReader} and turned into
+ * rows as they go by. The shared strings table is streamed into a plain array of strings, and only
+ * the date format of each cell style is kept from the styles part. Empty rows are skipped.
+ *
+ * <p>Of the {@link ParserConfig} options, those specific to XLSX workbooks ({@link
+ * ParserConfig#isPipelined()}, {@link ParserConfig#getSplitSize()} and {@link
+ * ParserConfig#getPassword()}) are ignored.
+ */
+public class XlsbRowIterator extends RawRowIterator {
+
+  // Record types of the sheet part
+  private static final int ROW_HEADER = 0;
+  private static final int CELL_RK = 2;
+  private static final int CELL_ERROR = 3;
+  private static final int CELL_BOOL = 4;
+  private static final int CELL_REAL = 5;
+  private static final int CELL_STRING = 6;
+  private static final int CELL_SHARED_STRING = 7;
+  private static final int FORMULA_STRING = 8;
+  private static final int FORMULA_NUMBER = 9;
+  private static final int FORMULA_BOOL = 10;
+  private static final int FORMULA_ERROR = 11;
+  private static final int CELL_RICH_STRING = 62;
+  private static final int END_SHEET_DATA = 146;
+
+  // Record types of the shared strings and styles parts
+  private static final int SHARED_STRING_ITEM = 19;
+  private static final int FORMAT = 44;
+  private static final int XF = 47;
+  private static final int BEGIN_CELL_XFS = 617;
+  private static final int END_CELL_XFS = 618;
+
+  // Cells start with their column (4 bytes) and style (3 bytes and 1 byte of flags)
+  private static final int CELL_STYLE_OFFSET = 4;
+  private static final int CELL_VALUE_OFFSET = 8;
+
+  private OPCPackage opcPackage;
+  private InputStream sheetInputStream;
+  private XlsbRecordReader sheetReader;
+
+  private XlsxSharedStrings sharedStrings;
+  private CellDateFormat[] dateFormats;
+
+  private boolean finished = false;
+  // Row read by readNextRawRow(), copied once complete so that the same array is reused
+  private final RawRow currentRow = new RawRow();
+
+  // Number of rows left to read in preview mode, or -1 if all rows are read
+  private int remainingRows = -1;
+
+  private static final Logger log = LoggerFactory.getLogger(XlsbRowIterator.class);
+
+  public XlsbRowIterator(InputStream inputStream, SheetConfig sheetConfig) {
+    this(inputStream, sheetConfig, null);
+  }
+
+  /**
+   * Creates an iterator over the contents of an XLSB file, which are read into memory.
+   *
+   * @param inputStream Contents of the XLSB file
+   * @param sheetConfig The optional Excel sheet configuration
+   * @param parserConfig The optional parser configuration
+   */
+  public XlsbRowIterator(
+      InputStream inputStream, SheetConfig sheetConfig, ParserConfig parserConfig) {
+    try {
+      this.opcPackage = OPCPackage.open(Objects.requireNonNull(inputStream));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (OpenXML4JException e) {
+      throw new FileFormatException(e);
+    }
+
+    init(sheetConfig, parserConfig);
+  }
+
+  /**
+   * Creates an iterator reading the package directly from the file, so that each part is only
+   * inflated when read.
+   *
+   * @param path Path of the XLSB file
+   * @param sheetConfig The optional Excel sheet configuration
+   * @param parserConfig The optional parser configuration
+   */
+  public XlsbRowIterator(Path path, SheetConfig sheetConfig, ParserConfig parserConfig) {
+    try {
+      this.opcPackage = OPCPackage.open(path.toFile(), PackageAccess.READ);
+    } catch (OpenXML4JException e) {
+      throw new FileFormatException(e);
+    }
+
+    init(sheetConfig, parserConfig);
+  }
+
+  /** Reads the shared strings and styles, then opens the selected sheet and reads its header. */
+  private void init(SheetConfig sheetConfig, ParserConfig parserConfig) {
+    try {
+      XSSFBReader reader = new XSSFBReader(opcPackage);
+
+      try (InputStream sharedStringsBin = reader.getSharedStringsData()) {
+        this.sharedStrings = XlsxSharedStrings.of(readSharedStrings(sharedStringsBin));
+      }
+
+      try (InputStream stylesBin = reader.getStylesData()) {
+        this.dateFormats = readDateFormats(stylesBin);
+      }
+
+      this.sheetInputStream = openSheet(reader.getSheetsData(), sheetConfig);
+      this.sheetReader = new XlsbRecordReader(sheetInputStream);
+      this.headerIndexes = RawRowIterator.createHeaderIndexes(readNextRawRow());
+
+      ParserConfig config = parserConfig == null ? ParserConfig.defaults() : parserConfig;
+      if (config.isPreview()) {
+        this.remainingRows = config.getPreviewRows();
+      }
+    } catch (IOException e) {
+      close();
+      throw new UncheckedIOException(e);
+    } catch (OpenXML4JException e) {
+      close();
+      throw new FileFormatException(e);
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  private static InputStream openSheet(Iterator<InputStream> sheets, SheetConfig sheetConfig) {
+    if (sheetConfig == null) {
+      // if no sheet configuration was specified, simply use the first sheet
+      return ExcelParserUtils.openFirstSheet(sheets);
+    } else if (sheetConfig.isIndexSet()) {
+      return ExcelParserUtils.openSheetAtIndex(sheets, sheetConfig.getIndex());
+    } else if (sheetConfig.isNameSet()) {
+      return ExcelParserUtils.openSheetWithName(sheets, sheetConfig.getName());
+    } else {
+      throw new IllegalSheetException("Neither sheet name nor index were specified.");
+    }
+  }
+
+  /**
+   * Reads all strings of the shared strings part. Each item starts with a byte of flags, followed
+   * by its text, formatting runs and phonetic text only following it.
+   *
+   * @param sharedStringsBin Contents of {@code sharedStrings.bin}, or {@code null} if there is none
+   * @return All strings of the table, in order
+   */
+  private static String[] readSharedStrings(InputStream sharedStringsBin) throws IOException {
+    List<String> strings = new ArrayList<>();
+
+    if (sharedStringsBin != null) {
+      XlsbRecordReader reader = new XlsbRecordReader(sharedStringsBin);
+      while (reader.next()) {
+        if (reader.type() == SHARED_STRING_ITEM) {
+          strings.add(reader.getWideString(1));
+        }
+      }
+    }
+
+    return strings.toArray(new String[0]);
+  }
+
+  /**
+   * Reads the number format of each cell style of the styles part, and classifies it once so that
+   * cells only have to look up the kind of their style.
+   *
+   * @param stylesBin Contents of {@code styles.bin}, or {@code null} if there is none
+   * @return Date format of each cell style, indexed by style
+   */
+  private static CellDateFormat[] readDateFormats(InputStream stylesBin) throws IOException {
+    Map<Integer, String> formatCodes = new HashMap<>();
+    List<Integer> formats = new ArrayList<>();
+
+    if (stylesBin != null) {
+      XlsbRecordReader reader = new XlsbRecordReader(stylesBin);
+      boolean inCellXfs = false;
+
+      while (reader.next()) {
+        switch (reader.type()) {
+          case FORMAT:
+            // custom number formats come before the cell styles
+            formatCodes.put(reader.getUShort(0), reader.getWideString(2));
+            break;
+          case BEGIN_CELL_XFS:
+            inCellXfs = true;
+            break;
+          case END_CELL_XFS:
+            inCellXfs = false;
+            break;
+          case XF:
+            if (inCellXfs) {
+              formats.add(reader.getUShort(2)); // after the id of the parent style
+            }
+            break;
+          default:
+            break;
+        }
+      }
+    }
+
+    return formats
+        .stream()
+        .map(
+            numFmtId ->
+                CellDateFormat.of(
+                    numFmtId,
+                    formatCodes.getOrDefault(numFmtId, BuiltinFormats.getBuiltinFormat(numFmtId))))
+        .toArray(CellDateFormat[]::new);
+  }
+
+  @Override
+  public RawRow readNextRawRow() {
+    return readNextRawRow(currentRow) ? currentRow.copy() : null;
+  }
+
+  @Override
+  protected boolean readNextRawRow(RawRow row) {
+    row.clear();
+
+    if (remainingRows == 0) {
+      return false; // all preview rows were read
+    } else if (remainingRows > 0) {
+      remainingRows--;
+    }
+
+    try {
+      return readNextNonEmptyRow(row);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Pulls records from the sheet part until a row is complete, which is when the header of the next
+   * row or the end of the sheet data is reached.
+   *
+   * @param row Empty row to fill
+   * @return {@code true} if a row having a value was read, {@code false} if the end of the sheet
+   *     was reached
+   */
+  private boolean readNextNonEmptyRow(RawRow row) throws IOException {
+    while (!finished) {
+      if (!sheetReader.next() || sheetReader.type() == END_SHEET_DATA) {
+        finished = true; // nothing else in the sheet is needed
+        return !row.isEmpty();
+      }
+
+      if (sheetReader.type() == ROW_HEADER) {
+        if (!row.isEmpty()) {
+          // the header of the next row, which holds nothing needed
+          return true;
+        }
+      } else {
+        readCell(row);
+      }
+    }
+
+    return false;
+  }
+
+  /** Adds the value of the current record to the row being read, if it is a cell with a value. */
+  private void readCell(RawRow row) {
+    String value;
+
+    switch (sheetReader.type()) {
+      case CELL_RK:
+        value = formatNumber(RKUtil.decodeNumber(sheetReader.getInt(CELL_VALUE_OFFSET)));
+        break;
+      case CELL_REAL:
+      case FORMULA_NUMBER:
+        value = formatNumber(sheetReader.getDouble(CELL_VALUE_OFFSET));
+        break;
+      case CELL_STRING:
+      case FORMULA_STRING:
+        value = sheetReader.getWideString(CELL_VALUE_OFFSET);
+        break;
+      case CELL_RICH_STRING:
+        value = sheetReader.getWideString(CELL_VALUE_OFFSET + 1); // after a byte of flags
+        break;
+      case CELL_SHARED_STRING:
+        value = sharedStrings.get(sheetReader.getInt(CELL_VALUE_OFFSET));
+        break;
+      case CELL_BOOL:
+      case FORMULA_BOOL:
+        value = sheetReader.getByte(CELL_VALUE_OFFSET) != 0 ? "1" : "0"; // as XLSX files store them
+        break;
+      case CELL_ERROR:
+      case FORMULA_ERROR:
+        value = FormulaError.forInt(sheetReader.getByte(CELL_VALUE_OFFSET)).getString();
+        break;
+      default:
+        return; // not a cell, or a blank one
+    }
+
+    if (value.isEmpty()) {
+      return;
+    }
+
+    int column = sheetReader.getInt(0);
+    if (row.get(column) != null) {
+      throw new IllegalStateException("Cell index " + column + " was found multiple times.");
+    }
+    row.set(column, value);
+  }
+
+  /**
+   * Formats a number as XLSX files store it, or as an ISO date or time string if the style of the
+   * cell has a date format, built-in or custom (see {@link CellDateFormat}).
+   */
+  private String formatNumber(double value) {
+    // the style is stored on 24 bits
+    int style =
+        (sheetReader.getUShort(CELL_STYLE_OFFSET)
+            | sheetReader.getByte(CELL_STYLE_OFFSET + 2) << 16);
+
+    if (style < dateFormats.length && dateFormats[style].isDate()) {
+      return dateFormats[style].format(value);
+    }
+
+    return ExcelParserUtils.formatNumber(value);
+  }
+
+  @Override
+  public void close() {
+    finished = true;
+
+    try {
+      if (sheetInputStream != null) {
+        sheetInputStream.close();
+      }
+    } catch (IOException e) {
+      log.error("Unable to close sheet of XLSB resource", e);
+    }
+
+    if (opcPackage != null) {
+      // the package is only read, so revert it rather than closing (ie. saving) it
+      opcPackage.revert();
+      opcPackage = null;
+    }
+  }
+}
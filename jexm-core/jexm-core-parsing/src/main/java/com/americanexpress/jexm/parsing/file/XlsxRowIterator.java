@@ -13,275 +13,262 @@
 
 package com.americanexpress.jexm.parsing.file;
 
+import com.americanexpress.jexm.parsing.RawRow;
 import com.americanexpress.jexm.parsing.RawRowIterator;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
 import com.americanexpress.jexm.parsing.config.SheetConfig;
 import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
-import com.americanexpress.jexm.parsing.exceptions.IllegalSheetException;
-import com.americanexpress.jexm.parsing.exceptions.SheetNotFoundException;
+import com.americanexpress.jexm.parsing.utils.CellDateFormat;
 import com.americanexpress.jexm.parsing.utils.ExcelParserUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamReader;
-import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
-import org.apache.poi.openxml4j.opc.OPCPackage;
-import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.xssf.eventusermodel.XSSFReader;
-import org.apache.poi.xssf.model.SharedStringsTable;
-import org.apache.poi.xssf.model.StylesTable;
-import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTXf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Iterator class in charge of parsing XLSX files in a lazily evaluated manner. */
+/**
+ * Iterator class in charge of parsing XLSX files in a lazily evaluated manner. Empty rows are
+ * skipped.
+ */
 public class XlsxRowIterator extends RawRowIterator {
 
-  private String currentCellReference;
-  private SharedStringsTable sharedStringsTable;
-  private StylesTable stylesTable;
-  private XMLStreamReader sheetXmlReader;
-  private InputStream inputStream;
+  private XlsxSheetParser sheetParser;
+  private XlsxSheetDataFile sheetDataFile;
+  private XlsxRowSpliterator rowSpliterator;
+  private InputStream sheetInputStream;
+  private XlsxWorkbook workbook;
+  private boolean ownsWorkbook;
 
-  private static final Logger log = LoggerFactory.getLogger(XlsxRowIterator.class);
+  // Number of rows left to read in preview mode, or -1 if all rows are read
+  private int remainingRows = -1;
 
-  private static final String CELL_TAG = "c";
-  private static final String ROW_TAG = "row";
-  private static final String SHEET_DATA_TAG = "sheetData";
-  private static final String CELL_TYPE_SHARED_STRING = "s";
+  private static final Logger log = LoggerFactory.getLogger(XlsxRowIterator.class);
 
   public XlsxRowIterator(InputStream inputStream, SheetConfig sheetConfig) {
-    Objects.requireNonNull(inputStream);
-
-    try {
-      OPCPackage opcPackage = OPCPackage.open(inputStream);
-      XSSFReader reader = new XSSFReader(opcPackage);
-
-      this.sharedStringsTable = reader.getSharedStringsTable();
-      this.stylesTable = reader.getStylesTable();
-      this.sheetXmlReader = findSheet(reader, sheetConfig);
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    } catch (OpenXML4JException e) {
-      throw new FileFormatException(e);
-    }
+    this(inputStream, sheetConfig, null);
+  }
 
-    this.inputStream = inputStream;
-    this.headerIndexes = RawRowIterator.createHeaderIndexes(readNextRow());
+  public XlsxRowIterator(
+      InputStream inputStream, SheetConfig sheetConfig, ParserConfig parserConfig) {
+    // the whole package is read (and inflated) into memory up front, unless it is encrypted
+    this(new XlsxWorkbook(inputStream, password(parserConfig)), true, sheetConfig, parserConfig);
   }
 
   /**
-   * Finds a sheet based on a configuration which specifies which sheet to select
+   * Creates an iterator reading the package directly from the file, so that each part is only
+   * inflated when read. This allows the sheet data to be inflated on a separate thread, see {@link
+   * ParserConfig#isPipelined()}.
    *
-   * @param reader An {@link XSSFReader} with the contents of all sheets
-   * @param sheetConfig Sheet configuration
-   * @return A reader for the selected sheet
-   * @throws SheetNotFoundException If a sheet was not found for the given configuration
+   * @param path Path of the XLSX file
+   * @param sheetConfig The optional Excel sheet configuration
+   * @param parserConfig The optional parser configuration
    */
-  private XMLStreamReader findSheet(XSSFReader reader, SheetConfig sheetConfig) {
-    try {
-      Iterator<InputStream> sheets = reader.getSheetsData();
+  public XlsxRowIterator(Path path, SheetConfig sheetConfig, ParserConfig parserConfig) {
+    this(new XlsxWorkbook(path, password(parserConfig)), true, sheetConfig, parserConfig);
+  }
 
-      if (sheetConfig == null) {
-        // if no sheet configuration was specified, simply use the first sheet
-        return ExcelParserUtils.findFirstSheet(sheets);
-      } else {
-        if (sheetConfig.isIndexSet()) {
-          return ExcelParserUtils.findSheetAtIndex(sheets, sheetConfig.getIndex());
-        } else if (sheetConfig.isNameSet()) {
-          return ExcelParserUtils.findSheetWithName(sheets, sheetConfig.getName());
-        } else {
-          throw new IllegalSheetException("Neither sheet name nor index were specified.");
-        }
-      }
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    } catch (OpenXML4JException | XMLStreamException e) {
-      throw new FileFormatException(e);
-    }
+  private static String password(ParserConfig parserConfig) {
+    return parserConfig == null ? null : parserConfig.getPassword();
   }
 
-  @Override
-  public synchronized Map<Integer, String> readNextRow() {
-    Map<Integer, String> cells = null;
+  /**
+   * @param workbook Workbook containing the sheet
+   * @param ownsWorkbook {@code true} if the workbook is to be closed along with this iterator
+   * @param sheetConfig The optional Excel sheet configuration
+   * @param parserConfig The optional parser configuration
+   */
+  XlsxRowIterator(
+      XlsxWorkbook workbook,
+      boolean ownsWorkbook,
+      SheetConfig sheetConfig,
+      ParserConfig parserConfig) {
+    this.workbook = Objects.requireNonNull(workbook);
+    this.ownsWorkbook = ownsWorkbook;
 
     try {
-      /* Iterate through the underlying XML of a specific XLSX sheet and produce
-      the index to String value map for the next row */
-      while (sheetXmlReader.hasNext()) {
-        int event = sheetXmlReader.next();
-        String elementName;
-
-        switch (event) {
-          case XMLStreamReader.START_ELEMENT:
-            // if we have reached the start of an XML tag
-
-            elementName = sheetXmlReader.getLocalName();
-
-            if (elementName.equals(CELL_TAG)) { // if the starting tag is a cell
-              // read the value inside that cell (which also updates 'currentCellReference'
-              String cellValue = readCell();
-
-              if (cellValue != null) {
-
-                if (cells == null) {
-                  // if the current row has not yet been initialised, do so
-                  cells = new HashMap<>();
-                }
-
-                // find the index of the current cell from it's reference (eg. 'A' -> 0)
-                int cellIndex = ExcelParserUtils.headerIndex(currentCellReference);
-
-                // populate the row with the current cell index and its value
-                if (cells.put(cellIndex, cellValue) != null) {
-                  throw new IllegalStateException(
-                      "Cell index " + cellIndex + " was found multiple times.");
-                }
-              }
-            }
-            break;
-          case XMLStreamReader.END_ELEMENT:
-            // if we have reached the end of an XML tag
-
-            elementName = sheetXmlReader.getLocalName();
-
-            if (elementName.equals(ROW_TAG) || elementName.equals(SHEET_DATA_TAG)) {
-              // if we are closing the row or the entire sheet
-              currentCellReference = null; // restart cell references for the next row
-
-              // return the current row
-              return cells == null ? null : Collections.unmodifiableMap(cells);
-            }
-          default:
-            break;
-        }
+      ParserConfig config = parserConfig == null ? ParserConfig.defaults() : parserConfig;
+      CellDateFormat[] dateFormats = workbook.dateFormats();
+
+      if (config.isPreview()) {
+        initPreview(sheetConfig, dateFormats, config.getPreviewRows());
+      } else if (config.isParallel() && !workbook.isEncrypted()) {
+        // the sheet is spilled in plain text, so encrypted workbooks are read sequentially
+        this.sheetInputStream = workbook.openSheet(sheetConfig, config);
+        initSplittable(workbook.sharedStrings(), dateFormats, config.getSplitSize());
+      } else {
+        this.sheetInputStream = workbook.openSheet(sheetConfig, config);
+        this.sheetParser =
+            new XlsxSheetParser(
+                ExcelParserUtils.createXMLStreamReader(sheetInputStream),
+                workbook.sharedStrings(),
+                dateFormats);
+        this.headerIndexes = RawRowIterator.createHeaderIndexes(sheetParser.readNextRow());
       }
-
     } catch (XMLStreamException e) {
+      close();
       throw new FileFormatException(e);
+    } catch (RuntimeException e) {
+      close();
+      throw e;
     }
-
-    // If went past </sheetData>, there are no more rows from here onwards, so return null.
-    return null;
   }
 
   /**
-   * Reads the contents of the current cell taking into account the XLSX cell type, style and String
-   * index lookup.
-   *
-   * @return String value of the current cell, possibly formatted
+   * Reads the header and the first rows of the sheet twice: first to find out which shared strings
+   * they use, then to produce them once those strings were read. The sheet is only read as far as
+   * the last preview row and the shared strings table as far as the highest index used, so the cost
+   * does not depend on the size of the workbook.
    */
-  private synchronized String readCell() {
-    /* Cell attributes:
-        r = reference     (eg. 'A1')
-        t = type          (eg. 's' is String)
-        s = style index   (eg. '1' points to style at index 1)
-
-    more details at
-        https://msdn.microsoft.com/en-us/library/office/documentformat.openxml.spreadsheet.cell.aspx
-        https://msdn.microsoft.com/en-us/library/dd922181.aspx
-    */
-
-    /*
-    The possible cell types are:
-        b - boolean
-        d - date in ISO8601 format
-        e - error
-        inlineStr - string that doesn't use the shared string table
-        n - number
-        s - shared string
-        str - formula string
-     */
-
-    currentCellReference = sheetXmlReader.getAttributeValue(null, "r");
-    String cellType = sheetXmlReader.getAttributeValue(null, "t");
-    String cellStyle = sheetXmlReader.getAttributeValue(null, "s");
-
-    // Read the contents of the next <v> tag, containing the value of the cell
-    String v = readTextV();
-
-    if (v == null || v.isEmpty()) {
-      return null;
+  private void initPreview(SheetConfig sheetConfig, CellDateFormat[] dateFormats, int previewRows)
+      throws XMLStreamException {
+    BitSet indexes = new BitSet();
+
+    try (InputStream sheet = workbook.openSheet(sheetConfig, ParserConfig.defaults())) {
+      XlsxSheetParser parser =
+          new XlsxSheetParser(
+              ExcelParserUtils.createXMLStreamReader(sheet),
+              index -> {
+                indexes.set(index);
+                return String.valueOf(index); // only the index matters in this pass
+              },
+              dateFormats);
+
+      parser.readNextRow(); // header
+      for (int i = 0; i < previewRows && parser.readNextRow() != null; i++) {
+        // only reading the rows to collect their shared string indexes
+      }
+      parser.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
 
-    if (cellType != null && cellType.equals(CELL_TYPE_SHARED_STRING)) {
-      // if attribute t = "s", we know the cell contains an index to the Shared Strings table for
-      // lookup
-      int idx = Integer.parseInt(v);
-      v = sharedStringsTable.getEntryAt(idx).getT();
-    } else if (cellStyle != null && !cellStyle.isEmpty()) {
-      // if the cell does have a style associated to it, apply the style
-      // this is used to determine for example if a cell is of a date type
-      v = inStandardFormat(Integer.parseInt(cellStyle), v);
+    Map<Integer, String> strings;
+    try (InputStream sharedStringsXml = workbook.openSharedStrings()) {
+      strings =
+          sharedStringsXml == null
+              ? Collections.emptyMap()
+              : XlsxSharedStringsReader.read(sharedStringsXml, indexes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
 
-    return v;
+    this.sheetInputStream = workbook.openSheet(sheetConfig, ParserConfig.defaults());
+    this.sheetParser =
+        new XlsxSheetParser(
+            ExcelParserUtils.createXMLStreamReader(sheetInputStream),
+            index -> {
+              String string = strings.get(index);
+              if (string == null) {
+                throw new FileFormatException("Shared string " + index + " was not found.");
+              }
+              return string;
+            },
+            dateFormats);
+    this.headerIndexes = RawRowIterator.createHeaderIndexes(sheetParser.readNextRow());
+    this.remainingRows = previewRows;
   }
 
-  /** @return Exact contents of the next {@code <v>} tag as a String. */
-  private synchronized String readTextV() {
-    StringBuilder sb = new StringBuilder();
-
-    try {
-      // Iterate inside the <c> (cell) tag, reading the contents of the <v> (value) tag inside of it
-      while (sheetXmlReader.hasNext()) {
-        int event = sheetXmlReader.next();
-
-        switch (event) {
-          case XMLStreamReader.CHARACTERS:
-          case XMLStreamReader.CDATA:
-            // If we have just read character data, append it
-            sb.append(sheetXmlReader.getText());
-            break;
-          case XMLStreamReader.END_ELEMENT:
-            /* If we closed the tag without ever reading character data, return null,
-            else return all character data read in this cell */
-            return sb.length() == 0 ? null : sb.toString();
-          default:
-            break;
-        }
-      }
-
-      throw new XMLStreamException("File ended unexpectedly");
-    } catch (XMLStreamException e) {
-      throw new FileFormatException(e);
+  /**
+   * Spills the sheet into a temporary file and reads its header row, skipping empty rows, so that
+   * the remaining rows can be split between threads by {@link #rawRowSpliterator()}.
+   */
+  private void initSplittable(
+      XlsxSharedStrings sharedStrings, CellDateFormat[] dateFormats, long splitSize)
+      throws XMLStreamException {
+    this.sheetDataFile = XlsxSheetDataFile.spill(sheetInputStream, sharedStrings, dateFormats);
+
+    long dataEnd = sheetDataFile.dataEnd();
+    long rowStart = sheetDataFile.findRowStart(sheetDataFile.dataStart(), dataEnd);
+    long dataStart = dataEnd;
+    RawRow headerRow = null;
+
+    // as when reading sequentially, the header is the first row which is not empty
+    while (rowStart >= 0 && headerRow == null) {
+      long nextRowStart = sheetDataFile.findRowStart(rowStart + 1, dataEnd);
+      dataStart = nextRowStart < 0 ? dataEnd : nextRowStart;
+
+      XlsxSheetParser headerParser = sheetDataFile.parserFor(rowStart, dataStart);
+      headerRow = headerParser.readNextRow();
+      headerParser.close();
+
+      rowStart = nextRowStart;
     }
-  }
 
-  private String inStandardFormat(int cellXfIdx, String rawString) {
+    this.headerIndexes = RawRowIterator.createHeaderIndexes(headerRow);
+    this.rowSpliterator = new XlsxRowSpliterator(sheetDataFile, dataStart, dataEnd, splitSize);
+  }
 
-    CTXf cellXf = stylesTable.getCellXfAt(cellXfIdx);
+  @Override
+  public RawRow readNextRawRow() {
+    if (rowSpliterator != null) {
+      return rowSpliterator.readNextRow();
+    }
 
-    int numFmtId = (int) cellXf.getNumFmtId();
+    if (remainingRows == 0) {
+      return null; // all preview rows were read
+    } else if (remainingRows > 0) {
+      remainingRows--;
+    }
 
-    if (DateUtil.isInternalDateFormat(numFmtId)) {
-      // if the cell is a date format, transform it into an ISO date or time string
-      // for easier adaptation to LocalDate, LocalTime, etc.
+    return sheetParser.readNextRow();
+  }
 
-      double daysSince1Jan1900 = Double.parseDouble(rawString);
-      return ExcelParserUtils.formatAsISODateString(numFmtId, daysSince1Jan1900);
+  @Override
+  protected boolean readNextRawRow(RawRow row) {
+    if (rowSpliterator != null || remainingRows >= 0) {
+      return super.readNextRawRow(row);
     }
 
-    return rawString;
+    // filled in place by the parser, the usual case of reading a sheet sequentially
+    return sheetParser.readNextRow(row);
+  }
+
+  /**
+   * When parsing in parallel (see {@link ParserConfig#isParallel()}), the returned spliterator can
+   * be split at row boundaries, each part of the sheet being parsed by its own XML reader. The rows
+   * are the same as when reading sequentially. It should not be combined with reading rows through
+   * this iterator.
+   */
+  @Override
+  public Spliterator<RawRow> rawRowSpliterator() {
+    return rowSpliterator == null ? super.rawRowSpliterator() : rowSpliterator;
   }
 
   @Override
-  public synchronized void close() {
+  public void close() {
     try {
-      if (sheetXmlReader != null) {
-        sheetXmlReader.close();
+      if (sheetParser != null) {
+        sheetParser.close();
       }
     } catch (XMLStreamException e) {
       log.error("Unable to close XML reader of XLSX resource", e);
     }
 
+    if (rowSpliterator != null) {
+      try {
+        rowSpliterator.close();
+      } catch (FileFormatException e) {
+        log.error("Unable to close XML reader of XLSX resource", e);
+      }
+    }
+
+    if (sheetDataFile != null) {
+      sheetDataFile.close();
+    }
+
     try {
-      if (inputStream != null) {
-        inputStream.close();
+      if (sheetInputStream != null) {
+        sheetInputStream.close();
       }
     } catch (IOException e) {
-      log.error("Unable to close XLSX resource", e);
+      log.error("Unable to close sheet of XLSX resource", e);
+    }
+
+    if (ownsWorkbook) {
+      workbook.close();
     }
   }
 }
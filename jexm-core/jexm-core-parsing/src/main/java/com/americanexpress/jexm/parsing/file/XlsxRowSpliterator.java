@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import com.americanexpress.jexm.parsing.RawRow;
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Spliterator over the rows of a byte range of an {@link XlsxSheetDataFile}. As long as no row has
+ * been read from it, it can be split in two at the row boundary closest to the middle of its range,
+ * each half then being parsed by its own XML reader. Empty rows are skipped, as when the sheet is
+ * read sequentially.
+ */
+final class XlsxRowSpliterator implements Spliterator<RawRow> {
+
+  private final XlsxSheetDataFile sheetDataFile;
+  private final long splitSize;
+
+  private long start;
+  private final long end;
+
+  private XlsxSheetParser parser = null;
+  private boolean finished = false;
+
+  XlsxRowSpliterator(XlsxSheetDataFile sheetDataFile, long start, long end, long splitSize) {
+    this.sheetDataFile = sheetDataFile;
+    this.start = start;
+    this.end = end;
+    this.splitSize = splitSize;
+  }
+
+  /** @return The next non-empty row of the range, or {@code null} if there is none left. */
+  RawRow readNextRow() {
+    if (finished) {
+      return null;
+    }
+
+    if (parser == null) {
+      parser = sheetDataFile.parserFor(start, end);
+    }
+
+    RawRow row = parser.readNextRow();
+    if (row == null) {
+      close();
+    }
+
+    return row;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super RawRow> action) {
+    RawRow row = readNextRow();
+    if (row == null) {
+      return false;
+    }
+
+    action.accept(row);
+    return true;
+  }
+
+  @Override
+  public Spliterator<RawRow> trySplit() {
+    if (parser != null || finished || end - start < 2 * splitSize) {
+      return null;
+    }
+
+    long middle = sheetDataFile.findRowStart(start + (end - start) / 2, end);
+    if (middle <= start) {
+      return null;
+    }
+
+    XlsxRowSpliterator prefix = new XlsxRowSpliterator(sheetDataFile, start, middle, splitSize);
+    this.start = middle;
+    return prefix;
+  }
+
+  /** @return Number of bytes left in the range, as the number of rows is unknown until parsed */
+  @Override
+  public long estimateSize() {
+    return finished ? 0 : end - start;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL | IMMUTABLE;
+  }
+
+  /** Closes the XML reader of the range, if it was opened. */
+  void close() {
+    finished = true;
+
+    if (parser != null) {
+      try {
+        parser.close();
+      } catch (XMLStreamException e) {
+        throw new FileFormatException(e);
+      } finally {
+        parser = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+
+/** Lookup of the shared strings of a workbook, as referenced by the cells of type "s". */
+@FunctionalInterface
+interface XlsxSharedStrings {
+
+  /**
+   * @param index Index of the string in the shared strings table
+   * @return The string at the given index
+   */
+  String get(int index);
+
+  /**
+   * @param strings All strings of the table, in order
+   * @return Lookup of the strings in the given array
+   */
+  static XlsxSharedStrings of(String[] strings) {
+    return index -> {
+      if (index < 0 || index >= strings.length) {
+        throw new FileFormatException("Shared string " + index + " was not found.");
+      }
+      return strings[index];
+    };
+  }
+}
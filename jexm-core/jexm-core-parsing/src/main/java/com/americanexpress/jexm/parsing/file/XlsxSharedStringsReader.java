@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+import com.americanexpress.jexm.parsing.utils.ExcelParserUtils;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Streaming reader of {@code sharedStrings.xml}, which reads the string items ({@code <si>}) one by
+ * one without building POI's XMLBeans representation of the table.
+ */
+final class XlsxSharedStringsReader {
+
+  private static final String TABLE_TAG = "sst";
+  private static final String ITEM_TAG = "si";
+  private static final String TEXT_TAG = "t";
+  private static final String PHONETIC_RUN_TAG = "rPh";
+
+  private XlsxSharedStringsReader() {
+    // not meant to be initialised
+  }
+
+  /**
+   * Reads all strings of the table into a plain array, which takes far less memory than the
+   * XMLBeans objects of POI's {@code SharedStringsTable}.
+   *
+   * @param sharedStringsXml Contents of {@code sharedStrings.xml}. It is not closed
+   * @return All strings of the table, in order
+   */
+  static String[] readAll(InputStream sharedStringsXml) {
+    List<String> strings = new ArrayList<>();
+
+    try {
+      XMLStreamReader reader = ExcelParserUtils.createXMLStreamReader(sharedStringsXml);
+
+      try {
+        while (reader.hasNext()) {
+          if (reader.next() == XMLStreamReader.START_ELEMENT) {
+            String elementName = reader.getLocalName();
+
+            if (elementName.equals(ITEM_TAG)) {
+              strings.add(readText(reader, ITEM_TAG));
+            } else if (elementName.equals(TABLE_TAG)) {
+              strings =
+                  new ArrayList<>(initialCapacity(reader.getAttributeValue(null, "uniqueCount")));
+            }
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    } catch (XMLStreamException e) {
+      throw new FileFormatException(e);
+    }
+
+    return strings.toArray(new String[0]);
+  }
+
+  /** @return The number of strings declared by the table, bounded in case it is wrong */
+  private static int initialCapacity(String uniqueCount) {
+    try {
+      return uniqueCount == null ? 16 : Math.min(Integer.parseInt(uniqueCount), 1 << 20);
+    } catch (NumberFormatException e) {
+      return 16;
+    }
+  }
+
+  /**
+   * Reads the strings at the given indexes only. The table is read up to the highest of them, so
+   * the time taken depends on the indexes needed rather than on the size of the table.
+   *
+   * @param sharedStringsXml Contents of {@code sharedStrings.xml}. It is not closed
+   * @param indexes Indexes of the strings to read
+   * @return Index to string map of the strings read. Indexes past the end of the table are missing
+   */
+  static Map<Integer, String> read(InputStream sharedStringsXml, BitSet indexes) {
+    Map<Integer, String> strings = new HashMap<>();
+
+    if (indexes.isEmpty()) {
+      return strings;
+    }
+
+    try {
+      XMLStreamReader reader = ExcelParserUtils.createXMLStreamReader(sharedStringsXml);
+
+      try {
+        int index = 0;
+        int lastIndex = indexes.length() - 1;
+
+        while (index <= lastIndex && reader.hasNext()) {
+          if (reader.next() == XMLStreamReader.START_ELEMENT
+              && reader.getLocalName().equals(ITEM_TAG)) {
+            if (indexes.get(index)) {
+              strings.put(index, readText(reader, ITEM_TAG));
+            }
+            index++;
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    } catch (XMLStreamException e) {
+      throw new FileFormatException(e);
+    }
+
+    return strings;
+  }
+
+  /**
+   * Reads the text of a string item, which is either a single {@code <t>} element or a sequence of
+   * rich text runs ({@code <r>}), each with its own {@code <t>} element. Phonetic runs ({@code
+   * <rPh>}) are not part of the text.
+   *
+   * @param reader XML reader positioned on the start tag of the item
+   * @param itemTag Local name of the item element (eg. "si" or "is")
+   * @return The text of the item, the reader being positioned on its end tag
+   */
+  static String readText(XMLStreamReader reader, String itemTag) throws XMLStreamException {
+    StringBuilder text = new StringBuilder();
+    int phoneticDepth = 0;
+
+    while (reader.hasNext()) {
+      int event = reader.next();
+
+      if (event == XMLStreamReader.START_ELEMENT) {
+        String elementName = reader.getLocalName();
+
+        if (elementName.equals(PHONETIC_RUN_TAG)) {
+          phoneticDepth++;
+        } else if (elementName.equals(TEXT_TAG) && phoneticDepth == 0) {
+          text.append(reader.getElementText());
+        }
+      } else if (event == XMLStreamReader.END_ELEMENT) {
+        String elementName = reader.getLocalName();
+
+        if (elementName.equals(PHONETIC_RUN_TAG)) {
+          phoneticDepth--;
+        } else if (elementName.equals(itemTag)) {
+          return text.toString();
+        }
+      }
+    }
+
+    throw new XMLStreamException("File ended unexpectedly");
+  }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+import com.americanexpress.jexm.parsing.utils.CellDateFormat;
+import com.americanexpress.jexm.parsing.utils.ExcelParserUtils;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.xml.stream.XMLStreamException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The inflated XML of an XLSX sheet, spilled into a temporary file so that any byte range of it can
+ * be read concurrently. Ranges starting at a {@code <row} tag can be parsed independently of each
+ * other, as the start tag of the worksheet (with its namespace declarations) is replayed before
+ * each of them. The XML is expected to be UTF-8 encoded, as written by Excel and most other tools.
+ */
+final class XlsxSheetDataFile implements Closeable {
+
+  private static final int WINDOW_SIZE = 64 * 1024;
+
+  private static final Logger log = LoggerFactory.getLogger(XlsxSheetDataFile.class);
+
+  private final Path tempFile;
+  private final FileChannel channel;
+  private final long size;
+  private final XlsxSharedStrings sharedStrings;
+  private final CellDateFormat[] dateFormats;
+
+  // Bytes of the XML declaration and worksheet start tag, followed by the sheetData start tag
+  private byte[] prefix;
+  // Closing tags of sheetData and worksheet
+  private byte[] suffix;
+  // Start of a row tag, including the namespace prefix if the sheet uses one (eg. "<x:row")
+  private byte[] rowTag;
+
+  private long dataStart;
+  private long dataEnd;
+
+  private XlsxSheetDataFile(
+      Path tempFile, XlsxSharedStrings sharedStrings, CellDateFormat[] dateFormats)
+      throws IOException {
+    this.tempFile = tempFile;
+    this.channel = FileChannel.open(tempFile, StandardOpenOption.READ);
+    this.size = channel.size();
+    this.sharedStrings = sharedStrings;
+    this.dateFormats = dateFormats;
+  }
+
+  /**
+   * Writes the given sheet XML into a temporary file and locates its sheet data.
+   *
+   * @param sheetData XML contents of the sheet. It is consumed, but not closed
+   * @param sharedStrings Shared strings of the workbook, used by the parsers of each range
+   * @param dateFormats Date format of each cell style of the workbook, used by the parsers of each
+   *     range
+   * @return The sheet data file, to be closed by the caller
+   * @throws FileFormatException If the contents do not look like XLSX sheet XML
+   */
+  static XlsxSheetDataFile spill(
+      InputStream sheetData, XlsxSharedStrings sharedStrings, CellDateFormat[] dateFormats) {
+    Objects.requireNonNull(sheetData);
+
+    Path tempFile = null;
+    XlsxSheetDataFile file = null;
+
+    try {
+      tempFile = Files.createTempFile("jexm-sheet-", ".xml");
+      Files.copy(sheetData, tempFile, StandardCopyOption.REPLACE_EXISTING);
+
+      file = new XlsxSheetDataFile(tempFile, sharedStrings, dateFormats);
+      file.locateSheetData();
+      return file;
+    } catch (IOException e) {
+      closeOrDelete(file, tempFile);
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      closeOrDelete(file, tempFile);
+      throw e;
+    }
+  }
+
+  private static void closeOrDelete(XlsxSheetDataFile file, Path tempFile) {
+    if (file != null) {
+      file.close();
+    } else if (tempFile != null) {
+      try {
+        Files.deleteIfExists(tempFile);
+      } catch (IOException e) {
+        log.error("Unable to delete temporary sheet file {}", tempFile, e);
+      }
+    }
+  }
+
+  /** Finds the worksheet start tag and the boundaries of the sheetData element. */
+  private void locateSheetData() throws IOException {
+    byte[] head = read(0, (int) Math.min(size, WINDOW_SIZE));
+
+    // skip the XML declaration, processing instructions and comments before the root element
+    int rootStart = 0;
+    while (true) {
+      rootStart = indexOf(head, (byte) '<', rootStart);
+      if (rootStart < 0 || rootStart + 1 >= head.length) {
+        throw new FileFormatException("Sheet XML does not contain a root element.");
+      }
+      if (head[rootStart + 1] != '?' && head[rootStart + 1] != '!') {
+        break;
+      }
+      rootStart++;
+    }
+
+    int nameEnd = rootStart + 1;
+    while (nameEnd < head.length && !isTagNameTerminator(head[nameEnd])) {
+      nameEnd++;
+    }
+    String rootName =
+        new String(head, rootStart + 1, nameEnd - rootStart - 1, StandardCharsets.UTF_8);
+    int rootEnd = endOfTag(head, nameEnd);
+    if (rootEnd < 0) {
+      throw new FileFormatException("Start tag of sheet XML root element is too long.");
+    }
+
+    // elements of the sheet are expected to use the same namespace prefix as the root element
+    int colon = rootName.indexOf(':');
+    String namespacePrefix = colon < 0 ? "" : rootName.substring(0, colon + 1);
+
+    this.rowTag = ascii("<" + namespacePrefix + "row");
+    this.prefix =
+        concat(Arrays.copyOf(head, rootEnd + 1), ascii("<" + namespacePrefix + "sheetData>"));
+    this.suffix = ascii("</" + namespacePrefix + "sheetData></" + rootName + ">");
+
+    long sheetDataTag = indexOfTag(ascii("<" + namespacePrefix + "sheetData"), rootEnd + 1, size);
+    if (sheetDataTag < 0) {
+      // a sheet without a sheetData element has no rows
+      this.dataStart = this.dataEnd = size;
+      return;
+    }
+
+    byte[] tag = read(sheetDataTag, (int) Math.min(size - sheetDataTag, WINDOW_SIZE));
+    int tagEnd = endOfTag(tag, 0);
+    if (tagEnd < 0) {
+      throw new FileFormatException("Start tag of sheetData is too long.");
+    }
+
+    this.dataStart = sheetDataTag + tagEnd + 1;
+
+    if (tag[tagEnd - 1] == '/') {
+      this.dataEnd = this.dataStart; // <sheetData/>, ie. no rows
+    } else {
+      this.dataEnd = lastIndexOf(ascii("</" + namespacePrefix + "sheetData"), dataStart, size);
+      if (this.dataEnd < 0) {
+        throw new FileFormatException("Sheet XML ended unexpectedly.");
+      }
+    }
+  }
+
+  /** @return Position right after the start tag of the sheetData element */
+  long dataStart() {
+    return dataStart;
+  }
+
+  /** @return Position of the end tag of the sheetData element */
+  long dataEnd() {
+    return dataEnd;
+  }
+
+  /**
+   * Finds the first row start tag in a range of the sheet data.
+   *
+   * @param from Position from which to search (inclusive)
+   * @param to Position up to which to search (exclusive)
+   * @return Position of the first {@code <row} tag in the range, or {@code -1} if there is none.
+   */
+  long findRowStart(long from, long to) {
+    try {
+      return indexOfTag(rowTag, from, to);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Creates a parser over the rows of a range of the sheet data.
+   *
+   * @param from Position of the first row of the range, as given by {@link #findRowStart}
+   * @param to Position of the row following the last one of the range, or {@link #dataEnd()}
+   * @return Parser of the rows in the range
+   */
+  XlsxSheetParser parserFor(long from, long to) {
+    InputStream range =
+        new SequenceInputStream(
+            new ByteArrayInputStream(prefix),
+            new SequenceInputStream(
+                new BufferedInputStream(new RangeInputStream(from, to), WINDOW_SIZE),
+                new ByteArrayInputStream(suffix)));
+
+    try {
+      return new XlsxSheetParser(
+          ExcelParserUtils.createXMLStreamReader(range), sharedStrings, dateFormats);
+    } catch (XMLStreamException e) {
+      throw new FileFormatException(e);
+    }
+  }
+
+  /** Closes the file and deletes it from disk. */
+  @Override
+  public void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      log.error("Unable to close temporary sheet file {}", tempFile, e);
+    }
+
+    try {
+      Files.deleteIfExists(tempFile);
+    } catch (IOException e) {
+      log.error("Unable to delete temporary sheet file {}", tempFile, e);
+    }
+  }
+
+  /**
+   * Reads a number of bytes at the given position. Positional reads do not change the position of
+   * the channel, so they can be performed concurrently.
+   */
+  private byte[] read(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        break;
+      }
+    }
+    return buffer.position() == length ? buffer.array() : Arrays.copyOf(buffer.array(), length);
+  }
+
+  /** Finds the first occurrence of the tag in the range, followed by whitespace, '>' or '/'. */
+  private long indexOfTag(byte[] tag, long from, long to) throws IOException {
+    long position = from;
+
+    while (position < to) {
+      byte[] window = read(position, (int) Math.min(size - position, WINDOW_SIZE));
+
+      // the byte after the tag is also needed, to make sure it is not a longer tag name
+      for (int i = 0; i + tag.length < window.length && position + i < to; i++) {
+        if (startsWith(window, i, tag) && isTagNameTerminator(window[i + tag.length])) {
+          return position + i;
+        }
+      }
+
+      if (position + window.length >= size) {
+        break;
+      }
+
+      // overlap windows, so that tags split between two of them are still found
+      position += window.length - tag.length;
+    }
+
+    return -1;
+  }
+
+  /** Finds the last occurrence of the tag in the range, followed by whitespace, '>' or '/'. */
+  private long lastIndexOf(byte[] tag, long from, long to) throws IOException {
+    long end = to;
+
+    while (end > from) {
+      long start = Math.max(from, end - WINDOW_SIZE);
+      byte[] window = read(start, (int) Math.min(size - start, end - start + tag.length + 1));
+
+      for (int i = (int) (end - start) - 1; i >= 0; i--) {
+        if (i + tag.length < window.length
+            && startsWith(window, i, tag)
+            && isTagNameTerminator(window[i + tag.length])) {
+          return start + i;
+        }
+      }
+
+      end = start;
+    }
+
+    return -1;
+  }
+
+  /** @return Index of the '>' closing the tag which contains the given index, ignoring quotes */
+  private static int endOfTag(byte[] bytes, int from) {
+    byte quote = 0;
+    for (int i = from; i < bytes.length; i++) {
+      byte b = bytes[i];
+      if (quote != 0) {
+        if (b == quote) {
+          quote = 0;
+        }
+      } else if (b == '"' || b == '\'') {
+        quote = b;
+      } else if (b == '>') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static int indexOf(byte[] bytes, byte b, int from) {
+    for (int i = from; i < bytes.length; i++) {
+      if (bytes[i] == b) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean startsWith(byte[] bytes, int offset, byte[] prefix) {
+    for (int i = 0; i < prefix.length; i++) {
+      if (bytes[offset + i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isTagNameTerminator(byte b) {
+    return b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == '>' || b == '/';
+  }
+
+  private static byte[] ascii(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static byte[] concat(byte[] a, byte[] b) {
+    byte[] result = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+
+  /** Reads a range of the file through positional reads, so several can be read concurrently. */
+  private final class RangeInputStream extends InputStream {
+
+    private long position;
+    private final long end;
+
+    private RangeInputStream(long position, long end) {
+      this.position = position;
+      this.end = end;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (position >= end) {
+        return -1;
+      }
+
+      int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+      if (n > 0) {
+        position += n;
+      }
+      return n;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+import com.americanexpress.jexm.parsing.utils.ExcelParserUtils;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A {@code <sheet>} element of {@code workbook.xml}, linking the name of a sheet to the package
+ * relationship of its part. Sheets are listed in the order in which they appear in the workbook.
+ */
+final class XlsxSheetEntry {
+
+  private static final String SHEET_TAG = "sheet";
+  private static final String SHEETS_TAG = "sheets";
+
+  private final int index;
+  private final String name;
+  private final String relationshipId;
+  private final String state;
+
+  private XlsxSheetEntry(int index, String name, String relationshipId, String state) {
+    this.index = index;
+    this.name = name;
+    this.relationshipId = relationshipId;
+    this.state = state;
+  }
+
+  int getIndex() {
+    return index;
+  }
+
+  String getName() {
+    return name;
+  }
+
+  String getRelationshipId() {
+    return relationshipId;
+  }
+
+  /** @return Value of the {@code state} attribute ("visible", "hidden" or "veryHidden") */
+  String getState() {
+    return state;
+  }
+
+  /**
+   * Reads the sheet entries of a workbook, stopping at the end of the {@code <sheets>} element.
+   *
+   * @param workbookXml Contents of {@code workbook.xml}. It is not closed
+   * @return The sheets of the workbook, in order
+   */
+  static List<XlsxSheetEntry> readAll(InputStream workbookXml) {
+    List<XlsxSheetEntry> entries = new ArrayList<>();
+
+    try {
+      XMLStreamReader reader = ExcelParserUtils.createXMLStreamReader(workbookXml);
+
+      try {
+        while (reader.hasNext()) {
+          int event = reader.next();
+
+          if (event == XMLStreamReader.START_ELEMENT && reader.getLocalName().equals(SHEET_TAG)) {
+            entries.add(
+                new XlsxSheetEntry(
+                    entries.size(),
+                    reader.getAttributeValue(null, "name"),
+                    relationshipId(reader),
+                    reader.getAttributeValue(null, "state")));
+          } else if (event == XMLStreamReader.END_ELEMENT
+              && reader.getLocalName().equals(SHEETS_TAG)) {
+            break; // nothing else in the workbook is needed
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    } catch (XMLStreamException e) {
+      throw new FileFormatException(e);
+    }
+
+    return Collections.unmodifiableList(entries);
+  }
+
+  /**
+   * Finds the {@code r:id} attribute of the current element. Its namespace differs between
+   * transitional and strict OOXML documents, so it is matched by local name only.
+   */
+  private static String relationshipId(XMLStreamReader reader) throws XMLStreamException {
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      String namespace = reader.getAttributeNamespace(i);
+      if ("id".equals(reader.getAttributeLocalName(i))
+          && namespace != null
+          && namespace.endsWith("relationships")) {
+        return reader.getAttributeValue(i);
+      }
+    }
+
+    throw new XMLStreamException("Sheet element has no relationship id.", reader.getLocation());
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import com.americanexpress.jexm.parsing.RawRow;
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+import com.americanexpress.jexm.parsing.utils.CellDateFormat;
+import com.americanexpress.jexm.parsing.utils.ExcelParserUtils;
+import java.util.*;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Parses the rows of the XML contents of an XLSX sheet, one at a time. The shared strings and
+ * styles tables are only ever read, so they can be shared between parsers of the same workbook. A
+ * parser itself is not thread safe.
+ */
+class XlsxSheetParser {
+
+  private static final String CELL_TAG = "c";
+  private static final String ROW_TAG = "row";
+  private static final String SHEET_DATA_TAG = "sheetData";
+  private static final String VALUE_TAG = "v";
+  private static final String INLINE_STRING_TAG = "is";
+  private static final String CELL_TYPE_SHARED_STRING = "s";
+  private static final String CELL_TYPE_NUMBER = "n";
+
+  private final XMLStreamReader sheetXmlReader;
+  private final XlsxSharedStrings sharedStrings;
+  private final CellDateFormat[] dateFormats;
+
+  // Row read by readNextRow(), copied once complete so that the same array is reused
+  private final RawRow currentRow = new RawRow();
+  private String currentCellReference;
+  private boolean finished = false;
+
+  XlsxSheetParser(
+      XMLStreamReader sheetXmlReader,
+      XlsxSharedStrings sharedStrings,
+      CellDateFormat[] dateFormats) {
+    this.sheetXmlReader = Objects.requireNonNull(sheetXmlReader);
+    this.sharedStrings = sharedStrings;
+    this.dateFormats = dateFormats == null ? new CellDateFormat[0] : dateFormats;
+  }
+
+  /** @return {@code true} if the end of the sheet data was reached, {@code false} otherwise. */
+  boolean isFinished() {
+    return finished;
+  }
+
+  /**
+   * Reads the next row of the sheet having values, skipping empty rows.
+   *
+   * @return The next non-empty row, or {@code null} if the end of the sheet data was reached
+   */
+  RawRow readNextRow() {
+    return readNextRow(currentRow) ? currentRow.copy() : null;
+  }
+
+  /**
+   * Reads the next row of the sheet having values into the given row, skipping empty rows.
+   *
+   * @param row Row to fill, which is cleared first
+   * @return {@code false} if the end of the sheet data was reached, {@code true} otherwise.
+   */
+  boolean readNextRow(RawRow row) {
+    row.clear();
+
+    try {
+      /* Iterate through the underlying XML of a specific XLSX sheet and produce
+      the index to String value array for the next row */
+      while (sheetXmlReader.hasNext()) {
+        int event = sheetXmlReader.next();
+        String elementName;
+
+        switch (event) {
+          case XMLStreamReader.START_ELEMENT:
+            // if we have reached the start of an XML tag
+
+            elementName = sheetXmlReader.getLocalName();
+
+            if (elementName.equals(CELL_TAG)) { // if the starting tag is a cell
+              // read the value inside that cell (which also updates 'currentCellReference'
+              String cellValue = readCell();
+
+              if (cellValue != null) {
+                // find the index of the current cell from it's reference (eg. 'A' -> 0)
+                int cellIndex = ExcelParserUtils.headerIndex(currentCellReference);
+
+                // populate the row with the current cell index and its value
+                if (row.get(cellIndex) != null) {
+                  throw new IllegalStateException(
+                      "Cell index " + cellIndex + " was found multiple times.");
+                }
+                row.set(cellIndex, cellValue);
+              }
+            }
+            break;
+          case XMLStreamReader.END_ELEMENT:
+            // if we have reached the end of an XML tag
+
+            elementName = sheetXmlReader.getLocalName();
+
+            if (elementName.equals(ROW_TAG) || elementName.equals(SHEET_DATA_TAG)) {
+              // if we are closing the row or the entire sheet
+              currentCellReference = null; // restart cell references for the next row
+              finished = elementName.equals(SHEET_DATA_TAG);
+
+              // return the current row, unless it has no values and more rows may follow
+              if (finished || !row.isEmpty()) {
+                return !row.isEmpty();
+              }
+            }
+          default:
+            break;
+        }
+      }
+
+    } catch (XMLStreamException e) {
+      throw new FileFormatException(e);
+    }
+
+    // If went past </sheetData>, there are no more rows from here onwards.
+    finished = true;
+    return false;
+  }
+
+  /**
+   * Reads the contents of the current cell taking into account the XLSX cell type, style and String
+   * index lookup.
+   *
+   * @return String value of the current cell, possibly formatted
+   */
+  private String readCell() {
+    /* Cell attributes:
+        r = reference     (eg. 'A1')
+        t = type          (eg. 's' is String)
+        s = style index   (eg. '1' points to style at index 1)
+
+    more details at
+        https://msdn.microsoft.com/en-us/library/office/documentformat.openxml.spreadsheet.cell.aspx
+        https://msdn.microsoft.com/en-us/library/dd922181.aspx
+    */
+
+    /*
+    The possible cell types are:
+        b - boolean
+        d - date in ISO8601 format
+        e - error
+        inlineStr - string that doesn't use the shared string table
+        n - number
+        s - shared string
+        str - formula string
+     */
+
+    currentCellReference = sheetXmlReader.getAttributeValue(null, "r");
+    String cellType = sheetXmlReader.getAttributeValue(null, "t");
+    String cellStyle = sheetXmlReader.getAttributeValue(null, "s");
+
+    // Read the value (<v>) or inline string (<is>) of the cell, skipping its formula if any
+    String v = readCellContents();
+
+    if (v == null || v.isEmpty()) {
+      return null;
+    }
+
+    if (cellType == null || cellType.equals(CELL_TYPE_NUMBER)) {
+      if (cellStyle != null && !cellStyle.isEmpty()) {
+        // if the cell does have a style associated to it, apply the style
+        // this is used to determine for example if a cell is of a date type
+        v = inStandardFormat(Integer.parseInt(cellStyle), v);
+      }
+    } else if (cellType.equals(CELL_TYPE_SHARED_STRING)) {
+      // if attribute t = "s", we know the cell contains an index to the Shared Strings table for
+      // lookup
+      int idx = Integer.parseInt(v);
+      v = sharedStrings.get(idx);
+    }
+    // other types (inline and formula strings, booleans, errors, ISO dates) are used as they are
+
+    return v;
+  }
+
+  /**
+   * Reads the contents of the current cell up to its end tag. Inline strings may be made of several
+   * rich text runs, which are concatenated.
+   *
+   * @return Contents of the {@code <v>} (value) or {@code <is>} (inline string) element of the
+   *     cell, or {@code null} if it has neither.
+   */
+  private String readCellContents() {
+    String contents = null;
+
+    try {
+      while (sheetXmlReader.hasNext()) {
+        int event = sheetXmlReader.next();
+
+        if (event == XMLStreamReader.START_ELEMENT) {
+          String elementName = sheetXmlReader.getLocalName();
+
+          if (elementName.equals(VALUE_TAG)) {
+            contents = sheetXmlReader.getElementText();
+          } else if (elementName.equals(INLINE_STRING_TAG)) {
+            contents = XlsxSharedStringsReader.readText(sheetXmlReader, INLINE_STRING_TAG);
+          } else {
+            skipElement(); // eg. the formula (<f>) of the cell
+          }
+        } else if (event == XMLStreamReader.END_ELEMENT) {
+          // the end of the cell, as nested elements are read entirely
+          return contents;
+        }
+      }
+
+      throw new XMLStreamException("File ended unexpectedly");
+    } catch (XMLStreamException e) {
+      throw new FileFormatException(e);
+    }
+  }
+
+  /** Skips the current element, along with all of its contents. */
+  private void skipElement() throws XMLStreamException {
+    int depth = 1;
+
+    while (depth > 0 && sheetXmlReader.hasNext()) {
+      int event = sheetXmlReader.next();
+
+      if (event == XMLStreamReader.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamReader.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+
+  private String inStandardFormat(int cellXfIdx, String rawString) {
+    // number formats were classified once for the whole workbook
+    if (cellXfIdx < dateFormats.length && dateFormats[cellXfIdx].isDate()) {
+      // if the cell is a date format, transform it into an ISO date or time string
+      // for easier adaptation to LocalDate, LocalTime, etc.
+
+      double daysSince1Jan1900 = Double.parseDouble(rawString);
+      return dateFormats[cellXfIdx].format(daysSince1Jan1900);
+    }
+
+    return rawString;
+  }
+
+  void close() throws XMLStreamException {
+    sheetXmlReader.close();
+  }
+}
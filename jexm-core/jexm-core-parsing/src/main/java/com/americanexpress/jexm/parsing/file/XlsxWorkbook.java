@@ -0,0 +1,498 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import com.americanexpress.jexm.parsing.config.ParserConfig;
+import com.americanexpress.jexm.parsing.config.SheetConfig;
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+import com.americanexpress.jexm.parsing.exceptions.IllegalSheetException;
+import com.americanexpress.jexm.parsing.exceptions.SheetNotFoundException;
+import com.americanexpress.jexm.parsing.metadata.SheetMetadata;
+import com.americanexpress.jexm.parsing.metadata.SheetVisibility;
+import com.americanexpress.jexm.parsing.metadata.WorkbookMetadata;
+import com.americanexpress.jexm.parsing.utils.CellDateFormat;
+import com.americanexpress.jexm.parsing.utils.ExcelParserUtils;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.poi.EncryptedDocumentException;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.poifs.crypt.Decryptor;
+import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An open XLSX package, with its shared strings and styles tables loaded once so they can be shared
+ * by the iterators of all its sheets. The shared strings are only loaded when first needed.
+ * Iterators created by {@link #createIterator} may be consumed concurrently, each of them reading
+ * its own sheet. Closing the workbook releases the package, so it should only be closed once all of
+ * its iterators are no longer used.
+ */
+public class XlsxWorkbook implements Closeable {
+
+  private static final String DIMENSION_TAG = "dimension";
+  private static final String SHEET_DATA_TAG = "sheetData";
+  private static final String ENCRYPTION_INFO_ENTRY = "EncryptionInfo";
+
+  private static final Logger log = LoggerFactory.getLogger(XlsxWorkbook.class);
+
+  private OPCPackage opcPackage;
+  private PackagePart workbookPart;
+  private List<XlsxSheetEntry> sheetEntries;
+  private WorkbookReader reader;
+  private XlsxSharedStrings sharedStrings;
+  private CellDateFormat[] dateFormats = new CellDateFormat[0];
+  private InputStream inputStream;
+  private boolean encrypted = false;
+
+  /**
+   * Opens the package directly from the file, so that each part is only inflated when read.
+   *
+   * @param path Path of the XLSX file
+   */
+  public XlsxWorkbook(Path path) {
+    this(path, null);
+  }
+
+  /**
+   * Opens the package directly from the file, so that each part is only inflated when read. If the
+   * file is encrypted, it is decrypted into a temporary file encrypted with a random key.
+   *
+   * @param path Path of the XLSX file
+   * @param password Password of the workbook, or {@code null} if it is not encrypted
+   * @throws FileFormatException If the workbook is encrypted and the password is incorrect
+   */
+  public XlsxWorkbook(Path path, String password) {
+    this(path, password, true);
+  }
+
+  /**
+   * @param path Path of the XLSX file
+   * @param password Password of the workbook, or {@code null} if it is not encrypted
+   * @param loadStyles {@code false} to skip loading the styles table, when only metadata is read
+   */
+  private XlsxWorkbook(Path path, String password, boolean loadStyles) {
+    Objects.requireNonNull(path);
+
+    try {
+      if (password != null && isEncrypted(path)) {
+        this.encrypted = true;
+        init(openEncrypted(new NPOIFSFileSystem(path.toFile(), true), password), loadStyles);
+      } else {
+        init(OPCPackage.open(path.toFile(), PackageAccess.READ), loadStyles);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (OpenXML4JException e) {
+      throw new FileFormatException(e);
+    }
+  }
+
+  /**
+   * Reads the whole package (and inflates it) into memory up front.
+   *
+   * @param inputStream Contents of the XLSX file. It is closed along with the workbook
+   */
+  public XlsxWorkbook(InputStream inputStream) {
+    this(inputStream, null);
+  }
+
+  /**
+   * Reads the whole package (and inflates it) into memory up front. If the contents are encrypted,
+   * only the encrypted contents are read into memory, and they are decrypted into a temporary file
+   * encrypted with a random key.
+   *
+   * @param inputStream Contents of the XLSX file. It is closed along with the workbook
+   * @param password Password of the workbook, or {@code null} if it is not encrypted
+   * @throws FileFormatException If the workbook is encrypted and the password is incorrect
+   */
+  public XlsxWorkbook(InputStream inputStream, String password) {
+    Objects.requireNonNull(inputStream);
+
+    try {
+      if (password != null) {
+        InputStream markableInputStream = FileMagic.prepareToCheckMagic(inputStream);
+
+        if (FileMagic.valueOf(markableInputStream) == FileMagic.OLE2) {
+          this.encrypted = true;
+          init(openEncrypted(new NPOIFSFileSystem(markableInputStream), password), true);
+        } else {
+          init(OPCPackage.open(markableInputStream), true);
+        }
+      } else {
+        init(OPCPackage.open(inputStream), true);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (OpenXML4JException e) {
+      throw new FileFormatException(e);
+    }
+
+    this.inputStream = inputStream;
+  }
+
+  /** @return {@code true} if the file is an OLE2 container, as encrypted packages are */
+  private static boolean isEncrypted(Path path) throws IOException {
+    try (InputStream inputStream = FileMagic.prepareToCheckMagic(Files.newInputStream(path))) {
+      return FileMagic.valueOf(inputStream) == FileMagic.OLE2;
+    }
+  }
+
+  /**
+   * Decrypts the package held by an OLE2 container into an {@link EncryptedTempPackage}, which is
+   * deleted when the package is reverted.
+   *
+   * @param fileSystem Container of the encrypted package. It is closed once decrypted
+   * @param password Password of the workbook
+   * @return The decrypted package
+   */
+  private static OPCPackage openEncrypted(NPOIFSFileSystem fileSystem, String password)
+      throws IOException, OpenXML4JException {
+    try (NPOIFSFileSystem container = fileSystem) {
+      if (!container.getRoot().hasEntry(ENCRYPTION_INFO_ENTRY)) {
+        throw new FileFormatException("Workbook is not an encrypted XLSX package.");
+      }
+
+      Decryptor decryptor = Decryptor.getInstance(new EncryptionInfo(container));
+
+      if (!decryptor.verifyPassword(password)) {
+        throw new FileFormatException("Password of the encrypted workbook is incorrect.");
+      }
+
+      EncryptedTempPackage decryptedPackage;
+      try (InputStream decrypted = decryptor.getDataStream(container)) {
+        decryptedPackage = EncryptedTempPackage.spill(decrypted);
+      }
+
+      try {
+        return OPCPackage.open(decryptedPackage);
+      } catch (OpenXML4JException | RuntimeException e) {
+        decryptedPackage.close(); // deletes the temporary file
+        throw e;
+      }
+    } catch (GeneralSecurityException | EncryptedDocumentException e) {
+      throw new FileFormatException(e);
+    }
+  }
+
+  private void init(OPCPackage opcPackage, boolean loadStyles)
+      throws IOException, OpenXML4JException {
+    this.opcPackage = opcPackage;
+
+    try {
+      this.reader = new WorkbookReader(opcPackage);
+      this.workbookPart = reader.workbookPart();
+
+      // sheets are resolved from workbook.xml, so only the selected sheet part is ever opened
+      try (InputStream workbookXml = reader.getWorkbookData()) {
+        this.sheetEntries = XlsxSheetEntry.readAll(workbookXml);
+      }
+
+      // the shared strings table is only loaded once needed, as it can be large
+      if (loadStyles) {
+        this.dateFormats = readDateFormats(reader.getStylesTable());
+      }
+    } catch (IOException | OpenXML4JException | RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  /** @return The shared strings of the workbook, loaded the first time they are needed */
+  synchronized XlsxSharedStrings sharedStrings() {
+    if (sharedStrings == null) {
+      try (InputStream sharedStringsXml = openSharedStrings()) {
+        sharedStrings =
+            XlsxSharedStrings.of(
+                sharedStringsXml == null
+                    ? new String[0]
+                    : XlsxSharedStringsReader.readAll(sharedStringsXml));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return sharedStrings;
+  }
+
+  /**
+   * Opens the shared strings part to stream through it, rather than loading the whole table.
+   *
+   * @return Contents of {@code sharedStrings.xml}, or {@code null} if the workbook has none
+   */
+  synchronized InputStream openSharedStrings() {
+    if (opcPackage == null) {
+      throw new IllegalStateException("Workbook was already closed.");
+    }
+
+    try {
+      List<PackagePart> parts =
+          opcPackage.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+      return parts.isEmpty() ? null : parts.get(0).getInputStream();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** @return {@code true} if the package was decrypted into an encrypted temporary file */
+  boolean isEncrypted() {
+    return encrypted;
+  }
+
+  /** @return Date format of each cell style (xf) of the workbook, indexed by style */
+  CellDateFormat[] dateFormats() {
+    return dateFormats;
+  }
+
+  /**
+   * Classifies the number format of each cell style once, so that cells only have to look up the
+   * kind of their style. Custom number formats (eg. "yyyy-mm-dd hh:mm") are parsed here.
+   *
+   * @param stylesTable Styles of the workbook, or {@code null} if it has none
+   * @return Date format of each cell style, indexed by style
+   */
+  private static CellDateFormat[] readDateFormats(StylesTable stylesTable) {
+    if (stylesTable == null) {
+      return new CellDateFormat[0];
+    }
+
+    CellDateFormat[] formats = new CellDateFormat[stylesTable.getNumCellStyles()];
+    for (int i = 0; i < formats.length; i++) {
+      int numFmtId = (int) stylesTable.getCellXfAt(i).getNumFmtId();
+      String formatCode = stylesTable.getNumberFormatAt((short) numFmtId);
+      formats[i] =
+          CellDateFormat.of(
+              numFmtId,
+              formatCode == null ? BuiltinFormats.getBuiltinFormat(numFmtId) : formatCode);
+    }
+    return formats;
+  }
+
+  /** @return Names of all sheets in the workbook, in the order in which they appear */
+  public List<String> sheetNames() {
+    return sheetEntries.stream().map(XlsxSheetEntry::getName).collect(Collectors.toList());
+  }
+
+  /**
+   * Reads the metadata of the workbook at the given path, without loading its shared strings and
+   * styles. Only {@code workbook.xml} and the top of each sheet part (up to the {@code <dimension>}
+   * element) are read.
+   *
+   * @param path Path of the XLSX file
+   * @return Metadata of the workbook and its sheets
+   */
+  public static WorkbookMetadata readMetadata(Path path) {
+    try (XlsxWorkbook workbook = new XlsxWorkbook(path, null, false)) {
+      return workbook.metadata();
+    }
+  }
+
+  /**
+   * Reads the metadata of this workbook. Only the top of each sheet part (up to the {@code
+   * <dimension>} element) is read.
+   *
+   * @return Metadata of the workbook and its sheets
+   */
+  public synchronized WorkbookMetadata metadata() {
+    if (opcPackage == null) {
+      throw new IllegalStateException("Workbook was already closed.");
+    }
+
+    List<SheetMetadata> sheets = new ArrayList<>();
+
+    try {
+      for (XlsxSheetEntry entry : sheetEntries) {
+        sheets.add(
+            new SheetMetadata(
+                entry.getIndex(),
+                entry.getName(),
+                SheetVisibility.fromState(entry.getState()),
+                readDimension(findSheetPart(entry))));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (InvalidFormatException | XMLStreamException e) {
+      throw new FileFormatException(e);
+    }
+
+    return new WorkbookMetadata(sheets);
+  }
+
+  /**
+   * @return The {@code ref} attribute of the {@code <dimension>} element of the sheet, or {@code
+   *     null} if it has none. The sheet data, which follows it, is never read.
+   */
+  private static String readDimension(PackagePart sheetPart)
+      throws IOException, XMLStreamException {
+    try (InputStream sheetInputStream = sheetPart.getInputStream()) {
+      XMLStreamReader reader = ExcelParserUtils.createXMLStreamReader(sheetInputStream);
+
+      try {
+        while (reader.hasNext()) {
+          if (reader.next() == XMLStreamReader.START_ELEMENT) {
+            String elementName = reader.getLocalName();
+
+            if (elementName.equals(DIMENSION_TAG)) {
+              return reader.getAttributeValue(null, "ref");
+            } else if (elementName.equals(SHEET_DATA_TAG)) {
+              return null; // the dimension always comes before the rows
+            }
+          }
+        }
+        return null;
+      } finally {
+        reader.close();
+      }
+    }
+  }
+
+  /**
+   * Creates an iterator over the rows of a sheet of this workbook. Closing the iterator does not
+   * close the workbook.
+   *
+   * @param sheetConfig The optional Excel sheet configuration. If {@code null}, the first sheet is
+   *     read
+   * @param parserConfig The optional parser configuration
+   * @return Iterator over the rows of the selected sheet
+   * @throws SheetNotFoundException If a sheet was not found for the given configuration
+   */
+  public XlsxRowIterator createIterator(SheetConfig sheetConfig, ParserConfig parserConfig) {
+    return new XlsxRowIterator(this, false, sheetConfig, parserConfig);
+  }
+
+  /**
+   * Finds a sheet based on a configuration which specifies which sheet to select, and opens its
+   * part. Parts are opened one at a time, as the package keeps track of its relationships lazily.
+   *
+   * @param sheetConfig Sheet configuration
+   * @param parserConfig Parser configuration, used to decide whether the sheet is pipelined
+   * @return The XML contents of the selected sheet
+   * @throws SheetNotFoundException If a sheet was not found for the given configuration
+   */
+  synchronized InputStream openSheet(SheetConfig sheetConfig, ParserConfig parserConfig) {
+    if (opcPackage == null) {
+      throw new IllegalStateException("Workbook was already closed.");
+    }
+
+    try {
+      PackagePart sheetPart = findSheetPart(findSheetEntry(sheetConfig));
+      InputStream sheetInputStream = sheetPart.getInputStream();
+
+      if (parserConfig.shouldPipeline(sheetPart.getSize())) {
+        // inflate the sheet on a separate thread while the caller parses the XML
+        return new PipelinedInputStream(sheetInputStream);
+      }
+
+      return sheetInputStream;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (OpenXML4JException e) {
+      throw new FileFormatException(e);
+    }
+  }
+
+  /**
+   * @param sheetConfig Sheet configuration. If {@code null}, the first sheet is selected
+   * @return The entry of the selected sheet in {@code workbook.xml}
+   * @throws SheetNotFoundException If a sheet was not found for the given configuration
+   */
+  private XlsxSheetEntry findSheetEntry(SheetConfig sheetConfig) {
+    if (sheetConfig == null) {
+      // if no sheet configuration was specified, simply use the first sheet
+      if (sheetEntries.isEmpty()) {
+        throw new SheetNotFoundException(0);
+      }
+      return sheetEntries.get(0);
+    } else if (sheetConfig.isIndexSet()) {
+      if (sheetConfig.getIndex() >= sheetEntries.size()) {
+        throw new SheetNotFoundException(sheetConfig.getIndex());
+      }
+      return sheetEntries.get(sheetConfig.getIndex());
+    } else if (sheetConfig.isNameSet()) {
+      return sheetEntries
+          .stream()
+          .filter(e -> sheetConfig.getName().equals(e.getName()))
+          .findFirst()
+          .orElseThrow(() -> new SheetNotFoundException(sheetConfig.getName()));
+    } else {
+      throw new IllegalSheetException("Neither sheet name nor index were specified.");
+    }
+  }
+
+  /** @return The package part holding the data of the given sheet */
+  private PackagePart findSheetPart(XlsxSheetEntry sheetEntry) throws InvalidFormatException {
+    PackageRelationship relationship = workbookPart.getRelationship(sheetEntry.getRelationshipId());
+
+    if (relationship == null) {
+      throw new FileFormatException(
+          String.format(
+              "Sheet \"%s\" refers to missing relationship %s.",
+              sheetEntry.getName(), sheetEntry.getRelationshipId()));
+    }
+
+    return workbookPart.getRelatedPart(relationship);
+  }
+
+  @Override
+  public synchronized void close() {
+    if (opcPackage != null) {
+      // the package is only read, so revert it rather than closing (ie. saving) it
+      opcPackage.revert();
+      opcPackage = null;
+    }
+
+    try {
+      if (inputStream != null) {
+        inputStream.close();
+      }
+    } catch (IOException e) {
+      log.error("Unable to close XLSX resource", e);
+    }
+  }
+
+  /**
+   * Gives access to the workbook part, as resolved by POI for transitional and strict documents.
+   */
+  private static final class WorkbookReader extends XSSFReader {
+
+    private WorkbookReader(OPCPackage opcPackage) throws IOException, OpenXML4JException {
+      super(opcPackage);
+    }
+
+    private PackagePart workbookPart() {
+      return workbookPart;
+    }
+  }
+}
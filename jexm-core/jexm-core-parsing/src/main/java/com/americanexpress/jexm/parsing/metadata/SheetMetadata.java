@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.metadata;
+
+import java.util.Objects;
+import org.apache.poi.ss.util.CellReference;
+
+/**
+ * Describes a sheet of a workbook without reading its rows. The used range comes from the {@code
+ * <dimension>} element at the top of the sheet, as written by the application which saved the
+ * workbook. It is not recomputed, so it may be missing or (rarely) inaccurate.
+ */
+public final class SheetMetadata {
+
+  private final int index;
+  private final String name;
+  private final SheetVisibility visibility;
+  private final String dimension;
+
+  private int firstRow = -1;
+  private int lastRow = -1;
+  private int firstColumn = -1;
+  private int lastColumn = -1;
+
+  /**
+   * @param index Index of the sheet in the workbook, starting from zero
+   * @param name Name of the sheet
+   * @param visibility Visibility of the sheet
+   * @param dimension Used range of the sheet (eg. "A1:D120"), or {@code null} if unknown
+   */
+  public SheetMetadata(int index, String name, SheetVisibility visibility, String dimension) {
+    this.index = index;
+    this.name = Objects.requireNonNull(name);
+    this.visibility = Objects.requireNonNull(visibility);
+    this.dimension = dimension;
+
+    if (dimension != null && !dimension.isEmpty()) {
+      String[] corners = dimension.split(":");
+      CellReference first = new CellReference(corners[0]);
+      CellReference last = corners.length > 1 ? new CellReference(corners[1]) : first;
+
+      this.firstRow = first.getRow();
+      this.lastRow = last.getRow();
+      this.firstColumn = first.getCol();
+      this.lastColumn = last.getCol();
+    }
+  }
+
+  /** @return Index of the sheet in the workbook, starting from zero */
+  public int getIndex() {
+    return index;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public SheetVisibility getVisibility() {
+    return visibility;
+  }
+
+  /** @return Used range of the sheet (eg. "A1:D120"), or {@code null} if unknown */
+  public String getDimension() {
+    return dimension;
+  }
+
+  /** @return Index of the first used row, starting from zero, or -1 if unknown */
+  public int getFirstRow() {
+    return firstRow;
+  }
+
+  /** @return Index of the last used row, starting from zero, or -1 if unknown */
+  public int getLastRow() {
+    return lastRow;
+  }
+
+  /** @return Index of the first used column, starting from zero, or -1 if unknown */
+  public int getFirstColumn() {
+    return firstColumn;
+  }
+
+  /** @return Index of the last used column, starting from zero, or -1 if unknown */
+  public int getLastColumn() {
+    return lastColumn;
+  }
+
+  /** @return Number of rows in the used range (including the header row), or -1 if unknown */
+  public int getRowCount() {
+    return dimension == null ? -1 : lastRow - firstRow + 1;
+  }
+
+  /** @return Number of columns in the used range, or -1 if unknown */
+  public int getColumnCount() {
+    return dimension == null ? -1 : lastColumn - firstColumn + 1;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d: %s (%s, %s)", index, name, visibility, dimension);
+  }
+}
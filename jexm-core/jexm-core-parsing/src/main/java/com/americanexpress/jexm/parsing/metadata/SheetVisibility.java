@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.metadata;
+
+/** Visibility of a sheet, as set in the workbook. */
+public enum SheetVisibility {
+  VISIBLE,
+  /** Hidden, but can be unhidden by users */
+  HIDDEN,
+  /** Hidden, and can only be unhidden programmatically */
+  VERY_HIDDEN;
+
+  /**
+   * @param state Value of the {@code state} attribute of a sheet in {@code workbook.xml}
+   * @return The matching visibility. Sheets without a state are visible
+   */
+  public static SheetVisibility fromState(String state) {
+    if (state == null || state.isEmpty() || state.equals("visible")) {
+      return VISIBLE;
+    } else if (state.equals("hidden")) {
+      return HIDDEN;
+    } else if (state.equals("veryHidden")) {
+      return VERY_HIDDEN;
+    } else {
+      throw new IllegalArgumentException("Unknown sheet state " + state);
+    }
+  }
+}
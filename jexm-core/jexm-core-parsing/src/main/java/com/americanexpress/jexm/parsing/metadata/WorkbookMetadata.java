@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.metadata;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/** Describes the sheets of a workbook, in the order in which they appear. */
+public final class WorkbookMetadata {
+
+  private final List<SheetMetadata> sheets;
+
+  public WorkbookMetadata(List<SheetMetadata> sheets) {
+    this.sheets = Collections.unmodifiableList(Objects.requireNonNull(sheets));
+  }
+
+  public List<SheetMetadata> getSheets() {
+    return sheets;
+  }
+
+  /**
+   * @param name Name of the sheet
+   * @return The sheet with the given name, if there is one
+   */
+  public Optional<SheetMetadata> getSheet(String name) {
+    return sheets.stream().filter(s -> s.getName().equals(name)).findFirst();
+  }
+
+  @Override
+  public String toString() {
+    return sheets.toString();
+  }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.utils;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+/**
+ * Kind of date or time shown by a number format, which decides how the serial number of a cell is
+ * turned into an ISO string for easier adaptation to {@link java.time.LocalDate}, {@link
+ * java.time.LocalTime}, etc. Number formats are meant to be classified once per workbook (see
+ * {@link #of(int, String)}), so that cells only have to look up the kind of their style.
+ */
+public enum CellDateFormat {
+  /** Day, month and year, eg. "d/m/yyyy" */
+  DATE("YYYY-MM-dd"),
+  /** Hours, minutes and/or seconds, eg. "h:mm AM/PM" */
+  TIME("HH:mm:ss"),
+  /** Both a date and a time, eg. "m/d/yyyy h:mm" */
+  DATE_TIME("YYYY-MM-dd'T'HH:mm:ss"),
+  /** Day and month only, eg. "d-mmm" */
+  MONTH_DAY("--MM-dd"),
+  /** Month and year only, eg. "mmm-yy" */
+  YEAR_MONTH("YYYY-MM"),
+  /** Not a date format: the number is used as it is */
+  NONE(null);
+
+  private final ThreadLocal<DateFormat> dateFormat;
+
+  CellDateFormat(String pattern) {
+    // date formats are not thread-safe, and sheets may be parsed by several threads
+    this.dateFormat =
+        pattern == null ? null : ThreadLocal.withInitial(() -> new SimpleDateFormat(pattern));
+  }
+
+  /** @return {@code true} if cells of this format hold a date or a time */
+  public boolean isDate() {
+    return this != NONE;
+  }
+
+  /**
+   * @param daysSince1Jan1900 Number of days since 1st Jan 1900, decimal places being the time of
+   *     the day
+   * @return ISO formatted date or time
+   * @throws IllegalStateException If this is not a date format
+   */
+  public String format(double daysSince1Jan1900) {
+    if (dateFormat == null) {
+      throw new IllegalStateException("Number format is not a date format");
+    }
+    return dateFormat.get().format(DateUtil.getJavaDate(daysSince1Jan1900));
+  }
+
+  /**
+   * Classifies a built-in number format, see {@link ExcelParserUtils#formatAsISODateString(int,
+   * double)} for the list of them.
+   *
+   * @param numFmtId Built-in number format id
+   * @return Kind of the format, {@link #NONE} if it is not a built-in date format
+   */
+  public static CellDateFormat ofBuiltIn(int numFmtId) {
+    switch (numFmtId) {
+      case 14:
+      case 15:
+        return DATE;
+      case 16:
+        return MONTH_DAY;
+      case 17:
+        return YEAR_MONTH;
+      case 18:
+      case 19:
+      case 20:
+      case 21:
+      case 45:
+      case 46:
+      case 47:
+        return TIME;
+      case 22:
+        return DATE_TIME;
+      default:
+        return NONE;
+    }
+  }
+
+  /**
+   * Classifies a number format, built-in or custom. Custom format codes (eg. "yyyy-mm-dd hh:mm")
+   * are parsed to find out which parts of a date they show, ignoring literal text, colours, locales
+   * and every section but the first one.
+   *
+   * @param numFmtId Number format id
+   * @param formatCode Format code of the number format, or {@code null} if unknown
+   * @return Kind of the format, {@link #NONE} if it is not a date format
+   */
+  public static CellDateFormat of(int numFmtId, String formatCode) {
+    if (DateUtil.isInternalDateFormat(numFmtId)) {
+      return ofBuiltIn(numFmtId);
+    }
+
+    if (formatCode == null || !DateUtil.isADateFormat(numFmtId, formatCode)) {
+      return NONE;
+    }
+
+    return ofCode(formatCode);
+  }
+
+  /** Finds out which parts of a date a format code shows, knowing that it is a date format. */
+  private static CellDateFormat ofCode(String formatCode) {
+    boolean year = false;
+    boolean month = false;
+    boolean day = false;
+    boolean time = false;
+
+    // whether the last date or time part was hours, after which "m" stands for minutes
+    boolean afterHours = false;
+
+    for (int i = 0; i < formatCode.length(); i++) {
+      char c = Character.toLowerCase(formatCode.charAt(i));
+
+      switch (c) {
+        case ';':
+          i = formatCode.length(); // only the first section (positive numbers) matters
+          break;
+        case '"':
+          i = skipUntil(formatCode, i, '"');
+          break;
+        case '\\':
+        case '_':
+        case '*':
+          i++; // followed by a literal character, or the width of one
+          break;
+        case '[':
+          int end = skipUntil(formatCode, i, ']');
+          String bracket = formatCode.substring(i + 1, Math.max(i + 1, end)).toLowerCase();
+          if (bracket.startsWith("h") || bracket.startsWith("m") || bracket.startsWith("s")) {
+            time = true; // elapsed time, eg. "[h]:mm"
+            afterHours = bracket.startsWith("h");
+          }
+          i = end; // otherwise a colour, condition or locale, eg. "[$-809]"
+          break;
+        case 'a':
+          if (formatCode.regionMatches(true, i, "am/pm", 0, 5)) {
+            i += 4;
+          } else if (formatCode.regionMatches(true, i, "a/p", 0, 3)) {
+            i += 2;
+          }
+          break; // the "m" of "AM/PM" is neither a month nor minutes
+        case 'y':
+        case 'e':
+          year = true;
+          afterHours = false;
+          break;
+        case 'd':
+          day = true;
+          afterHours = false;
+          break;
+        case 'h':
+          time = true;
+          afterHours = true;
+          break;
+        case 's':
+          time = true;
+          afterHours = false;
+          break;
+        case 'm':
+          int last = skipRepeats(formatCode, i, 'm');
+          if (afterHours || nextPartIsSeconds(formatCode, last + 1)) {
+            time = true;
+          } else {
+            month = true;
+          }
+          afterHours = false;
+          i = last;
+          break;
+        default:
+          break; // separators and other characters
+      }
+    }
+
+    boolean date = year || month || day;
+
+    if (date && time) {
+      return DATE_TIME;
+    } else if (time) {
+      return TIME;
+    } else if (year && month && !day) {
+      return YEAR_MONTH;
+    } else if (month && day && !year) {
+      return MONTH_DAY;
+    } else {
+      return DATE;
+    }
+  }
+
+  /** @return Index of the next {@code c} after {@code start}, or the last index if none */
+  private static int skipUntil(String formatCode, int start, char c) {
+    int index = formatCode.indexOf(c, start + 1);
+    return index < 0 ? formatCode.length() - 1 : index;
+  }
+
+  /** @return Index of the last of the consecutive {@code c} starting at {@code start} */
+  private static int skipRepeats(String formatCode, int start, char c) {
+    int index = start;
+    while (index + 1 < formatCode.length()
+        && Character.toLowerCase(formatCode.charAt(index + 1)) == c) {
+      index++;
+    }
+    return index;
+  }
+
+  /** @return {@code true} if the next date or time part from {@code start} is seconds */
+  private static boolean nextPartIsSeconds(String formatCode, int start) {
+    for (int i = start; i < formatCode.length(); i++) {
+      char c = Character.toLowerCase(formatCode.charAt(i));
+      if (c == 's') {
+        return true;
+      } else if (Character.isLetter(c) || c == ';' || c == '"') {
+        return false;
+      }
+    }
+    return false;
+  }
+}
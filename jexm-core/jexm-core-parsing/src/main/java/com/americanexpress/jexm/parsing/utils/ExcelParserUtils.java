@@ -15,9 +15,7 @@ package com.americanexpress.jexm.parsing.utils;
 
 import com.americanexpress.jexm.parsing.exceptions.SheetNotFoundException;
 import java.io.InputStream;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.math.BigDecimal;
 import java.util.Iterator;
 import java.util.Objects;
 import java.util.regex.Matcher;
@@ -26,7 +24,6 @@ import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import org.apache.poi.hssf.util.CellReference;
-import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
 
 /** Contains utilities to parse Excel files. */
@@ -34,13 +31,6 @@ public final class ExcelParserUtils {
 
   private static final Pattern CELL_REFERENCE_REGEX = Pattern.compile("^([A-Z]+)(\\d*)$");
 
-  private static final DateFormat ISO_LOCAL_DATE = new SimpleDateFormat("YYYY-MM-dd");
-  private static final DateFormat ISO_LOCAL_TIME = new SimpleDateFormat("HH:mm:ss");
-  private static final DateFormat ISO_LOCAL_DATE_TIME =
-      new SimpleDateFormat("YYYY-MM-dd'T'HH:mm:ss");
-  private static final DateFormat ISO_MONTH_DAY = new SimpleDateFormat("--MM-dd");
-  private static final DateFormat ISO_YEAR_MONTH = new SimpleDateFormat("YYYY-MM");
-
   private static final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
 
   private ExcelParserUtils() {
@@ -90,38 +80,45 @@ public final class ExcelParserUtils {
    * LocalTime 46 [h]:mm:ss - LocalTime 47 mmss.0 48 ##0.0E+0 49 @ 50 [$-404]e/m/d 57 [$-404]e/m/d
    * 59 = t0 60 = t0.00 61 = t#,##0 62 = t#,##0.00 67 = t0% 68 = t0.00% 69 = t# ?/? 70 = t# ??/??
    *
-   * <p>Number format codes (numFmtId) greater than 164 are custom.
+   * <p>Number format codes (numFmtId) greater than 164 are custom, see {@link
+   * CellDateFormat#of(int, String)} for those.
    *
    * @param numFmtId XLSX number format of the cell
    * @param daysSince1Jan1900 Number of days since 1st Jan 1900
    * @return ISO formatted date or time
    */
   public static String formatAsISODateString(int numFmtId, double daysSince1Jan1900) {
+    CellDateFormat dateFormat = CellDateFormat.ofBuiltIn(numFmtId);
 
-    Date date = DateUtil.getJavaDate(daysSince1Jan1900);
-
-    switch (numFmtId) {
-      case 14:
-      case 15:
-        return ISO_LOCAL_DATE.format(date);
-      case 16:
-        return ISO_MONTH_DAY.format(date);
-      case 17:
-        return ISO_YEAR_MONTH.format(date);
-      case 18:
-      case 19:
-      case 20:
-      case 21:
-      case 45:
-      case 46:
-      case 47:
-        return ISO_LOCAL_TIME.format(date);
-      case 22:
-        return ISO_LOCAL_DATE_TIME.format(date);
-      default:
-        throw new IllegalArgumentException(
-            "Number format id " + numFmtId + " is not an excel date format");
+    if (!dateFormat.isDate()) {
+      throw new IllegalArgumentException(
+          "Number format id " + numFmtId + " is not an excel date format");
     }
+
+    return dateFormat.format(daysSince1Jan1900);
+  }
+
+  /**
+   * Formats a number read from a binary file (eg. XLS or XLSB) as XLSX files store it, using its
+   * shortest representation without trailing zeros or exponent (eg. "2" rather than "2.0").
+   *
+   * @param value Number to format
+   * @return The number as a plain String
+   */
+  public static String formatNumber(double value) {
+    return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+  }
+
+  /**
+   * Creates an {@link XMLStreamReader} over the given XML contents.
+   *
+   * @param inputStream XML contents
+   * @return An {@link XMLStreamReader} over the input stream
+   * @throws XMLStreamException
+   */
+  public static XMLStreamReader createXMLStreamReader(InputStream inputStream)
+      throws XMLStreamException {
+    return xmlInputFactory.createXMLStreamReader(Objects.requireNonNull(inputStream));
   }
 
   /**
@@ -134,26 +131,63 @@ public final class ExcelParserUtils {
    */
   public static XMLStreamReader findFirstSheet(Iterator<InputStream> sheets)
       throws XMLStreamException {
+    return createXMLStreamReader(openFirstSheet(sheets));
+  }
+
+  /**
+   * Returns an {@link XMLStreamReader} with the contents of the excel sheet at a given index
+   *
+   * @param sheets Iterator of input streams with the Excel sheet data
+   * @param index Required sheet index
+   * @return An {@link XMLStreamReader} from the item in the iterator at given index
+   * @throws XMLStreamException
+   * @throws SheetNotFoundException If a sheet was not found with the given index
+   */
+  public static XMLStreamReader findSheetAtIndex(Iterator<InputStream> sheets, int index)
+      throws XMLStreamException {
+    return createXMLStreamReader(openSheetAtIndex(sheets, index));
+  }
+
+  /**
+   * Returns an {@link XMLStreamReader} with the contents of the excel sheet with a given name
+   *
+   * @param sheets Iterator of input streams with the Excel sheet data
+   * @param name Required sheet name
+   * @return An {@link XMLStreamReader} from the item in the iterator with a given name
+   * @throws XMLStreamException
+   * @throws SheetNotFoundException If a sheet was not found with the given name
+   */
+  public static XMLStreamReader findSheetWithName(Iterator<InputStream> sheets, String name)
+      throws XMLStreamException {
+    return createXMLStreamReader(openSheetWithName(sheets, name));
+  }
+
+  /**
+   * Returns the raw contents of the first excel sheet
+   *
+   * @param sheets Iterator of input streams with the Excel sheet data
+   * @return The first item in the iterator
+   * @throws SheetNotFoundException If no sheets were found
+   */
+  public static InputStream openFirstSheet(Iterator<InputStream> sheets) {
     Objects.requireNonNull(sheets);
 
     if (sheets.hasNext()) {
-      return xmlInputFactory.createXMLStreamReader(sheets.next());
+      return sheets.next();
     } else {
       throw new SheetNotFoundException(0);
     }
   }
 
   /**
-   * Returns an {@link XMLStreamReader} with the contents of the excel sheet at a given index
+   * Returns the raw contents of the excel sheet at a given index
    *
    * @param sheets Iterator of input streams with the Excel sheet data
    * @param index Required sheet index
-   * @return An {@link XMLStreamReader} from the item in the iterator at given index
-   * @throws XMLStreamException
+   * @return The item in the iterator at given index
    * @throws SheetNotFoundException If a sheet was not found with the given index
    */
-  public static XMLStreamReader findSheetAtIndex(Iterator<InputStream> sheets, int index)
-      throws XMLStreamException {
+  public static InputStream openSheetAtIndex(Iterator<InputStream> sheets, int index) {
     Objects.requireNonNull(sheets);
 
     int count = 0;
@@ -162,24 +196,21 @@ public final class ExcelParserUtils {
       count++;
     }
     if (sheets.hasNext()) {
-      InputStream s = sheets.next();
-      return xmlInputFactory.createXMLStreamReader(s);
+      return sheets.next();
     } else {
       throw new SheetNotFoundException(index);
     }
   }
 
   /**
-   * Returns an {@link XMLStreamReader} with the contents of the excel sheet with a given name
+   * Returns the raw contents of the excel sheet with a given name
    *
    * @param sheets Iterator of input streams with the Excel sheet data
    * @param name Required sheet name
-   * @return An {@link XMLStreamReader} from the item in the iterator with a given name
-   * @throws XMLStreamException
+   * @return The item in the iterator with a given name
    * @throws SheetNotFoundException If a sheet was not found with the given name
    */
-  public static XMLStreamReader findSheetWithName(Iterator<InputStream> sheets, String name)
-      throws XMLStreamException {
+  public static InputStream openSheetWithName(Iterator<InputStream> sheets, String name) {
     Objects.requireNonNull(sheets);
     Objects.requireNonNull(name);
 
@@ -187,7 +218,7 @@ public final class ExcelParserUtils {
     while (sheetIterator.hasNext()) {
       InputStream s = sheetIterator.next();
       if (name.equals(sheetIterator.getSheetName())) {
-        return xmlInputFactory.createXMLStreamReader(s);
+        return s;
       }
     }
 
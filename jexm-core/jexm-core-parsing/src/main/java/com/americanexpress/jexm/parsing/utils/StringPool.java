@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.utils;
+
+import java.util.Objects;
+
+/**
+ * Bounded pool of Strings, used to share a single instance between the identical values of a
+ * column, such as status codes or currencies. Values are looked up by their characters before any
+ * String is created. Each slot of the table holds the last value hashed to it, so a column with
+ * more distinct values than slots only wastes the look up, and memory use never grows past the size
+ * of the table.
+ *
+ * <p>The pool can be shared between threads without locking: Strings being immutable, a thread
+ * seeing an outdated slot only misses the pooled instance.
+ */
+public final class StringPool {
+
+  /** Default number of slots of a pool. */
+  public static final int DEFAULT_SIZE = 1024;
+
+  /**
+   * Maximum number of slots of a pool. A pool is meant for the few distinct values of a column, and
+   * one as large as this already takes half a megabyte per column.
+   */
+  public static final int MAX_SIZE = 1 << 16;
+
+  // Longer values are seldom repeated, and comparing them would cost more than it saves
+  private static final int MAX_LENGTH = 64;
+
+  private final String[] table;
+  private final int mask;
+
+  /**
+   * @param size Number of slots, rounded up to a power of two
+   * @throws IllegalArgumentException if the size is not positive or exceeds {@link #MAX_SIZE}
+   */
+  public StringPool(int size) {
+    if (size <= 0 || size > MAX_SIZE) {
+      throw new IllegalArgumentException(
+          "String pool size must be between 1 and " + MAX_SIZE + ": " + size);
+    }
+
+    int slots = Integer.highestOneBit(size);
+    if (slots < size) {
+      slots <<= 1;
+    }
+
+    this.table = new String[slots];
+    this.mask = slots - 1;
+  }
+
+  /**
+   * @param chars Characters of the value
+   * @return A String equal to the characters, the pooled instance if there is one
+   */
+  public String get(CharSequence chars) {
+    Objects.requireNonNull(chars);
+
+    int length = chars.length();
+    if (length > MAX_LENGTH) {
+      return chars.toString();
+    }
+
+    int hash = 0; // same as String.hashCode()
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + chars.charAt(i);
+    }
+
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    String pooled = table[slot];
+    if (pooled != null && contentEquals(pooled, chars)) {
+      return pooled;
+    }
+
+    String value = chars.toString();
+    table[slot] = value;
+    return value;
+  }
+
+  private static boolean contentEquals(String s, CharSequence chars) {
+    if (s.length() != chars.length()) {
+      return false;
+    }
+
+    for (int i = 0; i < s.length(); i++) {
+      if (s.charAt(i) != chars.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.americanexpress.jexm.parsing.file.CsvRowIterator;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class ConcurrentRawRowReaderTest {
+
+  private static final int ROWS = 10_000;
+
+  private static RawRowIterator numbers() {
+    String csv =
+        IntStream.range(0, ROWS)
+            .mapToObj(String::valueOf)
+            .collect(Collectors.joining("\n", "Number\n", "\n"));
+    return new CsvRowIterator(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testBatchesShouldHoldRowsInOrder() {
+    try (ConcurrentRawRowReader reader = numbers().concurrent(3)) {
+      assertEquals(Collections.singletonMap("Number", 0), reader.headerIndexes());
+
+      List<RawRow> batch = reader.nextBatch();
+      assertEquals(3, batch.size());
+      assertEquals("0", batch.get(0).get(0));
+      assertEquals("2", batch.get(2).get(0));
+
+      List<RawRow> reused = new ArrayList<>();
+      assertEquals(3, reader.nextBatch(reused));
+      assertEquals("3", reused.get(0).get(0));
+    }
+  }
+
+  @Test
+  public void testEveryRowShouldBeReadOnceByConcurrentConsumers() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<List<Integer>>> consumers = new ArrayList<>();
+
+    try (ConcurrentRawRowReader reader = numbers().concurrent(64)) {
+      for (int i = 0; i < 4; i++) {
+        consumers.add(
+            executor.submit(
+                () -> {
+                  List<Integer> numbers = new ArrayList<>();
+                  for (List<RawRow> batch = reader.nextBatch();
+                      !batch.isEmpty();
+                      batch = reader.nextBatch()) {
+                    batch.forEach(row -> numbers.add(Integer.valueOf(row.get(0))));
+                  }
+                  return numbers;
+                }));
+      }
+
+      List<Integer> numbers = new ArrayList<>();
+      for (Future<List<Integer>> consumer : consumers) {
+        numbers.addAll(consumer.get());
+      }
+      Collections.sort(numbers);
+
+      assertEquals(IntStream.range(0, ROWS).boxed().collect(Collectors.toList()), numbers);
+      assertTrue(reader.nextBatch().isEmpty());
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveBatchSizeShouldThrowException() {
+    numbers().concurrent(0);
+  }
+}
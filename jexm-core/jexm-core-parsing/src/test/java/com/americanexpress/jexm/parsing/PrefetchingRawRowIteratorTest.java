@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.americanexpress.jexm.parsing.file.CsvRowIterator;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class PrefetchingRawRowIteratorTest {
+
+  private static final int ROWS = 10_000;
+
+  private static RawRowIterator numbers() {
+    String csv =
+        IntStream.range(0, ROWS)
+            .mapToObj(String::valueOf)
+            .collect(Collectors.joining("\n", "Number\n", "\n"));
+    return new CsvRowIterator(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testRowsShouldBeReadInOrder() {
+    try (RawRowIterator rows = new PrefetchingRawRowIterator(numbers(), 7, 2)) {
+      assertEquals(Collections.singletonMap("Number", 0), rows.headerIndexes());
+
+      for (int i = 0; i < ROWS; i++) {
+        assertEquals(String.valueOf(i), rows.nextRawRow().get(0));
+      }
+      assertFalse(rows.hasNext());
+    }
+  }
+
+  @Test
+  public void testClosingBeforeTheEndShouldStopTheProducer() {
+    RawRowIterator rows = new PrefetchingRawRowIterator(numbers(), 1, 1);
+    assertEquals("0", rows.nextRawRow().get(0));
+    rows.close(); // returns once the producer, blocked on the full queue, is stopped
+  }
+
+  @Test
+  public void testFailureOfTheSourceShouldBeThrownToTheConsumer() {
+    IllegalStateException failure = new IllegalStateException("broken");
+    RawRowIterator broken =
+        new RawRowIterator() {
+          private int row = 0;
+
+          @Override
+          public RawRow readNextRawRow() {
+            if (row++ == 3) {
+              throw failure;
+            }
+            return RawRow.of(Collections.singletonMap(0, "value"));
+          }
+
+          @Override
+          public void close() {}
+        };
+
+    try (RawRowIterator rows = broken.prefetched()) {
+      for (int i = 0; i < 3; i++) {
+        rows.nextRawRow();
+      }
+      rows.hasNext();
+      fail("Failure of the source was not thrown");
+    } catch (IllegalStateException e) {
+      assertSame(failure, e);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveBatchSizeShouldThrowException() {
+    new PrefetchingRawRowIterator(numbers(), 0, 1);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class RawRowTest {
+
+  @Test
+  public void testRowShouldGrowToHoldAnyColumn() {
+    RawRow row = new RawRow(1);
+    row.set(0, "A");
+    row.set(40, "AO");
+
+    assertEquals("A", row.get(0));
+    assertEquals("AO", row.get(40));
+    assertNull(row.get(1));
+    assertNull(row.get(41));
+    assertNull(row.get(-1));
+    assertEquals(41, row.columnCount());
+    assertEquals(2, row.size());
+  }
+
+  @Test
+  public void testEmptyValuesShouldNotBeHeld() {
+    RawRow row = new RawRow();
+    row.set(0, "");
+    row.set(1, null);
+    row.set(2, "C");
+    row.set(2, "");
+
+    assertTrue(row.isEmpty());
+    assertEquals(0, row.columnCount());
+  }
+
+  @Test
+  public void testClearedRowShouldBeReusable() {
+    RawRow row = new RawRow();
+    row.set(3, "D");
+    RawRow copy = row.copy();
+    row.clear();
+    row.set(1, "B");
+
+    assertNull(row.get(3));
+    assertEquals(2, row.columnCount());
+    assertEquals("D", copy.get(3));
+    assertEquals(4, copy.columnCount());
+  }
+
+  @Test
+  public void testCellsShouldBeVisitedInColumnOrder() {
+    RawRow row = new RawRow();
+    row.set(5, "F");
+    row.set(0, "A");
+    row.set(2, "C");
+
+    List<String> cells = new ArrayList<>();
+    row.forEach((column, value) -> cells.add(column + "=" + value));
+
+    assertEquals("[0=A, 2=C, 5=F]", cells.toString());
+  }
+
+  @Test
+  public void testMapViewShouldMatchLegacyRow() {
+    Map<Integer, String> legacyRow = new HashMap<>();
+    legacyRow.put(0, "Chuck");
+    legacyRow.put(2, "Smith");
+    legacyRow.put(3, "");
+
+    RawRow row = RawRow.of(legacyRow);
+    legacyRow.remove(3);
+
+    assertEquals(legacyRow, row.toMap());
+    assertEquals(legacyRow.hashCode(), row.toMap().hashCode());
+    assertEquals("Smith", row.toMap().get(2));
+    assertEquals(row, RawRow.of(row.toMap()));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testMapViewShouldBeUnmodifiable() {
+    RawRow row = RawRow.of(Collections.singletonMap(0, "A"));
+    row.toMap().put(1, "B");
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.americanexpress.jexm.ExcelExtension;
+import com.americanexpress.jexm.parsing.file.CsvRowIterator;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class RowCursorTest {
+
+  private static RowCursor csvCursor(String contents) {
+    return new CsvRowIterator(new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8)))
+        .cursor();
+  }
+
+  private static List<String> names(ExcelExtension extension) {
+    Path path = Paths.get("src", "test", "resources", "people_first_names." + extension);
+    List<String> names = new ArrayList<>();
+
+    try (RowCursor cursor = RawRowIteratorFactory.createIterator(path).cursor()) {
+      int name = cursor.columnIndex("Name");
+      while (cursor.advance()) {
+        names.add(cursor.getString(name));
+      }
+    }
+
+    return names;
+  }
+
+  @Test
+  public void testCursorShouldReadSameRowsAsIterator() {
+    List<String> expected = new ArrayList<>();
+    RawRowIterator iterator =
+        RawRowIteratorFactory.createIterator(
+            Paths.get("src", "test", "resources", "people_first_names.xlsx"));
+    iterator.forEachRemaining(row -> expected.add(row.get(0)));
+    iterator.close();
+
+    assertEquals(expected, names(ExcelExtension.XLSX));
+    assertEquals(expected, names(ExcelExtension.XLSB));
+    assertEquals(expected, names(ExcelExtension.XLS));
+    assertEquals(expected, names(ExcelExtension.ODS));
+    assertEquals(expected, names(ExcelExtension.CSV));
+  }
+
+  @Test
+  public void testTypedGettersShouldParseValues() {
+    try (RowCursor cursor = csvCursor("Id,Amount,Name\n42,-12.5,Chuck\n,1e3,\n")) {
+      assertTrue(cursor.advance());
+      assertEquals(42, cursor.getInt(0));
+      assertEquals(42L, cursor.getLong(0));
+      assertEquals(-12, cursor.getInt(1));
+      assertEquals(-12.5, cursor.getDouble(1), 0);
+      assertEquals("Chuck", cursor.getString(2));
+      assertFalse(cursor.isNull(2));
+
+      assertTrue(cursor.advance());
+      assertTrue(cursor.isNull(0));
+      assertEquals(0, cursor.getInt(0));
+      assertEquals(1000, cursor.getDouble(1), 0);
+      assertNull(cursor.getString(2));
+      assertTrue(cursor.isNull(5));
+      assertEquals(2, cursor.columnCount());
+
+      assertFalse(cursor.advance());
+    }
+  }
+
+  @Test
+  public void testRowReadByHasNextShouldNotBeSkipped() {
+    RawRowIterator iterator =
+        new CsvRowIterator(
+            new ByteArrayInputStream("Name\nChuck\nBruce\n".getBytes(StandardCharsets.UTF_8)));
+    assertTrue(iterator.hasNext());
+
+    try (RowCursor cursor = iterator.cursor()) {
+      assertTrue(cursor.advance());
+      assertEquals("Chuck", cursor.getString(0));
+      assertTrue(cursor.advance());
+      assertEquals("Bruce", cursor.getString(0));
+      assertFalse(cursor.advance());
+    }
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testIntOverflowShouldThrowException() {
+    try (RowCursor cursor = csvCursor("Id\n2147483648\n")) {
+      cursor.advance();
+      cursor.getInt(0);
+    }
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void testNonNumericValueShouldThrowException() {
+    try (RowCursor cursor = csvCursor("Id\n4a\n")) {
+      cursor.advance();
+      cursor.getLong(0);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReadingBeforeAdvancingShouldThrowException() {
+    try (RowCursor cursor = csvCursor("Id\n1\n")) {
+      cursor.getString(0);
+    }
+  }
+}
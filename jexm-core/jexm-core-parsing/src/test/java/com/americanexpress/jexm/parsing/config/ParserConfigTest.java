@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.config;
+
+import static org.junit.Assert.assertEquals;
+
+import com.americanexpress.jexm.parsing.utils.StringPool;
+import org.junit.Test;
+
+public class ParserConfigTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void createParserConfigWithNegativeStringPoolSizeShouldThrowException() {
+    new ParserConfig.Builder().stringPoolSize(-1).build();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void createParserConfigWithStringPoolSizeAboveMaximumShouldThrowException() {
+    new ParserConfig.Builder().stringPoolSize(StringPool.MAX_SIZE + 1).build();
+  }
+
+  @Test
+  public void createParserConfigWithMaximumStringPoolSizeShouldSetIt() {
+    assertEquals(
+        StringPool.MAX_SIZE,
+        new ParserConfig.Builder().stringPoolSize(StringPool.MAX_SIZE).build().getStringPoolSize());
+  }
+}
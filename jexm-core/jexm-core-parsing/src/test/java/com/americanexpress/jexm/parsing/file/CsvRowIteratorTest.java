@@ -14,7 +14,13 @@
 package com.americanexpress.jexm.parsing.file;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
+import com.americanexpress.jexm.parsing.RawRow;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import org.junit.Test;
 
@@ -85,4 +91,23 @@ public class CsvRowIteratorTest {
   public void testSplitLineOpeningAndClosingQuotesShouldReturnEmptyString() {
     assertEquals(Arrays.asList(""), CsvRowIterator.splitLine("\"\""));
   }
+
+  @Test
+  public void testIdenticalValuesShouldBeSharedWhenPooled() {
+    String csv = "Code,Name\nEUR,Chuck\nEUR,Bruce\nUSD,Chuck\n";
+    ParserConfig parserConfig = new ParserConfig.Builder().stringPoolSize(8).build();
+
+    try (CsvRowIterator iterator =
+        new CsvRowIterator(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), parserConfig)) {
+      RawRow first = iterator.nextRawRow();
+      RawRow second = iterator.nextRawRow();
+      RawRow third = iterator.nextRawRow();
+
+      assertEquals("EUR", first.get(0));
+      assertSame(first.get(0), second.get(0));
+      assertSame(first.get(1), third.get(1));
+      assertNotSame(first.get(0), third.get(0));
+    }
+  }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.apache.poi.util.IOUtils;
+import org.junit.Test;
+
+public class EncryptedTempPackageTest {
+
+  private static final byte[] FIRST = repeat("first entry ", 10_000);
+  private static final byte[] SECOND = repeat("second entry ", 10_000);
+
+  private static byte[] repeat(String text, int times) {
+    return String.join("", Collections.nCopies(times, text)).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static EncryptedTempPackage spill() throws Exception {
+    ByteArrayOutputStream zip = new ByteArrayOutputStream();
+    try (ZipOutputStream out = new ZipOutputStream(zip)) {
+      out.putNextEntry(new ZipEntry("first.xml"));
+      out.write(FIRST);
+      out.putNextEntry(new ZipEntry("second.xml"));
+      out.write(SECOND);
+    }
+    return EncryptedTempPackage.spill(new ByteArrayInputStream(zip.toByteArray()));
+  }
+
+  @Test
+  public void testEntriesShouldBeReadableAtOnceAndPartially() throws Exception {
+    try (EncryptedTempPackage tempPackage = spill()) {
+      List<? extends ZipEntry> entries = Collections.list(tempPackage.getEntries());
+
+      assertEquals(2, entries.size());
+      assertEquals(FIRST.length, entries.get(0).getSize());
+      assertEquals(SECOND.length, entries.get(1).getSize());
+
+      // closing an entry before its end must not affect the others
+      try (InputStream partial = tempPackage.getInputStream(entries.get(0))) {
+        byte[] start = new byte[100];
+        IOUtils.readFully(partial, start);
+
+        try (InputStream second = tempPackage.getInputStream(entries.get(1))) {
+          assertArrayEquals(SECOND, IOUtils.toByteArray(second));
+        }
+      }
+
+      try (InputStream first = tempPackage.getInputStream(entries.get(0))) {
+        assertArrayEquals(FIRST, IOUtils.toByteArray(first));
+      }
+    }
+  }
+
+  @Test
+  public void testClosingShouldMarkPackageAsClosed() throws Exception {
+    EncryptedTempPackage tempPackage = spill();
+    assertFalse(tempPackage.isClosed());
+
+    tempPackage.close();
+    assertTrue(tempPackage.isClosed());
+  }
+}
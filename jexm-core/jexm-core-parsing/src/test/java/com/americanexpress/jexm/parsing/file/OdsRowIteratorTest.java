@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import static org.junit.Assert.assertEquals;
+
+import com.americanexpress.jexm.parsing.RawRowIterator;
+import com.americanexpress.jexm.parsing.config.SheetConfig;
+import com.americanexpress.jexm.parsing.exceptions.SheetNotFoundException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.Test;
+
+public class OdsRowIteratorTest {
+
+  private static final Path ODS_FILE =
+      Paths.get("src", "test", "resources", "people_first_names.ods");
+  private static final Path XLSX_FILE =
+      Paths.get("src", "test", "resources", "people_first_names.xlsx");
+
+  private static List<Map<Integer, String>> readAll(RawRowIterator iterator) {
+    List<Map<Integer, String>> rows = new ArrayList<>();
+    try {
+      iterator.forEachRemaining(rows::add);
+    } finally {
+      iterator.close();
+    }
+    return rows;
+  }
+
+  private static InputStream ods(String tables) throws IOException {
+    String content =
+        "<office:document-content"
+            + " xmlns:office=\"urn:oasis:names:tc:opendocument:xmlns:office:1.0\""
+            + " xmlns:table=\"urn:oasis:names:tc:opendocument:xmlns:table:1.0\""
+            + " xmlns:text=\"urn:oasis:names:tc:opendocument:xmlns:text:1.0\">"
+            + "<office:body><office:spreadsheet>"
+            + tables
+            + "</office:spreadsheet></office:body></office:document-content>";
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+      zip.putNextEntry(new ZipEntry("mimetype"));
+      zip.write("application/vnd.oasis.opendocument.spreadsheet".getBytes(StandardCharsets.UTF_8));
+      zip.putNextEntry(new ZipEntry("content.xml"));
+      zip.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+    return new ByteArrayInputStream(bytes.toByteArray());
+  }
+
+  private static String cell(String value) {
+    return "<table:table-cell office:value-type=\"string\"><text:p>"
+        + value
+        + "</text:p></table:table-cell>";
+  }
+
+  private static Map<Integer, String> row(Object... indexesAndValues) {
+    Map<Integer, String> row = new HashMap<>();
+    for (int i = 0; i < indexesAndValues.length; i += 2) {
+      row.put((Integer) indexesAndValues[i], (String) indexesAndValues[i + 1]);
+    }
+    return row;
+  }
+
+  @Test
+  public void testReadingShouldProduceSameRowsAsXlsx() {
+    OdsRowIterator ods = new OdsRowIterator(ODS_FILE, null, null);
+    XlsxRowIterator xlsx = new XlsxRowIterator(XLSX_FILE, null, null);
+
+    assertEquals(xlsx.headerIndexes(), ods.headerIndexes());
+    assertEquals(readAll(xlsx), readAll(ods));
+  }
+
+  @Test
+  public void testReadingFromPathShouldProduceSameRowsAsFromInputStream() throws Exception {
+    try (InputStream in = Files.newInputStream(ODS_FILE)) {
+      assertEquals(
+          readAll(new OdsRowIterator(in, null)), readAll(new OdsRowIterator(ODS_FILE, null, null)));
+    }
+  }
+
+  @Test
+  public void testRepeatedRowsAndCellsShouldBeExpanded() throws Exception {
+    String table =
+        "<table:table table:name=\"people\">"
+            + "<table:table-row>"
+            + cell("Name")
+            + "<table:table-cell table:number-columns-repeated=\"2\"/>"
+            + cell("Role")
+            + "</table:table-row>"
+            + "<table:table-row table:number-rows-repeated=\"2\">"
+            + cell("Chuck")
+            + "<table:table-cell table:number-columns-repeated=\"2\"/>"
+            + "<table:table-cell table:number-columns-repeated=\"2\""
+            + " office:value-type=\"string\"><text:p>FIGHTER</text:p></table:table-cell>"
+            + "<table:table-cell table:number-columns-repeated=\"16378\"/>"
+            + "</table:table-row>"
+            + "<table:table-row table:number-rows-repeated=\"1048573\">"
+            + "<table:table-cell table:number-columns-repeated=\"16384\"/>"
+            + "</table:table-row>"
+            + "</table:table>";
+
+    OdsRowIterator iterator = new OdsRowIterator(ods(table), null);
+
+    assertEquals(3, (int) iterator.headerIndexes().get("Role"));
+    Map<Integer, String> expected = row(0, "Chuck", 3, "FIGHTER", 4, "FIGHTER");
+    assertEquals(Arrays.asList(expected, expected), readAll(iterator));
+  }
+
+  @Test
+  public void testValueTypesShouldProduceRawValues() throws Exception {
+    String table =
+        "<table:table table:name=\"values\">"
+            + "<table:table-row>"
+            + cell("Float")
+            + cell("Date")
+            + cell("Time")
+            + cell("Boolean")
+            + cell("Text")
+            + "</table:table-row>"
+            + "<table:table-row>"
+            + "<table:table-cell office:value-type=\"float\" office:value=\"75.5\">"
+            + "<text:p>75.50</text:p></table:table-cell>"
+            + "<table:table-cell office:value-type=\"date\" office:date-value=\"1940-03-10\">"
+            + "<text:p>10/03/40</text:p></table:table-cell>"
+            + "<table:table-cell office:value-type=\"time\" office:time-value=\"PT18H00M30S\">"
+            + "<text:p>06:00:30 PM</text:p></table:table-cell>"
+            + "<table:table-cell office:value-type=\"boolean\" office:boolean-value=\"true\">"
+            + "<text:p>TRUE</text:p></table:table-cell>"
+            + "<table:table-cell office:value-type=\"string\"><text:p>Chuck<text:s text:c=\"2\"/>"
+            + "<text:span>Norris</text:span></text:p><text:p>Jr</text:p>"
+            + "<office:annotation><text:p>comment</text:p></office:annotation>"
+            + "</table:table-cell>"
+            + "</table:table-row>"
+            + "</table:table>";
+
+    assertEquals(
+        Collections.singletonList(
+            row(0, "75.5", 1, "1940-03-10", 2, "18:00:30", 3, "1", 4, "Chuck  Norris\nJr")),
+        readAll(new OdsRowIterator(ods(table), null)));
+  }
+
+  @Test
+  public void testSheetShouldBeSelectedByName() throws Exception {
+    String tables =
+        "<table:table table:name=\"first\"><table:table-row>"
+            + cell("Name")
+            + "</table:table-row><table:table-row>"
+            + cell("Chuck")
+            + "</table:table-row></table:table>"
+            + "<table:table table:name=\"second\"><table:table-row>"
+            + cell("Name")
+            + "</table:table-row><table:table-row>"
+            + cell("Bruce")
+            + "</table:table-row></table:table>";
+
+    assertEquals(
+        Collections.singletonList(row(0, "Bruce")),
+        readAll(new OdsRowIterator(ods(tables), new SheetConfig.Builder().name("second").build())));
+  }
+
+  @Test(expected = SheetNotFoundException.class)
+  public void testMissingSheetShouldThrowException() throws Exception {
+    new OdsRowIterator(
+        ods("<table:table table:name=\"first\"/>"), new SheetConfig.Builder().index(1).build());
+  }
+}
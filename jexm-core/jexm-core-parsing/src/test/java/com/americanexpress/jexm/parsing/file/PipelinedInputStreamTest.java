@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import org.junit.Test;
+
+public class PipelinedInputStreamTest {
+
+  private static byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    new Random(length).nextBytes(bytes);
+    return bytes;
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[7];
+    int n;
+    while ((n = in.read(buffer)) != -1) {
+      out.write(buffer, 0, n);
+    }
+    return out.toByteArray();
+  }
+
+  @Test
+  public void testReadingShouldProduceSameBytesAsSource() throws Exception {
+    byte[] bytes = randomBytes(100_000);
+
+    try (InputStream in = new PipelinedInputStream(new ByteArrayInputStream(bytes), 1024, 2)) {
+      assertArrayEquals(bytes, readAll(in));
+    }
+  }
+
+  @Test
+  public void testReadingSingleBytesShouldProduceSameBytesAsSource() throws Exception {
+    byte[] bytes = randomBytes(3_000);
+
+    try (InputStream in = new PipelinedInputStream(new ByteArrayInputStream(bytes), 100, 1)) {
+      for (byte b : bytes) {
+        assertEquals(b & 0xFF, in.read());
+      }
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @Test
+  public void testReadingEmptySourceShouldReturnEndOfStream() throws Exception {
+    try (InputStream in = new PipelinedInputStream(new ByteArrayInputStream(new byte[0]))) {
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testFailureInSourceShouldBeRethrownToConsumer() throws Exception {
+    InputStream failing =
+        new InputStream() {
+          @Override
+          public int read() throws IOException {
+            throw new IOException("Broken source");
+          }
+        };
+
+    try (InputStream in = new PipelinedInputStream(failing)) {
+      in.read();
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadingAfterCloseShouldThrowException() throws Exception {
+    InputStream in = new PipelinedInputStream(new ByteArrayInputStream(randomBytes(10_000)), 10, 1);
+    in.read();
+    in.close(); // the producer is still blocked on a full queue at this point
+    in.read();
+  }
+}
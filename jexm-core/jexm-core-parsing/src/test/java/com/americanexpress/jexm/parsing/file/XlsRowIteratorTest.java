@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import static org.junit.Assert.assertEquals;
+
+import com.americanexpress.jexm.parsing.RawRowIterator;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.Test;
+
+public class XlsRowIteratorTest {
+
+  private static final Path XLS_FILE =
+      Paths.get("src", "test", "resources", "people_first_names.xls");
+  private static final Path XLSX_FILE =
+      Paths.get("src", "test", "resources", "people_first_names.xlsx");
+
+  private static List<Map<Integer, String>> readAll(RawRowIterator iterator) {
+    List<Map<Integer, String>> rows = new ArrayList<>();
+    try {
+      iterator.forEachRemaining(rows::add);
+    } finally {
+      iterator.close();
+    }
+    return rows;
+  }
+
+  @Test
+  public void testReadingShouldProduceSameRowsAsXlsx() {
+    XlsRowIterator xls = new XlsRowIterator(XLS_FILE, null, null);
+    XlsxRowIterator xlsx = new XlsxRowIterator(XLSX_FILE, null, null);
+
+    assertEquals(xlsx.headerIndexes(), xls.headerIndexes());
+    assertEquals(readAll(xlsx), readAll(xls));
+  }
+
+  @Test
+  public void testReadingFromPathShouldProduceSameRowsAsFromInputStream() throws Exception {
+    try (InputStream in = Files.newInputStream(XLS_FILE)) {
+      assertEquals(
+          readAll(new XlsRowIterator(in, null)), readAll(new XlsRowIterator(XLS_FILE, null, null)));
+    }
+  }
+
+  @Test
+  public void testPreviewShouldOnlyReadFirstRows() {
+    ParserConfig preview = new ParserConfig.Builder().previewRows(2).build();
+
+    List<Map<Integer, String>> rows = readAll(new XlsRowIterator(XLS_FILE, null, preview));
+    assertEquals(readAll(new XlsRowIterator(XLS_FILE, null, null)).subList(0, 2), rows);
+  }
+
+  @Test(expected = FileFormatException.class)
+  public void testReadingXlsxContentsShouldThrowException() {
+    new XlsRowIterator(XLSX_FILE, null, null);
+  }
+
+  @Test
+  public void testFormulasShouldHaveTheirCachedResultAcrossRowBlocks() throws Exception {
+    Path file = Files.createTempFile("jexm", ".xls");
+
+    try (HSSFWorkbook workbook = new HSSFWorkbook()) {
+      Sheet sheet = workbook.createSheet("people");
+      sheet.createRow(0).createCell(0).setCellValue("Name");
+
+      FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+      for (int i = 1; i <= 100; i++) {
+        Row row = sheet.createRow(i * 2); // leaving an empty row before each one
+        row.createCell(0).setCellFormula("\"Chuck \"&" + i);
+        row.createCell(1).setCellFormula(i + "*2");
+        row.createCell(2).setCellValue(i % 2 == 0);
+      }
+      evaluator.evaluateAll();
+
+      try (OutputStream out = Files.newOutputStream(file)) {
+        workbook.write(out);
+      }
+
+      List<Map<Integer, String>> rows = readAll(new XlsRowIterator(file, null, null));
+
+      assertEquals(100, rows.size());
+      for (int i = 1; i <= 100; i++) {
+        Map<Integer, String> row = rows.get(i - 1);
+        assertEquals("Chuck " + i, row.get(0));
+        assertEquals(String.valueOf(i * 2), row.get(1));
+        assertEquals(i % 2 == 0 ? "1" : "0", row.get(2));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
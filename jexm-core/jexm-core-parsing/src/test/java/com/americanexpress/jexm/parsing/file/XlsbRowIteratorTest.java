@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import static org.junit.Assert.assertEquals;
+
+import com.americanexpress.jexm.parsing.RawRowIterator;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class XlsbRowIteratorTest {
+
+  private static final Path XLSB_FILE =
+      Paths.get("src", "test", "resources", "people_first_names.xlsb");
+  private static final Path XLSX_FILE =
+      Paths.get("src", "test", "resources", "people_first_names.xlsx");
+
+  private static List<Map<Integer, String>> readAll(RawRowIterator iterator) {
+    List<Map<Integer, String>> rows = new ArrayList<>();
+    try {
+      iterator.forEachRemaining(rows::add);
+    } finally {
+      iterator.close();
+    }
+    return rows;
+  }
+
+  @Test
+  public void testReadingShouldProduceSameRowsAsXlsx() {
+    XlsbRowIterator xlsb = new XlsbRowIterator(XLSB_FILE, null, null);
+    XlsxRowIterator xlsx = new XlsxRowIterator(XLSX_FILE, null, null);
+
+    assertEquals(xlsx.headerIndexes(), xlsb.headerIndexes());
+    assertEquals(readAll(xlsx), readAll(xlsb));
+  }
+
+  @Test
+  public void testReadingFromPathShouldProduceSameRowsAsFromInputStream() throws Exception {
+    try (InputStream in = Files.newInputStream(XLSB_FILE)) {
+      assertEquals(
+          readAll(new XlsbRowIterator(in, null)),
+          readAll(new XlsbRowIterator(XLSB_FILE, null, null)));
+    }
+  }
+
+  @Test
+  public void testPreviewShouldOnlyReadFirstRows() {
+    ParserConfig preview = new ParserConfig.Builder().previewRows(2).build();
+
+    List<Map<Integer, String>> rows = readAll(new XlsbRowIterator(XLSB_FILE, null, preview));
+    assertEquals(readAll(new XlsbRowIterator(XLSB_FILE, null, null)).subList(0, 2), rows);
+  }
+
+  @Test(expected = FileFormatException.class)
+  public void testReadingXlsxContentsShouldThrowException() {
+    new XlsbRowIterator(XLSX_FILE, null, null);
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import static org.junit.Assert.assertEquals;
+
+import com.americanexpress.jexm.parsing.RawRowIterator;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.junit.Test;
+
+public class XlsxRowIteratorTest {
+
+  private static final Path XLSX_FILE =
+      Paths.get("src", "test", "resources", "people_first_names.xlsx");
+  // Same rows, with an empty row (a cell without value) between the second and third names
+  private static final Path XLSX_FILE_WITH_EMPTY_ROW =
+      Paths.get("src", "test", "resources", "people_first_names_empty_row.xlsx");
+  // Same rows, with an empty row before the header row as well
+  private static final Path XLSX_FILE_WITH_LEADING_EMPTY_ROW =
+      Paths.get("src", "test", "resources", "people_first_names_leading_empty_row.xlsx");
+
+  private static List<Map<Integer, String>> readAll(RawRowIterator iterator) {
+    List<Map<Integer, String>> rows = new ArrayList<>();
+    try {
+      iterator.forEachRemaining(rows::add);
+    } finally {
+      iterator.close();
+    }
+    return rows;
+  }
+
+  private static List<Map<Integer, String>> readFromInputStream() throws Exception {
+    try (InputStream in = Files.newInputStream(XLSX_FILE)) {
+      return readAll(new XlsxRowIterator(in, null));
+    }
+  }
+
+  @Test
+  public void testReadingFromPathShouldProduceSameRowsAsFromInputStream() throws Exception {
+    assertEquals(readFromInputStream(), readAll(new XlsxRowIterator(XLSX_FILE, null, null)));
+  }
+
+  @Test
+  public void testPipelinedReadingShouldProduceSameRowsAsSequentialReading() throws Exception {
+    ParserConfig pipelined =
+        new ParserConfig.Builder().pipelined(true).pipelineThreshold(0).build();
+
+    assertEquals(readFromInputStream(), readAll(new XlsxRowIterator(XLSX_FILE, null, pipelined)));
+  }
+
+  @Test
+  public void testParallelReadingShouldProduceSameRowsAsSequentialReading() throws Exception {
+    ParserConfig parallel = new ParserConfig.Builder().parallel(true).splitSize(1).build();
+
+    XlsxRowIterator iterator = new XlsxRowIterator(XLSX_FILE, null, parallel);
+    try {
+      assertEquals(
+          readFromInputStream(),
+          StreamSupport.stream(iterator.spliterator(), true).collect(Collectors.toList()));
+    } finally {
+      iterator.close();
+    }
+  }
+
+  @Test
+  public void testEmptyRowShouldBeSkipped() throws Exception {
+    assertEquals(
+        readFromInputStream(), readAll(new XlsxRowIterator(XLSX_FILE_WITH_EMPTY_ROW, null, null)));
+  }
+
+  @Test
+  public void testParallelReadingShouldProduceSameRowsAsSequentialReadingAcrossEmptyRow()
+      throws Exception {
+    ParserConfig parallel = new ParserConfig.Builder().parallel(true).splitSize(1).build();
+
+    XlsxRowIterator iterator = new XlsxRowIterator(XLSX_FILE_WITH_EMPTY_ROW, null, parallel);
+    try {
+      assertEquals(
+          readAll(new XlsxRowIterator(XLSX_FILE_WITH_EMPTY_ROW, null, null)),
+          StreamSupport.stream(iterator.spliterator(), true).collect(Collectors.toList()));
+    } finally {
+      iterator.close();
+    }
+  }
+
+  @Test
+  public void testParallelReadingShouldSkipEmptyRowBeforeHeaders() throws Exception {
+    ParserConfig parallel = new ParserConfig.Builder().parallel(true).splitSize(1).build();
+
+    XlsxRowIterator sequential = new XlsxRowIterator(XLSX_FILE_WITH_LEADING_EMPTY_ROW, null, null);
+    XlsxRowIterator iterator =
+        new XlsxRowIterator(XLSX_FILE_WITH_LEADING_EMPTY_ROW, null, parallel);
+    try {
+      assertEquals(Collections.singletonMap("Name", 0), sequential.headerIndexes());
+      assertEquals(sequential.headerIndexes(), iterator.headerIndexes());
+      assertEquals(
+          readAll(sequential),
+          StreamSupport.stream(iterator.spliterator(), true).collect(Collectors.toList()));
+    } finally {
+      sequential.close();
+      iterator.close();
+    }
+  }
+
+  @Test
+  public void testParallelReadingShouldReadHeaders() throws Exception {
+    ParserConfig parallel = new ParserConfig.Builder().parallel(true).build();
+
+    XlsxRowIterator sequential = new XlsxRowIterator(XLSX_FILE, null, null);
+    XlsxRowIterator iterator = new XlsxRowIterator(XLSX_FILE, null, parallel);
+    try {
+      assertEquals(sequential.headerIndexes(), iterator.headerIndexes());
+    } finally {
+      sequential.close();
+      iterator.close();
+    }
+
+    assertEquals(readFromInputStream(), readAll(new XlsxRowIterator(XLSX_FILE, null, parallel)));
+  }
+
+  @Test
+  public void testPreviewShouldOnlyReadFirstRows() throws Exception {
+    ParserConfig preview = new ParserConfig.Builder().previewRows(2).build();
+
+    assertEquals(
+        readFromInputStream().subList(0, 2),
+        readAll(new XlsxRowIterator(XLSX_FILE, null, preview)));
+  }
+
+  @Test
+  public void testPreviewOfMoreRowsThanSheetHasShouldReadAllRows() throws Exception {
+    ParserConfig preview = new ParserConfig.Builder().previewRows(100).build();
+
+    XlsxRowIterator sequential = new XlsxRowIterator(XLSX_FILE, null, null);
+    XlsxRowIterator iterator = new XlsxRowIterator(XLSX_FILE, null, preview);
+    try {
+      assertEquals(sequential.headerIndexes(), iterator.headerIndexes());
+    } finally {
+      sequential.close();
+      iterator.close();
+    }
+
+    assertEquals(readFromInputStream(), readAll(new XlsxRowIterator(XLSX_FILE, null, preview)));
+  }
+}
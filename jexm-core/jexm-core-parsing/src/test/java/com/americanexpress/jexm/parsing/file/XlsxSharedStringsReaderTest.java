@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class XlsxSharedStringsReaderTest {
+
+  private static final String SST_START =
+      "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">";
+
+  private static InputStream xml(String s) {
+    return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static BitSet indexes(int... indexes) {
+    BitSet bits = new BitSet();
+    for (int i : indexes) {
+      bits.set(i);
+    }
+    return bits;
+  }
+
+  @Test
+  public void testReadingShouldOnlyResolveRequestedIndexes() {
+    Map<Integer, String> expected = new HashMap<>();
+    expected.put(0, "Name");
+    expected.put(2, "Bruce");
+
+    assertEquals(
+        expected,
+        XlsxSharedStringsReader.read(
+            xml(SST_START + "<si><t>Name</t></si><si><t>Chuck</t></si><si><t>Bruce</t></si></sst>"),
+            indexes(0, 2)));
+  }
+
+  @Test
+  public void testReadingShouldStopAfterHighestRequestedIndex() {
+    // the table is cut short after the second item, which is never reached
+    Map<Integer, String> strings =
+        XlsxSharedStringsReader.read(xml(SST_START + "<si><t>Name</t></si><si><t>Chu"), indexes(0));
+
+    assertEquals("Name", strings.get(0));
+  }
+
+  @Test
+  public void testRichTextRunsShouldBeConcatenatedWithoutPhoneticRuns() {
+    Map<Integer, String> strings =
+        XlsxSharedStringsReader.read(
+            xml(
+                SST_START
+                    + "<si><r><rPr><b/></rPr><t>Chuck</t></r><r><t xml:space=\"preserve\"> Norris"
+                    + "</t></r><rPh sb=\"0\" eb=\"1\"><t>phonetic</t></rPh></si></sst>"),
+            indexes(0));
+
+    assertEquals("Chuck Norris", strings.get(0));
+  }
+
+  @Test
+  public void testIndexesPastEndOfTableShouldBeMissing() {
+    Map<Integer, String> strings =
+        XlsxSharedStringsReader.read(xml(SST_START + "<si><t>Name</t></si></sst>"), indexes(5));
+
+    assertEquals(0, strings.size());
+  }
+
+  @Test
+  public void testReadingAllShouldKeepTableOrder() {
+    String[] strings =
+        XlsxSharedStringsReader.readAll(
+            xml(
+                "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+                    + " uniqueCount=\"3\"><si><t>Name</t></si><si><r><t>Chu</t></r><r><t>ck"
+                    + "</t></r></si><si><t/></si></sst>"));
+
+    assertArrayEquals(new String[] {"Name", "Chuck", ""}, strings);
+  }
+}
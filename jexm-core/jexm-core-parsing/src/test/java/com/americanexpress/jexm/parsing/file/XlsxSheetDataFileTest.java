@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.americanexpress.jexm.parsing.RawRow;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.junit.Test;
+
+public class XlsxSheetDataFileTest {
+
+  private static final int ROWS = 200;
+
+  private static XlsxSheetDataFile sheetDataFile(String prefix) {
+    StringBuilder xml = new StringBuilder();
+    xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
+    xml.append("<")
+        .append(prefix)
+        .append("worksheet xmlns")
+        .append(prefix.isEmpty() ? "" : ":" + prefix.substring(0, prefix.length() - 1))
+        .append("=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">");
+    xml.append("<").append(prefix).append("sheetData>");
+    for (int i = 1; i <= ROWS; i++) {
+      xml.append(String.format("<%1$srow r=\"%2$d\"><%1$sc r=\"A%2$d\">", prefix, i));
+      xml.append(String.format("<%1$sv>%2$d</%1$sv></%1$sc></%1$srow>", prefix, i));
+    }
+    xml.append("</").append(prefix).append("sheetData>");
+    xml.append("<").append(prefix).append("rowBreaks count=\"0\"/>");
+    xml.append("</").append(prefix).append("worksheet>");
+
+    byte[] bytes = xml.toString().getBytes(StandardCharsets.UTF_8);
+    return XlsxSheetDataFile.spill(new ByteArrayInputStream(bytes), null, null);
+  }
+
+  private static List<String> expectedValues() {
+    List<String> values = new ArrayList<>();
+    for (int i = 1; i <= ROWS; i++) {
+      values.add(String.valueOf(i));
+    }
+    return values;
+  }
+
+  private static List<String> readInParallel(XlsxSheetDataFile file, long splitSize) {
+    XlsxRowSpliterator spliterator =
+        new XlsxRowSpliterator(file, file.dataStart(), file.dataEnd(), splitSize);
+
+    return StreamSupport.stream(spliterator, true)
+        .map(row -> row.get(0))
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testParallelReadingShouldPreserveRowOrder() {
+    try (XlsxSheetDataFile file = sheetDataFile("")) {
+      assertEquals(expectedValues(), readInParallel(file, 16));
+    }
+  }
+
+  @Test
+  public void testParallelReadingShouldSupportNamespacePrefix() {
+    try (XlsxSheetDataFile file = sheetDataFile("x:")) {
+      assertEquals(expectedValues(), readInParallel(file, 16));
+    }
+  }
+
+  @Test
+  public void testSplittingShouldHappenAtRowBoundaries() {
+    try (XlsxSheetDataFile file = sheetDataFile("")) {
+      XlsxRowSpliterator spliterator =
+          new XlsxRowSpliterator(file, file.dataStart(), file.dataEnd(), 16);
+
+      Spliterator<RawRow> prefix = spliterator.trySplit();
+      assertNotNull(prefix);
+
+      List<String> values = new ArrayList<>();
+      prefix.forEachRemaining(row -> values.add(row.get(0)));
+      int prefixSize = values.size();
+      spliterator.forEachRemaining(row -> values.add(row.get(0)));
+
+      assertTrue(prefixSize > 0 && prefixSize < ROWS);
+      assertEquals(expectedValues(), values);
+    }
+  }
+
+  @Test
+  public void testEmptySheetDataShouldHaveNoRows() {
+    byte[] bytes = "<worksheet><sheetData/></worksheet>".getBytes(StandardCharsets.UTF_8);
+
+    try (XlsxSheetDataFile file =
+        XlsxSheetDataFile.spill(new ByteArrayInputStream(bytes), null, null)) {
+      assertEquals(-1, file.findRowStart(file.dataStart(), file.dataEnd()));
+      assertEquals(Collections.emptyList(), readInParallel(file, 1));
+    }
+  }
+}
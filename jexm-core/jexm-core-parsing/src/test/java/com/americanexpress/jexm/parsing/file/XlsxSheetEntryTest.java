@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Test;
+
+public class XlsxSheetEntryTest {
+
+  private static InputStream xml(String s) {
+    return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testReadingShouldListSheetsInOrder() {
+    List<XlsxSheetEntry> entries =
+        XlsxSheetEntry.readAll(
+            xml(
+                "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" "
+                    + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                    + "<sheets>"
+                    + "<sheet name=\"January\" sheetId=\"1\" r:id=\"rId3\"/>"
+                    + "<sheet name=\"February\" sheetId=\"7\" state=\"hidden\" r:id=\"rId1\"/>"
+                    + "</sheets>"
+                    + "<definedNames/>"
+                    + "</workbook>"));
+
+    assertEquals(2, entries.size());
+
+    assertEquals(0, entries.get(0).getIndex());
+    assertEquals("January", entries.get(0).getName());
+    assertEquals("rId3", entries.get(0).getRelationshipId());
+    assertNull(entries.get(0).getState());
+
+    assertEquals(1, entries.get(1).getIndex());
+    assertEquals("February", entries.get(1).getName());
+    assertEquals("rId1", entries.get(1).getRelationshipId());
+    assertEquals("hidden", entries.get(1).getState());
+  }
+
+  @Test
+  public void testReadingShouldSupportStrictRelationshipNamespace() {
+    List<XlsxSheetEntry> entries =
+        XlsxSheetEntry.readAll(
+            xml(
+                "<x:workbook xmlns:x=\"http://purl.oclc.org/ooxml/spreadsheetml/main\" "
+                    + "xmlns:rel=\"http://purl.oclc.org/ooxml/officeDocument/relationships\">"
+                    + "<x:sheets><x:sheet name=\"Data\" sheetId=\"1\" rel:id=\"rId2\"/></x:sheets>"
+                    + "</x:workbook>"));
+
+    assertEquals(1, entries.size());
+    assertEquals("Data", entries.get(0).getName());
+    assertEquals("rId2", entries.get(0).getRelationshipId());
+  }
+
+  @Test(expected = FileFormatException.class)
+  public void testSheetWithoutRelationshipIdShouldThrowException() {
+    XlsxSheetEntry.readAll(xml("<workbook><sheets><sheet name=\"Data\"/></sheets></workbook>"));
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.americanexpress.jexm.parsing.utils.ExcelParserUtils;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import javax.xml.stream.XMLStreamException;
+import org.junit.Test;
+
+public class XlsxSheetParserTest {
+
+  private static XlsxSheetParser parser(String sheetData) throws XMLStreamException {
+    String xml =
+        "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+            + "<sheetData>"
+            + sheetData
+            + "</sheetData></worksheet>";
+
+    return new XlsxSheetParser(
+        ExcelParserUtils.createXMLStreamReader(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))),
+        XlsxSharedStrings.of(new String[] {"Chuck", "Norris"}),
+        null);
+  }
+
+  @Test
+  public void testInlineRichTextShouldBeConcatenated() throws XMLStreamException {
+    XlsxSheetParser parser =
+        parser(
+            "<row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><r><rPr><b/></rPr><t>Chuck</t></r>"
+                + "<r><t xml:space=\"preserve\"> Norris</t></r></is></c>"
+                + "<c r=\"B1\" t=\"inlineStr\"><is><t>Bruce</t></is></c></row>");
+
+    Map<Integer, String> expected = new HashMap<>();
+    expected.put(0, "Chuck Norris");
+    expected.put(1, "Bruce");
+
+    assertEquals(expected, parser.readNextRow().toMap());
+  }
+
+  @Test
+  public void testFormulaCellsShouldHaveTheirValue() throws XMLStreamException {
+    XlsxSheetParser parser =
+        parser(
+            "<row r=\"1\"><c r=\"A1\"><f>1+1</f><v>2</v></c>"
+                + "<c r=\"B1\" t=\"str\"><f>CONCATENATE(\"a\",\"b\")</f><v>ab</v></c>"
+                + "<c r=\"C1\" t=\"s\"><f>X</f><v>1</v></c></row>");
+
+    Map<Integer, String> expected = new HashMap<>();
+    expected.put(0, "2");
+    expected.put(1, "ab");
+    expected.put(2, "Norris");
+
+    assertEquals(expected, parser.readNextRow().toMap());
+  }
+
+  @Test
+  public void testCellsWithoutValueShouldBeSkipped() throws XMLStreamException {
+    XlsxSheetParser parser =
+        parser(
+            "<row r=\"1\"><c r=\"A1\" s=\"1\"/><c r=\"B1\"><f>A1</f></c>"
+                + "<c r=\"C1\" t=\"s\"><v>0</v></c></row>");
+
+    Map<Integer, String> expected = new HashMap<>();
+    expected.put(2, "Chuck");
+
+    assertEquals(expected, parser.readNextRow().toMap());
+    assertEquals(null, parser.readNextRow());
+    assertTrue(parser.isFinished());
+  }
+
+  @Test
+  public void testEmptyRowsShouldBeSkipped() throws XMLStreamException {
+    XlsxSheetParser parser =
+        parser(
+            "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c></row>"
+                + "<row r=\"2\"><c r=\"A2\" s=\"1\"/></row><row r=\"3\"/>"
+                + "<row r=\"4\"><c r=\"A4\" t=\"s\"><v>1</v></c></row>");
+
+    assertEquals(Collections.singletonMap(0, "Chuck"), parser.readNextRow().toMap());
+    assertEquals(Collections.singletonMap(0, "Norris"), parser.readNextRow().toMap());
+    assertEquals(null, parser.readNextRow());
+    assertTrue(parser.isFinished());
+  }
+}
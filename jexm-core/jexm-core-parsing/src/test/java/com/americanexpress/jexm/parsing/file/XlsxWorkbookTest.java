@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.americanexpress.jexm.parsing.RawRowIterator;
+import com.americanexpress.jexm.parsing.config.ParserConfig;
+import com.americanexpress.jexm.parsing.config.SheetConfig;
+import com.americanexpress.jexm.parsing.exceptions.FileFormatException;
+import com.americanexpress.jexm.parsing.exceptions.SheetNotFoundException;
+import com.americanexpress.jexm.parsing.metadata.SheetMetadata;
+import com.americanexpress.jexm.parsing.metadata.SheetVisibility;
+import com.americanexpress.jexm.parsing.metadata.WorkbookMetadata;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class XlsxWorkbookTest {
+
+  private static final Path XLSX_FILE =
+      Paths.get("src", "test", "resources", "people_first_names.xlsx");
+  private static final Path ENCRYPTED_XLSX_FILE =
+      Paths.get("src", "test", "resources", "people_first_names_encrypted.xlsx");
+  private static final String PASSWORD = "jexm";
+
+  private static List<Map<Integer, String>> readAll(RawRowIterator iterator) {
+    List<Map<Integer, String>> rows = new ArrayList<>();
+    try {
+      iterator.forEachRemaining(rows::add);
+    } finally {
+      iterator.close();
+    }
+    return rows;
+  }
+
+  @Test
+  public void testSheetNamesShouldListAllSheets() {
+    try (XlsxWorkbook workbook = new XlsxWorkbook(XLSX_FILE)) {
+      assertEquals(Collections.singletonList("Sheet1"), workbook.sheetNames());
+    }
+  }
+
+  @Test
+  public void testReadingMetadataShouldDescribeSheets() {
+    WorkbookMetadata metadata = XlsxWorkbook.readMetadata(XLSX_FILE);
+
+    assertEquals(1, metadata.getSheets().size());
+
+    SheetMetadata sheet = metadata.getSheets().get(0);
+    assertEquals(0, sheet.getIndex());
+    assertEquals("Sheet1", sheet.getName());
+    assertEquals(SheetVisibility.VISIBLE, sheet.getVisibility());
+    assertEquals("A1:A4", sheet.getDimension());
+    assertEquals(4, sheet.getRowCount());
+    assertEquals(1, sheet.getColumnCount());
+    assertEquals(sheet, metadata.getSheet("Sheet1").get());
+  }
+
+  @Test
+  public void testClosingIteratorShouldNotCloseWorkbook() {
+    List<Map<Integer, String>> expected = readAll(new XlsxRowIterator(XLSX_FILE, null, null));
+
+    try (XlsxWorkbook workbook = new XlsxWorkbook(XLSX_FILE)) {
+      assertEquals(expected, readAll(workbook.createIterator(null, null)));
+      assertEquals(
+          expected,
+          readAll(workbook.createIterator(new SheetConfig.Builder().index(0).build(), null)));
+    }
+  }
+
+  @Test(expected = SheetNotFoundException.class)
+  public void testCreatingIteratorShouldThrowExceptionIfSheetNotFound() {
+    try (XlsxWorkbook workbook = new XlsxWorkbook(XLSX_FILE)) {
+      workbook.createIterator(new SheetConfig.Builder().name("missing").build(), null);
+    }
+  }
+
+  @Test
+  public void testEncryptedWorkbookShouldBeReadWithPassword() {
+    List<Map<Integer, String>> expected = readAll(new XlsxRowIterator(XLSX_FILE, null, null));
+
+    try (XlsxWorkbook workbook = new XlsxWorkbook(ENCRYPTED_XLSX_FILE, PASSWORD)) {
+      assertTrue(workbook.isEncrypted());
+      assertEquals(expected, readAll(workbook.createIterator(null, null)));
+    }
+  }
+
+  @Test
+  public void testEncryptedWorkbookShouldBeReadFromInputStream() throws Exception {
+    List<Map<Integer, String>> expected = readAll(new XlsxRowIterator(XLSX_FILE, null, null));
+    ParserConfig config = new ParserConfig.Builder().password(PASSWORD).build();
+
+    try (InputStream in = Files.newInputStream(ENCRYPTED_XLSX_FILE)) {
+      assertEquals(expected, readAll(new XlsxRowIterator(in, null, config)));
+    }
+  }
+
+  @Test
+  public void testEncryptedWorkbookShouldNotBeParsedInParallel() {
+    List<Map<Integer, String>> expected = readAll(new XlsxRowIterator(XLSX_FILE, null, null));
+    ParserConfig config =
+        new ParserConfig.Builder().password(PASSWORD).parallel(true).splitSize(1).build();
+
+    assertEquals(expected, readAll(new XlsxRowIterator(ENCRYPTED_XLSX_FILE, null, config)));
+  }
+
+  @Test(expected = FileFormatException.class)
+  public void testEncryptedWorkbookShouldThrowExceptionIfPasswordIsIncorrect() {
+    new XlsxWorkbook(ENCRYPTED_XLSX_FILE, "incorrect").close();
+  }
+
+  @Test
+  public void testPasswordShouldBeIgnoredIfWorkbookIsNotEncrypted() {
+    List<Map<Integer, String>> expected = readAll(new XlsxRowIterator(XLSX_FILE, null, null));
+
+    try (XlsxWorkbook workbook = new XlsxWorkbook(XLSX_FILE, PASSWORD)) {
+      assertFalse(workbook.isEncrypted());
+      assertEquals(expected, readAll(workbook.createIterator(null, null)));
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.metadata;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SheetMetadataTest {
+
+  @Test
+  public void testDimensionShouldBeParsedIntoRowsAndColumns() {
+    SheetMetadata sheet = new SheetMetadata(2, "Data", SheetVisibility.HIDDEN, "B3:AA120");
+
+    assertEquals(2, sheet.getFirstRow());
+    assertEquals(119, sheet.getLastRow());
+    assertEquals(1, sheet.getFirstColumn());
+    assertEquals(26, sheet.getLastColumn());
+    assertEquals(118, sheet.getRowCount());
+    assertEquals(26, sheet.getColumnCount());
+  }
+
+  @Test
+  public void testSingleCellDimensionShouldHaveOneRowAndColumn() {
+    SheetMetadata sheet = new SheetMetadata(0, "Empty", SheetVisibility.VISIBLE, "A1");
+
+    assertEquals(1, sheet.getRowCount());
+    assertEquals(1, sheet.getColumnCount());
+  }
+
+  @Test
+  public void testMissingDimensionShouldBeUnknown() {
+    SheetMetadata sheet = new SheetMetadata(0, "Chart", SheetVisibility.VISIBLE, null);
+
+    assertEquals(-1, sheet.getFirstRow());
+    assertEquals(-1, sheet.getRowCount());
+    assertEquals(-1, sheet.getColumnCount());
+  }
+
+  @Test
+  public void testVisibilityShouldBeParsedFromState() {
+    assertEquals(SheetVisibility.VISIBLE, SheetVisibility.fromState(null));
+    assertEquals(SheetVisibility.VISIBLE, SheetVisibility.fromState("visible"));
+    assertEquals(SheetVisibility.HIDDEN, SheetVisibility.fromState("hidden"));
+    assertEquals(SheetVisibility.VERY_HIDDEN, SheetVisibility.fromState("veryHidden"));
+  }
+}
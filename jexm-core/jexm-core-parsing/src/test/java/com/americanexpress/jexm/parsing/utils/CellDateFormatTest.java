@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class CellDateFormatTest {
+
+  private static final int CUSTOM = 164;
+
+  // 1st June 2017 at 18:00:30
+  private static final double SERIAL = 42887.75034722222;
+
+  @Test
+  public void testBuiltInFormatsShouldBeClassifiedById() {
+    assertEquals(CellDateFormat.DATE, CellDateFormat.of(14, "m/d/yy"));
+    assertEquals(CellDateFormat.MONTH_DAY, CellDateFormat.of(16, "d-mmm"));
+    assertEquals(CellDateFormat.YEAR_MONTH, CellDateFormat.of(17, "mmm-yy"));
+    assertEquals(CellDateFormat.TIME, CellDateFormat.of(21, "h:mm:ss"));
+    assertEquals(CellDateFormat.DATE_TIME, CellDateFormat.of(22, "m/d/yy h:mm"));
+    assertEquals(CellDateFormat.NONE, CellDateFormat.of(2, "0.00"));
+  }
+
+  @Test
+  public void testCustomDateFormatsShouldBeClassified() {
+    assertEquals(CellDateFormat.DATE, CellDateFormat.of(CUSTOM, "yyyy-mm-dd"));
+    assertEquals(CellDateFormat.DATE, CellDateFormat.of(CUSTOM, "[$-809]dd\\ mmmm\\ yyyy"));
+    assertEquals(CellDateFormat.YEAR_MONTH, CellDateFormat.of(CUSTOM, "mmmm yyyy"));
+    assertEquals(CellDateFormat.MONTH_DAY, CellDateFormat.of(CUSTOM, "dd mmm"));
+  }
+
+  @Test
+  public void testCustomTimeFormatsShouldBeClassified() {
+    assertEquals(CellDateFormat.TIME, CellDateFormat.of(CUSTOM, "hh:mm"));
+    assertEquals(CellDateFormat.TIME, CellDateFormat.of(CUSTOM, "mm:ss"));
+    assertEquals(CellDateFormat.TIME, CellDateFormat.of(CUSTOM, "[h]:mm"));
+    assertEquals(CellDateFormat.TIME, CellDateFormat.of(CUSTOM, "h:mm:ss AM/PM"));
+  }
+
+  @Test
+  public void testCustomDateTimeFormatsShouldBeClassified() {
+    assertEquals(CellDateFormat.DATE_TIME, CellDateFormat.of(CUSTOM, "yyyy-mm-dd hh:mm"));
+    assertEquals(
+        CellDateFormat.DATE_TIME, CellDateFormat.of(CUSTOM, "[Red]dd/mm/yyyy\\ hh:mm:ss;@"));
+  }
+
+  @Test
+  public void testCustomNumberFormatsShouldNotBeDates() {
+    assertEquals(CellDateFormat.NONE, CellDateFormat.of(CUSTOM, "#,##0.000"));
+    assertEquals(CellDateFormat.NONE, CellDateFormat.of(CUSTOM, "\"days: \"0"));
+    assertEquals(CellDateFormat.NONE, CellDateFormat.of(CUSTOM, null));
+  }
+
+  @Test
+  public void testFormattingShouldProduceIsoStrings() {
+    assertEquals("2017-06-01", CellDateFormat.DATE.format(SERIAL));
+    assertEquals("18:00:30", CellDateFormat.TIME.format(SERIAL));
+    assertEquals("2017-06-01T18:00:30", CellDateFormat.DATE_TIME.format(SERIAL));
+    assertEquals("--06-01", CellDateFormat.MONTH_DAY.format(SERIAL));
+    assertEquals("2017-06", CellDateFormat.YEAR_MONTH.format(SERIAL));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testFormattingWithoutDateFormatShouldThrowException() {
+    CellDateFormat.NONE.format(SERIAL);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2018 American Express Travel Related Services Company, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.americanexpress.jexm.parsing.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class StringPoolTest {
+
+  @Test
+  public void testIdenticalCharactersShouldGiveSameInstance() {
+    StringPool pool = new StringPool(16);
+    String pooled = pool.get(new StringBuilder("EUR"));
+
+    assertEquals("EUR", pooled);
+    assertSame(pooled, pool.get(new StringBuilder("EUR")));
+    assertSame(pooled, pool.get(new String("EUR")));
+  }
+
+  @Test
+  public void testPoolShouldNotGrowPastItsSize() {
+    StringPool pool = new StringPool(1);
+    String eur = pool.get("EUR");
+    pool.get("USD"); // replaces EUR in the only slot
+
+    assertEquals("EUR", pool.get(new StringBuilder("EUR")));
+    assertNotSame(eur, pool.get(new StringBuilder("EUR")));
+  }
+
+  @Test
+  public void testLongValuesShouldNotBePooled() {
+    StringPool pool = new StringPool(16);
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      text.append('a');
+    }
+
+    assertNotSame(pool.get(text), pool.get(text));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNonPositiveSizeShouldThrowException() {
+    new StringPool(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSizeAboveMaximumShouldThrowException() {
+    new StringPool(Integer.MAX_VALUE);
+  }
+
+  @Test
+  public void testMaximumSizeShouldBeAllowed() {
+    assertEquals("EUR", new StringPool(StringPool.MAX_SIZE).get("EUR"));
+  }
+}